@@ -19,12 +19,26 @@
 package li.pitschmann.knx.core.plugin.api;
 
 import io.javalin.Javalin;
+import io.javalin.core.compression.Brotli;
+import io.javalin.core.compression.Gzip;
+import io.javalin.http.Handler;
+import io.javalin.http.OutputStreamWrapper;
 import io.javalin.plugin.json.JavalinJson;
 import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.KnxAddress;
+import li.pitschmann.knx.core.body.Body;
+import li.pitschmann.knx.core.body.RoutingIndicationBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
 import li.pitschmann.knx.core.communication.KnxClient;
 import li.pitschmann.knx.core.plugin.ExtensionPlugin;
 import li.pitschmann.knx.core.plugin.IntegerConfigValue;
+import li.pitschmann.knx.core.plugin.LongConfigValue;
+import li.pitschmann.knx.core.plugin.ObserverPlugin;
+import li.pitschmann.knx.core.plugin.PathConfigValue;
+import li.pitschmann.knx.core.plugin.api.v1.admission.AdmissionControl;
 import li.pitschmann.knx.core.plugin.api.v1.controllers.HeartbeatController;
+import li.pitschmann.knx.core.plugin.api.v1.controllers.HistoryController;
+import li.pitschmann.knx.core.plugin.api.v1.controllers.MetricsController;
 import li.pitschmann.knx.core.plugin.api.v1.controllers.ProjectController;
 import li.pitschmann.knx.core.plugin.api.v1.controllers.ReadRequestController;
 import li.pitschmann.knx.core.plugin.api.v1.controllers.StatisticController;
@@ -32,7 +46,26 @@ import li.pitschmann.knx.core.plugin.api.v1.controllers.StatusController;
 import li.pitschmann.knx.core.plugin.api.v1.controllers.WriteRequestController;
 import li.pitschmann.knx.core.plugin.api.v1.gson.ApiGsonEngine;
 import li.pitschmann.knx.core.plugin.api.v1.json.ReadRequest;
+import li.pitschmann.knx.core.plugin.api.v1.json.StatusQueryRequest;
 import li.pitschmann.knx.core.plugin.api.v1.json.WriteRequest;
+import li.pitschmann.knx.core.plugin.api.v1.metrics.ApiMetrics;
+import li.pitschmann.knx.core.plugin.api.v1.statistic.StatisticHistory;
+import li.pitschmann.knx.core.plugin.api.v1.status.DecodedValueCache;
+import li.pitschmann.knx.core.plugin.api.v1.status.StatusIndex;
+import li.pitschmann.knx.core.plugin.api.v1.status.StatusTracker;
+import li.pitschmann.knx.core.plugin.statistic.AlignedScheduler;
+import li.pitschmann.knx.core.plugin.statistic.StatisticTrackers;
+import li.pitschmann.knx.core.utils.Preconditions;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpHeaderValue;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.LowResourceMonitor;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.StatisticsHandler;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,7 +74,7 @@ import java.util.Objects;
 /**
  * Plugin for KNX Core Plugin API (web server)
  */
-public final class ApiPlugin implements ExtensionPlugin {
+public final class ApiPlugin implements ObserverPlugin, ExtensionPlugin {
     /**
      * Default port
      */
@@ -50,9 +83,165 @@ public final class ApiPlugin implements ExtensionPlugin {
             () -> 8181,
             Objects::nonNull
     );
+    /**
+     * Path of Unix domain socket the web server listens to in addition to the port.
+     * Not set by default (disabled). Requires Java 16 or newer.
+     */
+    public static final PathConfigValue UNIX_SOCKET_PATH = new PathConfigValue(
+            "unixSocketPath",
+            () -> null,
+            null
+    );
+    /**
+     * Minimum number of threads of web server. Default 8.
+     */
+    public static final IntegerConfigValue MIN_THREADS = new IntegerConfigValue(
+            "minThreads",
+            () -> 8,
+            x -> x >= 1
+    );
+    /**
+     * Maximum number of threads of web server. Default 250.
+     */
+    public static final IntegerConfigValue MAX_THREADS = new IntegerConfigValue(
+            "maxThreads",
+            () -> 250,
+            x -> x >= 1
+    );
+    /**
+     * Time in milliseconds before an idle thread above {@link #MIN_THREADS} is stopped. Default 60 seconds.
+     */
+    public static final IntegerConfigValue THREAD_IDLE_TIMEOUT = new IntegerConfigValue(
+            "threadIdleTimeout",
+            () -> 60_000,
+            x -> x >= 0
+    );
+    /**
+     * Maximum number of jobs waiting for a thread of web server. Default 0 (unbounded).
+     * Connections whose jobs are rejected are closed.
+     */
+    public static final IntegerConfigValue MAX_QUEUED_JOBS = new IntegerConfigValue(
+            "maxQueuedJobs",
+            () -> 0,
+            x -> x >= 0
+    );
+    /**
+     * Size of the queue for connections that are not accepted yet. Default 0 (operating system default).
+     */
+    public static final IntegerConfigValue ACCEPT_QUEUE_SIZE = new IntegerConfigValue(
+            "acceptQueueSize",
+            () -> 0,
+            x -> x >= 0
+    );
+    /**
+     * Time in milliseconds before an idle connection (e.g. kept alive between requests) is closed. Default 30 seconds.
+     */
+    public static final LongConfigValue IDLE_TIMEOUT = new LongConfigValue(
+            "idleTimeout",
+            () -> 30_000L,
+            x -> x > 0
+    );
+    /**
+     * Maximum number of requests per connection before the connection is closed. Default 0 (unlimited).
+     * {@code 1} disables the keep-alive of connections.
+     */
+    public static final IntegerConfigValue MAX_REQUESTS_PER_CONNECTION = new IntegerConfigValue(
+            "maxRequestsPerConnection",
+            () -> 0,
+            x -> x >= 0
+    );
+    /**
+     * Maximum size of request header in bytes. Default 8 KiB.
+     */
+    public static final IntegerConfigValue REQUEST_HEADER_SIZE = new IntegerConfigValue(
+            "requestHeaderSize",
+            () -> 8192,
+            x -> x >= 1024
+    );
+    /**
+     * Maximum size of response header in bytes. Default 8 KiB.
+     */
+    public static final IntegerConfigValue RESPONSE_HEADER_SIZE = new IntegerConfigValue(
+            "responseHeaderSize",
+            () -> 8192,
+            x -> x >= 1024
+    );
+    /**
+     * Size of response buffer in bytes; larger responses are sent in chunks. Default 32 KiB.
+     */
+    public static final IntegerConfigValue OUTPUT_BUFFER_SIZE = new IntegerConfigValue(
+            "outputBufferSize",
+            () -> 32768,
+            x -> x >= 1024
+    );
+    /**
+     * Maximum number of concurrent requests per endpoint; requests over the limit are rejected
+     * with {@code 503 Service Unavailable}. Default 0 (unlimited).
+     */
+    public static final IntegerConfigValue MAX_CONCURRENT_REQUESTS = new IntegerConfigValue(
+            "maxConcurrentRequests",
+            () -> 0,
+            x -> x >= 0
+    );
+    /**
+     * Upper bound of the adaptive limit of concurrent requests for endpoints waiting for the KNX bus
+     * (read and write requests). Default 16. Zero applies {@link #MAX_CONCURRENT_REQUESTS} instead.
+     */
+    public static final IntegerConfigValue BUS_CONCURRENCY_LIMIT = new IntegerConfigValue(
+            "busConcurrencyLimit",
+            () -> 16,
+            x -> x >= 0
+    );
+    /**
+     * Latency target in milliseconds for endpoints waiting for the KNX bus; slower requests
+     * decrease the adaptive limit of concurrent requests. Default 1 second.
+     */
+    public static final LongConfigValue BUS_LATENCY_TARGET = new LongConfigValue(
+            "busLatencyTarget",
+            () -> 1_000L,
+            x -> x > 0
+    );
+    /**
+     * Minimum size of response body in bytes before it is compressed. Default 1500 bytes.
+     * <p>
+     * This is a JVM-wide setting of Javalin: the most recently started API plugin wins.
+     */
+    public static final IntegerConfigValue COMPRESSION_MIN_SIZE = new IntegerConfigValue(
+            "compressionMinSize",
+            () -> 1500,
+            x -> x >= 0
+    );
+    /**
+     * Level of gzip compression (1 = fastest, 9 = best compression). Default 6. Zero disables gzip.
+     */
+    public static final IntegerConfigValue GZIP_LEVEL = new IntegerConfigValue(
+            "gzipLevel",
+            () -> 6,
+            x -> x >= 0 && x <= 9
+    );
+    /**
+     * Level of brotli compression (1 = fastest, 11 = best compression). Default 0 (disabled).
+     * <p>
+     * Requires the optional {@code com.nixxcode.jvmbrotli:jvmbrotli} dependency on the classpath.
+     */
+    public static final IntegerConfigValue BROTLI_LEVEL = new IntegerConfigValue(
+            "brotliLevel",
+            () -> 0,
+            x -> x >= 0 && x <= 11
+    );
+
+    // minimum size for compression of Javalin before it has been changed by an API plugin
+    private static final int DEFAULT_MIN_SIZE_FOR_COMPRESSION = OutputStreamWrapper.Companion.getMinSizeForCompression();
 
     protected final Logger log = LoggerFactory.getLogger(getClass());
-    private final Javalin javalin = Javalin.create();
+    private final StatusTracker statusTracker = new StatusTracker();
+    private final DecodedValueCache decodedValueCache = new DecodedValueCache();
+    private final StatusIndex statusIndex = new StatusIndex();
+    private final ApiMetrics apiMetrics = new ApiMetrics();
+    private final StatisticHistory statisticHistory = new StatisticHistory();
+    private AdmissionControl admissionControl;
+    private AlignedScheduler.Task statisticTask;
+    private Javalin javalin;
     private KnxClient client;
     private int serverPort;
 
@@ -60,6 +249,105 @@ public final class ApiPlugin implements ExtensionPlugin {
     public void onInitialization(final KnxClient client) {
         this.client = Objects.requireNonNull(client);
         this.serverPort = client.getConfig(PORT);
+        final int brotliLevel = client.getConfig(BROTLI_LEVEL);
+        Preconditions.checkArgument(brotliLevel == 0 || isBrotliAvailable(),
+                "Brotli level ({}) requires the 'com.nixxcode.jvmbrotli:jvmbrotli' dependency on the classpath", brotliLevel);
+        this.admissionControl = new AdmissionControl(client.getConfig(MAX_CONCURRENT_REQUESTS),
+                client.getConfig(BUS_CONCURRENCY_LIMIT), client.getConfig(BUS_LATENCY_TARGET));
+        log.debug("Admission control for API: {}", admissionControl);
+
+        final int compressionMinSize = client.getConfig(COMPRESSION_MIN_SIZE);
+        final int gzipLevel = client.getConfig(GZIP_LEVEL);
+        log.debug("Compression for API: [minSize={}, gzipLevel={}, brotliLevel={}]", compressionMinSize, gzipLevel, brotliLevel);
+
+        // minimum size for compression is a global setting of Javalin
+        final int currentMinSize = OutputStreamWrapper.Companion.getMinSizeForCompression();
+        if (currentMinSize != compressionMinSize && currentMinSize != DEFAULT_MIN_SIZE_FOR_COMPRESSION) {
+            log.warn("Minimum size for compression is a JVM-wide setting and has been already set to {} bytes, " +
+                    "it is changed to {} bytes for all Javalin instances", currentMinSize, compressionMinSize);
+        }
+        OutputStreamWrapper.Companion.setMinSizeForCompression(compressionMinSize);
+        this.javalin = Javalin.create(config -> {
+            config.compressionStrategy(
+                    brotliLevel == 0 ? null : new Brotli(brotliLevel),
+                    gzipLevel == 0 ? null : new Gzip(gzipLevel)
+            );
+            config.server(this::createServer);
+        });
+    }
+
+    /**
+     * Returns if brotli compression is available. Javalin compresses with the optional
+     * jvmbrotli library, which is otherwise missing at the first compressed response only.
+     *
+     * @return {@code true} if jvmbrotli and its native library are available, otherwise {@code false}
+     */
+    static boolean isBrotliAvailable() {
+        try {
+            final var loader = Class.forName("com.nixxcode.jvmbrotli.common.BrotliLoader");
+            return (boolean) loader.getMethod("isBrotliAvailable").invoke(null);
+        } catch (final ReflectiveOperationException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates the Jetty server with thread pool, connectors and HTTP settings of configuration
+     * <p>
+     * The server has a connector for the port and, if configured, a connector for the Unix domain
+     * socket. The connector for the port must be the first one, Javalin reads the actual port from it.
+     *
+     * @return a new server
+     */
+    private Server createServer() {
+        final int minThreads = client.getConfig(MIN_THREADS);
+        final int maxThreads = client.getConfig(MAX_THREADS);
+        final int threadIdleTimeout = client.getConfig(THREAD_IDLE_TIMEOUT);
+        final int maxQueuedJobs = client.getConfig(MAX_QUEUED_JOBS);
+        final int acceptQueueSize = client.getConfig(ACCEPT_QUEUE_SIZE);
+        final long idleTimeout = client.getConfig(IDLE_TIMEOUT);
+        final int maxRequestsPerConnection = client.getConfig(MAX_REQUESTS_PER_CONNECTION);
+        final var unixSocketPath = client.getConfig(UNIX_SOCKET_PATH);
+        Preconditions.checkArgument(minThreads <= maxThreads,
+                "Minimum threads ({}) must not be greater than maximum threads ({})", minThreads, maxThreads);
+        log.debug("Web Server for API: [minThreads={}, maxThreads={}, threadIdleTimeout={}, maxQueuedJobs={}, "
+                        + "acceptQueueSize={}, idleTimeout={}, maxRequestsPerConnection={}, unixSocketPath={}]",
+                minThreads, maxThreads, threadIdleTimeout, maxQueuedJobs, acceptQueueSize, idleTimeout,
+                maxRequestsPerConnection, unixSocketPath);
+
+        // default queue of thread pool is unbounded
+        final var queue = maxQueuedJobs == 0 ? null
+                : new BlockingArrayQueue<Runnable>(Math.min(minThreads, maxQueuedJobs), minThreads, maxQueuedJobs);
+        final var server = new Server(new QueuedThreadPool(maxThreads, minThreads, threadIdleTimeout, queue));
+        // same as the default server of Javalin
+        server.addBean(new LowResourceMonitor(server));
+        server.insertHandler(new StatisticsHandler());
+
+        final var httpConfiguration = new HttpConfiguration();
+        httpConfiguration.setRequestHeaderSize(client.getConfig(REQUEST_HEADER_SIZE));
+        httpConfiguration.setResponseHeaderSize(client.getConfig(RESPONSE_HEADER_SIZE));
+        httpConfiguration.setOutputBufferSize(client.getConfig(OUTPUT_BUFFER_SIZE));
+        if (maxRequestsPerConnection > 0) {
+            // the HTTP channel is re-used for all requests of a connection
+            httpConfiguration.addCustomizer((connector, configuration, request) -> {
+                if (request.getHttpChannel().getRequests() >= maxRequestsPerConnection) {
+                    request.getResponse().setHeader(HttpHeader.CONNECTION, HttpHeaderValue.CLOSE.asString());
+                }
+            });
+        }
+
+        final var connector = new ServerConnector(server, new HttpConnectionFactory(httpConfiguration));
+        connector.setPort(serverPort);
+        connector.setAcceptQueueSize(acceptQueueSize);
+        connector.setIdleTimeout(idleTimeout);
+        server.addConnector(connector);
+
+        if (unixSocketPath != null) {
+            final var unixSocketConnector = new UnixDomainSocketConnector(server, unixSocketPath, new HttpConnectionFactory(httpConfiguration));
+            unixSocketConnector.setIdleTimeout(idleTimeout);
+            server.addConnector(unixSocketConnector);
+        }
+        return server;
     }
 
     @Override
@@ -69,34 +357,43 @@ public final class ApiPlugin implements ExtensionPlugin {
 
         final var gson = ApiGsonEngine.INSTANCE.getGson();
         JavalinJson.setFromJsonMapper(gson::fromJson);
-        JavalinJson.setToJsonMapper(gson::toJson);
+        JavalinJson.setToJsonMapper(obj -> apiMetrics.getSerializationLatency().time(() -> gson.toJson(obj)));
 
         /*
          * Heartbeat Controller
          * Endpoint: /api/v1/ping
          */
         final var heartbeatController = new HeartbeatController(client);
-        javalin.get("/api/v1/ping", heartbeatController::ping);
+        get("/api/v1/ping", heartbeatController::ping);
+
+        /*
+         * Metrics Controller
+         * Endpoint: /api/v1/metrics
+         */
+        final var metricsController = new MetricsController(client, apiMetrics);
+        get("/api/v1/metrics", metricsController::getMetrics);
 
         /*
          * Project Controller
          * Endpoints:
          *   /api/v1/project
          *   /api/v1/project/..
+         *   /api/v1/project/search
          */
         final var projectController = new ProjectController(client);
-        javalin.get("/api/v1/project", projectController::projectStructure);
-        javalin.get("/api/v1/project/ranges", projectController::getGroupRanges);
-        javalin.get("/api/v1/project/ranges/:main", ctx -> {
+        get("/api/v1/project", projectController::projectStructure);
+        get("/api/v1/project/ranges", projectController::getGroupRanges);
+        get("/api/v1/project/ranges/:main", ctx -> {
             final int main = Integer.parseInt(ctx.pathParam("main"));
             projectController.getGroupRanges(ctx, main);
         });
-        javalin.get("/api/v1/project/addresses", projectController::getGroupAddresses);
-        javalin.get("/api/v1/project/addresses/:main", ctx -> {
+        get("/api/v1/project/addresses", projectController::getGroupAddresses);
+        get("/api/v1/project/search", projectController::searchGroupAddresses);
+        get("/api/v1/project/addresses/:main", ctx -> {
             final int main = Integer.parseInt(ctx.pathParam("main"));
             projectController.getGroupAddresses(ctx, main);
         });
-        javalin.get("/api/v1/project/addresses/:main/:middle", ctx -> {
+        get("/api/v1/project/addresses/:main/:middle", ctx -> {
             final int main = Integer.parseInt(ctx.pathParam("main"));
             final int middle = Integer.parseInt(ctx.pathParam("middle"));
             projectController.getGroupAddresses(ctx, main, middle);
@@ -106,45 +403,88 @@ public final class ApiPlugin implements ExtensionPlugin {
          * Read Request Controller
          * Endpoint: /api/v1/read
          */
-        final var readRequestController = new ReadRequestController(client);
-        javalin.post("/api/v1/read", ctx -> {
+        final var readRequestController = new ReadRequestController(client, apiMetrics.getBusReadLatency(), decodedValueCache);
+        postBusRequest("/api/v1/read", ctx -> {
             final var readRequest = JavalinJson.fromJson(ctx.body(), ReadRequest.class);
             readRequestController.readRequest(ctx, readRequest);
         });
 
         /*
          * Statistic Controller
-         * Endpoint: /api/v1/statistic
+         * Endpoints:
+         *   /api/v1/statistic
+         *   /api/v1/statistic/metrics
+         *   /api/v1/statistic/history
+         *   /api/v1/statistic/traffic
+         *   /api/v1/statistic/latency
+         *   /api/v1/statistic/busload
+         *   /api/v1/statistic/anomalies
          */
-        final var statisticController = new StatisticController(client);
-        javalin.get("/api/v1/statistic", statisticController::getStatistic);
+        // traffic, latency, bus load and anomalies are tracked by the statistic plug-ins (if installed)
+        final var statisticController = new StatisticController(client, statisticHistory, () -> StatisticTrackers.get(client));
+        get("/api/v1/statistic", statisticController::getStatistic);
+        get("/api/v1/statistic/metrics", statisticController::getStatisticMetrics);
+        get("/api/v1/statistic/history", statisticController::getStatisticHistory);
+        get("/api/v1/statistic/traffic", statisticController::getStatisticTraffic);
+        get("/api/v1/statistic/latency", statisticController::getStatisticLatency);
+        get("/api/v1/statistic/busload", statisticController::getStatisticBusLoad);
+        get("/api/v1/statistic/anomalies", statisticController::getStatisticAnomalies);
+        recordStatistic();
+        statisticTask = AlignedScheduler.shared().schedule(getClass().getSimpleName() + "-statistic", this::recordStatistic, 1000L);
 
         /*
          * Status Controller
          * Endpoints:
          *   /api/v1/status
+         *   /api/v1/status/query
          *   /api/v1/status/..
          */
-        final var statusController = new StatusController(client);
-        javalin.get("/api/v1/status", statusController::statusAll);
-        javalin.get("/api/v1/status/:address", ctx -> {
+        final var statusController = new StatusController(client, statusTracker, decodedValueCache, statusIndex);
+        get("/api/v1/status", statusController::statusAll);
+        post("/api/v1/status/query", ctx -> {
+            final var queryRequest = JavalinJson.fromJson(ctx.body(), StatusQueryRequest.class);
+            statusController.statusQuery(ctx, queryRequest);
+        });
+        get("/api/v1/status/:address", ctx -> {
             final var address = Integer.valueOf(ctx.pathParam("address"));
             statusController.statusOne(ctx, GroupAddress.of(address));
         });
-        javalin.get("/api/v1/status/:main/:sub", ctx -> {
+        get("/api/v1/status/:main/:sub", ctx -> {
             final var main = Integer.valueOf(ctx.pathParam("main"));
             final var sub = Integer.valueOf(ctx.pathParam("sub"));
             statusController.statusOne(ctx, GroupAddress.of(main, sub));
         });
-        javalin.get("/api/v1/status/:main/:middle/:sub", ctx -> {
+        get("/api/v1/status/:main/:middle/:sub", ctx -> {
             final var main = Integer.valueOf(ctx.pathParam("main"));
             final var middle = Integer.valueOf(ctx.pathParam("middle"));
             final var sub = Integer.valueOf(ctx.pathParam("sub"));
             statusController.statusOne(ctx, GroupAddress.of(main, middle, sub));
         });
 
-        final var writeRequestController = new WriteRequestController(client);
-        javalin.post("/api/v1/write", ctx -> {
+        /*
+         * History Controller
+         * Endpoints:
+         *   /api/v1/history/..
+         */
+        final var historyController = new HistoryController(client);
+        get("/api/v1/history/:address", ctx -> {
+            final var address = Integer.valueOf(ctx.pathParam("address"));
+            historyController.history(ctx, GroupAddress.of(address));
+        });
+        get("/api/v1/history/:main/:sub", ctx -> {
+            final var main = Integer.valueOf(ctx.pathParam("main"));
+            final var sub = Integer.valueOf(ctx.pathParam("sub"));
+            historyController.history(ctx, GroupAddress.of(main, sub));
+        });
+        get("/api/v1/history/:main/:middle/:sub", ctx -> {
+            final var main = Integer.valueOf(ctx.pathParam("main"));
+            final var middle = Integer.valueOf(ctx.pathParam("middle"));
+            final var sub = Integer.valueOf(ctx.pathParam("sub"));
+            historyController.history(ctx, GroupAddress.of(main, middle, sub));
+        });
+
+        final var writeRequestController = new WriteRequestController(client, apiMetrics.getBusWriteLatency());
+        postBusRequest("/api/v1/write", ctx -> {
             final var writeRequest = JavalinJson.fromJson(ctx.body(), WriteRequest.class);
             writeRequestController.writeRequest(ctx, writeRequest);
         });
@@ -154,10 +494,91 @@ public final class ApiPlugin implements ExtensionPlugin {
 
     @Override
     public void onShutdown() {
+        if (statisticTask != null) {
+            statisticTask.close();
+        }
         javalin.stop();
         log.debug("API Plugin and Web Server stopped.");
     }
 
+    /**
+     * Records the current statistic of KNX client to the history
+     */
+    private void recordStatistic() {
+        try {
+            statisticHistory.record(System.currentTimeMillis(), client.getStatistic());
+        } catch (final RuntimeException ex) {
+            // do not cancel the periodic recording
+            log.warn("Could not record the statistic", ex);
+        }
+    }
+
+    /**
+     * Registers the GET endpoint with admission control and metrics instrumentation
+     *
+     * @param path    the path of endpoint
+     * @param handler the handler of endpoint
+     */
+    private void get(final String path, final Handler handler) {
+        javalin.get(path, apiMetrics.instrument("GET", path, admissionControl.limit("GET", path, handler)));
+    }
+
+    /**
+     * Registers the POST endpoint with admission control and metrics instrumentation
+     *
+     * @param path    the path of endpoint
+     * @param handler the handler of endpoint
+     */
+    private void post(final String path, final Handler handler) {
+        javalin.post(path, apiMetrics.instrument("POST", path, admissionControl.limit("POST", path, handler)));
+    }
+
+    /**
+     * Registers the POST endpoint waiting for the KNX bus with adaptive admission control
+     * and metrics instrumentation. Rejected requests are counted by metrics as well.
+     *
+     * @param path    the path of endpoint
+     * @param handler the handler of endpoint
+     */
+    private void postBusRequest(final String path, final Handler handler) {
+        javalin.post(path, apiMetrics.instrument("POST", path, admissionControl.limitBus("POST", path, handler)));
+    }
+
+    @Override
+    public void onIncomingBody(final Body item) {
+        trackStatusChange(item);
+    }
+
+    @Override
+    public void onOutgoingBody(final Body item) {
+        trackStatusChange(item);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        // NO-OP
+    }
+
+    /**
+     * Notifies the {@link StatusTracker}, invalidates the {@link DecodedValueCache} and
+     * updates the {@link StatusIndex} when the {@link Body} may change the status pool of KNX client
+     *
+     * @param body the body to be checked
+     */
+    private void trackStatusChange(final Body body) {
+        final KnxAddress address;
+        if (body instanceof TunnelingRequestBody) {
+            address = ((TunnelingRequestBody) body).getCEMI().getDestinationAddress();
+        } else if (body instanceof RoutingIndicationBody) {
+            address = ((RoutingIndicationBody) body).getCEMI().getDestinationAddress();
+        } else {
+            return;
+        }
+        statusTracker.onChange(address);
+        decodedValueCache.invalidate(address);
+        statusIndex.add(address);
+    }
+
     /**
      * Returns the configured port
      *
@@ -0,0 +1,257 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api;
+
+import org.eclipse.jetty.io.ChannelEndPoint;
+import org.eclipse.jetty.io.Connection;
+import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.io.ManagedSelector;
+import org.eclipse.jetty.io.SelectorManager;
+import org.eclipse.jetty.server.AbstractConnector;
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
+/**
+ * Jetty connector that accepts HTTP connections on a Unix domain socket
+ * <p>
+ * Local clients avoid the TCP/IP stack and no network port is needed. The same handlers
+ * (controllers, JSON, compression) are served as by the TCP connector of web server.
+ * <p>
+ * Unix domain sockets are supported by {@link ServerSocketChannel} since Java 16; as the
+ * plugin is compiled for Java 11, the Java 16 API is looked up at runtime (see {@link #isSupported()}).
+ */
+final class UnixDomainSocketConnector extends AbstractConnector {
+    private static final Logger log = LoggerFactory.getLogger(UnixDomainSocketConnector.class);
+    private static final MethodHandle UNIX_DOMAIN_SOCKET_ADDRESS_OF;
+    private static final MethodHandle SERVER_SOCKET_CHANNEL_OPEN;
+    private static final ProtocolFamily UNIX;
+    private final Path path;
+    private final SelectorManager selectorManager;
+    private volatile ServerSocketChannel acceptChannel;
+
+    static {
+        MethodHandle addressOf = null;
+        MethodHandle channelOpen = null;
+        ProtocolFamily unix = null;
+        try {
+            final var lookup = MethodHandles.publicLookup();
+            final var addressClass = Class.forName("java.net.UnixDomainSocketAddress");
+            addressOf = lookup.findStatic(addressClass, "of", MethodType.methodType(addressClass, Path.class));
+            channelOpen = lookup.findStatic(ServerSocketChannel.class, "open", MethodType.methodType(ServerSocketChannel.class, ProtocolFamily.class));
+            unix = StandardProtocolFamily.valueOf("UNIX");
+        } catch (final ReflectiveOperationException | IllegalArgumentException ex) {
+            log.debug("Unix domain sockets are not supported by Java runtime: {}", Runtime.version());
+        }
+        UNIX_DOMAIN_SOCKET_ADDRESS_OF = addressOf;
+        SERVER_SOCKET_CHANNEL_OPEN = channelOpen;
+        UNIX = unix;
+    }
+
+    /**
+     * Creates a connector for Unix domain socket at {@code path}
+     *
+     * @param server    the Jetty server
+     * @param path      path of Unix domain socket file
+     * @param factories the connection factories, e.g. {@link HttpConnectionFactory}
+     */
+    UnixDomainSocketConnector(final Server server, final Path path, final ConnectionFactory... factories) {
+        // executor and scheduler of server, one acceptor thread
+        super(server, null, null, null, 1, factories);
+        this.path = path;
+        this.selectorManager = new UnixDomainSocketSelectorManager(getExecutor(), getScheduler());
+        addBean(selectorManager, true);
+    }
+
+    /**
+     * Returns if Unix domain sockets are supported by Java runtime (Java 16+)
+     *
+     * @return {@code true} if supported
+     */
+    static boolean isSupported() {
+        return UNIX != null;
+    }
+
+    /**
+     * Returns the path of Unix domain socket file
+     *
+     * @return path
+     */
+    Path getPath() {
+        return path;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        if (!isSupported()) {
+            throw new IOException("Unix domain sockets require Java 16 or newer: " + path);
+        }
+        // a socket file of previous run must be deleted before bind, but never a regular file or directory
+        if (Files.isRegularFile(path) || Files.isDirectory(path)) {
+            throw new IOException("Path exists and is not a Unix domain socket: " + path);
+        }
+        Files.deleteIfExists(path);
+        final var channel = openServerSocketChannel();
+        try {
+            channel.bind(unixDomainSocketAddress(path));
+        } catch (final IOException ex) {
+            channel.close();
+            throw ex;
+        }
+        acceptChannel = channel;
+        super.doStart();
+        log.debug("Listening on Unix domain socket: {}", path);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        // closing the channel releases the acceptor blocked in accept()
+        final var channel = acceptChannel;
+        acceptChannel = null;
+        if (channel != null) {
+            channel.close();
+        }
+        super.doStop();
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    protected void accept(final int acceptorID) throws IOException {
+        final var channel = acceptChannel;
+        if (channel != null && channel.isOpen()) {
+            final var socketChannel = channel.accept();
+            socketChannel.configureBlocking(false);
+            selectorManager.accept(socketChannel);
+        }
+    }
+
+    @Override
+    public Object getTransport() {
+        return acceptChannel;
+    }
+
+    private static ServerSocketChannel openServerSocketChannel() throws IOException {
+        try {
+            return (ServerSocketChannel) SERVER_SOCKET_CHANNEL_OPEN.invoke(UNIX);
+        } catch (final IOException | RuntimeException | Error ex) {
+            throw ex;
+        } catch (final Throwable t) {
+            throw new IOException("Could not open Unix domain socket channel", t);
+        }
+    }
+
+    private static SocketAddress unixDomainSocketAddress(final Path path) throws IOException {
+        try {
+            return (SocketAddress) UNIX_DOMAIN_SOCKET_ADDRESS_OF.invoke(path);
+        } catch (final RuntimeException | Error ex) {
+            throw ex;
+        } catch (final Throwable t) {
+            throw new IOException("Could not create Unix domain socket address: " + path, t);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s@%x{%s}", getClass().getSimpleName(), hashCode(), path);
+    }
+
+    /**
+     * Selector manager for accepted Unix domain socket channels
+     */
+    private final class UnixDomainSocketSelectorManager extends SelectorManager {
+        private UnixDomainSocketSelectorManager(final Executor executor, final Scheduler scheduler) {
+            super(executor, scheduler, 1);
+        }
+
+        @Override
+        protected EndPoint newEndPoint(final SelectableChannel channel, final ManagedSelector selector, final SelectionKey key) {
+            final var endPoint = new UnixDomainSocketEndPoint((SocketChannel) channel, selector, key, getScheduler());
+            endPoint.setIdleTimeout(getIdleTimeout());
+            return endPoint;
+        }
+
+        @Override
+        public Connection newConnection(final SelectableChannel channel, final EndPoint endPoint, final Object attachment) {
+            return getDefaultConnectionFactory().newConnection(UnixDomainSocketConnector.this, endPoint);
+        }
+
+        @Override
+        protected void endPointOpened(final EndPoint endPoint) {
+            super.endPointOpened(endPoint);
+            onEndPointOpened(endPoint);
+        }
+
+        @Override
+        protected void endPointClosed(final EndPoint endPoint) {
+            onEndPointClosed(endPoint);
+            super.endPointClosed(endPoint);
+        }
+    }
+
+    /**
+     * End point of an accepted Unix domain socket channel
+     * <p>
+     * Unix domain socket channels have no {@link java.net.Socket} and no internet addresses,
+     * the methods of {@link ChannelEndPoint} depending on them are overridden.
+     */
+    private static final class UnixDomainSocketEndPoint extends ChannelEndPoint {
+        private UnixDomainSocketEndPoint(final SocketChannel channel, final ManagedSelector selector,
+                                         final SelectionKey key, final Scheduler scheduler) {
+            super(channel, selector, key, scheduler);
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        protected void doShutdownOutput() {
+            try {
+                getChannel().shutdownOutput();
+            } catch (final IOException ex) {
+                log.debug("Could not shutdown output of Unix domain socket channel", ex);
+            }
+        }
+    }
+}
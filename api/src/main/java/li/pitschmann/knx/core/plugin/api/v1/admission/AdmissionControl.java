@@ -0,0 +1,157 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.admission;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import li.pitschmann.knx.core.utils.Preconditions;
+import li.pitschmann.knx.core.utils.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Admission control of API endpoints
+ * <p>
+ * The number of concurrent requests is limited per endpoint. A request over the limit is
+ * rejected immediately with {@code 503 Service Unavailable} and a {@code Retry-After} header
+ * instead of occupying a thread of the web server.
+ * <p>
+ * Endpoints waiting for the KNX bus (read and write requests) have an adaptive limit that
+ * shrinks when the KNX bus is slow or does not acknowledge, see {@link ConcurrencyLimit}.
+ * Waiting requests of a slow KNX bus cannot pile up and cheap endpoints like status stay responsive.
+ */
+public final class AdmissionControl {
+    /**
+     * Seconds the HTTP client should wait before retrying a rejected request
+     */
+    static final int RETRY_AFTER_SECONDS = 1;
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControl.class);
+    private final Map<String, ConcurrencyLimit> limits = new ConcurrentSkipListMap<>();
+    private final int maxConcurrentRequests;
+    private final int busConcurrencyLimit;
+    private final long busLatencyTarget;
+
+    /**
+     * Creates the admission control
+     *
+     * @param maxConcurrentRequests maximum number of concurrent requests per endpoint, {@code 0} for unlimited
+     * @param busConcurrencyLimit   upper bound of adaptive limit per endpoint waiting for KNX bus,
+     *                              {@code 0} to apply {@code maxConcurrentRequests} instead
+     * @param busLatencyTarget      latency target in milliseconds of endpoints waiting for KNX bus
+     */
+    public AdmissionControl(final int maxConcurrentRequests, final int busConcurrencyLimit, final long busLatencyTarget) {
+        Preconditions.checkArgument(maxConcurrentRequests >= 0, "Max concurrent requests must be 0 or greater: {}", maxConcurrentRequests);
+        Preconditions.checkArgument(busConcurrencyLimit >= 0, "Bus concurrency limit must be 0 or greater: {}", busConcurrencyLimit);
+        Preconditions.checkArgument(busLatencyTarget > 0, "Bus latency target must be positive: {}", busLatencyTarget);
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.busConcurrencyLimit = busConcurrencyLimit;
+        this.busLatencyTarget = busLatencyTarget;
+    }
+
+    /**
+     * Returns a {@link Handler} that admits requests up to the fixed limit per endpoint
+     * and delegates them to the given {@code handler}
+     *
+     * @param method  the HTTP method (e.g. GET, POST)
+     * @param route   the route of endpoint (e.g. /api/v1/status/:address)
+     * @param handler the handler to be limited
+     * @return limited handler, or the given {@code handler} if unlimited
+     */
+    public Handler limit(final String method, final String route, final Handler handler) {
+        if (maxConcurrentRequests == 0) {
+            return Objects.requireNonNull(handler);
+        }
+        return limit(method, route, handler, ConcurrencyLimit.fixed(maxConcurrentRequests));
+    }
+
+    /**
+     * Returns a {@link Handler} that admits requests up to the adaptive limit of
+     * an endpoint waiting for KNX bus and delegates them to the given {@code handler}.
+     * A response with status code {@code 5xx} is considered as failure of KNX bus.
+     *
+     * @param method  the HTTP method (e.g. GET, POST)
+     * @param route   the route of endpoint (e.g. /api/v1/read)
+     * @param handler the handler to be limited
+     * @return limited handler
+     */
+    public Handler limitBus(final String method, final String route, final Handler handler) {
+        if (busConcurrencyLimit == 0) {
+            return limit(method, route, handler);
+        }
+        return limit(method, route, handler, ConcurrencyLimit.adaptive(1, busConcurrencyLimit, busLatencyTarget));
+    }
+
+    private Handler limit(final String method, final String route, final Handler handler, final ConcurrencyLimit limit) {
+        Objects.requireNonNull(method);
+        Objects.requireNonNull(route);
+        Objects.requireNonNull(handler);
+        final var endpoint = route + " " + method;
+        limits.put(endpoint, limit);
+        return ctx -> handle(ctx, endpoint, limit, handler);
+    }
+
+    private static void handle(final Context ctx, final String endpoint, final ConcurrencyLimit limit, final Handler handler) throws Exception {
+        if (!limit.tryAcquire()) {
+            log.debug("Request rejected for endpoint '{}': {}", endpoint, limit);
+            ctx.header("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+            ctx.status(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+        final var start = System.nanoTime();
+        var handled = false;
+        try {
+            handler.handle(ctx);
+            handled = true;
+        } finally {
+            // asynchronous request (e.g. long polling) keeps the permit until its result is completed
+            final var future = handled ? ctx.resultFuture() : null;
+            if (future != null) {
+                future.whenComplete((result, throwable) -> limit.release(System.nanoTime() - start,
+                        throwable != null || ctx.status() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR));
+            } else {
+                limit.release(System.nanoTime() - start, !handled || ctx.status() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        }
+    }
+
+    /**
+     * Returns the limits of endpoints
+     *
+     * @return unmodifiable map of endpoint (route and HTTP method) to its limit
+     */
+    public Map<String, ConcurrencyLimit> getLimits() {
+        return Collections.unmodifiableMap(limits);
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("maxConcurrentRequests", maxConcurrentRequests) //
+                .add("busConcurrencyLimit", busConcurrencyLimit) //
+                .add("busLatencyTarget", busLatencyTarget) //
+                .add("limits", limits) //
+                .toString();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.admission;
+
+import li.pitschmann.knx.core.utils.Preconditions;
+import li.pitschmann.knx.core.utils.Strings;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limit of concurrent requests of an API endpoint
+ * <p>
+ * A fixed limit never changes. An adaptive limit follows the AIMD (additive increase,
+ * multiplicative decrease) algorithm: when a request took longer than the latency target
+ * or failed, the limit is multiplied by {@value #BACKOFF_RATIO}. Otherwise the limit grows
+ * by one per round of {@code limit} requests, but only while at least half of the limit
+ * is in use; an idle endpoint does not inflate its limit.
+ * The adaptive limit starts at its maximum.
+ */
+public final class ConcurrencyLimit {
+    private static final double BACKOFF_RATIO = 0.9;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+
+    private ConcurrencyLimit(final int minLimit, final int maxLimit, final long latencyTargetNanos) {
+        Preconditions.checkArgument(minLimit >= 1 && minLimit <= maxLimit,
+                "Minimum limit must be between 1 and maximum limit ({}): {}", maxLimit, minLimit);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.limit = maxLimit;
+    }
+
+    /**
+     * Creates a limit that never changes
+     *
+     * @param limit the maximum number of concurrent requests
+     * @return a new fixed limit
+     */
+    public static ConcurrencyLimit fixed(final int limit) {
+        return new ConcurrencyLimit(limit, limit, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a limit that adapts to the observed latency of requests
+     *
+     * @param minLimit      the lower bound of limit
+     * @param maxLimit      the upper bound and initial limit
+     * @param latencyTarget the latency target in milliseconds; slower requests decrease the limit
+     * @return a new adaptive limit
+     */
+    public static ConcurrencyLimit adaptive(final int minLimit, final int maxLimit, final long latencyTarget) {
+        Preconditions.checkArgument(latencyTarget > 0, "Latency target must be positive: {}", latencyTarget);
+        return new ConcurrencyLimit(minLimit, maxLimit, TimeUnit.MILLISECONDS.toNanos(latencyTarget));
+    }
+
+    /**
+     * Acquires a permit for a request if the limit is not reached. A successful
+     * call must be followed by {@link #release(long, boolean)}.
+     *
+     * @return {@code true} if the request is admitted, otherwise {@code false}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            final var current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases the permit of an admitted request and adapts the limit
+     *
+     * @param nanos   the duration of request in nanoseconds
+     * @param dropped {@code true} if the request failed, e.g. timeout of KNX bus
+     */
+    public void release(final long nanos, final boolean dropped) {
+        final var current = inFlight.getAndDecrement();
+        if (minLimit == maxLimit) {
+            return;
+        }
+        synchronized (this) {
+            if (dropped || nanos > latencyTargetNanos) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else if (current * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    /**
+     * Returns the current limit
+     *
+     * @return maximum number of concurrent requests
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Returns the number of admitted requests in progress
+     *
+     * @return number of requests in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns the total number of rejected requests
+     *
+     * @return number of rejected requests
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("limit", getLimit()) //
+                .add("minLimit", minLimit) //
+                .add("maxLimit", maxLimit) //
+                .add("inFlight", getInFlight()) //
+                .add("rejected", getRejected()) //
+                .toString();
+    }
+}
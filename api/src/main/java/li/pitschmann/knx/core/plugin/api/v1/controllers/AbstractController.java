@@ -19,14 +19,24 @@
 package li.pitschmann.knx.core.plugin.api.v1.controllers;
 
 import io.javalin.http.Context;
+import li.pitschmann.knx.core.annotations.Nullable;
 import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.plugin.api.v1.gson.FieldSetSerializer;
+import li.pitschmann.knx.core.plugin.api.v1.gson.FieldSetSerializer.FieldSet;
 import li.pitschmann.knx.core.utils.Preconditions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.servlet.http.HttpServletResponse;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -36,6 +46,11 @@ import java.util.stream.Collectors;
  */
 public abstract class AbstractController {
     private static final Logger log = LoggerFactory.getLogger(AbstractController.class);
+    /**
+     * Preferred format of HTTP dates (IMF-fixdate) according to RFC 7231, e.g. {@code Sun, 06 Nov 1994 08:49:37 GMT}
+     */
+    private static final DateTimeFormatter HTTP_DATE_FORMATTER = DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+            .withZone(ZoneOffset.UTC);
     private KnxClient knxClient;
 
     protected AbstractController(final KnxClient knxClient) {
@@ -71,6 +86,129 @@ public abstract class AbstractController {
         }
     }
 
+    /**
+     * Returns the compiled {@link FieldSet} requested by {@code fields} request parameter
+     * (comma-separated field names) to return a subset of fields only.
+     *
+     * @param ctx        the context from Javalin
+     * @param serializer the field set serializer of response type
+     * @param <T>        the type of response
+     * @return the field set, or {@code null} if all fields are requested
+     * @throws IllegalArgumentException if the request parameter contains an unknown field
+     */
+    @Nullable
+    protected final <T> FieldSet<T> getFieldSet(final Context ctx, final FieldSetSerializer<T> serializer) {
+        final List<String> strValues = ctx.queryParamMap().get("fields");
+        if (strValues == null || strValues.isEmpty()) {
+            return null;
+        }
+        return serializer.getFieldSet(String.join(",", strValues));
+    }
+
+    /**
+     * Sets the JSON response body with fields of {@code fieldSet} only
+     *
+     * @param ctx      the context from Javalin
+     * @param fieldSet the field set; if {@code null} all fields are returned
+     * @param obj      the response or collection of responses
+     */
+    protected final void json(final Context ctx, final @Nullable FieldSet<?> fieldSet, final Object obj) {
+        ctx.json(fieldSet == null ? obj : fieldSet.select(obj));
+    }
+
+    /**
+     * Applies the {@code ETag} and {@code Last-Modified} headers to the response and
+     * checks if the client has already the current representation of the resource.
+     * <p>
+     * If the {@code If-None-Match} header matches the {@code etag} (or the
+     * {@code If-Modified-Since} header is not older than {@code lastModified} when
+     * no {@code If-None-Match} is present), the HTTP status code is set to
+     * {@code 304 Not Modified} and the caller should not write any response body.
+     *
+     * @param ctx          the context from Javalin
+     * @param etag         the weak entity tag of current representation (without quotes)
+     * @param lastModified the last modification time of current representation
+     * @return {@code true} if the resource is not modified, {@code false} otherwise
+     */
+    protected final boolean isNotModified(final Context ctx, final String etag, final Instant lastModified) {
+        final var quotedEtag = "W/\"" + etag + "\"";
+        ctx.header("ETag", quotedEtag);
+        ctx.header("Last-Modified", HTTP_DATE_FORMATTER.format(lastModified));
+
+        final boolean notModified;
+        final var ifNoneMatch = ctx.req.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            notModified = matchesEtag(ifNoneMatch, etag);
+        } else {
+            notModified = isNotModifiedSince(ctx.req.getHeader("If-Modified-Since"), lastModified);
+        }
+
+        if (notModified) {
+            log.trace("Resource not modified: etag={}, lastModified={}", etag, lastModified);
+            ctx.status(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+        return notModified;
+    }
+
+    /**
+     * Returns if one of entity tags in {@code If-None-Match} header matches the given {@code etag}.
+     * According to RFC 7232 the weak comparison is used for {@code If-None-Match}.
+     *
+     * @param ifNoneMatch the value of {@code If-None-Match} header
+     * @param etag        the entity tag of current representation (without quotes)
+     * @return {@code true} if matches, {@code false} otherwise
+     */
+    private boolean matchesEtag(final String ifNoneMatch, final String etag) {
+        final var opaqueEtag = "\"" + etag + "\"";
+        for (final var token : ifNoneMatch.split(",")) {
+            final var trimmed = token.trim();
+            if ("*".equals(trimmed) || opaqueEtag.equals(trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns if the {@code lastModified} is not after the date of {@code If-Modified-Since} header.
+     * As HTTP dates have a precision of seconds, the milliseconds are not considered.
+     *
+     * @param ifModifiedSince the value of {@code If-Modified-Since} header; may be null
+     * @param lastModified    the last modification time of resource
+     * @return {@code true} if not modified since the given date, {@code false} otherwise
+     */
+    private boolean isNotModifiedSince(final @Nullable String ifModifiedSince, final Instant lastModified) {
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        try {
+            final var since = ZonedDateTime.parse(ifModifiedSince, HTTP_DATE_FORMATTER).toEpochSecond();
+            return lastModified.getEpochSecond() <= since;
+        } catch (final DateTimeParseException ex) {
+            log.debug("Could not parse the 'If-Modified-Since' header: {}", ifModifiedSince);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the {@code long} value of {@code parameterName} from query string. If not present,
+     * then return the {@code defaultValue}
+     *
+     * @param ctx           the context from Javalin
+     * @param parameterName the name of parameter from query string map
+     * @param defaultValue  the default value
+     * @return the value from query string, if not present then {@code defaultValue}
+     * @throws NumberFormatException if the value from query string is not a number
+     */
+    protected final long getLongParameter(final Context ctx, final String parameterName, final long defaultValue) {
+        final List<String> strValues = ctx.queryParamMap().get(parameterName);
+        if (strValues == null || strValues.isEmpty()) {
+            return defaultValue;
+        } else {
+            return Long.parseLong(strValues.get(0));
+        }
+    }
+
     /**
      * Returns the value of {@code parameterName} from query string. If not present,
      * then return the {@code defaultValue}
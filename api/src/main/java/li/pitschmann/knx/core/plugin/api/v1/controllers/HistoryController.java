@@ -0,0 +1,132 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.controllers;
+
+import io.javalin.http.Context;
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.annotations.Nullable;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.datapoint.DataPointRegistry;
+import li.pitschmann.knx.core.datapoint.DataPointType;
+import li.pitschmann.knx.core.plugin.api.v1.history.GroupValueHistory;
+import li.pitschmann.knx.core.plugin.api.v1.json.GroupValueHistoryResponse;
+import li.pitschmann.knx.core.plugin.history.GroupValueHistoryPlugin;
+import li.pitschmann.knx.core.utils.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Controller for requesting the history of group values
+ * recorded by {@link GroupValueHistoryPlugin}
+ * <p>
+ * If the {@link GroupValueHistoryPlugin} is not installed, the history is not
+ * available and requests are answered with {@code 503 Service Unavailable}.
+ */
+public final class HistoryController extends AbstractController {
+    private static final Logger log = LoggerFactory.getLogger(HistoryController.class);
+    private static final GroupValueHistoryResponse EMPTY_RESPONSE = new GroupValueHistoryResponse();
+    private static final long DEFAULT_DURATION_MS = TimeUnit.DAYS.toMillis(1);
+    private final Supplier<GroupValueHistory> groupValueHistorySupplier;
+
+    public HistoryController(final KnxClient knxClient) {
+        this(knxClient, () -> {
+            final var store = GroupValueHistoryPlugin.getStore(knxClient);
+            return store == null ? null : new GroupValueHistory(store);
+        });
+    }
+
+    public HistoryController(final KnxClient knxClient, final GroupValueHistory groupValueHistory) {
+        this(knxClient, () -> groupValueHistory);
+        Objects.requireNonNull(groupValueHistory);
+    }
+
+    private HistoryController(final KnxClient knxClient, final Supplier<GroupValueHistory> groupValueHistorySupplier) {
+        super(knxClient);
+        this.groupValueHistorySupplier = groupValueHistorySupplier;
+    }
+
+    /**
+     * Endpoint for history request to return the group values of given group address
+     * <p>
+     * The range may be defined using {@code from} and {@code to} (epoch milliseconds)
+     * request parameters; by default the group values of last 24 hours are returned.
+     * With {@code step} (milliseconds) request parameter the group values are downsampled
+     * into buckets; by default every recorded group value is returned, up to
+     * {@link GroupValueHistory#MAX_RAW_RECORDS} group values.
+     *
+     * @param ctx          the Javalin context
+     * @param groupAddress the group address
+     */
+    public void history(final Context ctx, final GroupAddress groupAddress) {
+        log.trace("Http History Request received for: {}", groupAddress);
+
+        final GroupValueHistoryResponse response;
+        try {
+            final var to = getLongParameter(ctx, "to", System.currentTimeMillis());
+            final var from = getLongParameter(ctx, "from", to - DEFAULT_DURATION_MS);
+            final var step = getLongParameter(ctx, "step", 0L);
+            Preconditions.checkArgument(from <= to, "From must not be after to: from={}, to={}", from, to);
+            Preconditions.checkArgument(step >= 0, "Step must not be negative: {}", step);
+
+            final var groupValueHistory = groupValueHistorySupplier.get();
+            if (groupValueHistory == null) {
+                log.warn("History requested, but '{}' is not installed", GroupValueHistoryPlugin.class.getName());
+                ctx.status(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                ctx.json(EMPTY_RESPONSE);
+                return;
+            }
+            response = groupValueHistory.query(groupAddress, getDataPointType(groupAddress), from, to, step);
+        } catch (final IllegalArgumentException ex) {
+            log.warn("Invalid history request: {}", ex.getMessage());
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST);
+            ctx.json(EMPTY_RESPONSE);
+            return;
+        } catch (final IOException ex) {
+            log.error("Could not read history of group address: {}", groupAddress, ex);
+            ctx.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            ctx.json(EMPTY_RESPONSE);
+            return;
+        }
+
+        ctx.status(HttpServletResponse.SC_OK);
+        ctx.json(response);
+    }
+
+    /**
+     * Returns the data point type of group address from XML project
+     *
+     * @param groupAddress the group address
+     * @return data point type, or {@code null} if not known
+     */
+    private @Nullable DataPointType getDataPointType(final GroupAddress groupAddress) {
+        final var xmlProject = getKnxClient().getConfig().getProject();
+        final var xmlGroupAddress = xmlProject == null ? null : xmlProject.getGroupAddress(groupAddress);
+        if (xmlGroupAddress == null || xmlGroupAddress.getDataPointType() == null) {
+            log.debug("No data point type found for group address: {}", groupAddress);
+            return null;
+        }
+        return DataPointRegistry.getDataPointType(xmlGroupAddress.getDataPointType());
+    }
+}
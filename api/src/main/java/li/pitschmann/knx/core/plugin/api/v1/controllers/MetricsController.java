@@ -0,0 +1,59 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.controllers;
+
+import io.javalin.http.Context;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.plugin.api.v1.metrics.ApiMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.Objects;
+
+/**
+ * Controller for requesting the metrics of API in Prometheus text format
+ */
+public final class MetricsController extends AbstractController {
+    private static final Logger log = LoggerFactory.getLogger(MetricsController.class);
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private final ApiMetrics apiMetrics;
+
+    public MetricsController(final KnxClient knxClient) {
+        this(knxClient, new ApiMetrics());
+    }
+
+    public MetricsController(final KnxClient knxClient, final ApiMetrics apiMetrics) {
+        super(knxClient);
+        this.apiMetrics = Objects.requireNonNull(apiMetrics);
+    }
+
+    /**
+     * Endpoint for metrics request to return the latency and throughput metrics of API
+     *
+     * @param ctx the Javalin context
+     */
+    public void getMetrics(final Context ctx) {
+        log.trace("Http Metrics Request received");
+
+        ctx.status(HttpServletResponse.SC_OK);
+        ctx.contentType(CONTENT_TYPE);
+        ctx.result(apiMetrics.toPrometheusText());
+    }
+}
@@ -20,8 +20,12 @@ package li.pitschmann.knx.core.plugin.api.v1.controllers;
 
 import io.javalin.http.Context;
 import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.knxproj.XmlGroupAddress;
 import li.pitschmann.knx.core.knxproj.XmlGroupAddressStyle;
+import li.pitschmann.knx.core.plugin.api.v1.gson.FieldSetSerializer;
+import li.pitschmann.knx.core.plugin.api.v1.gson.FieldSetSerializer.FieldSet;
 import li.pitschmann.knx.core.plugin.api.v1.json.ProjectStructureResponse;
+import li.pitschmann.knx.core.plugin.api.v1.project.GroupAddressSearchIndex;
 import li.pitschmann.knx.core.utils.Preconditions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +33,7 @@ import org.slf4j.LoggerFactory;
 import javax.servlet.http.HttpServletResponse;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Controller for project-specific endpoints to return some data
@@ -36,9 +41,17 @@ import java.util.List;
  */
 public final class ProjectController extends AbstractController {
     private static final Logger log = LoggerFactory.getLogger(ProjectController.class);
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int MAX_SEARCH_LIMIT = 1000;
+    private final GroupAddressSearchIndex searchIndex;
 
     public ProjectController(final KnxClient knxClient) {
+        this(knxClient, GroupAddressSearchIndex.of(knxClient.getConfig().getProject()));
+    }
+
+    public ProjectController(final KnxClient knxClient, final GroupAddressSearchIndex searchIndex) {
         super(knxClient);
+        this.searchIndex = Objects.requireNonNull(searchIndex);
     }
 
     /**
@@ -141,10 +154,20 @@ public final class ProjectController extends AbstractController {
     public void getGroupAddresses(final Context ctx) {
         log.trace("Request all group addresses");
 
+        final FieldSet<XmlGroupAddress> fieldSet;
+        try {
+            fieldSet = getFieldSet(ctx, FieldSetSerializer.XML_GROUP_ADDRESS);
+        } catch (final IllegalArgumentException ex) {
+            log.warn("Invalid fields for group addresses request: {}", ex.getMessage());
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST);
+            ctx.json(List.of());
+            return;
+        }
+
         final var list = limitAndGetAsList(ctx, getKnxClient().getConfig().getProject().getGroupAddresses());
 
         ctx.status(HttpServletResponse.SC_OK);
-        ctx.json(list);
+        json(ctx, fieldSet, list);
     }
 
     /**
@@ -161,6 +184,16 @@ public final class ProjectController extends AbstractController {
         log.trace("Request addresses for main group range: {}", main);
         checkArgumentMainGroupRange(main);
 
+        final FieldSet<XmlGroupAddress> fieldSet;
+        try {
+            fieldSet = getFieldSet(ctx, FieldSetSerializer.XML_GROUP_ADDRESS);
+        } catch (final IllegalArgumentException ex) {
+            log.warn("Invalid fields for group addresses request: {}", ex.getMessage());
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST);
+            ctx.json(List.of());
+            return;
+        }
+
         final var xmlProject = getKnxClient().getConfig().getProject();
         if (xmlProject.getGroupAddressStyle() == XmlGroupAddressStyle.TWO_LEVEL) {
             final var middleGroup = xmlProject.getGroupRange(main);
@@ -168,7 +201,7 @@ public final class ProjectController extends AbstractController {
 
             final var list = limitAndGetAsList(ctx, middleGroup.getGroupAddresses());
             ctx.status(HttpServletResponse.SC_OK);
-            ctx.json(list);
+            json(ctx, fieldSet, list);
         } else {
             ctx.status(HttpServletResponse.SC_FORBIDDEN);
             ctx.json(List.of());
@@ -192,6 +225,16 @@ public final class ProjectController extends AbstractController {
         checkArgumentMainGroupRange(main);
         checkArgumentMiddleGroupRange(middle);
 
+        final FieldSet<XmlGroupAddress> fieldSet;
+        try {
+            fieldSet = getFieldSet(ctx, FieldSetSerializer.XML_GROUP_ADDRESS);
+        } catch (final IllegalArgumentException ex) {
+            log.warn("Invalid fields for group addresses request: {}", ex.getMessage());
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST);
+            ctx.json(List.of());
+            return;
+        }
+
         final var xmlProject = getKnxClient().getConfig().getProject();
         if (xmlProject.getGroupAddressStyle() == XmlGroupAddressStyle.THREE_LEVEL) {
             final var middleGroup = xmlProject.getGroupRange(main, middle);
@@ -199,13 +242,52 @@ public final class ProjectController extends AbstractController {
 
             final var list = limitAndGetAsList(ctx, middleGroup.getGroupAddresses());
             ctx.status(HttpServletResponse.SC_OK);
-            ctx.json(list);
+            json(ctx, fieldSet, list);
         } else {
             ctx.status(HttpServletResponse.SC_FORBIDDEN);
             ctx.json(List.of());
         }
     }
 
+    /**
+     * Returns the group addresses which name or description matches the {@code q} request
+     * parameter, ranked by relevance and limited by {@code limit} request parameter
+     * (default: 10, maximum: 1000)
+     * <p>
+     * Supported for all projects: free-level, two-level and three-level
+     *
+     * @param ctx the Javalin context
+     */
+    public void searchGroupAddresses(final Context ctx) {
+        final var queryValues = ctx.queryParamMap().get("q");
+        final var query = queryValues == null || queryValues.isEmpty() ? null : queryValues.get(0);
+        log.trace("Request search for group addresses: {}", query);
+
+        final FieldSet<XmlGroupAddress> fieldSet;
+        final long limit;
+        try {
+            fieldSet = getFieldSet(ctx, FieldSetSerializer.XML_GROUP_ADDRESS);
+            limit = getLongParameter(ctx, "limit", DEFAULT_SEARCH_LIMIT);
+        } catch (final IllegalArgumentException ex) {
+            log.warn("Invalid search request: {}", ex.getMessage());
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST);
+            ctx.json(List.of());
+            return;
+        }
+        if (query == null || query.isBlank() || limit < 0 || limit > MAX_SEARCH_LIMIT) {
+            log.warn("Invalid search request (query: '{}', limit: {})", query, limit);
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST);
+            ctx.json(List.of());
+            return;
+        }
+
+        final var list = searchIndex.search(query, (int) limit);
+        log.debug("Search for '{}' found: {}", query, list.size());
+
+        ctx.status(HttpServletResponse.SC_OK);
+        json(ctx, fieldSet, list);
+    }
+
     private void checkArgumentMainGroupRange(final int main) {
         Preconditions.checkArgument(main >= 0 && main <= 31,
                 "Invalid number of main group provided, should be within range [0-31]: {}", main);
@@ -20,13 +20,17 @@ package li.pitschmann.knx.core.plugin.api.v1.controllers;
 
 import io.javalin.http.Context;
 import li.pitschmann.knx.core.communication.KnxClient;
-import li.pitschmann.knx.core.datapoint.DataPointRegistry;
+import li.pitschmann.knx.core.plugin.api.v1.gson.FieldSetSerializer;
+import li.pitschmann.knx.core.plugin.api.v1.gson.FieldSetSerializer.FieldSet;
 import li.pitschmann.knx.core.plugin.api.v1.json.ReadRequest;
 import li.pitschmann.knx.core.plugin.api.v1.json.ReadResponse;
+import li.pitschmann.knx.core.plugin.api.v1.metrics.LatencyHistogram;
+import li.pitschmann.knx.core.plugin.api.v1.status.DecodedValueCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServletResponse;
+import java.util.Objects;
 
 /**
  * Controller for read requests
@@ -34,9 +38,21 @@ import javax.servlet.http.HttpServletResponse;
 public final class ReadRequestController extends AbstractController {
     private static final Logger log = LoggerFactory.getLogger(ReadRequestController.class);
     private static final ReadResponse EMPTY_RESPONSE = new ReadResponse();
+    private final LatencyHistogram busLatency;
+    private final DecodedValueCache decodedValueCache;
 
     public ReadRequestController(final KnxClient knxClient) {
+        this(knxClient, new LatencyHistogram());
+    }
+
+    public ReadRequestController(final KnxClient knxClient, final LatencyHistogram busLatency) {
+        this(knxClient, busLatency, new DecodedValueCache());
+    }
+
+    public ReadRequestController(final KnxClient knxClient, final LatencyHistogram busLatency, final DecodedValueCache decodedValueCache) {
         super(knxClient);
+        this.busLatency = Objects.requireNonNull(busLatency);
+        this.decodedValueCache = Objects.requireNonNull(decodedValueCache);
     }
 
     /**
@@ -55,6 +71,16 @@ public final class ReadRequestController extends AbstractController {
 
         final var groupAddress = readRequest.getGroupAddress();
 
+        final FieldSet<ReadResponse> fieldSet;
+        try {
+            fieldSet = getFieldSet(ctx, FieldSetSerializer.READ_RESPONSE);
+        } catch (final IllegalArgumentException ex) {
+            log.warn("Invalid fields for read request: {}", ex.getMessage());
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST);
+            ctx.json(EMPTY_RESPONSE);
+            return;
+        }
+
         // check if GA is provided
         if (groupAddress == null) {
             log.warn("Could not find group address in request.");
@@ -64,7 +90,8 @@ public final class ReadRequestController extends AbstractController {
         }
 
         // send read request
-        if (!getKnxClient().readRequest(groupAddress, 3000)) {
+        final boolean acknowledged = busLatency.time(() -> getKnxClient().readRequest(groupAddress, 3000));
+        if (!acknowledged) {
             log.warn("No or unexpected acknowledge received for read request: {}", readRequest);
             ctx.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             ctx.json(EMPTY_RESPONSE);
@@ -90,17 +117,17 @@ public final class ReadRequestController extends AbstractController {
 
         final var xmlGroupAddress = getKnxClient().getConfig().getProject().getGroupAddress(groupAddress);
         if (xmlGroupAddress != null) {
-            final var dpt = DataPointRegistry.getDataPointType(xmlGroupAddress.getDataPointType());
+            final var decodedValue = decodedValueCache.get(groupAddress, xmlGroupAddress, knxStatusData);
             response.setName(xmlGroupAddress.getName());
             response.setDescription(xmlGroupAddress.getDescription());
-            response.setDataPointType(dpt);
-            response.setValue(dpt.of(knxStatusData.getData()).toText());
-            response.setUnit(dpt.getUnit());
+            response.setDataPointType(decodedValue.getDataPointType());
+            response.setValue(decodedValue.getText());
+            response.setUnit(decodedValue.getUnit());
         } else {
             log.warn("Could not find group address in XML project: {}", groupAddress);
         }
 
         ctx.status(HttpServletResponse.SC_OK);
-        ctx.json(response);
+        json(ctx, fieldSet, response);
     }
 }
@@ -19,20 +19,56 @@
 package li.pitschmann.knx.core.plugin.api.v1.controllers;
 
 import io.javalin.http.Context;
+import li.pitschmann.knx.core.annotations.Nullable;
 import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.plugin.api.v1.json.StatisticAnomalyResponse;
+import li.pitschmann.knx.core.plugin.api.v1.json.StatisticHistoryResponse;
+import li.pitschmann.knx.core.plugin.api.v1.json.StatisticLatencyResponse;
+import li.pitschmann.knx.core.plugin.api.v1.json.StatisticTrafficResponse;
+import li.pitschmann.knx.core.plugin.api.v1.metrics.KnxStatisticExporter;
+import li.pitschmann.knx.core.plugin.api.v1.statistic.StatisticHistory;
+import li.pitschmann.knx.core.plugin.statistic.AnomalyDetector;
+import li.pitschmann.knx.core.plugin.statistic.StatisticTrackers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Controller for requesting the statistic from KNX client
+ * <p>
+ * The traffic, latency and bus load are tracked by the statistic plug-ins (see {@link StatisticTrackers}),
+ * the anomalies by the {@code AnomalyDetectionPlugin}. If they are not installed, the requests of these
+ * statistic are answered with {@code 503 Service Unavailable}.
  */
 public final class StatisticController extends AbstractController {
     private static final Logger log = LoggerFactory.getLogger(StatisticController.class);
+    private static final StatisticHistoryResponse EMPTY_HISTORY_RESPONSE = new StatisticHistoryResponse();
+    private static final long DEFAULT_HISTORY_DURATION_MS = TimeUnit.MINUTES.toMillis(5);
+    private final KnxStatisticExporter exporter = new KnxStatisticExporter();
+    private static final StatisticTrafficResponse EMPTY_TRAFFIC_RESPONSE = new StatisticTrafficResponse();
+    private static final int MAX_TRAFFIC_LIMIT = 1000;
+    private final StatisticHistory statisticHistory;
+    private final Supplier<StatisticTrackers> statisticTrackersSupplier;
 
     public StatisticController(final KnxClient knxClient) {
+        this(knxClient, new StatisticHistory());
+    }
+
+    public StatisticController(final KnxClient knxClient, final StatisticHistory statisticHistory) {
+        this(knxClient, statisticHistory, () -> StatisticTrackers.get(knxClient));
+    }
+
+    public StatisticController(final KnxClient knxClient,
+                               final StatisticHistory statisticHistory,
+                               final Supplier<StatisticTrackers> statisticTrackersSupplier) {
         super(knxClient);
+        this.statisticHistory = Objects.requireNonNull(statisticHistory);
+        this.statisticTrackersSupplier = Objects.requireNonNull(statisticTrackersSupplier);
     }
 
     /**
@@ -48,4 +84,170 @@ public final class StatisticController extends AbstractController {
         ctx.status(HttpServletResponse.SC_OK);
         ctx.json(statistic);
     }
+
+    /**
+     * Endpoint for statistic request to return the current statistic of KNX client
+     * in OpenMetrics text format (e.g. for Prometheus)
+     *
+     * @param ctx the Javalin context
+     */
+    public void getStatisticMetrics(final Context ctx) {
+        log.trace("Http Statistic Metrics Request received");
+
+        final var buffer = exporter.export(getKnxClient().getStatistic());
+
+        ctx.status(HttpServletResponse.SC_OK);
+        ctx.contentType(KnxStatisticExporter.CONTENT_TYPE);
+        ctx.result(new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining()));
+    }
+
+    /**
+     * Endpoint for statistic history request to return the recorded statistic samples
+     * <p>
+     * The range may be defined using {@code from} and {@code to} (epoch milliseconds)
+     * and {@code step} (milliseconds) request parameters. By default, the samples of
+     * last 5 minutes in one second steps are returned.
+     *
+     * @param ctx the Javalin context
+     */
+    public void getStatisticHistory(final Context ctx) {
+        log.trace("Http Statistic History Request received");
+
+        final StatisticHistoryResponse response;
+        try {
+            final var to = getLongParameter(ctx, "to", System.currentTimeMillis());
+            final var from = getLongParameter(ctx, "from", to - DEFAULT_HISTORY_DURATION_MS);
+            final var step = getLongParameter(ctx, "step", 1000L);
+            response = statisticHistory.query(from, to, step);
+        } catch (final IllegalArgumentException ex) {
+            log.warn("Invalid statistic history request: {}", ex.getMessage());
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST);
+            ctx.json(EMPTY_HISTORY_RESPONSE);
+            return;
+        }
+
+        ctx.status(HttpServletResponse.SC_OK);
+        ctx.json(response);
+    }
+
+    /**
+     * Endpoint for statistic traffic request to return the group addresses and
+     * source addresses with most telegrams (heavy hitters)
+     * <p>
+     * The number of addresses may be defined using {@code limit} request parameter
+     * (default: 10, maximum: 1000).
+     *
+     * @param ctx the Javalin context
+     */
+    public void getStatisticTraffic(final Context ctx) {
+        log.trace("Http Statistic Traffic Request received");
+
+        final var limit = getLongParameter(ctx, "limit", 10L);
+        if (limit < 1 || limit > MAX_TRAFFIC_LIMIT) {
+            log.warn("Invalid limit for statistic traffic request: {}", limit);
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST);
+            ctx.json(EMPTY_TRAFFIC_RESPONSE);
+            return;
+        }
+
+        final var trackers = getStatisticTrackers(ctx);
+        if (trackers == null) {
+            return;
+        }
+        final var trafficCounter = trackers.getTrafficCounter();
+
+        final var response = new StatisticTrafficResponse();
+        response.setTotalGroupTelegrams(trafficCounter.getTotalGroupTelegrams());
+        response.setTotalSourceTelegrams(trafficCounter.getTotalSourceTelegrams());
+        response.setGroupAddresses(trafficCounter.getTopGroupAddresses((int) limit));
+        response.setSourceAddresses(trafficCounter.getTopSourceAddresses((int) limit));
+
+        ctx.status(HttpServletResponse.SC_OK);
+        ctx.json(response);
+    }
+
+    /**
+     * Endpoint for statistic latency request to return the percentiles of round-trip
+     * times of tunneling requests and connection state requests since start
+     *
+     * @param ctx the Javalin context
+     */
+    public void getStatisticLatency(final Context ctx) {
+        log.trace("Http Statistic Latency Request received");
+
+        final var trackers = getStatisticTrackers(ctx);
+        if (trackers == null) {
+            return;
+        }
+        final var roundTripTracker = trackers.getRoundTripTracker();
+
+        final var response = new StatisticLatencyResponse();
+        response.setTunneling(roundTripTracker.getTunneling().getSummary());
+        response.setConnectionState(roundTripTracker.getConnectionState().getSummary());
+
+        ctx.status(HttpServletResponse.SC_OK);
+        ctx.json(response);
+    }
+
+    /**
+     * Endpoint for statistic bus load request to return the estimated bus load
+     * of KNX TP1 line (current, sliding windows, peak and threshold)
+     *
+     * @param ctx the Javalin context
+     */
+    public void getStatisticBusLoad(final Context ctx) {
+        log.trace("Http Statistic Bus Load Request received");
+
+        final var trackers = getStatisticTrackers(ctx);
+        if (trackers == null) {
+            return;
+        }
+
+        ctx.status(HttpServletResponse.SC_OK);
+        ctx.json(trackers.getBusLoadEstimator().getBusLoad());
+    }
+
+    /**
+     * Endpoint for statistic anomaly request to return the most recent events when
+     * the statistic of KNX client deviated from its baseline
+     *
+     * @param ctx the Javalin context
+     */
+    public void getStatisticAnomalies(final Context ctx) {
+        log.trace("Http Statistic Anomalies Request received");
+
+        final var trackers = getStatisticTrackers(ctx);
+        if (trackers == null) {
+            return;
+        }
+        final var anomalyDetector = trackers.getAnomalyDetector();
+        if (anomalyDetector == null) {
+            log.warn("Statistic anomalies requested, but the anomaly detection plug-in is not installed");
+            ctx.status(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        final var response = new StatisticAnomalyResponse();
+        response.setSeries(AnomalyDetector.getSeriesNames());
+        response.setEvents(anomalyDetector.getRecentEvents());
+
+        ctx.status(HttpServletResponse.SC_OK);
+        ctx.json(response);
+    }
+
+    /**
+     * Returns the statistic trackers that are registered by the statistic plug-ins.
+     * If there is none, the request is answered with {@code 503 Service Unavailable}.
+     *
+     * @param ctx the Javalin context
+     * @return statistic trackers, or {@code null} if no statistic plug-in is installed
+     */
+    private @Nullable StatisticTrackers getStatisticTrackers(final Context ctx) {
+        final var trackers = statisticTrackersSupplier.get();
+        if (trackers == null) {
+            log.warn("Statistic requested, but no statistic plug-in is installed");
+            ctx.status(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+        return trackers;
+    }
 }
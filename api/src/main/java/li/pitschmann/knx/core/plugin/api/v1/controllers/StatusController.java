@@ -19,19 +19,31 @@
 package li.pitschmann.knx.core.plugin.api.v1.controllers;
 
 import io.javalin.http.Context;
+import io.javalin.plugin.json.JavalinJson;
 import li.pitschmann.knx.core.address.GroupAddress;
 import li.pitschmann.knx.core.annotations.Nullable;
 import li.pitschmann.knx.core.communication.KnxClient;
 import li.pitschmann.knx.core.communication.KnxStatusData;
 import li.pitschmann.knx.core.datapoint.DataPointRegistry;
+import li.pitschmann.knx.core.plugin.api.v1.gson.FieldSetSerializer;
+import li.pitschmann.knx.core.plugin.api.v1.gson.FieldSetSerializer.FieldSet;
 import li.pitschmann.knx.core.knxproj.XmlGroupAddress;
 import li.pitschmann.knx.core.plugin.api.v1.json.Status;
+import li.pitschmann.knx.core.plugin.api.v1.json.StatusQueryRequest;
 import li.pitschmann.knx.core.plugin.api.v1.json.StatusResponse;
+import li.pitschmann.knx.core.plugin.api.v1.status.DecodedValueCache;
+import li.pitschmann.knx.core.plugin.api.v1.status.StatusIndex;
+import li.pitschmann.knx.core.plugin.api.v1.status.StatusTracker;
+import li.pitschmann.knx.core.utils.Preconditions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServletResponse;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controller for requesting the KNX client status pool
@@ -39,9 +51,36 @@ import java.util.ArrayList;
 public final class StatusController extends AbstractController {
     private static final Logger log = LoggerFactory.getLogger(StatusController.class);
     private static final StatusResponse EMPTY_RESPONSE = new StatusResponse();
+    private static final long DEFAULT_WAIT_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final long MAX_WAIT_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(5);
+    // the status pool may be updated after the plugin has been notified about the change:
+    // after a change the status pool is checked again soon, then with increasing interval
+    private static final long RECHECK_INTERVAL_MS = TimeUnit.SECONDS.toMillis(1);
+    private static final long RECHECK_AFTER_CHANGE_MS = 10L;
+    private final StatusTracker statusTracker;
+    private final DecodedValueCache decodedValueCache;
+    private final StatusIndex statusIndex;
 
     public StatusController(final KnxClient knxClient) {
+        this(knxClient, new StatusTracker());
+    }
+
+    public StatusController(final KnxClient knxClient, final StatusTracker statusTracker) {
+        this(knxClient, statusTracker, new DecodedValueCache());
+    }
+
+    public StatusController(final KnxClient knxClient, final StatusTracker statusTracker, final DecodedValueCache decodedValueCache) {
+        this(knxClient, statusTracker, decodedValueCache, new StatusIndex());
+    }
+
+    public StatusController(final KnxClient knxClient,
+                            final StatusTracker statusTracker,
+                            final DecodedValueCache decodedValueCache,
+                            final StatusIndex statusIndex) {
         super(knxClient);
+        this.statusTracker = Objects.requireNonNull(statusTracker);
+        this.decodedValueCache = Objects.requireNonNull(decodedValueCache);
+        this.statusIndex = Objects.requireNonNull(statusIndex);
     }
 
     /**
@@ -52,8 +91,28 @@ public final class StatusController extends AbstractController {
     public void statusAll(final Context ctx) {
         log.trace("Http Status request for all available group addresses received");
 
-        final var xmlProject = getKnxClient().getConfig().getProject();
+        final FieldSet<StatusResponse> fieldSet;
+        try {
+            fieldSet = getFieldSet(ctx, FieldSetSerializer.STATUS_RESPONSE);
+        } catch (final IllegalArgumentException ex) {
+            log.warn("Invalid fields for status request: {}", ex.getMessage());
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST);
+            ctx.json(EMPTY_RESPONSE);
+            return;
+        }
+
+        // entity tag is derived from the version of status pool (read before the status map is copied)
+        // and the request parameters that select the representation
+        final var etag = statusTracker.getVersion()
+                + "-" + getLongParameter(ctx, "start", 0L)
+                + "-" + getLongParameter(ctx, "limit", Integer.MAX_VALUE)
+                + (fieldSet == null ? "" : "-" + Integer.toHexString(fieldSet.getKey().hashCode()));
+        if (isNotModified(ctx, etag, statusTracker.getLastModified())) {
+            return;
+        }
+
         final var statusMap = getKnxClient().getStatusPool().copyStatusMap();
+        final var xmlProject = getKnxClient().getConfig().getProject();
         final var responses = new ArrayList<StatusResponse>(statusMap.size());
         for (final var entry : statusMap.entrySet()) {
             // Group Address? If not, skip it!
@@ -75,11 +134,14 @@ public final class StatusController extends AbstractController {
 
         // set final http status code "Multi Status"
         ctx.status(207);
-        ctx.json(list);
+        json(ctx, fieldSet, list);
     }
 
     /**
      * Endpoint to get status of a single {@link GroupAddress}
+     * <p>
+     * With {@code waitForChangeAfter} (epoch milliseconds) request parameter the request
+     * waits until the status of group address is newer, see {@link #waitForChange(Context, GroupAddress)}.
      *
      * @param ctx          the Javalin context
      * @param groupAddress the group address
@@ -87,6 +149,21 @@ public final class StatusController extends AbstractController {
     public void statusOne(final Context ctx, final GroupAddress groupAddress) {
         log.trace("Http Status Request received for: {}", groupAddress);
 
+        final FieldSet<StatusResponse> fieldSet;
+        try {
+            fieldSet = getFieldSet(ctx, FieldSetSerializer.STATUS_RESPONSE);
+        } catch (final IllegalArgumentException ex) {
+            log.warn("Invalid fields for status request: {}", ex.getMessage());
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST);
+            ctx.json(EMPTY_RESPONSE);
+            return;
+        }
+
+        if (ctx.queryParamMap().containsKey("waitForChangeAfter")) {
+            waitForChange(ctx, groupAddress, fieldSet);
+            return;
+        }
+
         // check if there is status data available in status pool
         final var knxStatusData = getKnxClient().getStatusPool().getStatusFor(groupAddress);
         if (knxStatusData == null) {
@@ -96,6 +173,13 @@ public final class StatusController extends AbstractController {
             return;
         }
 
+        // timestamp and dirty flag identifies the status data of group address
+        final var timestamp = knxStatusData.getTimestamp();
+        final var etag = timestamp.getEpochSecond() + "-" + timestamp.getNano() + (knxStatusData.isDirty() ? "-dirty" : "");
+        if (isNotModified(ctx, etag, timestamp)) {
+            return;
+        }
+
         // group address is known in XML project and there is status data available
         // fill all relevant properties
         final var response = new StatusResponse();
@@ -103,7 +187,187 @@ public final class StatusController extends AbstractController {
         fill(response, groupAddress, xmlGroupAddress, knxStatusData);
 
         ctx.status(HttpServletResponse.SC_OK);
-        ctx.json(response);
+        json(ctx, fieldSet, response);
+    }
+
+    /**
+     * Endpoint to query the KNX status of several group addresses
+     * <p>
+     * The group addresses are selected by {@code groupAddresses} and {@code ranges} (main group
+     * like {@code "1"} or main/middle group like {@code "1/2"}), or all group addresses if both
+     * are absent. The selection may be narrowed by {@code dataPointTypes} (data point type id like
+     * {@code "9.001"} or family like {@code "9"}), {@code dirty} flag and {@code updatedSince}
+     * (epoch milliseconds). The selection is evaluated against the {@link StatusIndex}, only the
+     * status of selected group addresses is looked up in the status pool.
+     *
+     * @param ctx          the Javalin context
+     * @param queryRequest the query request
+     */
+    public void statusQuery(final Context ctx, final @Nullable StatusQueryRequest queryRequest) {
+        log.trace("Http Status Query request received: {}", queryRequest);
+
+        final FieldSet<StatusResponse> fieldSet;
+        final BitSet selection;
+        try {
+            fieldSet = getFieldSet(ctx, FieldSetSerializer.STATUS_RESPONSE);
+            selection = select(Objects.requireNonNull(queryRequest, "Query request is required"));
+        } catch (final IllegalArgumentException | NullPointerException ex) {
+            log.warn("Invalid status query request: {}", ex.getMessage());
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST);
+            ctx.json(EMPTY_RESPONSE);
+            return;
+        }
+
+        final var statusPool = getKnxClient().getStatusPool();
+        final var xmlProject = getKnxClient().getConfig().getProject();
+        final var dirty = queryRequest.getDirty();
+        final var updatedSince = queryRequest.getUpdatedSince();
+        final var responses = new ArrayList<StatusResponse>();
+        for (int raw = selection.nextSetBit(0); raw >= 0; raw = selection.nextSetBit(raw + 1)) {
+            final var groupAddress = GroupAddress.of(raw);
+            final var knxStatusData = statusPool.getStatusFor(groupAddress);
+            if (knxStatusData == null
+                    || (dirty != null && dirty != knxStatusData.isDirty())
+                    || (updatedSince != null && knxStatusData.getTimestamp().toEpochMilli() < updatedSince)) {
+                continue;
+            }
+            final var response = new StatusResponse();
+            fill(response, groupAddress, xmlProject.getGroupAddress(groupAddress), knxStatusData);
+            responses.add(response);
+        }
+
+        final var list = limitAndGetAsList(ctx, responses);
+
+        // set final http status code "Multi Status"
+        ctx.status(207);
+        json(ctx, fieldSet, list);
+    }
+
+    /**
+     * Returns the group addresses selected by {@link StatusQueryRequest} using the {@link StatusIndex}
+     *
+     * @param queryRequest the query request
+     * @return bits of raw group addresses
+     * @throws IllegalArgumentException if the query request contains an invalid range
+     */
+    private BitSet select(final StatusQueryRequest queryRequest) {
+        // addresses that have (or had) status data; the status pool is scanned once only
+        statusIndex.seed(() -> getKnxClient().getStatusPool().copyStatusMap().keySet());
+        final var known = statusIndex.getAddresses();
+
+        final BitSet selection;
+        final var groupAddresses = queryRequest.getGroupAddresses();
+        final var ranges = queryRequest.getRanges();
+        if ((groupAddresses == null || groupAddresses.isEmpty()) && (ranges == null || ranges.isEmpty())) {
+            selection = known;
+        } else {
+            selection = new BitSet(StatusIndex.NUMBER_OF_ADDRESSES);
+            if (groupAddresses != null) {
+                groupAddresses.forEach(groupAddress -> selection.set(StatusIndex.toRaw(groupAddress)));
+            }
+            if (ranges != null) {
+                for (final var range : ranges) {
+                    final var parts = range.trim().split("/", -1);
+                    Preconditions.checkArgument(parts.length <= 2, "Invalid range: {}", range);
+                    final var fromTo = StatusIndex.rangeOf(Integer.parseInt(parts[0]),
+                            parts.length == 2 ? Integer.valueOf(parts[1]) : null);
+                    for (int raw = known.nextSetBit(fromTo[0]); raw >= 0 && raw < fromTo[1]; raw = known.nextSetBit(raw + 1)) {
+                        selection.set(raw);
+                    }
+                }
+            }
+        }
+
+        final var dataPointTypes = queryRequest.getDataPointTypes();
+        if (dataPointTypes != null && !dataPointTypes.isEmpty()) {
+            final var xmlProject = getKnxClient().getConfig().getProject();
+            final var ofDataPointTypes = new BitSet(StatusIndex.NUMBER_OF_ADDRESSES);
+            dataPointTypes.forEach(dpt -> ofDataPointTypes.or(statusIndex.getAddressesOf(xmlProject, dpt)));
+            selection.and(ofDataPointTypes);
+        }
+        return selection;
+    }
+
+    /**
+     * Waits asynchronously until the status of {@link GroupAddress} is newer than the
+     * {@code waitForChangeAfter} (epoch milliseconds) request parameter, or the {@code timeout}
+     * (milliseconds, default: 30 seconds, maximum: 5 minutes) elapsed. The request doesn't
+     * block a thread of web server while waiting.
+     * <p>
+     * Returns the status when it is newer, otherwise {@link HttpServletResponse#SC_NOT_MODIFIED}.
+     * The status is compared with a precision of milliseconds.
+     *
+     * @param ctx          the Javalin context
+     * @param groupAddress the group address
+     * @param fieldSet     the fields to be returned; if {@code null} all fields are returned
+     */
+    private void waitForChange(final Context ctx, final GroupAddress groupAddress, final @Nullable FieldSet<StatusResponse> fieldSet) {
+        final long after;
+        final long timeout;
+        try {
+            after = getLongParameter(ctx, "waitForChangeAfter", 0L);
+            timeout = getLongParameter(ctx, "timeout", DEFAULT_WAIT_TIMEOUT_MS);
+        } catch (final NumberFormatException ex) {
+            log.warn("Invalid wait for change request: {}", ex.getMessage());
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST);
+            ctx.json(EMPTY_RESPONSE);
+            return;
+        }
+        if (timeout < 0 || timeout > MAX_WAIT_TIMEOUT_MS) {
+            log.warn("Invalid timeout for wait for change request: {}", timeout);
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST);
+            ctx.json(EMPTY_RESPONSE);
+            return;
+        }
+
+        final var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        ctx.result(awaitNewerStatus(groupAddress, after, deadline, RECHECK_INTERVAL_MS).thenApply(knxStatusData -> {
+            if (knxStatusData == null) {
+                log.trace("No newer status data for group address: {}", groupAddress);
+                ctx.status(HttpServletResponse.SC_NOT_MODIFIED);
+                return "";
+            }
+            final var response = new StatusResponse();
+            final var xmlGroupAddress = getKnxClient().getConfig().getProject().getGroupAddress(groupAddress);
+            fill(response, groupAddress, xmlGroupAddress, knxStatusData);
+            ctx.status(HttpServletResponse.SC_OK);
+            ctx.contentType("application/json");
+            return JavalinJson.toJson(fieldSet == null ? response : fieldSet.select(response));
+        }));
+    }
+
+    /**
+     * Returns a future that is completed with the status data of {@link GroupAddress} when
+     * it is newer than {@code after}, or with {@code null} when the deadline elapsed.
+     * <p>
+     * The status pool is checked again after a change notification or at latest after
+     * {@code recheckMs}. When woken up by a change notification but the status pool has
+     * not been updated yet, it is checked again after {@link #RECHECK_AFTER_CHANGE_MS} and
+     * then with doubled interval up to {@link #RECHECK_INTERVAL_MS}.
+     *
+     * @param groupAddress the group address
+     * @param after        epoch milliseconds
+     * @param deadline     deadline in {@link System#nanoTime()}
+     * @param recheckMs    the maximum time in milliseconds until the status pool is checked again
+     * @return future of newer status data
+     */
+    private CompletableFuture<KnxStatusData> awaitNewerStatus(final GroupAddress groupAddress, final long after, final long deadline,
+                                                              final long recheckMs) {
+        final var remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        // register before checking the status pool, otherwise a change in between would be missed
+        final var waiter = statusTracker.awaitChange(groupAddress, Math.max(0, Math.min(remaining, recheckMs)));
+
+        final var knxStatusData = getKnxClient().getStatusPool().getStatusFor(groupAddress);
+        if (knxStatusData != null && knxStatusData.getTimestamp().toEpochMilli() > after) {
+            waiter.complete(Boolean.FALSE);
+            return CompletableFuture.completedFuture(knxStatusData);
+        } else if (remaining <= 0) {
+            waiter.complete(Boolean.FALSE);
+            return CompletableFuture.completedFuture(null);
+        }
+        // continue asynchronously: the waiter is completed by the thread which notified the change
+        return waiter.thenComposeAsync(changed -> awaitNewerStatus(groupAddress, after, deadline,
+                changed ? RECHECK_AFTER_CHANGE_MS : Math.min(recheckMs * 2, RECHECK_INTERVAL_MS)));
     }
 
     /**
@@ -129,7 +393,10 @@ public final class StatusController extends AbstractController {
         }
 
         if (xmlGroupAddress != null) {
-            response.setDataPointType(DataPointRegistry.getDataPointType(xmlGroupAddress.getDataPointType()));
+            // data point type is resolved once per status data
+            response.setDataPointType(knxStatusData == null
+                    ? DataPointRegistry.getDataPointType(xmlGroupAddress.getDataPointType())
+                    : decodedValueCache.get(groupAddress, xmlGroupAddress, knxStatusData).getDataPointType());
             response.setName(xmlGroupAddress.getName());
             response.setDescription(xmlGroupAddress.getDescription());
         } else {
@@ -23,10 +23,12 @@ import li.pitschmann.knx.core.communication.KnxClient;
 import li.pitschmann.knx.core.datapoint.value.DataPointValue;
 import li.pitschmann.knx.core.plugin.api.v1.json.WriteRequest;
 import li.pitschmann.knx.core.plugin.api.v1.json.WriteResponse;
+import li.pitschmann.knx.core.plugin.api.v1.metrics.LatencyHistogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServletResponse;
+import java.util.Objects;
 
 /**
  * Controller for write requests
@@ -34,9 +36,15 @@ import javax.servlet.http.HttpServletResponse;
 public final class WriteRequestController extends AbstractController {
     private static final Logger log = LoggerFactory.getLogger(WriteRequestController.class);
     private static final WriteResponse EMPTY_RESPONSE = new WriteResponse();
+    private final LatencyHistogram busLatency;
 
     public WriteRequestController(final KnxClient knxClient) {
+        this(knxClient, new LatencyHistogram());
+    }
+
+    public WriteRequestController(final KnxClient knxClient, final LatencyHistogram busLatency) {
         super(knxClient);
+        this.busLatency = Objects.requireNonNull(busLatency);
     }
 
     /**
@@ -93,7 +101,8 @@ public final class WriteRequestController extends AbstractController {
         }
 
         // send write request
-        if (getKnxClient().writeRequest(groupAddress, value, 3000)) {
+        final boolean acknowledged = busLatency.time(() -> getKnxClient().writeRequest(groupAddress, value, 3000));
+        if (acknowledged) {
             log.debug("Acknowledge received for write request: {}", writeRequest);
             ctx.status(HttpServletResponse.SC_ACCEPTED);
             ctx.json(EMPTY_RESPONSE);
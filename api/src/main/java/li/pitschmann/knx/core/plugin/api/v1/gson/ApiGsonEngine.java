@@ -48,6 +48,7 @@ public final class ApiGsonEngine {
                 .registerTypeAdapter(XmlGroupAddress.class, XmlGroupAddressJsonSerializer.INSTANCE)
                 .registerTypeAdapter(XmlGroupRange.class, XmlGroupRangeJsonSerializer.INSTANCE)
                 .registerTypeHierarchyAdapter(KnxStatistic.class, KnxStatisticJsonSerializer.INSTANCE)
+                .registerTypeAdapterFactory(FieldSetSerializer.TYPE_ADAPTER_FACTORY)
                 // de-serializers
                 .registerTypeAdapter(DataPointType.class, DataPointTypeJsonDeserializer.INSTANCE)
                 .registerTypeAdapter(GroupAddress.class, GroupAddressJsonDeserializer.INSTANCE)
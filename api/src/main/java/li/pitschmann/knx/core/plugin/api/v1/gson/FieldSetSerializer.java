@@ -0,0 +1,324 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.annotations.Nullable;
+import li.pitschmann.knx.core.cemi.APCI;
+import li.pitschmann.knx.core.datapoint.DataPointRegistry;
+import li.pitschmann.knx.core.datapoint.DataPointType;
+import li.pitschmann.knx.core.knxproj.XmlGroupAddress;
+import li.pitschmann.knx.core.plugin.api.v1.json.ReadResponse;
+import li.pitschmann.knx.core.plugin.api.v1.json.Status;
+import li.pitschmann.knx.core.plugin.api.v1.json.StatusResponse;
+import li.pitschmann.knx.core.utils.Preconditions;
+import li.pitschmann.knx.core.utils.Strings;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serializes a subset of fields (sparse fieldset) of a JSON response
+ * <p>
+ * The fields are requested by a comma-separated list like {@code groupAddress,value}. For every
+ * distinct set of fields a {@link FieldSet} is compiled once: an array of field writers that
+ * write the selected values directly to the JSON stream, without reflection and without
+ * creating the values of fields that are not selected. The identifying field (e.g. group
+ * address) is always written. Fields are written in the same order as for the full response.
+ *
+ * @param <T> type of response
+ */
+public final class FieldSetSerializer<T> {
+    /**
+     * Fields of {@link ReadResponse}
+     */
+    public static final FieldSetSerializer<ReadResponse> READ_RESPONSE = new Builder<ReadResponse>("groupAddress")
+            .add("groupAddress", ReadResponse::getGroupAddress, GroupAddress.class)
+            .add("name", ReadResponse::getName, String.class)
+            .add("description", ReadResponse::getDescription, String.class)
+            .add("dataPointType", ReadResponse::getDataPointType, DataPointType.class)
+            .add("unit", ReadResponse::getUnit, String.class)
+            .add("value", ReadResponse::getValue, String.class)
+            .add("raw", ReadResponse::getRaw, byte[].class)
+            .build();
+    /**
+     * Fields of {@link StatusResponse}
+     */
+    public static final FieldSetSerializer<StatusResponse> STATUS_RESPONSE = new Builder<StatusResponse>("groupAddress")
+            .add("status", StatusResponse::getStatus, Status.class)
+            .add("timestamp", StatusResponse::getTimestamp, Instant.class)
+            // declared as KnxAddress, the serializer of actual address type is used
+            .add("sourceAddress", StatusResponse::getSourceAddress, null)
+            .add("apci", StatusResponse::getApci, APCI.class)
+            .add("dirty", StatusResponse::isDirty, Boolean.class)
+            .addAll(READ_RESPONSE)
+            .build();
+    /**
+     * Fields of {@link XmlGroupAddress}, see {@link XmlGroupAddressJsonSerializer}
+     */
+    public static final FieldSetSerializer<XmlGroupAddress> XML_GROUP_ADDRESS = new Builder<XmlGroupAddress>("address")
+            .add("id", XmlGroupAddress::getId, String.class)
+            .add("name", XmlGroupAddress::getName, String.class)
+            .add("description", XmlGroupAddress::getDescription, String.class)
+            .add("address", src -> GroupAddress.of(src.getAddress()), GroupAddress.class)
+            .add("dataPointType", src -> Strings.isNullOrEmpty(src.getDataPointType()) ? null
+                    : DataPointRegistry.getDataPointType(src.getDataPointType()), DataPointType.class)
+            .build();
+    /**
+     * Factory for {@link Gson} to serialize the responses wrapped by {@link FieldSet#select(Object)}
+     */
+    public static final TypeAdapterFactory TYPE_ADAPTER_FACTORY = new TypeAdapterFactory() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> TypeAdapter<R> create(final Gson gson, final TypeToken<R> type) {
+            return type.getRawType() == Selection.class ? (TypeAdapter<R>) new SelectionTypeAdapter(gson) : null;
+        }
+    };
+    private final String identity;
+    private final Map<String, FieldWriter<T>> writers;
+    private final Map<String, FieldSet<T>> fieldSets = new ConcurrentHashMap<>();
+
+    private FieldSetSerializer(final String identity, final Map<String, FieldWriter<T>> writers) {
+        this.identity = identity;
+        this.writers = writers;
+    }
+
+    /**
+     * Returns the names of all fields
+     *
+     * @return set of field names in order of serialization
+     */
+    public Set<String> getFieldNames() {
+        return writers.keySet();
+    }
+
+    /**
+     * Returns the compiled {@link FieldSet} for comma-separated field names
+     *
+     * @param fields comma-separated field names, e.g. {@code groupAddress,value}
+     * @return compiled field set, cached for same set of fields
+     * @throws IllegalArgumentException if a field is unknown
+     */
+    public FieldSet<T> getFieldSet(final String fields) {
+        final var requested = new ArrayList<String>();
+        for (final var field : fields.split(",")) {
+            final var name = field.trim();
+            if (!name.isEmpty()) {
+                Preconditions.checkArgument(writers.containsKey(name), "Unknown field '{}', supported: {}", name, writers.keySet());
+                requested.add(name);
+            }
+        }
+        // canonical key in order of serialization, different orders of request share the same field set
+        final var key = writers.keySet().stream()
+                .filter(name -> name.equals(identity) || requested.contains(name))
+                .collect(Collectors.joining(","));
+        return fieldSets.computeIfAbsent(key, this::compile);
+    }
+
+    @SuppressWarnings("unchecked")
+    private FieldSet<T> compile(final String key) {
+        final var names = key.split(",");
+        final var selected = (FieldWriter<T>[]) new FieldWriter[names.length];
+        for (int i = 0; i < names.length; i++) {
+            selected[i] = writers.get(names[i]);
+        }
+        return new FieldSet<>(key, selected);
+    }
+
+    /**
+     * Writes a single field of response
+     *
+     * @param <T> type of response
+     */
+    @FunctionalInterface
+    private interface FieldWriter<T> {
+        void write(JsonWriter out, Gson gson, T src) throws IOException;
+    }
+
+    /**
+     * Compiled set of fields
+     *
+     * @param <T> type of response
+     */
+    public static final class FieldSet<T> {
+        private final String key;
+        private final FieldWriter<T>[] writers;
+
+        private FieldSet(final String key, final FieldWriter<T>[] writers) {
+            this.key = key;
+            this.writers = writers;
+        }
+
+        /**
+         * Wraps the response or collection of responses to be serialized with this field set
+         * by the {@link Gson} of {@link ApiGsonEngine}
+         *
+         * @param obj a response or collection of responses
+         * @return object to be serialized instead of {@code obj}
+         */
+        public Object select(final Object obj) {
+            return new Selection(this, obj);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void write(final JsonWriter out, final Gson gson, final Object obj) throws IOException {
+            if (obj instanceof Collection) {
+                out.beginArray();
+                for (final var element : (Collection<?>) obj) {
+                    write(out, gson, element);
+                }
+                out.endArray();
+            } else {
+                out.beginObject();
+                for (final var writer : writers) {
+                    writer.write(out, gson, (T) obj);
+                }
+                out.endObject();
+            }
+        }
+
+        /**
+         * Returns the canonical key of this field set: the field names in order of serialization
+         *
+         * @return comma-separated field names
+         */
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String toString() {
+            return Strings.toStringHelper(this)
+                    .add("fields", key) //
+                    .toString();
+        }
+    }
+
+    /**
+     * Response that is serialized with a {@link FieldSet}
+     */
+    private static final class Selection {
+        private final FieldSet<?> fieldSet;
+        private final Object obj;
+
+        private Selection(final FieldSet<?> fieldSet, final Object obj) {
+            this.fieldSet = fieldSet;
+            this.obj = obj;
+        }
+    }
+
+    /**
+     * Type adapter for {@link Selection} (serialization only)
+     */
+    private static final class SelectionTypeAdapter extends TypeAdapter<Selection> {
+        private final Gson gson;
+
+        private SelectionTypeAdapter(final Gson gson) {
+            this.gson = gson;
+        }
+
+        @Override
+        public void write(final JsonWriter out, final Selection value) throws IOException {
+            value.fieldSet.write(out, gson, value.obj);
+        }
+
+        @Override
+        public Selection read(final JsonReader in) {
+            throw new UnsupportedOperationException("Field set selection cannot be deserialized");
+        }
+    }
+
+    /**
+     * Builder for {@link FieldSetSerializer}
+     *
+     * @param <T> type of response
+     */
+    private static final class Builder<T> {
+        private final String identity;
+        private final Map<String, FieldWriter<T>> writers = new LinkedHashMap<>();
+
+        private Builder(final String identity) {
+            this.identity = identity;
+        }
+
+        /**
+         * Adds a field that is written when the value is not {@code null}
+         *
+         * @param name   name of field
+         * @param getter function to get the value of field
+         * @param type   type of value for serialization; if {@code null} the actual type of value is used
+         * @return myself
+         */
+        @SuppressWarnings("unchecked")
+        private Builder<T> add(final String name, final Function<? super T, ?> getter, final @Nullable Type type) {
+            final var typeToken = type == null ? null : (TypeToken<Object>) TypeToken.get(type);
+            writers.put(name, (out, gson, src) -> {
+                final var value = getter.apply(src);
+                if (value != null) {
+                    out.name(name);
+                    // adapters are cached by Gson
+                    final var adapter = gson.getAdapter(typeToken == null ? (TypeToken<Object>) TypeToken.get(value.getClass()) : typeToken);
+                    adapter.write(out, value);
+                }
+            });
+            return this;
+        }
+
+        /**
+         * Adds all fields of {@code serializer} for a super type of response
+         *
+         * @param serializer the serializer of super type
+         * @return myself
+         */
+        @SuppressWarnings("unchecked")
+        private Builder<T> addAll(final FieldSetSerializer<? super T> serializer) {
+            serializer.writers.forEach((name, writer) -> writers.put(name, (FieldWriter<T>) writer));
+            return this;
+        }
+
+        private FieldSetSerializer<T> build() {
+            Preconditions.checkArgument(writers.containsKey(identity), "Identity field not found: {}", identity);
+            return new FieldSetSerializer<>(identity, new LinkedHashMap<>(writers));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("identity", identity) //
+                .add("fields", writers.keySet()) //
+                .add("compiledFieldSets", fieldSets.size()) //
+                .toString();
+    }
+}
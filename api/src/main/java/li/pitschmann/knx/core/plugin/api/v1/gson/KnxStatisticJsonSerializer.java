@@ -40,6 +40,7 @@ import li.pitschmann.knx.core.body.SearchResponseBody;
 import li.pitschmann.knx.core.body.TunnelingAckBody;
 import li.pitschmann.knx.core.body.TunnelingRequestBody;
 import li.pitschmann.knx.core.communication.KnxStatistic;
+import li.pitschmann.knx.core.plugin.statistic.StatisticSnapshot;
 
 import java.lang.reflect.Type;
 import java.util.function.Function;
@@ -56,16 +57,18 @@ public final class KnxStatisticJsonSerializer implements JsonSerializer<KnxStati
 
     @Override
     public JsonElement serialize(final KnxStatistic src, final Type typeOfSrc, final JsonSerializationContext context) {
+        // all values from one point in time
+        final var snapshot = StatisticSnapshot.of(src);
         final var jsonStatistic = new JsonObject();
 
         // received
         final var inboundTotal = new JsonObject();
-        inboundTotal.addProperty("packets", src.getNumberOfBodyReceived());
-        inboundTotal.addProperty("bytes", src.getNumberOfBytesReceived());
+        inboundTotal.addProperty("packets", snapshot.getNumberOfBodyReceived());
+        inboundTotal.addProperty("bytes", snapshot.getNumberOfBytesReceived());
 
         final var inbound = new JsonObject();
         inbound.add("total", inboundTotal);
-        final Function<Class<? extends Body>, Long> receivedFunction = src::getNumberOfBodyReceived;
+        final Function<Class<? extends Body>, Long> receivedFunction = snapshot::getNumberOfBodyReceived;
         inbound.add("search", getRequestResponsePair(receivedFunction, SearchRequestBody.class, SearchResponseBody.class));
         inbound.add("description", getRequestResponsePair(receivedFunction, DescriptionRequestBody.class, DescriptionResponseBody.class));
         inbound.add("connect", getRequestResponsePair(receivedFunction, ConnectRequestBody.class, ConnectResponseBody.class));
@@ -76,12 +79,12 @@ public final class KnxStatisticJsonSerializer implements JsonSerializer<KnxStati
 
         // sent
         final var outboundTotal = new JsonObject();
-        outboundTotal.addProperty("packets", src.getNumberOfBodySent());
-        outboundTotal.addProperty("bytes", src.getNumberOfBytesSent());
+        outboundTotal.addProperty("packets", snapshot.getNumberOfBodySent());
+        outboundTotal.addProperty("bytes", snapshot.getNumberOfBytesSent());
 
         final var outbound = new JsonObject();
         outbound.add("total", outboundTotal);
-        final Function<Class<? extends Body>, Long> sentFunction = src::getNumberOfBodySent;
+        final Function<Class<? extends Body>, Long> sentFunction = snapshot::getNumberOfBodySent;
         outbound.add("search", getRequestResponsePair(sentFunction, SearchRequestBody.class, SearchResponseBody.class));
         outbound.add("description", getRequestResponsePair(sentFunction, DescriptionRequestBody.class, DescriptionResponseBody.class));
         outbound.add("connect", getRequestResponsePair(sentFunction, ConnectRequestBody.class, ConnectResponseBody.class));
@@ -92,8 +95,8 @@ public final class KnxStatisticJsonSerializer implements JsonSerializer<KnxStati
 
         // error
         final var errorTotal = new JsonObject();
-        errorTotal.addProperty("packets", src.getNumberOfErrors());
-        errorTotal.addProperty("rate", src.getErrorRate());
+        errorTotal.addProperty("packets", snapshot.getNumberOfErrors());
+        errorTotal.addProperty("rate", snapshot.getErrorRate());
 
         final var error = new JsonObject();
         error.add("total", errorTotal);
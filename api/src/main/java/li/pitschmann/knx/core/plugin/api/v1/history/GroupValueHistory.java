@@ -0,0 +1,354 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.history;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.annotations.Nullable;
+import li.pitschmann.knx.core.datapoint.DataPointType;
+import li.pitschmann.knx.core.plugin.api.v1.json.GroupValueHistoryResponse;
+import li.pitschmann.knx.core.plugin.history.GroupValueHistoryStore;
+import li.pitschmann.knx.core.plugin.history.GroupValueVisitor;
+import li.pitschmann.knx.core.utils.ByteFormatter;
+import li.pitschmann.knx.core.utils.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Queries the {@link GroupValueHistoryStore} and decodes the recorded group values
+ * using the data point type of group address
+ * <p>
+ * The group values are either returned as recorded, or downsampled into buckets
+ * of {@code step} milliseconds with count, min, max, avg and last value per bucket.
+ * The numeric value of a data point value is taken from its {@code getValue()}
+ * method if it returns a number or boolean ({@code true} = 1, {@code false} = 0).
+ * <p>
+ * The group values are aggregated while the store is scanned, a downsampled query
+ * keeps only the buckets in memory. Every distinct group value is decoded once per query.
+ */
+public final class GroupValueHistory {
+    /**
+     * Maximum number of group values returned without downsampling ({@code step = 0})
+     */
+    public static final int MAX_RAW_RECORDS = 10_000;
+    private static final Logger log = LoggerFactory.getLogger(GroupValueHistory.class);
+    private static final ClassValue<Optional<Method>> NUMERIC_GETTERS = new ClassValue<>() {
+        @Override
+        protected Optional<Method> computeValue(final Class<?> type) {
+            try {
+                final var method = type.getMethod("getValue");
+                final var returnType = method.getReturnType();
+                if (Number.class.isAssignableFrom(returnType) || Boolean.class == returnType
+                        || (returnType.isPrimitive() && returnType != void.class && returnType != char.class)) {
+                    return Optional.of(method);
+                }
+            } catch (final NoSuchMethodException ex) {
+                // not numeric
+            }
+            return Optional.empty();
+        }
+    };
+    private final GroupValueHistoryStore store;
+
+    public GroupValueHistory(final GroupValueHistoryStore store) {
+        this.store = Objects.requireNonNull(store);
+    }
+
+    /**
+     * Returns the group values of {@code groupAddress} between {@code from} and {@code to} (both inclusive)
+     *
+     * @param groupAddress  the group address
+     * @param dataPointType the data point type to decode the group values; if {@code null} the
+     *                      raw data is returned as hex string
+     * @param from          epoch milliseconds (inclusive)
+     * @param to            epoch milliseconds (inclusive)
+     * @param step          bucket size in milliseconds; {@code 0} returns every recorded group value
+     * @return response containing the group values
+     * @throws IllegalArgumentException if the range is invalid, or if more than {@link #MAX_RAW_RECORDS}
+     *                                  group values would be returned without downsampling
+     * @throws IOException              if the history could not be read
+     */
+    public GroupValueHistoryResponse query(final GroupAddress groupAddress,
+                                           final @Nullable DataPointType dataPointType,
+                                           final long from,
+                                           final long to,
+                                           final long step) throws IOException {
+        Preconditions.checkArgument(from <= to, "From must not be after to: from={}, to={}", from, to);
+        Preconditions.checkArgument(step >= 0, "Step must not be negative: {}", step);
+
+        final var response = new GroupValueHistoryResponse();
+        response.setGroupAddress(groupAddress);
+        response.setDataPointType(dataPointType);
+        response.setFrom(from);
+        response.setTo(to);
+        response.setStep(step);
+        final var decoder = new Decoder(dataPointType);
+        if (step == 0) {
+            fillRaw(response, readRaw(groupAddress, from, to, decoder));
+        } else {
+            fillBuckets(response, readBuckets(groupAddress, from, to, step, decoder));
+        }
+        return response;
+    }
+
+    /**
+     * Reads every recorded group value, at most {@link #MAX_RAW_RECORDS}
+     *
+     * @return decoded group values, ordered by time
+     */
+    private List<Sample> readRaw(final GroupAddress groupAddress,
+                                 final long from,
+                                 final long to,
+                                 final Decoder decoder) throws IOException {
+        final var samples = new ArrayList<Sample>();
+        store.read(groupAddress, from, to, (time, response, data) -> {
+            Preconditions.checkArgument(samples.size() < MAX_RAW_RECORDS,
+                    "Too many group values in range (max. {}), narrow the range or use step", MAX_RAW_RECORDS);
+            samples.add(new Sample(time, decoder.decode(data)));
+        });
+        // normally already ordered, unless the wall-clock has been adjusted
+        samples.sort(Comparator.comparingLong(sample -> sample.time));
+        return samples;
+    }
+
+    /**
+     * Reads the group values aggregated per bucket of {@code step} milliseconds while
+     * scanning the store; the group values are not collected. Buckets without group
+     * values are omitted.
+     *
+     * @return buckets, ordered by time
+     */
+    private Collection<Bucket> readBuckets(final GroupAddress groupAddress,
+                                           final long from,
+                                           final long to,
+                                           final long step,
+                                           final Decoder decoder) throws IOException {
+        final var buckets = new TreeMap<Long, Bucket>();
+        store.read(groupAddress, from, to, new GroupValueVisitor() {
+            private Bucket bucket;
+
+            @Override
+            public void visit(final long time, final boolean response, final byte[] data) {
+                final var start = from + Math.floorDiv(time - from, step) * step;
+                // group values are normally ordered by time, look up only when the bucket changes
+                if (bucket == null || bucket.start != start) {
+                    bucket = buckets.computeIfAbsent(start, Bucket::new);
+                }
+                bucket.add(time, decoder.decode(data));
+            }
+        });
+        return buckets.values();
+    }
+
+    /**
+     * Fills the response with every recorded group value
+     */
+    private static void fillRaw(final GroupValueHistoryResponse response, final List<Sample> samples) {
+        final var size = samples.size();
+        final var timestamps = new long[size];
+        final var values = new Double[size];
+        final var texts = new String[size];
+        var numeric = false;
+        for (var i = 0; i < size; i++) {
+            final var sample = samples.get(i);
+            timestamps[i] = sample.time;
+            values[i] = sample.decoded.value;
+            texts[i] = sample.decoded.text;
+            numeric |= sample.decoded.value != null;
+        }
+        response.setTimestamps(timestamps);
+        response.setValues(numeric ? values : null);
+        response.setTexts(texts);
+    }
+
+    /**
+     * Fills the response with group values aggregated per bucket
+     */
+    private static void fillBuckets(final GroupValueHistoryResponse response, final Collection<Bucket> buckets) {
+        final var size = buckets.size();
+        final var timestamps = new long[size];
+        final var counts = new long[size];
+        final var min = new Double[size];
+        final var max = new Double[size];
+        final var avg = new Double[size];
+        final var values = new Double[size];
+        final var texts = new String[size];
+        var numeric = false;
+        var i = 0;
+        for (final var b : buckets) {
+            timestamps[i] = b.start;
+            counts[i] = b.count;
+            if (b.numericCount > 0) {
+                min[i] = b.min;
+                max[i] = b.max;
+                avg[i] = b.sum / b.numericCount;
+                numeric = true;
+            }
+            values[i] = b.last.value;
+            texts[i] = b.last.text;
+            i++;
+        }
+        response.setTimestamps(timestamps);
+        response.setCounts(counts);
+        if (numeric) {
+            response.setMin(min);
+            response.setMax(max);
+            response.setAvg(avg);
+            response.setValues(values);
+        }
+        response.setTexts(texts);
+    }
+
+    /**
+     * Returns the numeric value of data point value
+     *
+     * @param dataPointValue the data point value
+     * @return numeric value, or {@code null} if data point value is not numeric
+     */
+    private static @Nullable Double toNumber(final Object dataPointValue) {
+        final var getter = NUMERIC_GETTERS.get(dataPointValue.getClass());
+        if (getter.isEmpty()) {
+            return null;
+        }
+        try {
+            final var value = getter.get().invoke(dataPointValue);
+            if (value instanceof Number) {
+                final var number = ((Number) value).doubleValue();
+                // NaN and infinity are not supported by JSON
+                return Double.isFinite(number) ? number : null;
+            } else if (value instanceof Boolean) {
+                return (Boolean) value ? 1d : 0d;
+            }
+        } catch (final IllegalAccessException | InvocationTargetException ex) {
+            // not accessible
+        }
+        return null;
+    }
+
+    /**
+     * Decodes the group values of a single query. Group values repeat often, therefore
+     * the decoded group values are cached by their raw data (up to {@link #MAX_CACHED_VALUES}).
+     */
+    private static final class Decoder {
+        private static final int MAX_CACHED_VALUES = 1024;
+        private final Map<ByteBuffer, Decoded> cache = new HashMap<>();
+        private final @Nullable DataPointType dataPointType;
+
+        private Decoder(final @Nullable DataPointType dataPointType) {
+            this.dataPointType = dataPointType;
+        }
+
+        private Decoded decode(final byte[] data) {
+            // the data is not modified afterwards, it can be used as key
+            final var key = ByteBuffer.wrap(data);
+            var decoded = cache.get(key);
+            if (decoded == null) {
+                decoded = new Decoded(data, dataPointType);
+                if (cache.size() < MAX_CACHED_VALUES) {
+                    cache.put(key, decoded);
+                }
+            }
+            return decoded;
+        }
+    }
+
+    /**
+     * Decoded group value
+     */
+    private static final class Decoded {
+        private final String text;
+        private final @Nullable Double value;
+
+        private Decoded(final byte[] data, final @Nullable DataPointType dataPointType) {
+            String decodedText = null;
+            Double decodedValue = null;
+            if (dataPointType != null) {
+                try {
+                    final var dataPointValue = dataPointType.of(data);
+                    decodedText = dataPointValue.toText();
+                    decodedValue = toNumber(dataPointValue);
+                } catch (final RuntimeException ex) {
+                    log.debug("Could not decode group value '{}' with data point type: {}",
+                            ByteFormatter.formatHexAsString(data), dataPointType, ex);
+                }
+            }
+            this.text = decodedText == null ? ByteFormatter.formatHexAsString(data) : decodedText;
+            this.value = decodedValue;
+        }
+    }
+
+    /**
+     * Decoded group value with its time
+     */
+    private static final class Sample {
+        private final long time;
+        private final Decoded decoded;
+
+        private Sample(final long time, final Decoded decoded) {
+            this.time = time;
+            this.decoded = decoded;
+        }
+    }
+
+    /**
+     * Aggregation of group values within a bucket
+     */
+    private static final class Bucket {
+        private final long start;
+        private long count;
+        private long numericCount;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double sum;
+        private long lastTime = Long.MIN_VALUE;
+        private Decoded last;
+
+        private Bucket(final long start) {
+            this.start = start;
+        }
+
+        private void add(final long time, final Decoded decoded) {
+            count++;
+            if (decoded.value != null) {
+                numericCount++;
+                min = Math.min(min, decoded.value);
+                max = Math.max(max, decoded.value);
+                sum += decoded.value;
+            }
+            // the most recent group value (the wall-clock may have been adjusted)
+            if (time >= lastTime) {
+                lastTime = time;
+                last = decoded;
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package li.pitschmann.knx.core.plugin.api.v1.json;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.datapoint.DataPointType;
+import li.pitschmann.knx.core.utils.Strings;
+
+/**
+ * JSON group value history response
+ * <p>
+ * The group values are returned column-wise: the n-th element of each array
+ * belongs to the n-th timestamp. Without step, every recorded group value is
+ * returned; with step, the group values are aggregated per bucket (empty buckets
+ * are omitted) and {@code values} and {@code texts} contain the last group value
+ * of bucket.
+ * <p>
+ * Numeric columns ({@code values}, {@code min}, {@code max}, {@code avg}) are only
+ * present if the data point type is numeric.
+ */
+public class GroupValueHistoryResponse {
+    private GroupAddress groupAddress;
+    private DataPointType dataPointType;
+    private long from;
+    private long to;
+    private long step;
+    private long[] timestamps;
+    private long[] counts;
+    private Double[] min;
+    private Double[] max;
+    private Double[] avg;
+    private Double[] values;
+    private String[] texts;
+
+    public GroupAddress getGroupAddress() {
+        return groupAddress;
+    }
+
+    public void setGroupAddress(GroupAddress groupAddress) {
+        this.groupAddress = groupAddress;
+    }
+
+    public DataPointType getDataPointType() {
+        return dataPointType;
+    }
+
+    public void setDataPointType(DataPointType dataPointType) {
+        this.dataPointType = dataPointType;
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public void setFrom(long from) {
+        this.from = from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    public void setTo(long to) {
+        this.to = to;
+    }
+
+    public long getStep() {
+        return step;
+    }
+
+    public void setStep(long step) {
+        this.step = step;
+    }
+
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public void setTimestamps(long[] timestamps) {
+        this.timestamps = timestamps;
+    }
+
+    public long[] getCounts() {
+        return counts;
+    }
+
+    public void setCounts(long[] counts) {
+        this.counts = counts;
+    }
+
+    public Double[] getMin() {
+        return min;
+    }
+
+    public void setMin(Double[] min) {
+        this.min = min;
+    }
+
+    public Double[] getMax() {
+        return max;
+    }
+
+    public void setMax(Double[] max) {
+        this.max = max;
+    }
+
+    public Double[] getAvg() {
+        return avg;
+    }
+
+    public void setAvg(Double[] avg) {
+        this.avg = avg;
+    }
+
+    public Double[] getValues() {
+        return values;
+    }
+
+    public void setValues(Double[] values) {
+        this.values = values;
+    }
+
+    public String[] getTexts() {
+        return texts;
+    }
+
+    public void setTexts(String[] texts) {
+        this.texts = texts;
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("groupAddress", groupAddress) //
+                .add("from", from) //
+                .add("to", to) //
+                .add("step", step) //
+                .add("size", timestamps == null ? 0 : timestamps.length) //
+                .toString();
+    }
+}
@@ -0,0 +1,41 @@
+package li.pitschmann.knx.core.plugin.api.v1.json;
+
+import li.pitschmann.knx.core.plugin.statistic.AnomalyEvent;
+import li.pitschmann.knx.core.utils.Strings;
+
+import java.util.List;
+
+/**
+ * JSON statistic anomaly response
+ * <p>
+ * Contains the most recent anomaly events (oldest first) and the names
+ * of series that are tracked by the anomaly detector.
+ */
+public class StatisticAnomalyResponse {
+    private List<String> series = List.of();
+    private List<AnomalyEvent> events = List.of();
+
+    public List<String> getSeries() {
+        return series;
+    }
+
+    public void setSeries(List<String> series) {
+        this.series = series;
+    }
+
+    public List<AnomalyEvent> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<AnomalyEvent> events) {
+        this.events = events;
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("series", series)
+                .add("events", events)
+                .toString();
+    }
+}
@@ -0,0 +1,103 @@
+package li.pitschmann.knx.core.plugin.api.v1.json;
+
+import li.pitschmann.knx.core.utils.Strings;
+
+/**
+ * JSON statistic history response
+ * <p>
+ * The samples are returned column-wise: the n-th element of each array
+ * belongs to the n-th timestamp. The counters are cumulative.
+ */
+public class StatisticHistoryResponse {
+    private long from;
+    private long to;
+    private long step;
+    private long[] timestamps;
+    private long[] inboundPackets;
+    private long[] inboundBytes;
+    private long[] outboundPackets;
+    private long[] outboundBytes;
+    private long[] errors;
+
+    public long getFrom() {
+        return from;
+    }
+
+    public void setFrom(long from) {
+        this.from = from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    public void setTo(long to) {
+        this.to = to;
+    }
+
+    public long getStep() {
+        return step;
+    }
+
+    public void setStep(long step) {
+        this.step = step;
+    }
+
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public void setTimestamps(long[] timestamps) {
+        this.timestamps = timestamps;
+    }
+
+    public long[] getInboundPackets() {
+        return inboundPackets;
+    }
+
+    public void setInboundPackets(long[] inboundPackets) {
+        this.inboundPackets = inboundPackets;
+    }
+
+    public long[] getInboundBytes() {
+        return inboundBytes;
+    }
+
+    public void setInboundBytes(long[] inboundBytes) {
+        this.inboundBytes = inboundBytes;
+    }
+
+    public long[] getOutboundPackets() {
+        return outboundPackets;
+    }
+
+    public void setOutboundPackets(long[] outboundPackets) {
+        this.outboundPackets = outboundPackets;
+    }
+
+    public long[] getOutboundBytes() {
+        return outboundBytes;
+    }
+
+    public void setOutboundBytes(long[] outboundBytes) {
+        this.outboundBytes = outboundBytes;
+    }
+
+    public long[] getErrors() {
+        return errors;
+    }
+
+    public void setErrors(long[] errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("from", from) //
+                .add("to", to) //
+                .add("step", step) //
+                .add("samples", timestamps == null ? 0 : timestamps.length) //
+                .toString();
+    }
+}
@@ -0,0 +1,39 @@
+package li.pitschmann.knx.core.plugin.api.v1.json;
+
+import li.pitschmann.knx.core.plugin.statistic.RoundTripSummary;
+import li.pitschmann.knx.core.utils.Strings;
+
+/**
+ * JSON statistic latency response
+ * <p>
+ * Contains the round-trip times of tunneling requests and connection
+ * state requests since start. All times are in milliseconds.
+ */
+public class StatisticLatencyResponse {
+    private RoundTripSummary tunneling;
+    private RoundTripSummary connectionState;
+
+    public RoundTripSummary getTunneling() {
+        return tunneling;
+    }
+
+    public void setTunneling(RoundTripSummary tunneling) {
+        this.tunneling = tunneling;
+    }
+
+    public RoundTripSummary getConnectionState() {
+        return connectionState;
+    }
+
+    public void setConnectionState(RoundTripSummary connectionState) {
+        this.connectionState = connectionState;
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("tunneling", tunneling)
+                .add("connectionState", connectionState)
+                .toString();
+    }
+}
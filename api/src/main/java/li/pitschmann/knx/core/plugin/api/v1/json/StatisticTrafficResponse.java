@@ -0,0 +1,61 @@
+package li.pitschmann.knx.core.plugin.api.v1.json;
+
+import li.pitschmann.knx.core.plugin.statistic.AddressTraffic;
+import li.pitschmann.knx.core.utils.Strings;
+
+import java.util.List;
+
+/**
+ * JSON statistic traffic response
+ * <p>
+ * Contains the group addresses and source addresses with most telegrams,
+ * sorted descending. The counters are cumulative.
+ */
+public class StatisticTrafficResponse {
+    private long totalGroupTelegrams;
+    private long totalSourceTelegrams;
+    private List<AddressTraffic> groupAddresses = List.of();
+    private List<AddressTraffic> sourceAddresses = List.of();
+
+    public long getTotalGroupTelegrams() {
+        return totalGroupTelegrams;
+    }
+
+    public void setTotalGroupTelegrams(long totalGroupTelegrams) {
+        this.totalGroupTelegrams = totalGroupTelegrams;
+    }
+
+    public long getTotalSourceTelegrams() {
+        return totalSourceTelegrams;
+    }
+
+    public void setTotalSourceTelegrams(long totalSourceTelegrams) {
+        this.totalSourceTelegrams = totalSourceTelegrams;
+    }
+
+    public List<AddressTraffic> getGroupAddresses() {
+        return groupAddresses;
+    }
+
+    public void setGroupAddresses(List<AddressTraffic> groupAddresses) {
+        this.groupAddresses = groupAddresses;
+    }
+
+    public List<AddressTraffic> getSourceAddresses() {
+        return sourceAddresses;
+    }
+
+    public void setSourceAddresses(List<AddressTraffic> sourceAddresses) {
+        this.sourceAddresses = sourceAddresses;
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("totalGroupTelegrams", totalGroupTelegrams)
+                .add("totalSourceTelegrams", totalSourceTelegrams)
+                .add("groupAddresses", groupAddresses)
+                .add("sourceAddresses", sourceAddresses)
+                .toString();
+    }
+}
@@ -0,0 +1,68 @@
+package li.pitschmann.knx.core.plugin.api.v1.json;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.utils.Strings;
+
+import java.util.List;
+
+/**
+ * JSON for HTTP Status Query Request
+ */
+public final class StatusQueryRequest {
+    private List<GroupAddress> groupAddresses;
+    private List<String> ranges;
+    private List<String> dataPointTypes;
+    private Boolean dirty;
+    private Long updatedSince;
+
+    public List<GroupAddress> getGroupAddresses() {
+        return groupAddresses;
+    }
+
+    public void setGroupAddresses(final List<GroupAddress> groupAddresses) {
+        this.groupAddresses = groupAddresses;
+    }
+
+    public List<String> getRanges() {
+        return ranges;
+    }
+
+    public void setRanges(final List<String> ranges) {
+        this.ranges = ranges;
+    }
+
+    public List<String> getDataPointTypes() {
+        return dataPointTypes;
+    }
+
+    public void setDataPointTypes(final List<String> dataPointTypes) {
+        this.dataPointTypes = dataPointTypes;
+    }
+
+    public Boolean getDirty() {
+        return dirty;
+    }
+
+    public void setDirty(final Boolean dirty) {
+        this.dirty = dirty;
+    }
+
+    public Long getUpdatedSince() {
+        return updatedSince;
+    }
+
+    public void setUpdatedSince(final Long updatedSince) {
+        this.updatedSince = updatedSince;
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("groupAddresses", groupAddresses) //
+                .add("ranges", ranges) //
+                .add("dataPointTypes", dataPointTypes) //
+                .add("dirty", dirty) //
+                .add("updatedSince", updatedSince) //
+                .toString();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.metrics;
+
+import io.javalin.http.Handler;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Collects the metrics of API: requests per endpoint, requests in flight and
+ * latency histograms for the request handling, the KNX bus portion and the
+ * JSON serialization. The metrics are rendered in Prometheus text format.
+ */
+public final class ApiMetrics {
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentSkipListMap<>();
+    private final LatencyHistogram busReadLatency = new LatencyHistogram();
+    private final LatencyHistogram busWriteLatency = new LatencyHistogram();
+    private final LatencyHistogram serializationLatency = new LatencyHistogram();
+
+    /**
+     * Returns a {@link Handler} that records the metrics for given endpoint
+     * and delegates the request to the given {@code handler}
+     *
+     * @param method  the HTTP method (e.g. GET, POST)
+     * @param route   the route of endpoint (e.g. /api/v1/status/:address)
+     * @param handler the handler to be instrumented
+     * @return instrumented handler
+     */
+    public Handler instrument(final String method, final String route, final Handler handler) {
+        Objects.requireNonNull(method);
+        Objects.requireNonNull(route);
+        Objects.requireNonNull(handler);
+        final var metrics = endpoints.computeIfAbsent(route + " " + method, k -> new EndpointMetrics(method, route));
+        return ctx -> metrics.handle(ctx, handler);
+    }
+
+    /**
+     * Returns the latency histogram for waiting on KNX bus for read requests
+     *
+     * @return latency histogram
+     */
+    public LatencyHistogram getBusReadLatency() {
+        return busReadLatency;
+    }
+
+    /**
+     * Returns the latency histogram for waiting on KNX bus for write requests
+     *
+     * @return latency histogram
+     */
+    public LatencyHistogram getBusWriteLatency() {
+        return busWriteLatency;
+    }
+
+    /**
+     * Returns the latency histogram for JSON serialization of responses
+     *
+     * @return latency histogram
+     */
+    public LatencyHistogram getSerializationLatency() {
+        return serializationLatency;
+    }
+
+    /**
+     * Renders all metrics in Prometheus text format (version 0.0.4)
+     *
+     * @return metrics as text
+     */
+    public String toPrometheusText() {
+        final var sb = new StringBuilder(4096);
+
+        writeHeader(sb, "knx_api_requests_total", "counter", "Total number of HTTP requests per endpoint and status code");
+        for (final var endpoint : endpoints.values()) {
+            for (final var entry : endpoint.getRequestsByStatus().entrySet()) {
+                sb.append("knx_api_requests_total{");
+                writeEndpointLabels(sb, endpoint);
+                sb.append(",status=\"").append(entry.getKey()).append("\"} ").append(entry.getValue().sum()).append('\n');
+            }
+        }
+
+        writeHeader(sb, "knx_api_requests_in_flight", "gauge", "Number of HTTP requests currently in progress per endpoint");
+        for (final var endpoint : endpoints.values()) {
+            sb.append("knx_api_requests_in_flight{");
+            writeEndpointLabels(sb, endpoint);
+            sb.append("} ").append(endpoint.getInFlight()).append('\n');
+        }
+
+        writeHeader(sb, "knx_api_request_duration_seconds", "summary", "Duration of HTTP request handling per endpoint");
+        for (final var endpoint : endpoints.values()) {
+            final var labels = new StringBuilder();
+            writeEndpointLabels(labels, endpoint);
+            writeSummary(sb, "knx_api_request_duration_seconds", labels.toString(), endpoint.getLatency());
+        }
+
+        writeHeader(sb, "knx_api_bus_duration_seconds", "summary", "Duration waiting for acknowledge of KNX bus");
+        writeSummary(sb, "knx_api_bus_duration_seconds", "operation=\"read\"", busReadLatency);
+        writeSummary(sb, "knx_api_bus_duration_seconds", "operation=\"write\"", busWriteLatency);
+
+        writeHeader(sb, "knx_api_serialization_duration_seconds", "summary", "Duration of JSON serialization of responses");
+        writeSummary(sb, "knx_api_serialization_duration_seconds", "", serializationLatency);
+
+        return sb.toString();
+    }
+
+    private static void writeHeader(final StringBuilder sb, final String name, final String type, final String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void writeEndpointLabels(final StringBuilder sb, final EndpointMetrics endpoint) {
+        sb.append("method=\"");
+        writeLabelValue(sb, endpoint.getMethod());
+        sb.append("\",route=\"");
+        writeLabelValue(sb, endpoint.getRoute());
+        sb.append('"');
+    }
+
+    private static void writeSummary(final StringBuilder sb, final String name, final String labels, final LatencyHistogram histogram) {
+        final var separator = labels.isEmpty() ? "" : ",";
+        for (final var quantile : QUANTILES) {
+            sb.append(name).append('{').append(labels).append(separator).append("quantile=\"").append(quantile).append("\"} ")
+                    .append(histogram.getValueAtQuantile(quantile)).append('\n');
+        }
+        final var suffixLabels = labels.isEmpty() ? "" : "{" + labels + "}";
+        sb.append(name).append("_sum").append(suffixLabels).append(' ').append(histogram.getSumSeconds()).append('\n');
+        sb.append(name).append("_count").append(suffixLabels).append(' ').append(histogram.getCount()).append('\n');
+    }
+
+    /**
+     * Writes the label value escaped according to Prometheus text format
+     * (backslash, double-quote and line feed)
+     */
+    private static void writeLabelValue(final StringBuilder sb, final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final var c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.metrics;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of a single API endpoint (HTTP method and route)
+ */
+final class EndpointMetrics {
+    private final String method;
+    private final String route;
+    private final Map<Integer, LongAdder> requestsByStatus = new ConcurrentSkipListMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    EndpointMetrics(final String method, final String route) {
+        this.method = method;
+        this.route = route;
+    }
+
+    /**
+     * Handles the request using given {@link Handler} and records the metrics.
+     * If the {@link Handler} throws an exception, the request is counted as
+     * {@code 500 Internal Server Error}.
+     * <p>
+     * An asynchronous request (with result future, e.g. long polling) is recorded when
+     * the result future has been completed; if completed exceptionally, the request is
+     * counted as {@code 500 Internal Server Error}.
+     *
+     * @param ctx     the Javalin context
+     * @param handler the handler of endpoint
+     * @throws Exception exception thrown by the {@link Handler}
+     */
+    void handle(final Context ctx, final Handler handler) throws Exception {
+        inFlight.incrementAndGet();
+        final var start = System.nanoTime();
+        var handled = false;
+        try {
+            handler.handle(ctx);
+            handled = true;
+        } finally {
+            final var future = handled ? ctx.resultFuture() : null;
+            if (future != null) {
+                future.whenComplete((result, throwable) ->
+                        record(start, throwable == null ? ctx.status() : HttpServletResponse.SC_INTERNAL_SERVER_ERROR));
+            } else {
+                record(start, handled ? ctx.status() : HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        }
+    }
+
+    private void record(final long start, final int status) {
+        latency.record(System.nanoTime() - start);
+        inFlight.decrementAndGet();
+        requestsByStatus.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    String getMethod() {
+        return method;
+    }
+
+    String getRoute() {
+        return route;
+    }
+
+    Map<Integer, LongAdder> getRequestsByStatus() {
+        return requestsByStatus;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    LatencyHistogram getLatency() {
+        return latency;
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.metrics;
+
+import li.pitschmann.knx.core.annotations.Nullable;
+import li.pitschmann.knx.core.body.Body;
+import li.pitschmann.knx.core.body.ConnectRequestBody;
+import li.pitschmann.knx.core.body.ConnectResponseBody;
+import li.pitschmann.knx.core.body.ConnectionStateRequestBody;
+import li.pitschmann.knx.core.body.ConnectionStateResponseBody;
+import li.pitschmann.knx.core.body.DescriptionRequestBody;
+import li.pitschmann.knx.core.body.DescriptionResponseBody;
+import li.pitschmann.knx.core.body.DisconnectRequestBody;
+import li.pitschmann.knx.core.body.DisconnectResponseBody;
+import li.pitschmann.knx.core.body.RoutingIndicationBody;
+import li.pitschmann.knx.core.body.SearchRequestBody;
+import li.pitschmann.knx.core.body.SearchResponseBody;
+import li.pitschmann.knx.core.body.TunnelingAckBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.communication.KnxStatistic;
+import li.pitschmann.knx.core.plugin.statistic.StatisticSnapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Exports the {@link KnxStatistic} in OpenMetrics text format
+ * <p>
+ * The body counters are labelled by direction ({@code inbound}, {@code outbound}),
+ * body type ({@code search}, {@code description}, {@code connect}, {@code connection_state},
+ * {@code tunneling}, {@code indication}, {@code disconnect}) and kind ({@code request},
+ * {@code response}) which are the same pairs as in the JSON representation of statistic.
+ * <p>
+ * All metric names, labels and comments are encoded once when the exporter is created.
+ * Per scrape a single pre-sized byte buffer is allocated and filled with the encoded
+ * lines and the current values; no strings are created.
+ */
+public final class KnxStatisticExporter {
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    /**
+     * Maximum number of characters of a long value (incl. sign)
+     */
+    private static final int MAX_LONG_LENGTH = 20;
+    /**
+     * Number of fraction digits for gauges with floating point
+     */
+    private static final int FRACTION_DIGITS = 4;
+    private static final long FRACTION_SCALE = 10_000L;
+    private final List<Line> lines = new ArrayList<>();
+    private final int capacity;
+
+    public KnxStatisticExporter() {
+        addComment("# TYPE knx_packets counter\n# HELP knx_packets Total number of KNX packets\n");
+        addCounter("knx_packets_total{direction=\"inbound\"} ", KnxStatistic::getNumberOfBodyReceived);
+        addCounter("knx_packets_total{direction=\"outbound\"} ", KnxStatistic::getNumberOfBodySent);
+
+        addComment("# TYPE knx_bytes counter\n# HELP knx_bytes Total number of KNX bytes\n# UNIT knx_bytes bytes\n");
+        addCounter("knx_bytes_total{direction=\"inbound\"} ", KnxStatistic::getNumberOfBytesReceived);
+        addCounter("knx_bytes_total{direction=\"outbound\"} ", KnxStatistic::getNumberOfBytesSent);
+
+        addComment("# TYPE knx_bodies counter\n# HELP knx_bodies Number of KNX packets per body type\n");
+        addBodies("inbound", "search", SearchRequestBody.class, SearchResponseBody.class);
+        addBodies("inbound", "description", DescriptionRequestBody.class, DescriptionResponseBody.class);
+        addBodies("inbound", "connect", ConnectRequestBody.class, ConnectResponseBody.class);
+        addBodies("inbound", "connection_state", ConnectionStateRequestBody.class, ConnectionStateResponseBody.class);
+        addBodies("inbound", "tunneling", TunnelingRequestBody.class, TunnelingAckBody.class);
+        addBodies("inbound", "indication", null, RoutingIndicationBody.class);
+        addBodies("inbound", "disconnect", DisconnectRequestBody.class, DisconnectResponseBody.class);
+        addBodies("outbound", "search", SearchRequestBody.class, SearchResponseBody.class);
+        addBodies("outbound", "description", DescriptionRequestBody.class, DescriptionResponseBody.class);
+        addBodies("outbound", "connect", ConnectRequestBody.class, ConnectResponseBody.class);
+        addBodies("outbound", "connection_state", ConnectionStateRequestBody.class, ConnectionStateResponseBody.class);
+        addBodies("outbound", "tunneling", TunnelingRequestBody.class, TunnelingAckBody.class);
+        addBodies("outbound", "indication", RoutingIndicationBody.class, null);
+        addBodies("outbound", "disconnect", DisconnectRequestBody.class, DisconnectResponseBody.class);
+
+        addComment("# TYPE knx_errors counter\n# HELP knx_errors Total number of errors\n");
+        addCounter("knx_errors_total ", KnxStatistic::getNumberOfErrors);
+
+        addComment("# TYPE knx_error_rate gauge\n# HELP knx_error_rate Error rate in percent\n");
+        addGauge("knx_error_rate ", KnxStatistic::getErrorRate);
+
+        addComment("# EOF\n");
+
+        var size = 0;
+        for (final var line : lines) {
+            size += line.prefix.length + line.maxValueLength;
+        }
+        this.capacity = size;
+    }
+
+    /**
+     * Exports the given {@link KnxStatistic} in OpenMetrics text format. All
+     * values are taken from a single {@link StatisticSnapshot}.
+     *
+     * @param liveStatistic the statistic to be exported
+     * @return byte buffer with UTF-8 encoded text, ready to be read
+     */
+    public ByteBuffer export(final KnxStatistic liveStatistic) {
+        final var statistic = StatisticSnapshot.of(liveStatistic);
+        final var buffer = new byte[capacity];
+        var position = 0;
+        for (final var line : lines) {
+            System.arraycopy(line.prefix, 0, buffer, position, line.prefix.length);
+            position += line.prefix.length;
+            if (line.longFunction != null) {
+                position = writeLong(buffer, position, line.longFunction.applyAsLong(statistic));
+                buffer[position++] = '\n';
+            } else if (line.doubleFunction != null) {
+                position = writeDouble(buffer, position, line.doubleFunction.applyAsDouble(statistic));
+                buffer[position++] = '\n';
+            }
+        }
+        return ByteBuffer.wrap(buffer, 0, position);
+    }
+
+    private void addComment(final String comment) {
+        lines.add(new Line(comment, null, null, 0));
+    }
+
+    private void addCounter(final String prefix, final ToLongFunction<KnxStatistic> function) {
+        lines.add(new Line(prefix, function, null, MAX_LONG_LENGTH + 1));
+    }
+
+    private void addGauge(final String prefix, final ToDoubleFunction<KnxStatistic> function) {
+        lines.add(new Line(prefix, null, function, MAX_LONG_LENGTH + 1 + FRACTION_DIGITS + 1));
+    }
+
+    private void addBodies(final String direction,
+                           final String type,
+                           final @Nullable Class<? extends Body> requestBodyClass,
+                           final @Nullable Class<? extends Body> responseBodyClass) {
+        final var inbound = "inbound".equals(direction);
+        if (requestBodyClass != null) {
+            addCounter("knx_bodies_total{direction=\"" + direction + "\",type=\"" + type + "\",kind=\"request\"} ",
+                    inbound ? s -> s.getNumberOfBodyReceived(requestBodyClass) : s -> s.getNumberOfBodySent(requestBodyClass));
+        }
+        if (responseBodyClass != null) {
+            addCounter("knx_bodies_total{direction=\"" + direction + "\",type=\"" + type + "\",kind=\"response\"} ",
+                    inbound ? s -> s.getNumberOfBodyReceived(responseBodyClass) : s -> s.getNumberOfBodySent(responseBodyClass));
+        }
+    }
+
+    /**
+     * Writes the ASCII representation of {@code value} into the buffer
+     *
+     * @return new position in buffer
+     */
+    private static int writeLong(final byte[] buffer, final int position, final long value) {
+        if (value == Long.MIN_VALUE) {
+            final var minValue = Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(minValue, 0, buffer, position, minValue.length);
+            return position + minValue.length;
+        }
+        var pos = position;
+        var remaining = value;
+        if (remaining < 0) {
+            buffer[pos++] = '-';
+            remaining = -remaining;
+        }
+        final var length = numberOfDigits(remaining);
+        for (int i = pos + length - 1; i >= pos; i--) {
+            buffer[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return pos + length;
+    }
+
+    /**
+     * Writes the ASCII representation of {@code value} with fixed number of
+     * fraction digits into the buffer. {@code NaN} and infinite values are
+     * written as specified by OpenMetrics.
+     *
+     * @return new position in buffer
+     */
+    private static int writeDouble(final byte[] buffer, final int position, final double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= Long.MAX_VALUE / FRACTION_SCALE) {
+            final var special = (Double.isNaN(value) ? "NaN" : value > 0 ? "+Inf" : "-Inf").getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(special, 0, buffer, position, special.length);
+            return position + special.length;
+        }
+        var pos = position;
+        var scaled = Math.round(value * FRACTION_SCALE);
+        if (scaled < 0) {
+            buffer[pos++] = '-';
+            scaled = -scaled;
+        }
+        pos = writeLong(buffer, pos, scaled / FRACTION_SCALE);
+        buffer[pos++] = '.';
+        var fraction = scaled % FRACTION_SCALE;
+        for (int i = pos + FRACTION_DIGITS - 1; i >= pos; i--) {
+            buffer[i] = (byte) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        return pos + FRACTION_DIGITS;
+    }
+
+    private static int numberOfDigits(final long value) {
+        var digits = 1;
+        var remaining = value;
+        while (remaining >= 10) {
+            remaining /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Pre-encoded line of OpenMetrics text with function to obtain the value (if any)
+     */
+    private static final class Line {
+        private final byte[] prefix;
+        private final ToLongFunction<KnxStatistic> longFunction;
+        private final ToDoubleFunction<KnxStatistic> doubleFunction;
+        private final int maxValueLength;
+
+        private Line(final String prefix,
+                     final @Nullable ToLongFunction<KnxStatistic> longFunction,
+                     final @Nullable ToDoubleFunction<KnxStatistic> doubleFunction,
+                     final int maxValueLength) {
+            this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+            this.longFunction = longFunction;
+            this.doubleFunction = doubleFunction;
+            this.maxValueLength = maxValueLength;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Latency histogram based on HDR Histogram
+ * <p>
+ * Durations are recorded in microseconds with a precision of two significant
+ * digits (max. 1% error) up to one minute. Longer durations are recorded as one
+ * minute. Recording is wait-free and may be called concurrently.
+ */
+public final class LatencyHistogram {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private final ConcurrentHistogram histogram = new ConcurrentHistogram(1, HIGHEST_TRACKABLE_MICROS, 2);
+    private final LongAdder sumNanos = new LongAdder();
+
+    /**
+     * Records the duration
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void record(final long nanos) {
+        final var micros = Math.max(0, Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS));
+        histogram.recordValue(micros);
+        sumNanos.add(Math.max(0, nanos));
+    }
+
+    /**
+     * Calls the {@link Supplier} and records the duration of it
+     *
+     * @param supplier the supplier to be timed
+     * @param <T>      type of result
+     * @return the result of {@link Supplier}
+     */
+    public <T> T time(final Supplier<T> supplier) {
+        final var start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the total number of recorded durations
+     *
+     * @return count of recorded durations
+     */
+    public long getCount() {
+        return histogram.getTotalCount();
+    }
+
+    /**
+     * Returns the sum of all recorded durations
+     *
+     * @return sum in seconds
+     */
+    public double getSumSeconds() {
+        return sumNanos.sum() / 1e9;
+    }
+
+    /**
+     * Returns the duration at given {@code quantile}
+     *
+     * @param quantile the quantile between 0.0 and 1.0 (e.g. 0.99 for p99)
+     * @return duration in seconds, {@link Double#NaN} if nothing has been recorded yet
+     */
+    public double getValueAtQuantile(final double quantile) {
+        if (histogram.getTotalCount() == 0) {
+            return Double.NaN;
+        }
+        return histogram.getValueAtPercentile(quantile * 100) / 1e6;
+    }
+}
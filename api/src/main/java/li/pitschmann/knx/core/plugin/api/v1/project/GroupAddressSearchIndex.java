@@ -0,0 +1,295 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.project;
+
+import li.pitschmann.knx.core.annotations.Nullable;
+import li.pitschmann.knx.core.knxproj.XmlGroupAddress;
+import li.pitschmann.knx.core.knxproj.XmlProject;
+import li.pitschmann.knx.core.utils.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Search index over names and descriptions of {@link XmlGroupAddress} for type-ahead search
+ * <p>
+ * Names and descriptions are normalized: lower case, accents folded (a letter with
+ * diacritical mark is found by its base letter) and all characters other than letters
+ * and digits are treated as word separators. The index is immutable and built once per project.
+ * <p>
+ * A search term with at least three characters matches when it is contained in the name
+ * or description, candidates are looked up in a trigram index. Shorter terms match the
+ * beginning of a word and are looked up in a prefix index. All terms of a query must match.
+ * <p>
+ * Matches are ranked by where the terms were found: whole word of name, beginning of a
+ * word of name, inside of name and finally description only. Shorter names come first
+ * within the same rank.
+ */
+public final class GroupAddressSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(GroupAddressSearchIndex.class);
+    private static final Pattern DIACRITICAL_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int GRAM_LENGTH = 3;
+    private static final int MAX_SCORE_PER_TERM = 8;
+    private static final int MATCH_NONE = 0;
+    private static final int MATCH_INSIDE = 1;
+    private static final int MATCH_WORD_PREFIX = 2;
+    private static final int MATCH_WORD = 3;
+    private final XmlGroupAddress[] groupAddresses;
+    private final String[] names;
+    private final String[] texts;
+    private final Map<String, int[]> grams;
+    private final Map<String, int[]> prefixes;
+
+    public GroupAddressSearchIndex(final Collection<XmlGroupAddress> groupAddresses) {
+        final var start = System.nanoTime();
+        this.groupAddresses = groupAddresses.toArray(new XmlGroupAddress[0]);
+        this.names = new String[this.groupAddresses.length];
+        this.texts = new String[this.groupAddresses.length];
+
+        final var gramPostings = new HashMap<String, Postings>();
+        final var prefixPostings = new HashMap<String, Postings>();
+        for (int doc = 0; doc < this.groupAddresses.length; doc++) {
+            final var xmlGroupAddress = this.groupAddresses[doc];
+            names[doc] = normalize(xmlGroupAddress.getName());
+            texts[doc] = (names[doc] + " " + normalize(xmlGroupAddress.getDescription())).trim();
+            for (final var word : texts[doc].split(" ")) {
+                for (int i = 1; i < GRAM_LENGTH && i <= word.length(); i++) {
+                    prefixPostings.computeIfAbsent(word.substring(0, i), k -> new Postings()).add(doc);
+                }
+                for (int i = 0; i + GRAM_LENGTH <= word.length(); i++) {
+                    gramPostings.computeIfAbsent(word.substring(i, i + GRAM_LENGTH), k -> new Postings()).add(doc);
+                }
+            }
+        }
+        this.grams = toArrays(gramPostings);
+        this.prefixes = toArrays(prefixPostings);
+        log.debug("Search index built for {} group addresses in {} ms (trigrams: {}, prefixes: {})",
+                this.groupAddresses.length, (System.nanoTime() - start) / 1_000_000, grams.size(), prefixes.size());
+    }
+
+    /**
+     * Creates the search index for group addresses of {@link XmlProject}
+     *
+     * @param xmlProject the XML project; if {@code null} the index is empty
+     * @return a new search index
+     */
+    public static GroupAddressSearchIndex of(final @Nullable XmlProject xmlProject) {
+        return new GroupAddressSearchIndex(xmlProject == null ? List.of() : xmlProject.getGroupAddresses());
+    }
+
+    /**
+     * Returns the normalized text used for indexing and searching
+     *
+     * @param text the text to be normalized, may be {@code null}
+     * @return lower case words without accents, separated by a single space
+     */
+    static String normalize(final @Nullable String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        final var folded = DIACRITICAL_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(folded.toLowerCase(Locale.ROOT).replace("\u00df", "ss")).replaceAll(" ").trim();
+    }
+
+    /**
+     * Searches the group addresses by name and description
+     *
+     * @param query the search query, terms are separated by whitespace
+     * @param limit maximum number of matches to be returned
+     * @return ranked list of matching group addresses
+     */
+    public List<XmlGroupAddress> search(final String query, final int limit) {
+        Preconditions.checkArgument(limit >= 0, "Limit should be 0 or greater: {}", limit);
+        final var normalized = normalize(query);
+        if (normalized.isEmpty() || limit == 0) {
+            return List.of();
+        }
+        final var terms = normalized.split(" ");
+
+        // the shortest posting list of all terms is the smallest superset of matches
+        int[] candidates = null;
+        for (final var term : terms) {
+            if (term.length() < GRAM_LENGTH) {
+                candidates = shorter(candidates, prefixes.get(term));
+            } else {
+                for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+                    candidates = shorter(candidates, grams.get(term.substring(i, i + GRAM_LENGTH)));
+                }
+            }
+            if (candidates.length == 0) {
+                return List.of();
+            }
+        }
+
+        // rank and tie-break packed into a single long: score (descending), length of name, position in project
+        // only the best matches are kept in a max-heap, the root is the worst of them
+        final var ranked = new long[Math.min(limit, candidates.length)];
+        var size = 0;
+        for (final var doc : candidates) {
+            final var score = score(doc, terms);
+            if (score > 0) {
+                final var rank = (long) (terms.length * MAX_SCORE_PER_TERM - score) << 48
+                        | (long) Math.min(names[doc].length(), 0xFFFF) << 32 | doc;
+                if (size < ranked.length) {
+                    ranked[size++] = rank;
+                    if (size == ranked.length) {
+                        for (int i = size / 2 - 1; i >= 0; i--) {
+                            siftDown(ranked, i, size);
+                        }
+                    }
+                } else if (rank < ranked[0]) {
+                    ranked[0] = rank;
+                    siftDown(ranked, 0, size);
+                }
+            }
+        }
+        Arrays.sort(ranked, 0, size);
+
+        final var matches = new ArrayList<XmlGroupAddress>(size);
+        for (int i = 0; i < size; i++) {
+            matches.add(groupAddresses[(int) ranked[i]]);
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the score of group address for all terms, or {@code 0} if at least one term doesn't match
+     *
+     * @param doc   the position of group address in index
+     * @param terms the normalized search terms
+     * @return score
+     */
+    private int score(final int doc, final String[] terms) {
+        var total = 0;
+        for (final var term : terms) {
+            final var nameMatch = match(names[doc], term);
+            if (nameMatch == MATCH_WORD) {
+                total += MAX_SCORE_PER_TERM;
+            } else if (nameMatch == MATCH_WORD_PREFIX) {
+                total += 4;
+            } else if (nameMatch == MATCH_INSIDE && term.length() >= GRAM_LENGTH) {
+                total += 2;
+            } else {
+                final var textMatch = match(texts[doc], term);
+                if (textMatch == MATCH_NONE || (textMatch == MATCH_INSIDE && term.length() < GRAM_LENGTH)) {
+                    return 0;
+                }
+                total += 1;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the best match of {@code term} in {@code text}: whole word, beginning of a word,
+     * inside of a word or none. Words are separated by a single space.
+     */
+    private static int match(final String text, final String term) {
+        var best = MATCH_NONE;
+        for (int i = text.indexOf(term); i >= 0; i = text.indexOf(term, i + 1)) {
+            if (i == 0 || text.charAt(i - 1) == ' ') {
+                final var end = i + term.length();
+                if (end == text.length() || text.charAt(end) == ' ') {
+                    return MATCH_WORD;
+                }
+                best = MATCH_WORD_PREFIX;
+            } else if (best == MATCH_NONE) {
+                best = MATCH_INSIDE;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Moves the element at {@code index} down in the max-heap until its children are not greater
+     */
+    private static void siftDown(final long[] heap, final int index, final int size) {
+        var i = index;
+        while (2 * i + 1 < size) {
+            var child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[i] >= heap[child]) {
+                return;
+            }
+            final var tmp = heap[i];
+            heap[i] = heap[child];
+            heap[child] = tmp;
+            i = child;
+        }
+    }
+
+    /**
+     * Returns the shorter posting list; a missing posting list is an empty list
+     */
+    private static int[] shorter(final @Nullable int[] current, final @Nullable int[] postings) {
+        if (postings == null) {
+            return new int[0];
+        }
+        return current == null || postings.length < current.length ? postings : current;
+    }
+
+    private static Map<String, int[]> toArrays(final Map<String, Postings> postings) {
+        final var arrays = new HashMap<String, int[]>(postings.size() * 4 / 3 + 1);
+        postings.forEach((key, value) -> arrays.put(key, value.toArray()));
+        return arrays;
+    }
+
+    /**
+     * Returns the number of indexed group addresses
+     *
+     * @return number of group addresses
+     */
+    public int size() {
+        return groupAddresses.length;
+    }
+
+    /**
+     * Growing list of ascending positions of group addresses without duplicates
+     */
+    private static final class Postings {
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(final int doc) {
+            if (size > 0 && values[size - 1] == doc) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = doc;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
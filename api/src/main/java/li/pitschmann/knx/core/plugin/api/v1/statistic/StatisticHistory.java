@@ -0,0 +1,124 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.statistic;
+
+import li.pitschmann.knx.core.communication.KnxStatistic;
+import li.pitschmann.knx.core.plugin.api.v1.json.StatisticHistoryResponse;
+import li.pitschmann.knx.core.plugin.statistic.StatisticSnapshot;
+import li.pitschmann.knx.core.utils.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory history of {@link KnxStatistic} samples
+ * <p>
+ * The samples are recorded every second and kept in three tiers:
+ * <ul>
+ *     <li>1 second resolution for the last hour</li>
+ *     <li>1 minute resolution for the last 24 hours</li>
+ *     <li>1 hour resolution for the last 30 days</li>
+ * </ul>
+ * The coarser tiers are downsampled by taking the first sample of each minute
+ * (resp. hour). As the counters of {@link KnxStatistic} are cumulative, no
+ * information is lost except the resolution.
+ */
+public final class StatisticHistory {
+    private static final int COLUMNS = 5;
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toMillis(1);
+    private static final long ONE_MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long ONE_HOUR = TimeUnit.HOURS.toMillis(1);
+    // tiers: from finest to coarsest resolution
+    private final StatisticRingBuffer[] tiers = {
+            new StatisticRingBuffer(ONE_SECOND, 60 * 60, COLUMNS),
+            new StatisticRingBuffer(ONE_MINUTE, 24 * 60, COLUMNS),
+            new StatisticRingBuffer(ONE_HOUR, 30 * 24, COLUMNS)
+    };
+    private final long[] sample = new long[COLUMNS];
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    /**
+     * Records the current values of {@link KnxStatistic}
+     *
+     * @param timestamp epoch milliseconds of sample; must be later than the previous sample
+     * @param statistic the statistic to be recorded
+     */
+    public synchronized void record(final long timestamp, final KnxStatistic statistic) {
+        if (timestamp <= lastTimestamp) {
+            // clock went backwards, keep the samples in chronological order
+            return;
+        }
+        final var snapshot = StatisticSnapshot.of(statistic);
+        sample[0] = snapshot.getCounter(StatisticSnapshot.INBOUND_PACKETS);
+        sample[1] = snapshot.getCounter(StatisticSnapshot.INBOUND_BYTES);
+        sample[2] = snapshot.getCounter(StatisticSnapshot.OUTBOUND_PACKETS);
+        sample[3] = snapshot.getCounter(StatisticSnapshot.OUTBOUND_BYTES);
+        sample[4] = snapshot.getCounter(StatisticSnapshot.ERRORS);
+
+        for (final var tier : tiers) {
+            final var resolution = tier.getResolutionMs();
+            if (lastTimestamp == Long.MIN_VALUE || timestamp / resolution != lastTimestamp / resolution) {
+                tier.add(timestamp, sample);
+            }
+        }
+        lastTimestamp = timestamp;
+    }
+
+    /**
+     * Returns the samples between {@code from} and {@code to} (both inclusive).
+     * <p>
+     * The finest tier that covers {@code from} is used; if none covers it then
+     * the coarsest tier with samples. If the {@code step} is
+     * finer than resolution of the tier, the resolution of tier is used as step.
+     *
+     * @param from epoch milliseconds (inclusive)
+     * @param to   epoch milliseconds (inclusive)
+     * @param step step in milliseconds
+     * @return response containing the samples
+     */
+    public StatisticHistoryResponse query(final long from, final long to, final long step) {
+        Preconditions.checkArgument(from <= to, "From must not be after to: from={}, to={}", from, to);
+        Preconditions.checkArgument(step > 0, "Step must be positive: {}", step);
+
+        // finest tier covering 'from', otherwise the coarsest tier with samples
+        var tier = tiers[0];
+        for (final var candidate : tiers) {
+            final var oldestTimestamp = candidate.getOldestTimestamp();
+            if (oldestTimestamp != Long.MAX_VALUE) {
+                tier = candidate;
+                if (oldestTimestamp <= from) {
+                    break;
+                }
+            }
+        }
+        final var effectiveStep = Math.max(step, tier.getResolutionMs());
+        final var samples = tier.query(from, to, effectiveStep);
+
+        final var response = new StatisticHistoryResponse();
+        response.setFrom(from);
+        response.setTo(to);
+        response.setStep(effectiveStep);
+        response.setTimestamps(samples[0]);
+        response.setInboundPackets(samples[1]);
+        response.setInboundBytes(samples[2]);
+        response.setOutboundPackets(samples[3]);
+        response.setOutboundBytes(samples[4]);
+        response.setErrors(samples[5]);
+        return response;
+    }
+}
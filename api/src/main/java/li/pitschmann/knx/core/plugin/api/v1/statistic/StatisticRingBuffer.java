@@ -0,0 +1,142 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.statistic;
+
+import li.pitschmann.knx.core.utils.Preconditions;
+
+/**
+ * Fixed-size ring buffer of statistic samples
+ * <p>
+ * The samples are stored in primitive {@code long} arrays without boxing.
+ * When the ring buffer is full, the oldest sample is overwritten. The
+ * samples must be added in chronological order.
+ */
+final class StatisticRingBuffer {
+    private final long resolutionMs;
+    private final int capacity;
+    private final int columns;
+    private final long[] timestamps;
+    private final long[] values;
+    private int head; // index of next sample to be written
+    private int size;
+
+    /**
+     * Creates a new ring buffer
+     *
+     * @param resolutionMs the (nominal) resolution of samples in milliseconds
+     * @param capacity     the maximum number of samples
+     * @param columns      the number of values per sample
+     */
+    StatisticRingBuffer(final long resolutionMs, final int capacity, final int columns) {
+        Preconditions.checkArgument(resolutionMs > 0, "Resolution must be positive: {}", resolutionMs);
+        Preconditions.checkArgument(capacity > 0, "Capacity must be positive: {}", capacity);
+        Preconditions.checkArgument(columns > 0, "Columns must be positive: {}", columns);
+        this.resolutionMs = resolutionMs;
+        this.capacity = capacity;
+        this.columns = columns;
+        this.timestamps = new long[capacity];
+        this.values = new long[capacity * columns];
+    }
+
+    /**
+     * Adds a new sample to the ring buffer
+     *
+     * @param timestamp epoch milliseconds of sample
+     * @param sample    the values of sample, length must be same as number of columns
+     */
+    synchronized void add(final long timestamp, final long[] sample) {
+        timestamps[head] = timestamp;
+        System.arraycopy(sample, 0, values, head * columns, columns);
+        head = (head + 1) % capacity;
+        if (size < capacity) {
+            size++;
+        }
+    }
+
+    /**
+     * Returns the timestamp of oldest sample
+     *
+     * @return epoch milliseconds of oldest sample, or {@link Long#MAX_VALUE} if empty
+     */
+    synchronized long getOldestTimestamp() {
+        return size == 0 ? Long.MAX_VALUE : timestamps[index(0)];
+    }
+
+    /**
+     * Returns the samples between {@code from} and {@code to} (both inclusive).
+     * Per {@code step} only the latest sample is returned.
+     *
+     * @param from epoch milliseconds (inclusive)
+     * @param to   epoch milliseconds (inclusive)
+     * @param step step in milliseconds, must be positive
+     * @return samples with first column timestamps and then the values per column
+     */
+    synchronized long[][] query(final long from, final long to, final long step) {
+        // first pass: count the samples
+        var count = 0;
+        var lastBucket = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            final var timestamp = timestamps[index(i)];
+            if (timestamp >= from && timestamp <= to) {
+                final var bucket = (timestamp - from) / step;
+                if (bucket != lastBucket) {
+                    count++;
+                    lastBucket = bucket;
+                }
+            }
+        }
+
+        // second pass: copy the latest sample of each bucket
+        final var result = new long[columns + 1][count];
+        var pos = -1;
+        lastBucket = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            final var index = index(i);
+            final var timestamp = timestamps[index];
+            if (timestamp >= from && timestamp <= to) {
+                final var bucket = (timestamp - from) / step;
+                if (bucket != lastBucket) {
+                    pos++;
+                    lastBucket = bucket;
+                }
+                result[0][pos] = timestamp;
+                for (int c = 0; c < columns; c++) {
+                    result[c + 1][pos] = values[index * columns + c];
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the (nominal) resolution of samples
+     *
+     * @return resolution in milliseconds
+     */
+    long getResolutionMs() {
+        return resolutionMs;
+    }
+
+    /**
+     * Returns the physical array index of n-th oldest sample
+     */
+    private int index(final int n) {
+        return (head - size + n + capacity) % capacity;
+    }
+}
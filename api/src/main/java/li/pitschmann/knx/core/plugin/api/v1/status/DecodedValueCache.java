@@ -0,0 +1,147 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.status;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.KnxAddress;
+import li.pitschmann.knx.core.annotations.Nullable;
+import li.pitschmann.knx.core.communication.KnxStatusData;
+import li.pitschmann.knx.core.datapoint.DataPointRegistry;
+import li.pitschmann.knx.core.datapoint.DataPointType;
+import li.pitschmann.knx.core.knxproj.XmlGroupAddress;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of decoded values per group address
+ * <p>
+ * Most group addresses hold the same value between two polls of status.
+ * The decoded value is therefore kept per group address and re-used as long
+ * as the status data (timestamp and raw data) and the data point type of
+ * group address are unchanged. The entry is invalidated when a new telegram
+ * arrives for the group address.
+ */
+public final class DecodedValueCache {
+    private final Map<GroupAddress, DecodedValue> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the decoded value of status data for given group address. The value
+     * is decoded only if there is no cached value for the status data.
+     *
+     * @param groupAddress    the group address
+     * @param xmlGroupAddress the XML group address that defines the data point type
+     * @param knxStatusData   the status data of group address
+     * @return decoded value
+     */
+    public DecodedValue get(final GroupAddress groupAddress,
+                            final XmlGroupAddress xmlGroupAddress,
+                            final KnxStatusData knxStatusData) {
+        final var dataPointTypeId = xmlGroupAddress.getDataPointType();
+        final var timestamp = knxStatusData.getTimestamp();
+        final var data = knxStatusData.getData();
+
+        final var cached = cache.get(groupAddress);
+        if (cached != null && cached.isFor(dataPointTypeId, timestamp, data)) {
+            return cached;
+        }
+
+        final var decodedValue = new DecodedValue(dataPointTypeId, timestamp, data);
+        cache.put(groupAddress, decodedValue);
+        return decodedValue;
+    }
+
+    /**
+     * Invalidates the decoded value of given address, e.g. when a new telegram arrived
+     *
+     * @param address the address which status has been changed
+     */
+    public void invalidate(final KnxAddress address) {
+        cache.remove(Objects.requireNonNull(address));
+    }
+
+    /**
+     * Returns the number of cached decoded values
+     *
+     * @return size of cache
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Decoded value of status data. The text is decoded on first access only.
+     */
+    public static final class DecodedValue {
+        private final String dataPointTypeId;
+        private final Instant timestamp;
+        private final byte[] data;
+        private final DataPointType dataPointType;
+        private volatile String text;
+
+        private DecodedValue(final String dataPointTypeId, final Instant timestamp, final byte[] data) {
+            this.dataPointTypeId = dataPointTypeId;
+            this.timestamp = timestamp;
+            this.data = data;
+            this.dataPointType = DataPointRegistry.getDataPointType(dataPointTypeId);
+        }
+
+        private boolean isFor(final @Nullable String dataPointTypeId, final Instant timestamp, final byte[] data) {
+            return Objects.equals(this.dataPointTypeId, dataPointTypeId)
+                    && this.timestamp.equals(timestamp)
+                    && Arrays.equals(this.data, data);
+        }
+
+        /**
+         * Returns the data point type of group address
+         *
+         * @return data point type
+         */
+        public DataPointType getDataPointType() {
+            return dataPointType;
+        }
+
+        /**
+         * Returns the unit of data point type
+         *
+         * @return unit
+         */
+        public String getUnit() {
+            return dataPointType.getUnit();
+        }
+
+        /**
+         * Returns the human-friendly text of decoded value
+         *
+         * @return text
+         */
+        public String getText() {
+            var result = text;
+            if (result == null) {
+                // benign race: in worst case the value is decoded twice
+                result = dataPointType.of(data).toText();
+                text = result;
+            }
+            return result;
+        }
+    }
+}
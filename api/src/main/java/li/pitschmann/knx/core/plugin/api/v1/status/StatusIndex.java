@@ -0,0 +1,186 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.status;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.KnxAddress;
+import li.pitschmann.knx.core.datapoint.DataPointRegistry;
+import li.pitschmann.knx.core.knxproj.XmlProject;
+import li.pitschmann.knx.core.utils.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Index of group addresses for querying the KNX status pool without scanning it
+ * <p>
+ * The group addresses are stored as bits of their raw 16-bit value. As the main group
+ * occupies the highest 5 bits and the middle group the next 3 bits, every main group
+ * and every main/middle group is a contiguous range of 2048 respectively 256 bits and
+ * can be selected with a few word operations.
+ * <p>
+ * The data point types of XML project are indexed as inverted index: data point type
+ * id (e.g. {@code 9.001}) and family (e.g. {@code 9}) to the bits of group addresses.
+ * The data point types of XML project (e.g. {@code DPST-9-1}) are resolved using the
+ * {@link DataPointRegistry} first.
+ */
+public final class StatusIndex {
+    /**
+     * Number of group addresses (raw values from 0 to 65535)
+     */
+    public static final int NUMBER_OF_ADDRESSES = 1 << 16;
+    private static final Logger log = LoggerFactory.getLogger(StatusIndex.class);
+    private static final int MAX_MAIN = 31;
+    private static final int MAX_MIDDLE = 7;
+    private final BitSet addresses = new BitSet(NUMBER_OF_ADDRESSES);
+    private boolean seeded;
+    private XmlProject indexedProject;
+    private Map<String, BitSet> dataPointTypeIndex = Map.of();
+
+    /**
+     * Adds the {@link KnxAddress} when it is a {@link GroupAddress}
+     *
+     * @param address the address which status has been changed
+     */
+    public void add(final KnxAddress address) {
+        if (address instanceof GroupAddress) {
+            final var raw = toRaw((GroupAddress) address);
+            synchronized (addresses) {
+                addresses.set(raw);
+            }
+        }
+    }
+
+    /**
+     * Adds the addresses of {@code supplier} once, e.g. the addresses of status pool
+     * that were known before the first change notification
+     *
+     * @param supplier supplier of addresses, called only for the first time
+     */
+    public void seed(final Supplier<? extends Collection<? extends KnxAddress>> supplier) {
+        synchronized (addresses) {
+            if (seeded) {
+                return;
+            }
+            // filled while holding the lock, so concurrent queries never see a partly seeded index
+            for (final var address : supplier.get()) {
+                if (address instanceof GroupAddress) {
+                    addresses.set(toRaw((GroupAddress) address));
+                }
+            }
+            seeded = true;
+        }
+    }
+
+    /**
+     * Returns a copy of all indexed group addresses
+     *
+     * @return bits of raw group addresses
+     */
+    public BitSet getAddresses() {
+        synchronized (addresses) {
+            return (BitSet) addresses.clone();
+        }
+    }
+
+    /**
+     * Returns the group addresses of XML project with given data point type id
+     * (e.g. {@code 9.001}) or data point type family (e.g. {@code 9})
+     *
+     * @param xmlProject    the XML project
+     * @param dataPointType the data point type id or family
+     * @return bits of raw group addresses, not to be modified
+     */
+    public synchronized BitSet getAddressesOf(final XmlProject xmlProject, final String dataPointType) {
+        Objects.requireNonNull(xmlProject);
+        if (indexedProject != xmlProject) {
+            dataPointTypeIndex = indexDataPointTypes(xmlProject);
+            indexedProject = xmlProject;
+        }
+        return dataPointTypeIndex.getOrDefault(dataPointType.trim(), new BitSet());
+    }
+
+    /**
+     * Creates the inverted index of data point type id and family to group addresses
+     *
+     * @param xmlProject the XML project
+     * @return map of data point type id and family to bits of raw group addresses
+     */
+    private static Map<String, BitSet> indexDataPointTypes(final XmlProject xmlProject) {
+        final var index = new HashMap<String, BitSet>();
+        for (final var xmlGroupAddress : xmlProject.getGroupAddresses()) {
+            final var dataPointType = xmlGroupAddress.getDataPointType();
+            if (dataPointType == null || dataPointType.isBlank()) {
+                continue;
+            }
+            // XML project may contain data point types like 'DPST-9-1' or 'DPT-9', normalized to id like '9.001'
+            final String id;
+            try {
+                id = DataPointRegistry.getDataPointType(dataPointType).getId();
+            } catch (final RuntimeException ex) {
+                log.debug("Data point type '{}' of group address '{}' is not supported: {}",
+                        dataPointType, xmlGroupAddress.getAddress(), ex.getMessage());
+                continue;
+            }
+            final var raw = toRaw(GroupAddress.of(xmlGroupAddress.getAddress()));
+            index.computeIfAbsent(id, k -> new BitSet()).set(raw);
+            final var dot = id.indexOf('.');
+            if (dot > 0) {
+                index.computeIfAbsent(id.substring(0, dot), k -> new BitSet()).set(raw);
+            }
+        }
+        log.debug("Data point types indexed of XML project: {}", index.keySet());
+        return index;
+    }
+
+    /**
+     * Returns the range of raw group addresses of main group or main/middle group
+     * as {@code [from, to)} where {@code middle} is {@code null} for the whole main group.
+     *
+     * @param main   the main group (0-31)
+     * @param middle the middle group (0-7), may be {@code null}
+     * @return array with inclusive start and exclusive end of range
+     */
+    public static int[] rangeOf(final int main, final Integer middle) {
+        Preconditions.checkArgument(main >= 0 && main <= MAX_MAIN, "Invalid main group: {}", main);
+        if (middle == null) {
+            return new int[]{main << 11, (main + 1) << 11};
+        }
+        Preconditions.checkArgument(middle >= 0 && middle <= MAX_MIDDLE, "Invalid middle group: {}", middle);
+        final var from = main << 11 | middle << 8;
+        return new int[]{from, from + 256};
+    }
+
+    /**
+     * Returns the raw 16-bit value of {@link GroupAddress}
+     *
+     * @param groupAddress the group address
+     * @return raw value
+     */
+    public static int toRaw(final GroupAddress groupAddress) {
+        final var bytes = groupAddress.toByteArray();
+        return (bytes[0] & 0xFF) << 8 | (bytes[1] & 0xFF);
+    }
+}
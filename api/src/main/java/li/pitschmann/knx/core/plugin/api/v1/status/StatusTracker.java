@@ -0,0 +1,123 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.status;
+
+import li.pitschmann.knx.core.address.KnxAddress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the changes of KNX status pool
+ * <p>
+ * Requests may wait for the change of a single address (long polling)
+ * without blocking a thread; all waiting requests of an address are woken
+ * up by a single change notification.
+ * <p>
+ * The change notification may arrive before the status pool of KNX client
+ * has been updated, waiting requests must check the status pool again.
+ * <p>
+ * Every change notification increments the version of status pool, which is
+ * used as entity tag of the whole status pool without scanning it.
+ */
+public final class StatusTracker {
+    private static final Logger log = LoggerFactory.getLogger(StatusTracker.class);
+    private final Map<KnxAddress, Set<CompletableFuture<Boolean>>> waiters = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Instant lastModified = Instant.now();
+
+    /**
+     * Notifies that the status for given {@link KnxAddress} has been changed
+     *
+     * @param address the address which status has been changed
+     */
+    public void onChange(final KnxAddress address) {
+        Objects.requireNonNull(address);
+        log.trace("Status changed for address: {}", address);
+        lastModified = Instant.now();
+        version.incrementAndGet();
+
+        // wake up all requests waiting for change of address
+        final var addressWaiters = waiters.remove(address);
+        if (addressWaiters != null) {
+            addressWaiters.forEach(waiter -> waiter.complete(Boolean.TRUE));
+        }
+    }
+
+    /**
+     * Returns a future that is completed when the status for given {@link KnxAddress}
+     * has been changed or when the timeout elapsed. The future is completed by the
+     * thread that notified the change, dependent stages should be executed asynchronously.
+     *
+     * @param address   the address to wait for
+     * @param timeoutMs the timeout in milliseconds
+     * @return future with {@code true} if changed, {@code false} if the timeout elapsed
+     */
+    public CompletableFuture<Boolean> awaitChange(final KnxAddress address, final long timeoutMs) {
+        Objects.requireNonNull(address);
+        final var waiter = new CompletableFuture<Boolean>();
+        // registration is atomic with the removal in onChange(KnxAddress)
+        waiters.compute(address, (key, addressWaiters) -> {
+            final var set = addressWaiters == null ? ConcurrentHashMap.<CompletableFuture<Boolean>>newKeySet() : addressWaiters;
+            set.add(waiter);
+            return set;
+        });
+        waiter.whenComplete((changed, throwable) -> waiters.computeIfPresent(address, (key, addressWaiters) -> {
+            addressWaiters.remove(waiter);
+            return addressWaiters.isEmpty() ? null : addressWaiters;
+        }));
+        return waiter.completeOnTimeout(Boolean.FALSE, timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the version of status pool, incremented on every change notification
+     *
+     * @return version of status pool
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Returns the time of the most recent change notification, or the time of
+     * creation if there was no change notification yet
+     *
+     * @return time of last modification
+     */
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Returns the number of requests that are waiting for a change
+     *
+     * @return number of waiting requests
+     */
+    public int getNumberOfWaiters() {
+        return waiters.values().stream().mapToInt(Set::size).sum();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.KnxAddress;
+import li.pitschmann.knx.core.cemi.APCI;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.communication.KnxStatistic;
+import li.pitschmann.knx.core.communication.KnxStatusData;
+import li.pitschmann.knx.core.communication.KnxStatusPool;
+import li.pitschmann.knx.core.config.Config;
+import li.pitschmann.knx.core.config.ConfigValue;
+import li.pitschmann.knx.core.knxproj.XmlProject;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Load benchmark of {@link ApiPlugin} with different web server settings
+ * <p>
+ * Concurrent clients request the ping endpoint (small response) and the status endpoint
+ * (large response) on keep-alive connections; the throughput in requests per second is
+ * printed for each setting.
+ * <p>
+ * Not part of the test suite, run it manually via its {@code main} method.
+ */
+public final class ApiPluginLoadBenchmark {
+    private static final int CLIENTS = 32;
+    private static final int STATUS_ENTRIES = 100;
+    private static final Duration WARMUP = Duration.ofSeconds(2);
+    private static final Duration DURATION = Duration.ofSeconds(5);
+
+    private ApiPluginLoadBenchmark() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final var scenarios = new LinkedHashMap<String, Map<ConfigValue<?>, Object>>();
+        scenarios.put("defaults", Map.of());
+        scenarios.put("maxThreads=8", Map.of(ApiPlugin.MIN_THREADS, 4, ApiPlugin.MAX_THREADS, 8));
+        scenarios.put("maxThreads=500", Map.of(ApiPlugin.MIN_THREADS, 32, ApiPlugin.MAX_THREADS, 500));
+        scenarios.put("no keep-alive", Map.of(ApiPlugin.MAX_REQUESTS_PER_CONNECTION, 1));
+        scenarios.put("maxRequestsPerConnection=100", Map.of(ApiPlugin.MAX_REQUESTS_PER_CONNECTION, 100));
+        scenarios.put("outputBufferSize=4096", Map.of(ApiPlugin.OUTPUT_BUFFER_SIZE, 4096));
+        scenarios.put("outputBufferSize=131072", Map.of(ApiPlugin.OUTPUT_BUFFER_SIZE, 131072));
+
+        var port = 4780;
+        System.out.printf("%-32s %14s %14s%n", "Setting", "ping [req/s]", "status [req/s]");
+        for (final var scenario : scenarios.entrySet()) {
+            final var plugin = new ApiPlugin();
+            plugin.onInitialization(mockKnxClient(port++, scenario.getValue()));
+            plugin.onStart();
+            try {
+                final var ping = run(plugin.getPort(), "/api/v1/ping");
+                final var status = run(plugin.getPort(), "/api/v1/status");
+                System.out.printf("%-32s %,14.0f %,14.0f%n", scenario.getKey(), ping, status);
+            } finally {
+                plugin.onShutdown();
+            }
+        }
+    }
+
+    /**
+     * Sends requests from {@link #CLIENTS} concurrent clients
+     *
+     * @return throughput in requests per second after warmup
+     */
+    private static double run(final int port, final String path) throws InterruptedException {
+        final var executor = Executors.newFixedThreadPool(CLIENTS);
+        final var httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor).build();
+        final var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        final var running = new AtomicBoolean(true);
+        final var measuring = new AtomicBoolean(false);
+        final var requests = new LongAdder();
+
+        final var threads = new ArrayList<Thread>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            final var thread = new Thread(() -> {
+                while (running.get()) {
+                    try {
+                        httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (measuring.get()) {
+                            requests.increment();
+                        }
+                    } catch (final Exception ex) {
+                        // failed requests are not counted
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        Thread.sleep(WARMUP.toMillis());
+        measuring.set(true);
+        final var start = System.nanoTime();
+        Thread.sleep(DURATION.toMillis());
+        measuring.set(false);
+        final var elapsed = System.nanoTime() - start;
+        running.set(false);
+        for (final var thread : threads) {
+            thread.join();
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        return requests.sum() * 1e9 / elapsed;
+    }
+
+    private static KnxClient mockKnxClient(final int port, final Map<ConfigValue<?>, Object> settings) {
+        // stub only: invocations are not recorded, otherwise the mocks would slow down under load
+        final var knxClientMock = mock(KnxClient.class, withSettings().stubOnly());
+        final var configMock = mock(Config.class, withSettings().stubOnly());
+        final var projectMock = mock(XmlProject.class, withSettings().stubOnly());
+        final var statusPoolMock = mock(KnxStatusPool.class, withSettings().stubOnly());
+        when(knxClientMock.getConfig()).thenReturn(configMock);
+        when(knxClientMock.getStatistic()).thenReturn(mock(KnxStatistic.class, withSettings().stubOnly()));
+        when(knxClientMock.getConfig(any(ConfigValue.class))).thenAnswer(i -> {
+            final ConfigValue<?> configValue = i.getArgument(0);
+            if (configValue == ApiPlugin.PORT) {
+                return port;
+            }
+            return settings.containsKey(configValue) ? settings.get(configValue) : configValue.getDefaultValue();
+        });
+        when(projectMock.getGroupAddresses()).thenReturn(List.of());
+        when(configMock.getProject()).thenReturn(projectMock);
+        when(knxClientMock.getStatusPool()).thenReturn(statusPoolMock);
+
+        final var statusMap = new LinkedHashMap<KnxAddress, KnxStatusData>();
+        for (int i = 1; i <= STATUS_ENTRIES; i++) {
+            final var groupAddress = GroupAddress.of(i);
+            statusMap.put(groupAddress, new KnxStatusData(groupAddress, APCI.GROUP_VALUE_WRITE, new byte[]{(byte) i}));
+        }
+        when(statusPoolMock.copyStatusMap()).thenReturn(statusMap);
+        return knxClientMock;
+    }
+}
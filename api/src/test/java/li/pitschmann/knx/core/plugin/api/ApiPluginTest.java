@@ -18,23 +18,57 @@
 
 package li.pitschmann.knx.core.plugin.api;
 
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.IndividualAddress;
+import li.pitschmann.knx.core.address.KnxAddress;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.cemi.APCI;
+import li.pitschmann.knx.core.cemi.CEMI;
 import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.communication.KnxStatistic;
+import li.pitschmann.knx.core.communication.KnxStatusData;
+import li.pitschmann.knx.core.communication.KnxStatusPool;
 import li.pitschmann.knx.core.config.Config;
+import li.pitschmann.knx.core.config.ConfigValue;
 import li.pitschmann.knx.core.knxproj.XmlGroupAddressStyle;
 import li.pitschmann.knx.core.knxproj.XmlProject;
 import li.pitschmann.knx.core.utils.Preconditions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ProtocolFamily;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -56,6 +90,8 @@ class ApiPluginTest {
         final var configMock = mock(Config.class);
         final var projectMock = mock(XmlProject.class);
         when(knxClientMock.getConfig()).thenReturn(configMock);
+        when(knxClientMock.getStatistic()).thenReturn(mock(KnxStatistic.class));
+        when(knxClientMock.getConfig(any(ConfigValue.class))).thenAnswer(i -> ((ConfigValue<?>) i.getArgument(0)).getDefaultValue());
         when(knxClientMock.getConfig(ApiPlugin.PORT)).thenReturn(4711);
         when(projectMock.getGroupAddressStyle()).thenReturn(XmlGroupAddressStyle.FREE_LEVEL);
         when(projectMock.getGroupRanges()).thenReturn(List.of());
@@ -84,11 +120,292 @@ class ApiPluginTest {
             final var httpResponse2 = HttpClient.newHttpClient().send(httpRequest2, HttpResponse.BodyHandlers.ofString());
             assertThat(httpResponse2.statusCode()).isEqualTo(200);
             assertThat(httpResponse2.body()).isNotEmpty();
+
+            // verify if metrics contain the previous requests
+            final var httpRequest3 = newRequestBuilder(plugin, "/api/v1/metrics").build();
+            final var httpResponse3 = HttpClient.newHttpClient().send(httpRequest3, HttpResponse.BodyHandlers.ofString());
+            assertThat(httpResponse3.statusCode()).isEqualTo(200);
+            assertThat(httpResponse3.headers().firstValue("Content-Type")).hasValue("text/plain; version=0.0.4; charset=utf-8");
+            assertThat(httpResponse3.body())
+                    .contains("knx_api_requests_total{method=\"GET\",route=\"/api/v1/ping\",status=\"200\"} 1\n")
+                    .contains("knx_api_requests_total{method=\"GET\",route=\"/api/v1/project\",status=\"200\"} 1\n")
+                    .contains("knx_api_requests_in_flight{method=\"GET\",route=\"/api/v1/metrics\"} 1\n")
+                    .contains("knx_api_request_duration_seconds_count{method=\"GET\",route=\"/api/v1/ping\"} 1\n")
+                    .contains("knx_api_serialization_duration_seconds_count 1\n");
         } finally {
             plugin.onShutdown();
         }
     }
 
+    @Test
+    @DisplayName("Test the compression and conditional GET of status endpoint")
+    void testCompressionAndConditionalGet() throws IOException, InterruptedException {
+        final var plugin = new ApiPlugin();
+
+        //
+        // Mocking
+        //
+
+        final var knxClientMock = mock(KnxClient.class);
+        final var configMock = mock(Config.class);
+        final var projectMock = mock(XmlProject.class);
+        final var statusPoolMock = mock(KnxStatusPool.class);
+        when(knxClientMock.getConfig()).thenReturn(configMock);
+        when(knxClientMock.getStatistic()).thenReturn(mock(KnxStatistic.class));
+        when(knxClientMock.getConfig(any(ConfigValue.class))).thenAnswer(i -> ((ConfigValue<?>) i.getArgument(0)).getDefaultValue());
+        when(knxClientMock.getConfig(ApiPlugin.PORT)).thenReturn(4712);
+        when(knxClientMock.getStatusPool()).thenReturn(statusPoolMock);
+        when(configMock.getProject()).thenReturn(projectMock);
+
+        // status map that is big enough to be compressed
+        final var statusMap = new LinkedHashMap<KnxAddress, KnxStatusData>();
+        for (var i = 1; i <= 50; i++) {
+            final var groupAddress = GroupAddress.of(i);
+            statusMap.put(groupAddress, new KnxStatusData(groupAddress, APCI.GROUP_VALUE_WRITE, new byte[]{(byte) i}));
+        }
+        when(statusPoolMock.copyStatusMap()).thenReturn(statusMap);
+
+        //
+        // Verification
+        //
+        try {
+            plugin.onInitialization(knxClientMock);
+            plugin.onStart();
+
+            // first request should be compressed and contain an entity tag
+            final var httpRequest = newRequestBuilder(plugin, "/api/v1/status").header("Accept-Encoding", "gzip").build();
+            final var httpResponse = HttpClient.newHttpClient().send(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
+            assertThat(httpResponse.statusCode()).isEqualTo(207);
+            assertThat(httpResponse.headers().firstValue("Content-Encoding")).hasValue("gzip");
+            assertThat(httpResponse.headers().firstValue("Last-Modified")).isPresent();
+            final var etag = httpResponse.headers().firstValue("ETag").orElseThrow();
+
+            // second request with same entity tag should not be modified
+            final var httpRequest2 = newRequestBuilder(plugin, "/api/v1/status").header("If-None-Match", etag).build();
+            final var httpResponse2 = HttpClient.newHttpClient().send(httpRequest2, HttpResponse.BodyHandlers.ofString());
+            assertThat(httpResponse2.statusCode()).isEqualTo(304);
+            assertThat(httpResponse2.body()).isEmpty();
+
+            // simulate an incoming frame that changes the status pool
+            final var cemiMock = mock(CEMI.class);
+            when(cemiMock.getSourceAddress()).thenReturn(IndividualAddress.of(1, 1, 1));
+            when(cemiMock.getDestinationAddress()).thenReturn(GroupAddress.of(1));
+            when(cemiMock.toByteArray()).thenReturn(new byte[11]);
+            final var bodyMock = mock(TunnelingRequestBody.class);
+            when(bodyMock.getCEMI()).thenReturn(cemiMock);
+            plugin.onIncomingBody(bodyMock);
+            statusMap.put(GroupAddress.of(1), new KnxStatusData(GroupAddress.of(1), APCI.GROUP_VALUE_WRITE, new byte[]{(byte) 100}));
+
+            // third request with same entity tag should be modified
+            final var httpRequest3 = newRequestBuilder(plugin, "/api/v1/status").header("If-None-Match", etag).build();
+            final var httpResponse3 = HttpClient.newHttpClient().send(httpRequest3, HttpResponse.BodyHandlers.ofString());
+            assertThat(httpResponse3.statusCode()).isEqualTo(207);
+            assertThat(httpResponse3.headers().firstValue("ETag")).isPresent().isNotEqualTo(Optional.of(etag));
+        } finally {
+            plugin.onShutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test the web server settings are applied")
+    void testWebServerSettings() throws IOException, InterruptedException {
+        final var plugin = new ApiPlugin();
+
+        //
+        // Mocking
+        //
+
+        final var knxClientMock = mock(KnxClient.class);
+        final var configMock = mock(Config.class);
+        final var projectMock = mock(XmlProject.class);
+        when(knxClientMock.getConfig()).thenReturn(configMock);
+        when(knxClientMock.getStatistic()).thenReturn(mock(KnxStatistic.class));
+        when(knxClientMock.getConfig(any(ConfigValue.class))).thenAnswer(i -> ((ConfigValue<?>) i.getArgument(0)).getDefaultValue());
+        when(knxClientMock.getConfig(ApiPlugin.PORT)).thenReturn(4714);
+        when(knxClientMock.getConfig(ApiPlugin.MAX_REQUESTS_PER_CONNECTION)).thenReturn(2);
+        when(knxClientMock.getConfig(ApiPlugin.REQUEST_HEADER_SIZE)).thenReturn(1024);
+        when(projectMock.getGroupAddresses()).thenReturn(List.of());
+        when(configMock.getProject()).thenReturn(projectMock);
+
+        //
+        // Verification
+        //
+        try {
+            plugin.onInitialization(knxClientMock);
+            plugin.onStart();
+
+            // connection is closed after the second request
+            try (final var socket = new Socket("localhost", 4714)) {
+                final var out = socket.getOutputStream();
+                final var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                out.write("GET /api/v1/ping HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                assertThat(readHeaders(in)).contains("HTTP/1.1 200 OK").doesNotContain("Connection: close");
+                out.write("GET /api/v1/ping HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                assertThat(readHeaders(in)).contains("HTTP/1.1 200 OK", "Connection: close");
+            }
+
+            // request header is too large
+            final var httpRequest = newRequestBuilder(plugin, "/api/v1/ping").header("X-Large", "x".repeat(2048)).build();
+            final var httpResponse = HttpClient.newHttpClient().send(httpRequest, HttpResponse.BodyHandlers.ofString());
+            assertThat(httpResponse.statusCode()).isEqualTo(431);
+        } finally {
+            plugin.onShutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test the admission control rejects read requests over the limit while KNX bus is slow")
+    void testAdmissionControl() throws Exception {
+        final var plugin = new ApiPlugin();
+
+        //
+        // Mocking
+        //
+
+        final var knxClientMock = mock(KnxClient.class);
+        final var configMock = mock(Config.class);
+        final var projectMock = mock(XmlProject.class);
+        final var entered = new CountDownLatch(1);
+        final var proceed = new CountDownLatch(1);
+        when(knxClientMock.getConfig()).thenReturn(configMock);
+        when(knxClientMock.getStatistic()).thenReturn(mock(KnxStatistic.class));
+        when(knxClientMock.getConfig(any(ConfigValue.class))).thenAnswer(i -> ((ConfigValue<?>) i.getArgument(0)).getDefaultValue());
+        when(knxClientMock.getConfig(ApiPlugin.PORT)).thenReturn(4715);
+        when(knxClientMock.getConfig(ApiPlugin.BUS_CONCURRENCY_LIMIT)).thenReturn(1);
+        when(knxClientMock.readRequest(any(GroupAddress.class), anyLong())).thenAnswer(i -> {
+            // slow KNX bus without acknowledge
+            entered.countDown();
+            return !proceed.await(5, TimeUnit.SECONDS);
+        });
+        when(projectMock.getGroupAddresses()).thenReturn(List.of());
+        when(configMock.getProject()).thenReturn(projectMock);
+
+        //
+        // Verification
+        //
+        try {
+            plugin.onInitialization(knxClientMock);
+            plugin.onStart();
+
+            final var httpClient = HttpClient.newHttpClient();
+            final var readRequest = newRequestBuilder(plugin, "/api/v1/read")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"groupAddress\":\"1/2/3\"}")).build();
+            final var firstResponse = httpClient.sendAsync(readRequest, HttpResponse.BodyHandlers.ofString());
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // second read request is rejected immediately
+            final var rejectedResponse = httpClient.send(readRequest, HttpResponse.BodyHandlers.ofString());
+            assertThat(rejectedResponse.statusCode()).isEqualTo(503);
+            assertThat(rejectedResponse.headers().firstValue("Retry-After")).hasValue("1");
+
+            // other endpoints are not affected
+            final var pingResponse = httpClient.send(newRequestBuilder(plugin, "/api/v1/ping").build(), HttpResponse.BodyHandlers.ofString());
+            assertThat(pingResponse.statusCode()).isEqualTo(200);
+
+            proceed.countDown();
+            assertThat(firstResponse.get(5, TimeUnit.SECONDS).statusCode()).isEqualTo(500);
+        } finally {
+            proceed.countDown();
+            plugin.onShutdown();
+        }
+    }
+
+    /**
+     * Reads the status line and headers of HTTP response and skips the body ("OK" of ping)
+     */
+    private List<String> readHeaders(final BufferedReader in) throws IOException {
+        final var lines = new ArrayList<String>();
+        for (var line = in.readLine(); line != null && !line.isEmpty(); line = in.readLine()) {
+            lines.add(line);
+        }
+        in.skip(2);
+        return lines;
+    }
+
+    @Test
+    @DisplayName("Test the brotli compression is rejected without jvmbrotli")
+    void testBrotliNotAvailable() {
+        assumeFalse(ApiPlugin.isBrotliAvailable(), "jvmbrotli is available");
+        final var plugin = new ApiPlugin();
+
+        final var knxClientMock = mock(KnxClient.class);
+        when(knxClientMock.getConfig(any(ConfigValue.class))).thenAnswer(i -> ((ConfigValue<?>) i.getArgument(0)).getDefaultValue());
+        when(knxClientMock.getConfig(ApiPlugin.BROTLI_LEVEL)).thenReturn(5);
+
+        assertThatThrownBy(() -> plugin.onInitialization(knxClientMock))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Brotli level (5) requires the 'com.nixxcode.jvmbrotli:jvmbrotli' dependency on the classpath");
+    }
+
+    @Test
+    @DisplayName("Test the API over Unix domain socket")
+    void testUnixDomainSocket() throws Exception {
+        assumeTrue(UnixDomainSocketConnector.isSupported(), "Unix domain sockets require Java 16 or newer");
+        final var plugin = new ApiPlugin();
+        final var socketPath = Paths.get("target", "api-" + UUID.randomUUID().toString().substring(0, 8) + ".sock");
+
+        //
+        // Mocking
+        //
+
+        final var knxClientMock = mock(KnxClient.class);
+        final var configMock = mock(Config.class);
+        final var projectMock = mock(XmlProject.class);
+        when(knxClientMock.getConfig()).thenReturn(configMock);
+        when(knxClientMock.getStatistic()).thenReturn(mock(KnxStatistic.class));
+        when(knxClientMock.getConfig(any(ConfigValue.class))).thenAnswer(i -> ((ConfigValue<?>) i.getArgument(0)).getDefaultValue());
+        when(knxClientMock.getConfig(ApiPlugin.PORT)).thenReturn(4713);
+        when(knxClientMock.getConfig(ApiPlugin.UNIX_SOCKET_PATH)).thenReturn(socketPath);
+        when(projectMock.getGroupAddresses()).thenReturn(List.of());
+        when(configMock.getProject()).thenReturn(projectMock);
+
+        //
+        // Verification
+        //
+        try {
+            Files.createDirectories(socketPath.getParent());
+            plugin.onInitialization(knxClientMock);
+            plugin.onStart();
+            assertThat(socketPath).exists();
+
+            // same handlers are served over Unix domain socket and port, two requests on same connection
+            final var response = sendOverUnixDomainSocket(socketPath,
+                    "GET /api/v1/ping HTTP/1.1\r\nHost: localhost\r\n\r\n" +
+                            "GET /api/v1/ping HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n");
+            assertThat(response).startsWith("HTTP/1.1 200 OK\r\n").endsWith("\r\n\r\nOK");
+            assertThat(response.split("HTTP/1.1 200 OK", -1)).hasSize(3);
+
+            final var httpRequest = newRequestBuilder(plugin, "/api/v1/ping").build();
+            final var httpResponse = HttpClient.newHttpClient().send(httpRequest, HttpResponse.BodyHandlers.ofString());
+            assertThat(httpResponse.statusCode()).isEqualTo(200);
+        } finally {
+            plugin.onShutdown();
+        }
+        // socket file is removed when stopped
+        assertThat(socketPath).doesNotExist();
+    }
+
+    /**
+     * Sends the raw HTTP request over Unix domain socket and returns the response until connection is closed
+     * <p>
+     * The Java 16 API is called via reflection as the tests are compiled for Java 11.
+     */
+    private String sendOverUnixDomainSocket(final Path socketPath, final String request) throws Exception {
+        final var unix = StandardProtocolFamily.valueOf("UNIX");
+        final var address = Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", Path.class).invoke(null, socketPath);
+        try (final var channel = (SocketChannel) SocketChannel.class.getMethod("open", ProtocolFamily.class).invoke(null, unix)) {
+            channel.connect((SocketAddress) address);
+            channel.write(ByteBuffer.wrap(request.getBytes(StandardCharsets.US_ASCII)));
+            final var out = new ByteArrayOutputStream();
+            final var buffer = ByteBuffer.allocate(1024);
+            while (channel.read(buffer) >= 0) {
+                out.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            return out.toString(StandardCharsets.US_ASCII);
+        }
+    }
+
     /**
      * Creates a new {@link HttpRequest.Builder} for test requests to API
      * <p>
@@ -20,6 +20,7 @@ package li.pitschmann.knx.core.plugin.api;
 
 import com.google.gson.JsonParser;
 import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
 import io.javalin.http.util.ContextUtil;
 import li.pitschmann.knx.core.address.GroupAddress;
 import org.slf4j.Logger;
@@ -31,6 +32,7 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Map;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.fail;
@@ -94,4 +96,16 @@ public final class TestUtils {
     public static Context contextSpy() {
         return spy(ContextUtil.init(mock(HttpServletRequest.class), mock(HttpServletResponse.class)));
     }
+
+    /**
+     * Returns a new Javalin {@link Context} of an endpoint handler for given {@link HandlerType}
+     * incl. wrapped spy-functionality from Mockito. Asynchronous results are only allowed for
+     * endpoint handlers.
+     *
+     * @param handlerType the type of endpoint handler (e.g. GET)
+     * @return wrapped {@link Context} with {@link org.mockito.Spy}
+     */
+    public static Context contextSpy(final HandlerType handlerType) {
+        return spy(ContextUtil.init(mock(HttpServletRequest.class), mock(HttpServletResponse.class), "*", Map.of(), handlerType));
+    }
 }
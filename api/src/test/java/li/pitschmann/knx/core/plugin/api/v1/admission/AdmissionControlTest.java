@@ -0,0 +1,224 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.admission;
+
+import io.javalin.http.Handler;
+import io.javalin.http.HandlerType;
+import li.pitschmann.knx.core.plugin.api.TestUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link AdmissionControl} and {@link ConcurrencyLimit}
+ */
+class AdmissionControlTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    @Test
+    @DisplayName("Test the fixed limit of concurrent requests")
+    void testFixedLimit() {
+        final var limit = ConcurrencyLimit.fixed(2);
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(2);
+        assertThat(limit.getRejected()).isEqualTo(1);
+
+        // slow requests do not change a fixed limit
+        limit.release(SLOW, true);
+        assertThat(limit.getLimit()).isEqualTo(2);
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.toString()).contains("limit=2", "inFlight=2", "rejected=1");
+    }
+
+    @Test
+    @DisplayName("Test the adaptive limit decreases on slow or failed requests and recovers")
+    void testAdaptiveLimit() {
+        final var limit = ConcurrencyLimit.adaptive(1, 10, 1000);
+        assertThat(limit.getLimit()).isEqualTo(10);
+
+        // slow request: 10 * 0.9 = 9
+        assertThat(limit.tryAcquire()).isTrue();
+        limit.release(SLOW, false);
+        assertThat(limit.getLimit()).isEqualTo(9);
+
+        // failed request: 9 * 0.9 = 8.1
+        assertThat(limit.tryAcquire()).isTrue();
+        limit.release(FAST, true);
+        assertThat(limit.getLimit()).isEqualTo(8);
+
+        // never below minimum limit
+        for (var i = 0; i < 100; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(SLOW, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(1);
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        limit.release(FAST, false);
+
+        // fast requests using the limit grow it back, but never above maximum limit
+        for (var i = 0; i < 100; i++) {
+            var admitted = 0;
+            while (limit.tryAcquire()) {
+                admitted++;
+            }
+            for (var j = 0; j < admitted; j++) {
+                limit.release(FAST, false);
+            }
+        }
+        assertThat(limit.getLimit()).isEqualTo(10);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Test the adaptive limit does not grow when it is not used")
+    void testAdaptiveLimitIdle() {
+        final var limit = ConcurrencyLimit.adaptive(1, 100, 1000);
+        for (var i = 0; i < 22; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(SLOW, false);
+        }
+        final var decreased = limit.getLimit();
+        assertThat(decreased).isLessThan(20);
+
+        // a single request at once is less than half of limit
+        for (var i = 0; i < 1000; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(FAST, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(decreased);
+    }
+
+    @Test
+    @DisplayName("Test invalid limits")
+    void testInvalidLimits() {
+        assertThatThrownBy(() -> ConcurrencyLimit.fixed(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ConcurrencyLimit.adaptive(5, 4, 1000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ConcurrencyLimit.adaptive(1, 4, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdmissionControl(-1, 0, 1000)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Test the handler is not wrapped when unlimited")
+    void testUnlimited() {
+        final var admissionControl = new AdmissionControl(0, 0, 1000);
+        final Handler handler = ctx -> ctx.status(HttpServletResponse.SC_OK);
+        assertThat(admissionControl.limit("GET", "/api/v1/foo", handler)).isSameAs(handler);
+        assertThat(admissionControl.limitBus("POST", "/api/v1/bar", handler)).isSameAs(handler);
+        assertThat(admissionControl.getLimits()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Test requests over the limit are rejected with 503 and Retry-After")
+    void testRejected() throws Exception {
+        final var admissionControl = new AdmissionControl(1, 0, 1000);
+        final var entered = new CountDownLatch(1);
+        final var proceed = new CountDownLatch(1);
+        final var handler = admissionControl.limit("GET", "/api/v1/foo", ctx -> {
+            entered.countDown();
+            proceed.await();
+            ctx.status(HttpServletResponse.SC_OK);
+        });
+
+        final var executor = Executors.newSingleThreadExecutor();
+        try {
+            final var first = executor.submit(() -> {
+                handler.handle(TestUtils.contextSpy());
+                return null;
+            });
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // second request is rejected immediately while the first one is in progress
+            final var rejectedContext = TestUtils.contextSpy();
+            handler.handle(rejectedContext);
+            verify(rejectedContext).status(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            verify(rejectedContext).header("Retry-After", "1");
+
+            proceed.countDown();
+            first.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // admitted again after first request is done
+        final var admittedContext = TestUtils.contextSpy();
+        handler.handle(admittedContext);
+        verify(admittedContext).status(HttpServletResponse.SC_OK);
+        verify(admittedContext, never()).status(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+
+        final var limit = admissionControl.getLimits().get("/api/v1/foo GET");
+        assertThat(limit.getInFlight()).isZero();
+        assertThat(limit.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Test asynchronous requests keep the permit until the result is completed")
+    void testAsync() throws Exception {
+        final var admissionControl = new AdmissionControl(1, 0, 1000);
+        final var future = new CompletableFuture<String>();
+        final var handler = admissionControl.limit("GET", "/api/v1/foo", ctx -> ctx.result(future));
+        final var limit = admissionControl.getLimits().get("/api/v1/foo GET");
+
+        // parked request is in flight, second request is rejected
+        handler.handle(TestUtils.contextSpy(HandlerType.GET));
+        assertThat(limit.getInFlight()).isEqualTo(1);
+        final var rejectedContext = TestUtils.contextSpy(HandlerType.GET);
+        handler.handle(rejectedContext);
+        verify(rejectedContext).status(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+
+        // permit is released when result is completed
+        future.complete("");
+        assertThat(limit.getInFlight()).isZero();
+        assertThat(limit.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Test the adaptive limit of bus endpoint on server errors and exceptions")
+    void testBusFailure() throws Exception {
+        final var admissionControl = new AdmissionControl(0, 4, 1000);
+        final var handler = admissionControl.limitBus("POST", "/api/v1/read", ctx -> ctx.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR));
+        final var failingHandler = admissionControl.limitBus("POST", "/api/v1/write", ctx -> {
+            throw new IllegalStateException("Failure");
+        });
+
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.res.getStatus()).thenReturn(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        handler.handle(contextSpy);
+        assertThatThrownBy(() -> failingHandler.handle(TestUtils.contextSpy())).isInstanceOf(IllegalStateException.class);
+
+        // 4 * 0.9 = 3.6
+        assertThat(admissionControl.getLimits().get("/api/v1/read POST").getLimit()).isEqualTo(3);
+        assertThat(admissionControl.getLimits().get("/api/v1/write POST").getLimit()).isEqualTo(3);
+        assertThat(admissionControl.getLimits().get("/api/v1/write POST").getInFlight()).isZero();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.controllers;
+
+import io.javalin.plugin.json.JavalinJson;
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.config.Config;
+import li.pitschmann.knx.core.plugin.api.ControllerTest;
+import li.pitschmann.knx.core.plugin.api.TestUtils;
+import li.pitschmann.knx.core.plugin.api.v1.gson.ApiGsonEngine;
+import li.pitschmann.knx.core.plugin.api.v1.history.GroupValueHistory;
+import li.pitschmann.knx.core.plugin.history.GroupValueHistoryStore;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link HistoryController}
+ */
+public class HistoryControllerTest {
+
+    @BeforeAll
+    static void setUp() {
+        final var gson = ApiGsonEngine.INSTANCE.getGson();
+        JavalinJson.setFromJsonMapper(gson::fromJson);
+        JavalinJson.setToJsonMapper(gson::toJson);
+    }
+
+    @Test
+    @DisplayName("OK: Test /history endpoint for group address without data point type")
+    public void testHistory() throws IOException {
+        final var groupAddress = GroupAddress.of(4, 5, 6);
+        final var knxClientMock = mock(KnxClient.class);
+        final var configMock = mock(Config.class);
+        when(knxClientMock.getConfig()).thenReturn(configMock);
+
+        try (final var store = new GroupValueHistoryStore(Paths.get("target/test-HistoryControllerTest-testHistory-" + UUID.randomUUID()))) {
+            store.append(groupAddress, 1000L, false, new byte[]{0x01});
+            store.append(groupAddress, 1500L, true, new byte[]{0x00});
+
+            final var controller = new HistoryController(knxClientMock, new GroupValueHistory(store));
+            final var contextSpy = TestUtils.contextSpy();
+            when(contextSpy.req.getQueryString()).thenReturn("from=0&to=2000");
+
+            // Execution
+            controller.history(contextSpy, groupAddress);
+
+            // Verification
+            verify(contextSpy).status(HttpServletResponse.SC_OK);
+            verify(contextSpy).result("{\"groupAddress\":{\"type\":1,\"format\":{\"free_level\":\"9478\",\"two_level\":\"4/1286\",\"three_level\":\"4/5/6\"},\"raw\":[37,6]}," +
+                    "\"from\":0,\"to\":2000,\"step\":0,\"timestamps\":[1000,1500],\"texts\":[\"0x01\",\"0x00\"]}");
+        }
+    }
+
+    @ControllerTest(HistoryController.class)
+    @DisplayName("ERROR: Test /history endpoint without history plug-in")
+    public void testHistoryNotInstalled(final HistoryController controller) {
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.req.getQueryString()).thenReturn("from=0&to=2000");
+
+        // Execution
+        controller.history(contextSpy, GroupAddress.of(1, 2, 3));
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
+    @ControllerTest(HistoryController.class)
+    @DisplayName("ERROR: Test /history endpoint with invalid range")
+    public void testHistoryInvalidRange(final HistoryController controller) {
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.req.getQueryString()).thenReturn("from=2000&to=1000");
+
+        // Execution
+        controller.history(contextSpy, GroupAddress.of(1, 2, 3));
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_BAD_REQUEST);
+    }
+
+    @ControllerTest(HistoryController.class)
+    @DisplayName("ERROR: Test /history endpoint with invalid step")
+    public void testHistoryInvalidStep(final HistoryController controller) {
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.req.getQueryString()).thenReturn("step=foo");
+
+        // Execution
+        controller.history(contextSpy, GroupAddress.of(1, 2, 3));
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_BAD_REQUEST);
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.controllers;
+
+import li.pitschmann.knx.core.plugin.api.ControllerTest;
+import li.pitschmann.knx.core.plugin.api.TestUtils;
+import org.junit.jupiter.api.DisplayName;
+
+import javax.servlet.http.HttpServletResponse;
+
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test class for {@link MetricsController}
+ */
+public class MetricsControllerTest {
+
+    @ControllerTest(MetricsController.class)
+    @DisplayName("OK: Test /metrics endpoint")
+    public void testMetrics(final MetricsController controller) {
+        final var contextSpy = TestUtils.contextSpy();
+
+        // Execution
+        controller.getMetrics(contextSpy);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_OK);
+        verify(contextSpy).contentType("text/plain; version=0.0.4; charset=utf-8");
+        verify(contextSpy).result(startsWith("# HELP knx_api_requests_total "));
+    }
+}
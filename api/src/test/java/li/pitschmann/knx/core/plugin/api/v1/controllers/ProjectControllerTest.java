@@ -19,16 +19,23 @@
 package li.pitschmann.knx.core.plugin.api.v1.controllers;
 
 import io.javalin.plugin.json.JavalinJson;
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.knxproj.XmlGroupAddress;
 import li.pitschmann.knx.core.knxproj.XmlGroupAddressStyle;
 import li.pitschmann.knx.core.plugin.api.ControllerTest;
 import li.pitschmann.knx.core.plugin.api.TestUtils;
 import li.pitschmann.knx.core.plugin.api.v1.gson.ApiGsonEngine;
+import li.pitschmann.knx.core.plugin.api.v1.project.GroupAddressSearchIndex;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 
 import javax.servlet.http.HttpServletResponse;
+import java.util.List;
 
 import static li.pitschmann.knx.core.plugin.api.TestUtils.readJsonFile;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -233,4 +240,41 @@ class ProjectControllerTest {
         verify(contextSpy).status(HttpServletResponse.SC_OK);
         verify(contextSpy).result(readJsonFile("/json/ProjectControllerTest-testAllGroupAddresses.json"));
     }
+
+    @Test
+    @DisplayName("OK: Search group addresses by name")
+    void testSearchGroupAddresses() {
+        final var xmlGroupAddress = mock(XmlGroupAddress.class);
+        when(xmlGroupAddress.getId()).thenReturn("GA-1");
+        when(xmlGroupAddress.getName()).thenReturn("K\u00fcche Licht");
+        when(xmlGroupAddress.getAddress()).thenReturn(GroupAddress.of(1, 2, 3).getAddress());
+        final var otherXmlGroupAddress = mock(XmlGroupAddress.class);
+        when(otherXmlGroupAddress.getName()).thenReturn("Rollladen");
+        final var controller = new ProjectController(mock(KnxClient.class),
+                new GroupAddressSearchIndex(List.of(xmlGroupAddress, otherXmlGroupAddress)));
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.req.getQueryString()).thenReturn("q=kuche&limit=5");
+
+        // Execution
+        controller.searchGroupAddresses(contextSpy);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_OK);
+        verify(contextSpy).result("[{\"id\":\"GA-1\",\"name\":\"K\u00fcche Licht\",\"address\":" +
+                "{\"type\":1,\"format\":{\"free_level\":\"2563\",\"two_level\":\"1/515\",\"three_level\":\"1/2/3\"},\"raw\":[10,3]}}]");
+    }
+
+    @ControllerTest(ProjectController.class)
+    @DisplayName("ERROR: Search group addresses without query")
+    void testSearchGroupAddressesWithoutQuery(final ProjectController controller) {
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.req.getQueryString()).thenReturn("limit=5");
+
+        // Execution
+        controller.searchGroupAddresses(contextSpy);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_BAD_REQUEST);
+        verify(contextSpy).result("[]");
+    }
 }
@@ -19,6 +19,8 @@
 package li.pitschmann.knx.core.plugin.api.v1.controllers;
 
 import io.javalin.plugin.json.JavalinJson;
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.IndividualAddress;
 import li.pitschmann.knx.core.body.ConnectRequestBody;
 import li.pitschmann.knx.core.body.ConnectResponseBody;
 import li.pitschmann.knx.core.body.ConnectionStateRequestBody;
@@ -32,18 +34,37 @@ import li.pitschmann.knx.core.body.SearchRequestBody;
 import li.pitschmann.knx.core.body.SearchResponseBody;
 import li.pitschmann.knx.core.body.TunnelingAckBody;
 import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.cemi.CEMI;
+import li.pitschmann.knx.core.communication.KnxClient;
 import li.pitschmann.knx.core.communication.KnxStatistic;
 import li.pitschmann.knx.core.plugin.api.ControllerTest;
 import li.pitschmann.knx.core.plugin.api.TestUtils;
 import li.pitschmann.knx.core.plugin.api.v1.gson.ApiGsonEngine;
+import li.pitschmann.knx.core.plugin.api.v1.statistic.StatisticHistory;
+import li.pitschmann.knx.core.plugin.statistic.AddressTrafficCounter;
+import li.pitschmann.knx.core.plugin.statistic.AnomalyDetector;
+import li.pitschmann.knx.core.plugin.statistic.BusLoadEstimator;
+import li.pitschmann.knx.core.plugin.statistic.RoundTripTracker;
+import li.pitschmann.knx.core.plugin.statistic.StatisticSnapshot;
+import li.pitschmann.knx.core.plugin.statistic.StatisticTrackers;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
 
 import static li.pitschmann.knx.core.plugin.api.TestUtils.readJsonFile;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -76,6 +97,263 @@ public class StatisticControllerTest {
         verify(contextSpy).result(readJsonFile("/json/StatisticControllerTest-testStatistic.json"));
     }
 
+    @ControllerTest(StatisticController.class)
+    @DisplayName("OK: Test /statistic/metrics endpoint")
+    public void testStatisticMetrics(final StatisticController controller) throws IOException {
+        final var contextSpy = TestUtils.contextSpy();
+
+        // Return mocked statistic
+        final var statisticMock = createKnxStatisticMock();
+        when(controller.getKnxClient().getStatistic()).thenReturn(statisticMock);
+
+        // Execution
+        controller.getStatisticMetrics(contextSpy);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_OK);
+        verify(contextSpy).contentType("application/openmetrics-text; version=1.0.0; charset=utf-8");
+        final var text = new String(contextSpy.resultStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertThat(text).contains(
+                "knx_packets_total{direction=\"inbound\"} 10\n",
+                "knx_bodies_total{direction=\"outbound\",type=\"indication\",kind=\"request\"} 260\n",
+                "knx_error_rate 1.5600\n"
+        );
+    }
+
+    @ControllerTest(StatisticController.class)
+    @DisplayName("OK: Test /statistic/history endpoint")
+    public void testStatisticHistory(final StatisticController controller) {
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.req.getQueryString()).thenReturn("from=0&to=1000&step=1000");
+
+        // Execution
+        controller.getStatisticHistory(contextSpy);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_OK);
+        verify(contextSpy).result("{\"from\":0,\"to\":1000,\"step\":1000,\"timestamps\":[],\"inboundPackets\":[]," +
+                "\"inboundBytes\":[],\"outboundPackets\":[],\"outboundBytes\":[],\"errors\":[]}");
+    }
+
+    @ControllerTest(StatisticController.class)
+    @DisplayName("ERROR: Test /statistic/history endpoint with invalid range")
+    public void testStatisticHistoryInvalid(final StatisticController controller) {
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.req.getQueryString()).thenReturn("from=2000&to=1000");
+
+        // Execution
+        controller.getStatisticHistory(contextSpy);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("OK: Test /statistic/traffic endpoint")
+    public void testStatisticTraffic() {
+        final var trafficCounter = new AddressTrafficCounter();
+        final var cemiMock = mock(CEMI.class);
+        when(cemiMock.getSourceAddress()).thenReturn(IndividualAddress.of(1, 2, 3));
+        when(cemiMock.getDestinationAddress()).thenReturn(GroupAddress.of(4, 5, 6));
+        when(cemiMock.toByteArray()).thenReturn(new byte[11]);
+        trafficCounter.record(cemiMock);
+        trafficCounter.record(cemiMock);
+
+        final var trackersMock = mock(StatisticTrackers.class);
+        when(trackersMock.getTrafficCounter()).thenReturn(trafficCounter);
+
+        final var controller = createController(trackersMock);
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.req.getQueryString()).thenReturn("limit=5");
+
+        // Execution
+        controller.getStatisticTraffic(contextSpy);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_OK);
+        verify(contextSpy).result("{\"totalGroupTelegrams\":2,\"totalSourceTelegrams\":2," +
+                "\"groupAddresses\":[{\"address\":{\"type\":1,\"format\":{\"free_level\":\"9478\",\"two_level\":\"4/1286\",\"three_level\":\"4/5/6\"},\"raw\":[37,6]},\"telegrams\":2,\"bytes\":22}]," +
+                "\"sourceAddresses\":[{\"address\":{\"type\":0,\"format\":\"1.2.3\",\"raw\":[18,3]},\"telegrams\":2,\"bytes\":22}]}");
+    }
+
+    @ControllerTest(StatisticController.class)
+    @DisplayName("ERROR: Test /statistic/traffic endpoint with invalid limit")
+    public void testStatisticTrafficInvalid(final StatisticController controller) {
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.req.getQueryString()).thenReturn("limit=0");
+
+        // Execution
+        controller.getStatisticTraffic(contextSpy);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("OK: Test /statistic/latency endpoint without round-trips")
+    public void testStatisticLatencyEmpty() {
+        final var trackersMock = mock(StatisticTrackers.class);
+        when(trackersMock.getRoundTripTracker()).thenReturn(new RoundTripTracker());
+
+        final var controller = createController(trackersMock);
+        final var contextSpy = TestUtils.contextSpy();
+
+        // Execution
+        controller.getStatisticLatency(contextSpy);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_OK);
+        verify(contextSpy).result("{" +
+                "\"tunneling\":{\"count\":0,\"unanswered\":0,\"min\":0.0,\"p50\":0.0,\"p90\":0.0,\"p99\":0.0,\"p999\":0.0,\"max\":0.0}," +
+                "\"connectionState\":{\"count\":0,\"unanswered\":0,\"min\":0.0,\"p50\":0.0,\"p90\":0.0,\"p99\":0.0,\"p999\":0.0,\"max\":0.0}}");
+    }
+
+    @Test
+    @DisplayName("OK: Test /statistic/latency endpoint with round-trips")
+    public void testStatisticLatency() {
+        final var tracker = new RoundTripTracker();
+        final var requestMock = mock(TunnelingRequestBody.class);
+        when(requestMock.getChannelId()).thenReturn(1);
+        when(requestMock.getSequence()).thenReturn(2);
+        final var ackMock = mock(TunnelingAckBody.class);
+        when(ackMock.getChannelId()).thenReturn(1);
+        when(ackMock.getSequence()).thenReturn(2);
+        // repeated within timeout: not counted as unanswered
+        tracker.onOutgoingBody(requestMock);
+        tracker.onOutgoingBody(requestMock);
+        tracker.onIncomingBody(ackMock);
+
+        final var trackersMock = mock(StatisticTrackers.class);
+        when(trackersMock.getRoundTripTracker()).thenReturn(tracker);
+
+        final var controller = createController(trackersMock);
+        final var contextSpy = TestUtils.contextSpy();
+
+        // Execution
+        controller.getStatisticLatency(contextSpy);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_OK);
+        final var responseCaptor = ArgumentCaptor.forClass(String.class);
+        verify(contextSpy).result(responseCaptor.capture());
+        assertThat(responseCaptor.getValue())
+                .startsWith("{\"tunneling\":{\"count\":1,\"unanswered\":0,")
+                .contains("\"connectionState\":{\"count\":0,\"unanswered\":0,");
+    }
+
+    @Test
+    @DisplayName("OK: Test /statistic/busload endpoint without frames")
+    public void testStatisticBusLoadEmpty() {
+        final var trackersMock = mock(StatisticTrackers.class);
+        when(trackersMock.getBusLoadEstimator()).thenReturn(new BusLoadEstimator());
+
+        final var controller = createController(trackersMock);
+        final var contextSpy = TestUtils.contextSpy();
+
+        // Execution
+        controller.getStatisticBusLoad(contextSpy);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_OK);
+        verify(contextSpy).result("{\"current\":0.0,\"oneMinute\":0.0,\"fiveMinutes\":0.0,\"fifteenMinutes\":0.0," +
+                "\"peak\":0.0,\"threshold\":50.0,\"secondsAboveThreshold\":0,\"alert\":false}");
+    }
+
+    @Test
+    @DisplayName("OK: Test /statistic/busload endpoint with frames")
+    public void testStatisticBusLoad() {
+        final var estimator = new BusLoadEstimator(20d);
+        final var cemiMock = mock(CEMI.class);
+        when(cemiMock.toByteArray()).thenReturn(new byte[11]);
+        final var routingIndicationMock = mock(RoutingIndicationBody.class);
+        when(routingIndicationMock.getCEMI()).thenReturn(cemiMock);
+        estimator.onIncomingBody(routingIndicationMock);
+
+        final var trackersMock = mock(StatisticTrackers.class);
+        when(trackersMock.getBusLoadEstimator()).thenReturn(estimator);
+
+        final var controller = createController(trackersMock);
+        final var contextSpy = TestUtils.contextSpy();
+
+        // Execution
+        controller.getStatisticBusLoad(contextSpy);
+
+        // Verification (the frame is within the current second which is not completed yet)
+        verify(contextSpy).status(HttpServletResponse.SC_OK);
+        final var responseCaptor = ArgumentCaptor.forClass(String.class);
+        verify(contextSpy).result(responseCaptor.capture());
+        assertThat(responseCaptor.getValue())
+                .startsWith("{\"current\":")
+                .contains("\"threshold\":20.0,");
+    }
+
+    @Test
+    @DisplayName("OK: Test /statistic/anomalies endpoint")
+    public void testStatisticAnomalies() {
+        final var detector = new AnomalyDetector(4d, 0.05d, 5, ZoneOffset.UTC);
+        final var statisticMock = mock(KnxStatistic.class);
+        for (int i = 0; i < 10; i++) {
+            detector.update(StatisticSnapshot.of(statisticMock, i * 1_000_000_000L), Instant.ofEpochSecond(1_600_000_000L + i));
+        }
+        when(statisticMock.getNumberOfBodyReceived()).thenReturn(100L);
+        detector.update(StatisticSnapshot.of(statisticMock, 10_000_000_000L), Instant.ofEpochSecond(1_600_000_010L));
+
+        final var trackersMock = mock(StatisticTrackers.class);
+        when(trackersMock.getAnomalyDetector()).thenReturn(detector);
+
+        final var controller = createController(trackersMock);
+        final var contextSpy = TestUtils.contextSpy();
+
+        // Execution
+        controller.getStatisticAnomalies(contextSpy);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_OK);
+        final var responseCaptor = ArgumentCaptor.forClass(String.class);
+        verify(contextSpy).result(responseCaptor.capture());
+        assertThat(responseCaptor.getValue())
+                .startsWith("{\"series\":[\"inbound.packets\",\"outbound.packets\",")
+                .contains("\"events\":[{\"time\":{\"seconds\":1600000010,\"nanos\":0},\"series\":\"inbound.packets\",\"value\":100.0,\"expected\":0.0,\"zScore\":100.0}]");
+    }
+
+    @Test
+    @DisplayName("ERROR: Test /statistic/anomalies endpoint without anomaly detection plug-in")
+    public void testStatisticAnomaliesNotInstalled() {
+        final var controller = createController(mock(StatisticTrackers.class));
+        final var contextSpy = TestUtils.contextSpy();
+
+        // Execution
+        controller.getStatisticAnomalies(contextSpy);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(contextSpy, never()).result(anyString());
+    }
+
+    @ControllerTest(StatisticController.class)
+    @DisplayName("ERROR: Test /statistic/traffic, latency, busload and anomalies endpoints without statistic plug-in")
+    public void testStatisticNotInstalled(final StatisticController controller) {
+        // Execution
+        final var trafficContextSpy = TestUtils.contextSpy();
+        controller.getStatisticTraffic(trafficContextSpy);
+        final var latencyContextSpy = TestUtils.contextSpy();
+        controller.getStatisticLatency(latencyContextSpy);
+        final var busLoadContextSpy = TestUtils.contextSpy();
+        controller.getStatisticBusLoad(busLoadContextSpy);
+        final var anomaliesContextSpy = TestUtils.contextSpy();
+        controller.getStatisticAnomalies(anomaliesContextSpy);
+
+        // Verification
+        for (final var contextSpy : List.of(trafficContextSpy, latencyContextSpy, busLoadContextSpy, anomaliesContextSpy)) {
+            verify(contextSpy).status(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            verify(contextSpy, never()).result(anyString());
+        }
+    }
+
+    private StatisticController createController(final StatisticTrackers trackers) {
+        return new StatisticController(mock(KnxClient.class), new StatisticHistory(), () -> trackers);
+    }
+
     private KnxStatistic createKnxStatisticMock() {
         final var statisticMock = mock(KnxStatistic.class);
         when(statisticMock.getNumberOfBodyReceived()).thenReturn(10L);
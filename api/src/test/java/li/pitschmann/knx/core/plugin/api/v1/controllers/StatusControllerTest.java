@@ -18,27 +18,46 @@
 
 package li.pitschmann.knx.core.plugin.api.v1.controllers;
 
+import io.javalin.http.HandlerType;
 import io.javalin.plugin.json.JavalinJson;
 import li.pitschmann.knx.core.address.GroupAddress;
 import li.pitschmann.knx.core.address.IndividualAddress;
 import li.pitschmann.knx.core.address.KnxAddress;
 import li.pitschmann.knx.core.cemi.APCI;
+import li.pitschmann.knx.core.communication.KnxClient;
 import li.pitschmann.knx.core.communication.KnxStatusData;
+import li.pitschmann.knx.core.communication.KnxStatusPool;
+import li.pitschmann.knx.core.config.Config;
 import li.pitschmann.knx.core.knxproj.XmlGroupAddress;
+import li.pitschmann.knx.core.knxproj.XmlProject;
 import li.pitschmann.knx.core.plugin.api.ControllerTest;
 import li.pitschmann.knx.core.plugin.api.TestUtils;
 import li.pitschmann.knx.core.plugin.api.v1.gson.ApiGsonEngine;
+import li.pitschmann.knx.core.plugin.api.v1.json.StatusQueryRequest;
+import li.pitschmann.knx.core.plugin.api.v1.status.DecodedValueCache;
+import li.pitschmann.knx.core.plugin.api.v1.status.StatusIndex;
+import li.pitschmann.knx.core.plugin.api.v1.status.StatusTracker;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import javax.servlet.http.HttpServletResponse;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 import static li.pitschmann.knx.core.plugin.api.TestUtils.readJsonFile;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -148,6 +167,55 @@ public class StatusControllerTest {
         // Verification
         verify(contextSpy).status(207); // 'Multi Status' HTTP Code
         verify(contextSpy).result(readJsonFile("/json/StatusControllerTest-testMultiStatus.json"));
+        // entity tag of status pool: version 0, start 0 and no limit
+        verify(contextSpy).header("ETag", "W/\"0-0-2147483647\"");
+        verify(contextSpy).header(eq("Last-Modified"), anyString());
+    }
+
+    @ControllerTest(StatusController.class)
+    @DisplayName("OK: Get list of status that has not been modified")
+    public void testMultiStatusNotModified(final StatusController controller) {
+        final var statusTracker = new StatusTracker();
+        final var statusController = new StatusController(controller.getKnxClient(), statusTracker);
+        final var knxStatusData = mock(KnxStatusData.class);
+        when(knxStatusData.getTimestamp()).thenReturn(Instant.ofEpochMilli(9876543));
+        final var statusMap = new LinkedHashMap<KnxAddress, KnxStatusData>();
+        statusMap.put(GroupAddress.of(1, 2, 3), knxStatusData);
+        when(controller.getKnxClient().getStatusPool().copyStatusMap()).thenReturn(statusMap);
+        when(controller.getKnxClient().getConfig().getProject().getGroupAddress(any(GroupAddress.class))).thenReturn(null);
+
+        // Execution: status pool is not copied for a request that has not been modified
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.req.getHeader("If-None-Match")).thenReturn("W/\"0-0-2147483647\"");
+        statusController.statusAll(contextSpy);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(contextSpy, never()).result(anyString());
+        verify(controller.getKnxClient().getStatusPool(), never()).copyStatusMap();
+
+        // another selection of same status pool: entity tag differs
+        final var contextSpy2 = TestUtils.contextSpy();
+        when(contextSpy2.req.getHeader("If-None-Match")).thenReturn("W/\"0-0-2147483647\"");
+        when(contextSpy2.req.getQueryString()).thenReturn("start=0&limit=1");
+        statusController.statusAll(contextSpy2);
+        verify(contextSpy2).header("ETag", "W/\"0-0-1\"");
+        verify(contextSpy2).status(207);
+
+        final var contextSpy3 = TestUtils.contextSpy();
+        when(contextSpy3.req.getHeader("If-None-Match")).thenReturn("W/\"0-0-2147483647\"");
+        when(contextSpy3.req.getQueryString()).thenReturn("fields=raw");
+        statusController.statusAll(contextSpy3);
+        verify(contextSpy3).header(eq("ETag"), startsWith("W/\"0-0-2147483647-"));
+        verify(contextSpy3).status(207);
+
+        // the status pool has been changed: entity tag changes
+        statusTracker.onChange(GroupAddress.of(1, 2, 3));
+        final var contextSpy4 = TestUtils.contextSpy();
+        when(contextSpy4.req.getHeader("If-None-Match")).thenReturn("W/\"0-0-2147483647\"");
+        statusController.statusAll(contextSpy4);
+        verify(contextSpy4).header("ETag", "W/\"1-0-2147483647\"");
+        verify(contextSpy4).status(207);
     }
 
     @ControllerTest(StatusController.class)
@@ -213,6 +281,46 @@ public class StatusControllerTest {
         verify(contextSpy).result(readJsonFile("/json/StatusControllerTest-testPartialSingleStatus.json"));
     }
 
+    @ControllerTest(StatusController.class)
+    @DisplayName("OK: Status Request for a known group address that has not been modified")
+    public void testSingleStatusNotModified(final StatusController controller) {
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.req.getHeader("If-None-Match")).thenReturn("W/\"9876-543000000\"");
+
+        // mock an existing KNX status data in status pool
+        final var knxStatusData = mock(KnxStatusData.class);
+        when(knxStatusData.getTimestamp()).thenReturn(Instant.ofEpochMilli(9876543));
+        when(controller.getKnxClient().getStatusPool().getStatusFor(any(KnxAddress.class))).thenReturn(knxStatusData);
+
+        // Execution
+        controller.statusOne(contextSpy, TestUtils.randomGroupAddress());
+
+        // Verification
+        verify(contextSpy).header("ETag", "W/\"9876-543000000\"");
+        verify(contextSpy).header("Last-Modified", "Thu, 01 Jan 1970 02:44:36 GMT");
+        verify(contextSpy).status(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(contextSpy, never()).result(anyString());
+    }
+
+    @ControllerTest(StatusController.class)
+    @DisplayName("OK: Status Request for a known group address that has not been modified since date")
+    public void testSingleStatusNotModifiedSince(final StatusController controller) {
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.req.getHeader("If-Modified-Since")).thenReturn("Thu, 01 Jan 1970 02:44:36 GMT");
+
+        // mock an existing KNX status data in status pool
+        final var knxStatusData = mock(KnxStatusData.class);
+        when(knxStatusData.getTimestamp()).thenReturn(Instant.ofEpochMilli(9876543));
+        when(controller.getKnxClient().getStatusPool().getStatusFor(any(KnxAddress.class))).thenReturn(knxStatusData);
+
+        // Execution
+        controller.statusOne(contextSpy, TestUtils.randomGroupAddress());
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(contextSpy, never()).result(anyString());
+    }
+
     @ControllerTest(StatusController.class)
     @DisplayName("ERROR: Status Request for a known group address but unknown to status pool yet")
     public void testSingleStatusNoStatus(final StatusController controller) {
@@ -246,4 +354,259 @@ public class StatusControllerTest {
         verify(contextSpy).result("{}");
 
     }
+
+    @Test
+    @DisplayName("OK: Status Request that waits for change of group address")
+    public void testSingleStatusWaitForChange() throws Exception {
+        final var groupAddress = GroupAddress.of(1, 2, 3);
+        final var statusTracker = new StatusTracker();
+        final var knxClientMock = mockKnxClient();
+        final var controller = new StatusController(knxClientMock, statusTracker);
+        final var contextSpy = TestUtils.contextSpy(HandlerType.GET);
+        when(contextSpy.req.getQueryString()).thenReturn("waitForChangeAfter=1000&timeout=10000");
+
+        // status pool with status that is not newer
+        final var oldStatusData = mockKnxStatusData(1000);
+        when(knxClientMock.getStatusPool().getStatusFor(groupAddress)).thenReturn(oldStatusData);
+
+        // Execution: request is parked
+        controller.statusOne(contextSpy, groupAddress);
+        final var future = contextSpy.resultFuture();
+        assertThat(future).isNotNull();
+        assertThat(future.isDone()).isFalse();
+        assertThat(statusTracker.getNumberOfWaiters()).isEqualTo(1);
+
+        // change of other group address doesn't wake up
+        statusTracker.onChange(GroupAddress.of(4, 5, 6));
+        assertThat(statusTracker.getNumberOfWaiters()).isEqualTo(1);
+
+        // change of group address
+        final var newStatusData = mockKnxStatusData(2000);
+        when(knxClientMock.getStatusPool().getStatusFor(groupAddress)).thenReturn(newStatusData);
+        statusTracker.onChange(groupAddress);
+
+        // Verification
+        assertThat((String) future.get(5, TimeUnit.SECONDS)).contains("\"timestamp\":{\"seconds\":2,\"nanos\":0}");
+        verify(contextSpy).status(HttpServletResponse.SC_OK);
+        assertThat(statusTracker.getNumberOfWaiters()).isZero();
+    }
+
+    @Test
+    @DisplayName("OK: Status Request that waits for change of group address notified before status pool update")
+    public void testSingleStatusWaitForChangeBeforeUpdate() throws Exception {
+        final var groupAddress = GroupAddress.of(1, 2, 3);
+        final var statusTracker = new StatusTracker();
+        final var knxClientMock = mockKnxClient();
+        final var controller = new StatusController(knxClientMock, statusTracker);
+        final var contextSpy = TestUtils.contextSpy(HandlerType.GET);
+        when(contextSpy.req.getQueryString()).thenReturn("waitForChangeAfter=1000&timeout=10000");
+
+        final var oldStatusData = mockKnxStatusData(1000);
+        when(knxClientMock.getStatusPool().getStatusFor(groupAddress)).thenReturn(oldStatusData);
+        controller.statusOne(contextSpy, groupAddress);
+        final var future = contextSpy.resultFuture();
+
+        // change is notified, but status pool is updated afterwards
+        statusTracker.onChange(groupAddress);
+        Thread.sleep(50);
+        final var newStatusData = mockKnxStatusData(2000);
+        when(knxClientMock.getStatusPool().getStatusFor(groupAddress)).thenReturn(newStatusData);
+
+        // Verification: checked again soon, not only after the regular re-check interval (1 second)
+        assertThat((String) future.get(500, TimeUnit.MILLISECONDS)).contains("\"timestamp\":{\"seconds\":2,\"nanos\":0}");
+        verify(contextSpy).status(HttpServletResponse.SC_OK);
+    }
+
+    @Test
+    @DisplayName("OK: Status Request that waits for change of group address which is already newer")
+    public void testSingleStatusWaitForChangeAlreadyNewer() throws Exception {
+        final var groupAddress = GroupAddress.of(1, 2, 3);
+        final var statusTracker = new StatusTracker();
+        final var knxClientMock = mockKnxClient();
+        final var controller = new StatusController(knxClientMock, statusTracker);
+        final var contextSpy = TestUtils.contextSpy(HandlerType.GET);
+        when(contextSpy.req.getQueryString()).thenReturn("waitForChangeAfter=1000");
+
+        final var knxStatusData = mockKnxStatusData(1001);
+        when(knxClientMock.getStatusPool().getStatusFor(groupAddress)).thenReturn(knxStatusData);
+
+        // Execution
+        controller.statusOne(contextSpy, groupAddress);
+
+        // Verification
+        assertThat(contextSpy.resultFuture().isDone()).isTrue();
+        assertThat((String) contextSpy.resultFuture().get()).contains("\"timestamp\":{\"seconds\":1,\"nanos\":1000000}");
+        verify(contextSpy).status(HttpServletResponse.SC_OK);
+        assertThat(statusTracker.getNumberOfWaiters()).isZero();
+    }
+
+    @Test
+    @DisplayName("OK: Status Request that waits for change of group address until timeout")
+    public void testSingleStatusWaitForChangeTimeout() throws Exception {
+        final var groupAddress = GroupAddress.of(1, 2, 3);
+        final var statusTracker = new StatusTracker();
+        final var knxClientMock = mockKnxClient();
+        final var controller = new StatusController(knxClientMock, statusTracker);
+        final var contextSpy = TestUtils.contextSpy(HandlerType.GET);
+        when(contextSpy.req.getQueryString()).thenReturn("waitForChangeAfter=1000&timeout=100");
+
+        // Execution: no status data at all
+        controller.statusOne(contextSpy, groupAddress);
+
+        // Verification
+        assertThat((String) contextSpy.resultFuture().get(5, TimeUnit.SECONDS)).isEmpty();
+        verify(contextSpy).status(HttpServletResponse.SC_NOT_MODIFIED);
+        assertThat(statusTracker.getNumberOfWaiters()).isZero();
+    }
+
+    @ControllerTest(StatusController.class)
+    @DisplayName("ERROR: Status Request that waits for change with invalid timeout")
+    public void testSingleStatusWaitForChangeInvalid(final StatusController controller) {
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.req.getQueryString()).thenReturn("waitForChangeAfter=1000&timeout=-1");
+
+        // Execution
+        controller.statusOne(contextSpy, TestUtils.randomGroupAddress());
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_BAD_REQUEST);
+        verify(contextSpy).result("{}");
+    }
+
+    @Test
+    @DisplayName("OK: Status Query Request by group addresses, ranges and filters")
+    public void testStatusQuery() {
+        final var knxClientMock = mockKnxClient();
+        final var statusIndex = new StatusIndex();
+        final var controller = new StatusController(knxClientMock, new StatusTracker(), new DecodedValueCache(), statusIndex);
+
+        // status pool: 1/2/3 (1000), 1/2/4 (2000, dirty), 1/3/1 (3000), 2/0/1 (4000)
+        final var statusPool = knxClientMock.getStatusPool();
+        final var addresses = List.of(GroupAddress.of(1, 2, 3), GroupAddress.of(1, 2, 4), GroupAddress.of(1, 3, 1), GroupAddress.of(2, 0, 1));
+        for (int i = 0; i < addresses.size(); i++) {
+            final var knxStatusData = mockKnxStatusData((i + 1) * 1000L);
+            when(knxStatusData.isDirty()).thenReturn(i == 1);
+            when(statusPool.getStatusFor(addresses.get(i))).thenReturn(knxStatusData);
+            statusIndex.add(addresses.get(i));
+        }
+        final var xmlProject = knxClientMock.getConfig().getProject();
+        final var xmlGroupAddress = mock(XmlGroupAddress.class);
+        when(xmlGroupAddress.getAddress()).thenReturn(GroupAddress.of(2, 0, 1).getAddress());
+        when(xmlGroupAddress.getDataPointType()).thenReturn("DPST-9-1");
+        when(xmlProject.getGroupAddresses()).thenReturn(List.of(xmlGroupAddress));
+
+        // main/middle group
+        final var byRange = new StatusQueryRequest();
+        byRange.setRanges(List.of("1/2"));
+        assertThat(query(controller, byRange)).containsExactly("1/2/3", "1/2/4");
+
+        // main group and dirty flag
+        final var byDirty = new StatusQueryRequest();
+        byDirty.setRanges(List.of("1"));
+        byDirty.setDirty(Boolean.FALSE);
+        assertThat(query(controller, byDirty)).containsExactly("1/2/3", "1/3/1");
+
+        // group addresses (unknown 5/5/5 is ignored) and data point type family
+        final var byDataPointType = new StatusQueryRequest();
+        byDataPointType.setGroupAddresses(List.of(GroupAddress.of(2, 0, 1), GroupAddress.of(1, 2, 3), GroupAddress.of(5, 5, 5)));
+        byDataPointType.setDataPointTypes(List.of("9"));
+        assertThat(query(controller, byDataPointType)).containsExactly("2/0/1");
+
+        // all group addresses updated since
+        final var byUpdatedSince = new StatusQueryRequest();
+        byUpdatedSince.setUpdatedSince(2500L);
+        assertThat(query(controller, byUpdatedSince)).containsExactly("1/3/1", "2/0/1");
+
+        // the status pool is never scanned for each query
+        verify(statusPool).copyStatusMap();
+    }
+
+    @ControllerTest(StatusController.class)
+    @DisplayName("ERROR: Status Query Request with invalid range")
+    public void testStatusQueryInvalid(final StatusController controller) {
+        final var contextSpy = TestUtils.contextSpy();
+        final var queryRequest = new StatusQueryRequest();
+        queryRequest.setRanges(List.of("1/8"));
+
+        // Execution
+        controller.statusQuery(contextSpy, queryRequest);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_BAD_REQUEST);
+        verify(contextSpy).result("{}");
+    }
+
+    @Test
+    @DisplayName("OK: Status Request with subset of fields")
+    public void testSingleStatusWithFields() {
+        final var groupAddress = GroupAddress.of(1, 2, 3);
+        final var knxClientMock = mockKnxClient();
+        final var knxStatusData = mockKnxStatusData(1000);
+        when(knxClientMock.getStatusPool().getStatusFor(groupAddress)).thenReturn(knxStatusData);
+        final var controller = new StatusController(knxClientMock);
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.req.getQueryString()).thenReturn("fields=raw,timestamp");
+
+        // Execution
+        controller.statusOne(contextSpy, groupAddress);
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_OK);
+        verify(contextSpy).result("{\"timestamp\":{\"seconds\":1,\"nanos\":0}," +
+                "\"groupAddress\":{\"type\":1,\"format\":{\"free_level\":\"2563\",\"two_level\":\"1/515\",\"three_level\":\"1/2/3\"},\"raw\":[10,3]}," +
+                "\"raw\":[1]}");
+    }
+
+    @ControllerTest(StatusController.class)
+    @DisplayName("ERROR: Status Request with unknown field")
+    public void testSingleStatusWithUnknownField(final StatusController controller) {
+        final var contextSpy = TestUtils.contextSpy();
+        when(contextSpy.req.getQueryString()).thenReturn("fields=groupAddress,foo");
+
+        // Execution
+        controller.statusOne(contextSpy, TestUtils.randomGroupAddress());
+
+        // Verification
+        verify(contextSpy).status(HttpServletResponse.SC_BAD_REQUEST);
+        verify(contextSpy).result("{}");
+    }
+
+    /**
+     * Executes the status query and returns the three-level group addresses of response
+     */
+    private List<String> query(final StatusController controller, final StatusQueryRequest queryRequest) {
+        final var contextSpy = TestUtils.contextSpy();
+        controller.statusQuery(contextSpy, queryRequest);
+
+        verify(contextSpy).status(207);
+        final var captor = ArgumentCaptor.forClass(String.class);
+        verify(contextSpy).result(captor.capture());
+        final var result = captor.getValue();
+        final var groupAddresses = new ArrayList<String>();
+        final var matcher = Pattern.compile("\"three_level\":\"([0-9/]+)\"").matcher(result);
+        while (matcher.find()) {
+            groupAddresses.add(matcher.group(1));
+        }
+        return groupAddresses;
+    }
+
+    private KnxClient mockKnxClient() {
+        final var knxClientMock = mock(KnxClient.class);
+        final var configMock = mock(Config.class);
+        final var xmlProjectMock = mock(XmlProject.class);
+        final var statusPoolMock = mock(KnxStatusPool.class);
+        when(knxClientMock.getConfig()).thenReturn(configMock);
+        when(configMock.getProject()).thenReturn(xmlProjectMock);
+        when(knxClientMock.getStatusPool()).thenReturn(statusPoolMock);
+        return knxClientMock;
+    }
+
+    private KnxStatusData mockKnxStatusData(final long epochMilli) {
+        final var knxStatusData = mock(KnxStatusData.class);
+        when(knxStatusData.getTimestamp()).thenReturn(Instant.ofEpochMilli(epochMilli));
+        when(knxStatusData.getSourceAddress()).thenReturn(IndividualAddress.of(1, 1, 1));
+        when(knxStatusData.getAPCI()).thenReturn(APCI.GROUP_VALUE_WRITE);
+        when(knxStatusData.getData()).thenReturn(new byte[]{0x01});
+        return knxStatusData;
+    }
 }
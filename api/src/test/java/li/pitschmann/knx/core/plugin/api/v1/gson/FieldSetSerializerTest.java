@@ -0,0 +1,126 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.gson;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.IndividualAddress;
+import li.pitschmann.knx.core.cemi.APCI;
+import li.pitschmann.knx.core.datapoint.DataPointRegistry;
+import li.pitschmann.knx.core.knxproj.XmlGroupAddress;
+import li.pitschmann.knx.core.plugin.api.v1.json.Status;
+import li.pitschmann.knx.core.plugin.api.v1.json.StatusResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test {@link FieldSetSerializer}
+ */
+class FieldSetSerializerTest {
+    private static final String ALL_STATUS_FIELDS = String.join(",", FieldSetSerializer.STATUS_RESPONSE.getFieldNames());
+
+    @Test
+    @DisplayName("Serialize all fields of StatusResponse same as Gson")
+    void testAllFields() {
+        final var gson = ApiGsonEngine.INSTANCE.getGson();
+        final var response = statusResponse();
+
+        final var fieldSet = FieldSetSerializer.STATUS_RESPONSE.getFieldSet(ALL_STATUS_FIELDS);
+        assertThat(gson.toJson(fieldSet.select(response))).isEqualTo(gson.toJson(response));
+        assertThat(gson.toJson(fieldSet.select(List.of(response, response)))).isEqualTo(gson.toJson(List.of(response, response)));
+
+        // null values are omitted, same as Gson
+        final var emptyResponse = new StatusResponse();
+        assertThat(gson.toJson(fieldSet.select(emptyResponse))).isEqualTo("{}");
+    }
+
+    @Test
+    @DisplayName("Serialize subset of fields of StatusResponse")
+    void testSubsetOfFields() {
+        final var gson = ApiGsonEngine.INSTANCE.getGson();
+        final var response = statusResponse();
+
+        // identity field 'groupAddress' is always written, order is same as for all fields
+        final var fieldSet = FieldSetSerializer.STATUS_RESPONSE.getFieldSet("value, dirty");
+        assertThat(gson.toJson(fieldSet.select(response))).isEqualTo("{" +
+                "\"dirty\":true," +
+                "\"groupAddress\":{\"type\":1,\"format\":{\"free_level\":\"2563\",\"two_level\":\"1/515\",\"three_level\":\"1/2/3\"},\"raw\":[10,3]}," +
+                "\"value\":\"on\"" +
+                "}");
+        assertThat(gson.toJson(FieldSetSerializer.STATUS_RESPONSE.getFieldSet("").select(List.of(response)))).isEqualTo("[{" +
+                "\"groupAddress\":{\"type\":1,\"format\":{\"free_level\":\"2563\",\"two_level\":\"1/515\",\"three_level\":\"1/2/3\"},\"raw\":[10,3]}" +
+                "}]");
+
+        // compiled once per set of fields
+        assertThat(FieldSetSerializer.STATUS_RESPONSE.getFieldSet("dirty,groupAddress,value")).isSameAs(fieldSet);
+        assertThat(FieldSetSerializer.STATUS_RESPONSE.getFieldSet("value,dirty")).isSameAs(fieldSet);
+    }
+
+    @Test
+    @DisplayName("Serialize all fields of XmlGroupAddress same as XmlGroupAddressJsonSerializer")
+    void testXmlGroupAddress() {
+        final var gson = ApiGsonEngine.INSTANCE.getGson();
+        final var xmlGroupAddress = mock(XmlGroupAddress.class);
+        when(xmlGroupAddress.getId()).thenReturn("GA-1");
+        when(xmlGroupAddress.getName()).thenReturn("Name");
+        when(xmlGroupAddress.getDescription()).thenReturn("Description");
+        when(xmlGroupAddress.getAddress()).thenReturn("2563");
+        when(xmlGroupAddress.getDataPointType()).thenReturn("1.001");
+
+        final var allFields = String.join(",", FieldSetSerializer.XML_GROUP_ADDRESS.getFieldNames());
+        assertThat(gson.toJson(FieldSetSerializer.XML_GROUP_ADDRESS.getFieldSet(allFields).select(xmlGroupAddress)))
+                .isEqualTo(gson.toJson(xmlGroupAddress, XmlGroupAddress.class));
+        assertThat(gson.toJson(FieldSetSerializer.XML_GROUP_ADDRESS.getFieldSet("name").select(xmlGroupAddress)))
+                .isEqualTo("{\"name\":\"Name\",\"address\":{\"type\":1,\"format\":{\"free_level\":\"2563\",\"two_level\":\"1/515\",\"three_level\":\"1/2/3\"},\"raw\":[10,3]}}");
+    }
+
+    @Test
+    @DisplayName("Unknown field")
+    void testUnknownField() {
+        assertThatThrownBy(() -> FieldSetSerializer.STATUS_RESPONSE.getFieldSet("groupAddress,foo"))
+                .isInstanceOf(IllegalArgumentException.class);
+        // status is not a field of read response
+        assertThatThrownBy(() -> FieldSetSerializer.READ_RESPONSE.getFieldSet("status"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static StatusResponse statusResponse() {
+        final var response = new StatusResponse();
+        response.setStatus(Status.OK);
+        response.setTimestamp(Instant.ofEpochSecond(123, 456));
+        response.setSourceAddress(IndividualAddress.of(1, 1, 5));
+        response.setApci(APCI.GROUP_VALUE_WRITE);
+        response.setDirty(Boolean.TRUE);
+        response.setGroupAddress(GroupAddress.of(1, 2, 3));
+        response.setName("Name");
+        response.setDescription("Description");
+        response.setDataPointType(DataPointRegistry.getDataPointType("1.001"));
+        response.setUnit("unit");
+        response.setValue("on");
+        response.setRaw(new byte[]{0x01, (byte) 0xFF});
+        return response;
+    }
+}
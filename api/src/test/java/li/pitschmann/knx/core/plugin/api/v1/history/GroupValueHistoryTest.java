@@ -0,0 +1,200 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.history;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.datapoint.DataPointType;
+import li.pitschmann.knx.core.datapoint.value.DataPointValue;
+import li.pitschmann.knx.core.plugin.history.GroupValueHistoryStore;
+import li.pitschmann.knx.core.utils.ByteFormatter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link GroupValueHistory}
+ */
+class GroupValueHistoryTest {
+    private static final long START = 1_600_002_000_000L; // a full hour
+    private static final GroupAddress GROUP_ADDRESS = GroupAddress.of(1, 2, 3);
+
+    @Test
+    @DisplayName("Test the history with every recorded group value")
+    void testRaw() throws IOException {
+        try (final var store = newStore("testRaw")) {
+            store.append(GROUP_ADDRESS, START, false, new byte[]{10});
+            store.append(GROUP_ADDRESS, START + 500, true, new byte[]{20});
+            store.append(GROUP_ADDRESS, START + 1000, false, new byte[]{30});
+
+            final var response = new GroupValueHistory(store).query(GROUP_ADDRESS, numericDataPointType(), START, START + 999, 0);
+            assertThat(response.getGroupAddress()).isEqualTo(GROUP_ADDRESS);
+            assertThat(response.getStep()).isZero();
+            assertThat(response.getTimestamps()).containsExactly(START, START + 500);
+            assertThat(response.getValues()).containsExactly(10d, 20d);
+            assertThat(response.getTexts()).containsExactly("10", "20");
+            assertThat(response.getCounts()).isNull();
+            assertThat(response.getAvg()).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Test the history downsampled into buckets")
+    void testBuckets() throws IOException {
+        try (final var store = newStore("testBuckets")) {
+            store.append(GROUP_ADDRESS, START, false, new byte[]{10});
+            store.append(GROUP_ADDRESS, START + 400, false, new byte[]{20});
+            store.append(GROUP_ADDRESS, START + 1500, false, new byte[]{30});
+            store.append(GROUP_ADDRESS, START + 3200, false, new byte[]{5});
+            store.append(GROUP_ADDRESS, START + 3300, false, new byte[]{7});
+
+            final var response = new GroupValueHistory(store).query(GROUP_ADDRESS, numericDataPointType(), START, START + 3999, 1000);
+            assertThat(response.getStep()).isEqualTo(1000);
+            // bucket without group values is omitted
+            assertThat(response.getTimestamps()).containsExactly(START, START + 1000, START + 3000);
+            assertThat(response.getCounts()).containsExactly(2, 1, 2);
+            assertThat(response.getMin()).containsExactly(10d, 30d, 5d);
+            assertThat(response.getMax()).containsExactly(20d, 30d, 7d);
+            assertThat(response.getAvg()).containsExactly(15d, 30d, 6d);
+            assertThat(response.getValues()).containsExactly(20d, 30d, 7d);
+            assertThat(response.getTexts()).containsExactly("20", "30", "7");
+        }
+    }
+
+    @Test
+    @DisplayName("Test every distinct group value is decoded once per query")
+    void testDecodedOnce() throws IOException {
+        try (final var store = newStore("testDecodedOnce")) {
+            store.append(GROUP_ADDRESS, START, false, new byte[]{10});
+            store.append(GROUP_ADDRESS, START + 100, false, new byte[]{20});
+            store.append(GROUP_ADDRESS, START + 1100, false, new byte[]{10});
+            store.append(GROUP_ADDRESS, START + 2100, false, new byte[]{10});
+
+            final var dataPointType = numericDataPointType();
+            final var response = new GroupValueHistory(store).query(GROUP_ADDRESS, dataPointType, START, START + 2999, 1000);
+            assertThat(response.getCounts()).containsExactly(2, 1, 1);
+            assertThat(response.getValues()).containsExactly(20d, 10d, 10d);
+            verify(dataPointType, times(2)).of(any(byte[].class));
+        }
+    }
+
+    @Test
+    @DisplayName("Test the history without (numeric) data point type")
+    void testNonNumeric() throws IOException {
+        try (final var store = newStore("testNonNumeric")) {
+            store.append(GROUP_ADDRESS, START, false, new byte[]{10, 11});
+
+            // unknown data point type
+            final var history = new GroupValueHistory(store);
+            final var response = history.query(GROUP_ADDRESS, null, START, START + 1000, 0);
+            assertThat(response.getValues()).isNull();
+            assertThat(response.getTexts()).containsExactly(ByteFormatter.formatHexAsString(new byte[]{10, 11}));
+
+            // data point type that cannot decode the data
+            final var dataPointType = mock(DataPointType.class);
+            when(dataPointType.of(any(byte[].class))).thenThrow(new IllegalArgumentException("Wrong length"));
+            final var response2 = history.query(GROUP_ADDRESS, dataPointType, START, START + 1000, 1000);
+            assertThat(response2.getCounts()).containsExactly(1);
+            assertThat(response2.getValues()).isNull();
+            assertThat(response2.getMin()).isNull();
+            assertThat(response2.getTexts()).containsExactly(ByteFormatter.formatHexAsString(new byte[]{10, 11}));
+        }
+    }
+
+    @Test
+    @DisplayName("Test the history with invalid arguments")
+    void testInvalid() throws IOException {
+        try (final var store = newStore("testInvalid")) {
+            final var history = new GroupValueHistory(store);
+            assertThatThrownBy(() -> history.query(GROUP_ADDRESS, null, 2000, 1000, 0)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> history.query(GROUP_ADDRESS, null, 1000, 2000, -1)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("Test the history without downsampling is limited")
+    void testRawLimit() throws IOException {
+        try (final var store = newStore("testRawLimit")) {
+            for (var i = 0; i <= GroupValueHistory.MAX_RAW_RECORDS; i++) {
+                store.append(GROUP_ADDRESS, START + i, false, new byte[]{1});
+            }
+
+            final var history = new GroupValueHistory(store);
+            // one group value too many
+            assertThatThrownBy(() -> history.query(GROUP_ADDRESS, null, START, START + GroupValueHistory.MAX_RAW_RECORDS, 0))
+                    .isInstanceOf(IllegalArgumentException.class);
+            // exactly the limit
+            assertThat(history.query(GROUP_ADDRESS, null, START, START + GroupValueHistory.MAX_RAW_RECORDS - 1, 0)
+                    .getTimestamps()).hasSize(GroupValueHistory.MAX_RAW_RECORDS);
+            // downsampled
+            assertThat(history.query(GROUP_ADDRESS, null, START, START + GroupValueHistory.MAX_RAW_RECORDS, 1000)
+                    .getCounts()).hasSize(11);
+        }
+    }
+
+    private static GroupValueHistoryStore newStore(final String method) {
+        return new GroupValueHistoryStore(Paths.get("target/test-GroupValueHistoryTest-" + method + "-" + UUID.randomUUID()));
+    }
+
+    private static DataPointType numericDataPointType() {
+        final var dataPointType = mock(DataPointType.class);
+        when(dataPointType.of(any(byte[].class))).thenAnswer(i -> new NumericValue(((byte[]) i.getArgument(0))[0]));
+        return dataPointType;
+    }
+
+    /**
+     * Data point value with a numeric {@code getValue()} method
+     */
+    public static final class NumericValue implements DataPointValue {
+        private final int value;
+
+        private NumericValue(final int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+
+        @Override
+        public DataPointType getDPT() {
+            return null;
+        }
+
+        @Override
+        public byte[] toByteArray() {
+            return new byte[]{(byte) value};
+        }
+
+        @Override
+        public String toText() {
+            return String.valueOf(value);
+        }
+    }
+}
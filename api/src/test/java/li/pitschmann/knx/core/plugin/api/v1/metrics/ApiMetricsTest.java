@@ -0,0 +1,133 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.metrics;
+
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import li.pitschmann.knx.core.plugin.api.TestUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link ApiMetrics} and {@link LatencyHistogram}
+ */
+class ApiMetricsTest {
+
+    @Test
+    @DisplayName("Test the latency histogram percentiles, count and sum")
+    void testLatencyHistogram() {
+        final var histogram = new LatencyHistogram();
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getValueAtQuantile(0.5)).isNaN();
+
+        for (var i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(1000);
+        assertThat(histogram.getSumSeconds()).isCloseTo(500.5, within(0.001));
+        // precision of two significant digits
+        assertThat(histogram.getValueAtQuantile(0.5)).isCloseTo(0.5, within(0.005));
+        assertThat(histogram.getValueAtQuantile(0.99)).isCloseTo(0.99, within(0.01));
+        assertThat(histogram.getValueAtQuantile(0.999)).isCloseTo(0.999, within(0.01));
+
+        // durations out of range are recorded as one minute
+        histogram.record(TimeUnit.HOURS.toNanos(1));
+        assertThat(histogram.getValueAtQuantile(1.0)).isCloseTo(60.0, within(0.6));
+    }
+
+    @Test
+    @DisplayName("Test the instrumented handler and the Prometheus text format")
+    void testInstrument() throws Exception {
+        final var metrics = new ApiMetrics();
+        final var handler = metrics.instrument("GET", "/api/v1/foo", ctx -> ctx.status(HttpServletResponse.SC_OK));
+        final var failingHandler = metrics.instrument("POST", "/api/v1/bar", ctx -> {
+            throw new IllegalStateException("Failure");
+        });
+
+        handler.handle(contextWithStatus(HttpServletResponse.SC_OK));
+        handler.handle(contextWithStatus(HttpServletResponse.SC_OK));
+        handler.handle(contextWithStatus(HttpServletResponse.SC_NOT_FOUND));
+        assertThatThrownBy(() -> failingHandler.handle(TestUtils.contextSpy())).isInstanceOf(IllegalStateException.class);
+        metrics.getBusReadLatency().record(TimeUnit.MILLISECONDS.toNanos(20));
+
+        final var text = metrics.toPrometheusText();
+        assertThat(text)
+                .contains("# TYPE knx_api_requests_total counter\n")
+                .contains("knx_api_requests_total{method=\"GET\",route=\"/api/v1/foo\",status=\"200\"} 2\n")
+                .contains("knx_api_requests_total{method=\"GET\",route=\"/api/v1/foo\",status=\"404\"} 1\n")
+                .contains("knx_api_requests_total{method=\"POST\",route=\"/api/v1/bar\",status=\"500\"} 1\n")
+                .contains("# TYPE knx_api_requests_in_flight gauge\n")
+                .contains("knx_api_requests_in_flight{method=\"GET\",route=\"/api/v1/foo\"} 0\n")
+                .contains("# TYPE knx_api_request_duration_seconds summary\n")
+                .contains("knx_api_request_duration_seconds{method=\"GET\",route=\"/api/v1/foo\",quantile=\"0.99\"} ")
+                .contains("knx_api_request_duration_seconds_count{method=\"GET\",route=\"/api/v1/foo\"} 3\n")
+                .contains("knx_api_bus_duration_seconds_count{operation=\"read\"} 1\n")
+                .contains("knx_api_bus_duration_seconds{operation=\"write\",quantile=\"0.5\"} NaN\n")
+                .contains("knx_api_serialization_duration_seconds{quantile=\"0.999\"} NaN\n")
+                .contains("knx_api_serialization_duration_seconds_count 0\n");
+    }
+
+    @Test
+    @DisplayName("Test the instrumented handler of asynchronous request is recorded on completion")
+    void testInstrumentAsync() throws Exception {
+        final var metrics = new ApiMetrics();
+        final var future = new CompletableFuture<String>();
+        final var handler = metrics.instrument("GET", "/api/v1/foo", ctx -> ctx.result(future));
+        final var failingFuture = new CompletableFuture<String>();
+        final var failingHandler = metrics.instrument("GET", "/api/v1/bar", ctx -> ctx.result(failingFuture));
+
+        final var contextSpy = TestUtils.contextSpy(HandlerType.GET);
+        handler.handle(contextSpy);
+        failingHandler.handle(TestUtils.contextSpy(HandlerType.GET));
+
+        // parked requests are in flight and not recorded yet
+        assertThat(metrics.toPrometheusText())
+                .contains("knx_api_requests_in_flight{method=\"GET\",route=\"/api/v1/foo\"} 1\n")
+                .contains("knx_api_request_duration_seconds_count{method=\"GET\",route=\"/api/v1/foo\"} 0\n")
+                .doesNotContain("knx_api_requests_total{method=\"GET\",route=\"/api/v1/foo\"");
+
+        // status is set when result is completed
+        when(contextSpy.res.getStatus()).thenReturn(HttpServletResponse.SC_NOT_MODIFIED);
+        future.complete("");
+        failingFuture.completeExceptionally(new IllegalStateException("Failure"));
+
+        assertThat(metrics.toPrometheusText())
+                .contains("knx_api_requests_total{method=\"GET\",route=\"/api/v1/foo\",status=\"304\"} 1\n")
+                .contains("knx_api_requests_total{method=\"GET\",route=\"/api/v1/bar\",status=\"500\"} 1\n")
+                .contains("knx_api_requests_in_flight{method=\"GET\",route=\"/api/v1/foo\"} 0\n")
+                .contains("knx_api_request_duration_seconds_count{method=\"GET\",route=\"/api/v1/foo\"} 1\n");
+    }
+
+    private Context contextWithStatus(final int status) {
+        final var contextSpy = TestUtils.contextSpy();
+        contextSpy.status(status);
+        when(contextSpy.res.getStatus()).thenReturn(status);
+        return contextSpy;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.metrics;
+
+import li.pitschmann.knx.core.body.RoutingIndicationBody;
+import li.pitschmann.knx.core.body.SearchRequestBody;
+import li.pitschmann.knx.core.body.TunnelingAckBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.communication.KnxStatistic;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link KnxStatisticExporter}
+ */
+class KnxStatisticExporterTest {
+
+    @Test
+    @DisplayName("Test the export of KNX statistic in OpenMetrics format")
+    void testExport() {
+        final var statisticMock = mock(KnxStatistic.class);
+        when(statisticMock.getNumberOfBodyReceived()).thenReturn(10L);
+        when(statisticMock.getNumberOfBytesReceived()).thenReturn(11L);
+        when(statisticMock.getNumberOfBodySent()).thenReturn(12L);
+        when(statisticMock.getNumberOfBytesSent()).thenReturn(Long.MAX_VALUE);
+        when(statisticMock.getNumberOfErrors()).thenReturn(14L);
+        when(statisticMock.getErrorRate()).thenReturn(1.56d);
+        when(statisticMock.getNumberOfBodyReceived(eq(TunnelingRequestBody.class))).thenReturn(150L);
+        when(statisticMock.getNumberOfBodyReceived(eq(RoutingIndicationBody.class))).thenReturn(161L);
+        when(statisticMock.getNumberOfBodySent(eq(SearchRequestBody.class))).thenReturn(200L);
+        when(statisticMock.getNumberOfBodySent(eq(TunnelingAckBody.class))).thenReturn(251L);
+
+        final var text = asString(new KnxStatisticExporter().export(statisticMock));
+        assertThat(text).startsWith("# TYPE knx_packets counter\n");
+        assertThat(text).endsWith("# EOF\n");
+        assertThat(text).contains(
+                "knx_packets_total{direction=\"inbound\"} 10\n",
+                "knx_packets_total{direction=\"outbound\"} 12\n",
+                "knx_bytes_total{direction=\"inbound\"} 11\n",
+                "knx_bytes_total{direction=\"outbound\"} 9223372036854775807\n",
+                "knx_bodies_total{direction=\"inbound\",type=\"tunneling\",kind=\"request\"} 150\n",
+                "knx_bodies_total{direction=\"inbound\",type=\"indication\",kind=\"response\"} 161\n",
+                "knx_bodies_total{direction=\"inbound\",type=\"search\",kind=\"request\"} 0\n",
+                "knx_bodies_total{direction=\"outbound\",type=\"search\",kind=\"request\"} 200\n",
+                "knx_bodies_total{direction=\"outbound\",type=\"tunneling\",kind=\"response\"} 251\n",
+                "knx_errors_total 14\n",
+                "knx_error_rate 1.5600\n"
+        );
+        // indication has no inbound request / outbound response
+        assertThat(text).doesNotContain(
+                "knx_bodies_total{direction=\"inbound\",type=\"indication\",kind=\"request\"}",
+                "knx_bodies_total{direction=\"outbound\",type=\"indication\",kind=\"response\"}"
+        );
+        // 2x packets, 2x bytes, 26x bodies, 1x errors, 1x error rate
+        assertThat(text.lines().filter(l -> !l.startsWith("#")).count()).isEqualTo(32);
+    }
+
+    @Test
+    @DisplayName("Test the export of special floating point values")
+    void testExportSpecialValues() {
+        final var exporter = new KnxStatisticExporter();
+        final var statisticMock = mock(KnxStatistic.class);
+
+        when(statisticMock.getErrorRate()).thenReturn(Double.NaN);
+        assertThat(asString(exporter.export(statisticMock))).contains("knx_error_rate NaN\n");
+
+        when(statisticMock.getErrorRate()).thenReturn(Double.POSITIVE_INFINITY);
+        assertThat(asString(exporter.export(statisticMock))).contains("knx_error_rate +Inf\n");
+
+        when(statisticMock.getErrorRate()).thenReturn(0.00004d);
+        assertThat(asString(exporter.export(statisticMock))).contains("knx_error_rate 0.0000\n");
+
+        when(statisticMock.getErrorRate()).thenReturn(100d);
+        assertThat(asString(exporter.export(statisticMock))).contains("knx_error_rate 100.0000\n");
+    }
+
+    private static String asString(final ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+}
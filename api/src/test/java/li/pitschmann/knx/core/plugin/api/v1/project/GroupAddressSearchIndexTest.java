@@ -0,0 +1,125 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.project;
+
+import li.pitschmann.knx.core.knxproj.XmlGroupAddress;
+import li.pitschmann.knx.core.knxproj.XmlProject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link GroupAddressSearchIndex}
+ */
+class GroupAddressSearchIndexTest {
+
+    @Test
+    @DisplayName("Test the normalization of text")
+    void testNormalize() {
+        assertThat(GroupAddressSearchIndex.normalize(null)).isEmpty();
+        assertThat(GroupAddressSearchIndex.normalize("  ")).isEmpty();
+        assertThat(GroupAddressSearchIndex.normalize("K\u00fcche: Licht-Schalter (EG)")).isEqualTo("kuche licht schalter eg");
+        assertThat(GroupAddressSearchIndex.normalize("Au\u00dfentemperatur Fa\u00e7ade")).isEqualTo("aussentemperatur facade");
+        assertThat(GroupAddressSearchIndex.normalize("DPT9.001")).isEqualTo("dpt9 001");
+    }
+
+    @Test
+    @DisplayName("Test the search by name and description")
+    void testSearch() {
+        final var index = new GroupAddressSearchIndex(List.of(
+                xmlGroupAddress("K\u00fcche Licht", "Deckenleuchte"),
+                xmlGroupAddress("Wohnzimmer Licht Dimmen", null),
+                xmlGroupAddress("Licht", "Zentral"),
+                xmlGroupAddress("Rollladen K\u00fcche", "Fenster Ost"),
+                xmlGroupAddress("Temperatur Wohnzimmer", "Raumtemperatur")
+        ));
+        assertThat(index.size()).isEqualTo(5);
+
+        // whole word first, shorter names first
+        assertThat(names(index.search("licht", 10))).containsExactly("Licht", "K\u00fcche Licht", "Wohnzimmer Licht Dimmen");
+        // accent folding and all terms must match
+        assertThat(names(index.search("KUCHE lic", 10))).containsExactly("K\u00fcche Licht");
+        // prefix of one and two characters
+        assertThat(names(index.search("w", 10))).containsExactly("Temperatur Wohnzimmer", "Wohnzimmer Licht Dimmen");
+        assertThat(names(index.search("ro", 10))).containsExactly("Rollladen K\u00fcche");
+        // inside of name is ranked higher than description only
+        assertThat(names(index.search("temperatur", 10))).containsExactly("Temperatur Wohnzimmer");
+        assertThat(names(index.search("raumtemp", 10))).containsExactly("Temperatur Wohnzimmer");
+        // inside of word
+        assertThat(names(index.search("mmer", 10))).containsExactly("Temperatur Wohnzimmer", "Wohnzimmer Licht Dimmen");
+        // description only
+        assertThat(names(index.search("fenster", 10))).containsExactly("Rollladen K\u00fcche");
+
+        // limit
+        assertThat(index.search("licht", 1)).hasSize(1);
+        assertThat(index.search("licht", 0)).isEmpty();
+        assertThatThrownBy(() -> index.search("licht", -1)).isInstanceOf(IllegalArgumentException.class);
+
+        // no matches
+        assertThat(index.search("garage", 10)).isEmpty();
+        assertThat(index.search("licht garage", 10)).isEmpty();
+        assertThat(index.search("x", 10)).isEmpty();
+        assertThat(index.search(" - ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Test the search index of a big project")
+    void testSearchBigProject() {
+        final var rooms = List.of("K\u00fcche", "Wohnzimmer", "Schlafzimmer", "B\u00fcro", "Bad", "Flur", "Garage", "Keller");
+        final var functions = List.of("Licht", "Dimmen", "Rollladen", "Temperatur", "Heizung", "Fenster", "Pr\u00e4senz");
+        final var groupAddresses = new ArrayList<XmlGroupAddress>();
+        for (int i = 0; i < 20000; i++) {
+            groupAddresses.add(xmlGroupAddress(rooms.get(i % rooms.size()) + " " + functions.get(i % functions.size()) + " " + i, "Etage " + (i % 3)));
+        }
+        final var xmlProject = mock(XmlProject.class);
+        when(xmlProject.getGroupAddresses()).thenReturn(groupAddresses);
+        final var index = GroupAddressSearchIndex.of(xmlProject);
+
+        assertThat(names(index.search("wohnzimmer heiz 12345", 10))).containsExactly("Wohnzimmer Heizung 12345");
+        assertThat(index.search("kuche licht", 10)).hasSize(10);
+        assertThat(index.search("etage", 20000)).hasSize(20000);
+    }
+
+    @Test
+    @DisplayName("Test the search index without XML project")
+    void testNoProject() {
+        final var index = GroupAddressSearchIndex.of(null);
+        assertThat(index.size()).isZero();
+        assertThat(index.search("licht", 10)).isEmpty();
+    }
+
+    private static List<String> names(final List<XmlGroupAddress> groupAddresses) {
+        return groupAddresses.stream().map(XmlGroupAddress::getName).collect(Collectors.toList());
+    }
+
+    private static XmlGroupAddress xmlGroupAddress(final String name, final String description) {
+        final var xmlGroupAddress = mock(XmlGroupAddress.class);
+        when(xmlGroupAddress.getName()).thenReturn(name);
+        when(xmlGroupAddress.getDescription()).thenReturn(description);
+        return xmlGroupAddress;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.statistic;
+
+import li.pitschmann.knx.core.communication.KnxStatistic;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link StatisticHistory} and {@link StatisticRingBuffer}
+ */
+class StatisticHistoryTest {
+    private static final long START = 1_600_002_000_000L; // a full hour
+
+    @Test
+    @DisplayName("Test the ring buffer when capacity is exceeded")
+    void testRingBufferOverwrite() {
+        final var ringBuffer = new StatisticRingBuffer(1000, 3, 2);
+        assertThat(ringBuffer.getOldestTimestamp()).isEqualTo(Long.MAX_VALUE);
+        assertThat(ringBuffer.query(0, Long.MAX_VALUE, 1)[0]).isEmpty();
+
+        for (var i = 1; i <= 5; i++) {
+            ringBuffer.add(i * 1000L, new long[]{i, i * 10});
+        }
+
+        // only the last three samples are kept
+        assertThat(ringBuffer.getOldestTimestamp()).isEqualTo(3000L);
+        final var samples = ringBuffer.query(0, Long.MAX_VALUE, 1);
+        assertThat(samples[0]).containsExactly(3000L, 4000L, 5000L);
+        assertThat(samples[1]).containsExactly(3L, 4L, 5L);
+        assertThat(samples[2]).containsExactly(30L, 40L, 50L);
+
+        // range and step: latest sample per step
+        final var samples2 = ringBuffer.query(3500, 5000, 2000);
+        assertThat(samples2[0]).containsExactly(5000L);
+        assertThat(samples2[1]).containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("Test the history with seconds, minutes and hours tiers")
+    void testHistory() {
+        final var history = new StatisticHistory();
+        final var statisticMock = mock(KnxStatistic.class);
+        final var seconds = new AtomicLong();
+        when(statisticMock.getNumberOfBodyReceived()).thenAnswer(i -> seconds.get());
+        when(statisticMock.getNumberOfErrors()).thenAnswer(i -> seconds.get() / 100);
+
+        // record 2 hours in one second steps (inbound packets = elapsed seconds)
+        final var twoHours = TimeUnit.HOURS.toSeconds(2);
+        for (var i = 0; i <= twoHours; i++) {
+            seconds.set(i);
+            history.record(START + i * 1000L, statisticMock);
+        }
+        final var end = START + twoHours * 1000L;
+
+        // last 10 seconds from seconds tier
+        final var lastSeconds = history.query(end - 9_000, end, 1000);
+        assertThat(lastSeconds.getStep()).isEqualTo(1000L);
+        assertThat(lastSeconds.getTimestamps()).hasSize(10).endsWith(end);
+        assertThat(lastSeconds.getInboundPackets()).hasSize(10).endsWith(twoHours);
+        assertThat(lastSeconds.getErrors()).endsWith(twoHours / 100);
+
+        // last 10 seconds with step of 5 seconds
+        final var lastSecondsStep = history.query(end - 9_000, end, 5000);
+        assertThat(lastSecondsStep.getStep()).isEqualTo(5000L);
+        assertThat(lastSecondsStep.getTimestamps()).containsExactly(end - 5_000, end);
+
+        // older than one hour: from minutes tier
+        final var firstHour = history.query(START, START + TimeUnit.HOURS.toMillis(1) - 1, 1000);
+        assertThat(firstHour.getStep()).isEqualTo(TimeUnit.MINUTES.toMillis(1));
+        assertThat(firstHour.getTimestamps()).hasSize(60).startsWith(START, START + 60_000);
+        assertThat(firstHour.getInboundPackets()).startsWith(0L, 60L);
+
+        // hours tier
+        final var hours = history.query(0, end, TimeUnit.HOURS.toMillis(1));
+        assertThat(hours.getTimestamps()).containsExactly(START, START + 3_600_000, START + 7_200_000);
+    }
+
+    @Test
+    @DisplayName("Test the history with samples out of order and invalid arguments")
+    void testHistoryInvalid() {
+        final var history = new StatisticHistory();
+        final var statisticMock = mock(KnxStatistic.class);
+        history.record(START, statisticMock);
+        history.record(START - 1000, statisticMock); // ignored
+        assertThat(history.query(0, Long.MAX_VALUE, 1000).getTimestamps()).containsExactly(START);
+
+        assertThatThrownBy(() -> history.query(2, 1, 1000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> history.query(1, 2, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.status;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.IndividualAddress;
+import li.pitschmann.knx.core.communication.KnxStatusData;
+import li.pitschmann.knx.core.knxproj.XmlGroupAddress;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link DecodedValueCache}
+ */
+class DecodedValueCacheTest {
+    private static final GroupAddress GROUP_ADDRESS = GroupAddress.of(1, 2, 3);
+
+    @Test
+    @DisplayName("Test the decoded value is re-used for unchanged status data")
+    void testCached() {
+        final var cache = new DecodedValueCache();
+        final var xmlGroupAddress = xmlGroupAddress("5.010");
+        final var statusData = statusData(Instant.ofEpochSecond(100), new byte[]{0x23});
+
+        final var decodedValue = cache.get(GROUP_ADDRESS, xmlGroupAddress, statusData);
+        assertThat(decodedValue.getDataPointType().getId()).isEqualTo("5.010");
+        final var text = decodedValue.getText();
+        assertThat(text).isNotNull();
+
+        // same instance, no decoding
+        final var decodedValue2 = cache.get(GROUP_ADDRESS, xmlGroupAddress, statusData(Instant.ofEpochSecond(100), new byte[]{0x23}));
+        assertThat(decodedValue2).isSameAs(decodedValue);
+        assertThat(decodedValue2.getText()).isSameAs(text);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Test the decoded value is renewed when status data or data point type changed")
+    void testChanged() {
+        final var cache = new DecodedValueCache();
+        final var xmlGroupAddress = xmlGroupAddress("5.010");
+        final var decodedValue = cache.get(GROUP_ADDRESS, xmlGroupAddress, statusData(Instant.ofEpochSecond(100), new byte[]{0x23}));
+
+        // new timestamp
+        final var decodedValue2 = cache.get(GROUP_ADDRESS, xmlGroupAddress, statusData(Instant.ofEpochSecond(101), new byte[]{0x23}));
+        assertThat(decodedValue2).isNotSameAs(decodedValue);
+
+        // new raw data
+        final var decodedValue3 = cache.get(GROUP_ADDRESS, xmlGroupAddress, statusData(Instant.ofEpochSecond(101), new byte[]{0x24}));
+        assertThat(decodedValue3).isNotSameAs(decodedValue2);
+
+        // new data point type
+        final var decodedValue4 = cache.get(GROUP_ADDRESS, xmlGroupAddress("5.001"), statusData(Instant.ofEpochSecond(101), new byte[]{0x24}));
+        assertThat(decodedValue4).isNotSameAs(decodedValue3);
+        assertThat(decodedValue4.getDataPointType().getId()).isEqualTo("5.001");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Test the decoded value is invalidated")
+    void testInvalidate() {
+        final var cache = new DecodedValueCache();
+        final var xmlGroupAddress = xmlGroupAddress("5.010");
+        final var statusData = statusData(Instant.ofEpochSecond(100), new byte[]{0x23});
+        final var decodedValue = cache.get(GROUP_ADDRESS, xmlGroupAddress, statusData);
+        cache.get(GroupAddress.of(4, 5, 6), xmlGroupAddress, statusData);
+        assertThat(cache.size()).isEqualTo(2);
+
+        cache.invalidate(GROUP_ADDRESS);
+        cache.invalidate(IndividualAddress.of(1, 2, 3));
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(GROUP_ADDRESS, xmlGroupAddress, statusData)).isNotSameAs(decodedValue);
+    }
+
+    private static XmlGroupAddress xmlGroupAddress(final String dataPointType) {
+        final var xmlGroupAddress = mock(XmlGroupAddress.class);
+        when(xmlGroupAddress.getDataPointType()).thenReturn(dataPointType);
+        return xmlGroupAddress;
+    }
+
+    private static KnxStatusData statusData(final Instant timestamp, final byte[] data) {
+        final var statusData = mock(KnxStatusData.class);
+        when(statusData.getTimestamp()).thenReturn(timestamp);
+        when(statusData.getData()).thenReturn(data);
+        return statusData;
+    }
+}
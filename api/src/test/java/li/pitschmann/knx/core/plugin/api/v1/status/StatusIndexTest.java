@@ -0,0 +1,170 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.status;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.IndividualAddress;
+import li.pitschmann.knx.core.knxproj.XmlGroupAddress;
+import li.pitschmann.knx.core.knxproj.XmlProject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link StatusIndex}
+ */
+class StatusIndexTest {
+
+    @Test
+    @DisplayName("Test the group addresses are indexed")
+    void testAddresses() {
+        final var index = new StatusIndex();
+        index.add(GroupAddress.of(1, 2, 3));
+        index.add(GroupAddress.of(31, 7, 255));
+        index.add(IndividualAddress.of(1, 1, 5));
+
+        final var addresses = index.getAddresses();
+        assertThat(addresses.cardinality()).isEqualTo(2);
+        assertThat(addresses.get(StatusIndex.toRaw(GroupAddress.of(1, 2, 3)))).isTrue();
+        assertThat(addresses.get(StatusIndex.NUMBER_OF_ADDRESSES - 1)).isTrue();
+
+        // copy is not affected by further changes
+        index.add(GroupAddress.of(0, 0, 1));
+        assertThat(addresses.cardinality()).isEqualTo(2);
+        assertThat(index.getAddresses().cardinality()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Test the index is seeded once only")
+    @SuppressWarnings("unchecked")
+    void testSeed() {
+        final var index = new StatusIndex();
+        final var supplier = (Supplier<Set<GroupAddress>>) mock(Supplier.class);
+        when(supplier.get()).thenReturn(Set.of(GroupAddress.of(1, 2, 3), GroupAddress.of(4, 5, 6)));
+
+        index.seed(supplier);
+        index.seed(supplier);
+
+        assertThat(index.getAddresses().cardinality()).isEqualTo(2);
+        verify(supplier, times(1)).get();
+    }
+
+    @Test
+    @DisplayName("Test the index is completely seeded before a concurrent seed returns")
+    void testSeedConcurrently() throws Exception {
+        final var index = new StatusIndex();
+        final var seeding = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var first = CompletableFuture.runAsync(() -> index.seed(() -> {
+            seeding.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return Set.of(GroupAddress.of(1, 2, 3), GroupAddress.of(4, 5, 6));
+        }));
+        seeding.await();
+
+        // second seed must wait for the first one
+        final var second = CompletableFuture.runAsync(() -> index.seed(Set::of));
+        assertThat(second).isNotDone();
+        release.countDown();
+
+        second.get(5, TimeUnit.SECONDS);
+        assertThat(index.getAddresses().cardinality()).isEqualTo(2);
+        first.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Test the ranges of main and main/middle groups")
+    void testRangeOf() {
+        assertThat(StatusIndex.rangeOf(0, null)).containsExactly(0, 2048);
+        assertThat(StatusIndex.rangeOf(1, null)).containsExactly(
+                StatusIndex.toRaw(GroupAddress.of(1, 0, 0)),
+                StatusIndex.toRaw(GroupAddress.of(2, 0, 0)));
+        assertThat(StatusIndex.rangeOf(1, 2)).containsExactly(
+                StatusIndex.toRaw(GroupAddress.of(1, 2, 0)),
+                StatusIndex.toRaw(GroupAddress.of(1, 2, 255)) + 1);
+        assertThat(StatusIndex.rangeOf(31, 7)[1]).isEqualTo(StatusIndex.NUMBER_OF_ADDRESSES);
+
+        assertThatThrownBy(() -> StatusIndex.rangeOf(32, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> StatusIndex.rangeOf(-1, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> StatusIndex.rangeOf(1, 8)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Test the inverted index of data point types")
+    void testDataPointTypes() {
+        final var xmlGroupAddresses = List.of(
+                xmlGroupAddress(GroupAddress.of(1, 2, 3), "DPST-9-1"),
+                xmlGroupAddress(GroupAddress.of(1, 2, 4), "9.004"),
+                xmlGroupAddress(GroupAddress.of(1, 2, 5), "DPT-1"),
+                xmlGroupAddress(GroupAddress.of(1, 2, 6), null)
+        );
+        final var xmlProject = mock(XmlProject.class);
+        when(xmlProject.getGroupAddresses()).thenReturn(xmlGroupAddresses);
+
+        final var index = new StatusIndex();
+        assertThat(index.getAddressesOf(xmlProject, "9").cardinality()).isEqualTo(2);
+        assertThat(index.getAddressesOf(xmlProject, "9.004").get(StatusIndex.toRaw(GroupAddress.of(1, 2, 4)))).isTrue();
+        assertThat(index.getAddressesOf(xmlProject, " 1 ").cardinality()).isEqualTo(1);
+        assertThat(index.getAddressesOf(xmlProject, "9.001").get(StatusIndex.toRaw(GroupAddress.of(1, 2, 3)))).isTrue();
+        assertThat(index.getAddressesOf(xmlProject, "5.001").isEmpty()).isTrue();
+        assertThat(index.getAddressesOf(xmlProject, "DPST-9-1").isEmpty()).isTrue();
+
+        // project is indexed once only
+        verify(xmlProject, times(1)).getGroupAddresses();
+    }
+
+    @Test
+    @DisplayName("Test the inverted index of data point types of KNX project file")
+    void testDataPointTypesOfProject() {
+        final var xmlProject = XmlProject.of(Paths.get("src/test/resources/Project (3-Level, v20).knxproj"));
+
+        final var index = new StatusIndex();
+        // 'DPT-9' in KNX project
+        assertThat(index.getAddressesOf(xmlProject, "9").get(286)).isTrue();
+        // 'DPST-10-1' in KNX project
+        assertThat(index.getAddressesOf(xmlProject, "10.001").get(532)).isTrue();
+        assertThat(index.getAddressesOf(xmlProject, "10").get(532)).isTrue();
+        assertThat(index.getAddressesOf(xmlProject, "DPST-10-1").isEmpty()).isTrue();
+    }
+
+    private static XmlGroupAddress xmlGroupAddress(final GroupAddress groupAddress, final String dataPointType) {
+        final var xmlGroupAddress = mock(XmlGroupAddress.class);
+        when(xmlGroupAddress.getAddress()).thenReturn(groupAddress.getAddress());
+        when(xmlGroupAddress.getDataPointType()).thenReturn(dataPointType);
+        return xmlGroupAddress;
+    }
+}
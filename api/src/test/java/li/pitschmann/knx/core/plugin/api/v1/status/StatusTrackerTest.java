@@ -0,0 +1,76 @@
+/*
+ * KNX Link - A library for KNX Net/IP communication
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.api.v1.status;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link StatusTracker}
+ */
+class StatusTrackerTest {
+
+    @Test
+    @DisplayName("Test all waiters of an address are woken up by a single change")
+    void testAwaitChange() throws Exception {
+        final var tracker = new StatusTracker();
+        final var address = GroupAddress.of(1, 2, 3);
+        final var waiter1 = tracker.awaitChange(address, 10_000);
+        final var waiter2 = tracker.awaitChange(address, 10_000);
+        final var waiterOther = tracker.awaitChange(GroupAddress.of(4, 5, 6), 10_000);
+        assertThat(tracker.getNumberOfWaiters()).isEqualTo(3);
+
+        tracker.onChange(address);
+        assertThat(waiter1.get(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(waiter2.get(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(waiterOther.isDone()).isFalse();
+        assertThat(tracker.getNumberOfWaiters()).isEqualTo(1);
+
+        waiterOther.complete(Boolean.FALSE);
+        assertThat(tracker.getNumberOfWaiters()).isZero();
+    }
+
+    @Test
+    @DisplayName("Test the waiter is completed after timeout")
+    void testAwaitChangeTimeout() throws Exception {
+        final var tracker = new StatusTracker();
+        final var waiter = tracker.awaitChange(GroupAddress.of(1, 2, 3), 50);
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(tracker.getNumberOfWaiters()).isZero();
+    }
+
+    @Test
+    @DisplayName("Test the version is incremented by every change")
+    void testVersion() {
+        final var tracker = new StatusTracker();
+        final var createdAt = tracker.getLastModified();
+        assertThat(tracker.getVersion()).isZero();
+
+        tracker.onChange(GroupAddress.of(1, 2, 3));
+        tracker.onChange(GroupAddress.of(1, 2, 3));
+        tracker.onChange(GroupAddress.of(4, 5, 6));
+        assertThat(tracker.getVersion()).isEqualTo(3);
+        assertThat(tracker.getLastModified()).isAfterOrEqualTo(createdAt);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.history;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.body.Body;
+import li.pitschmann.knx.core.body.RoutingIndicationBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.cemi.APCI;
+import li.pitschmann.knx.core.cemi.CEMI;
+import li.pitschmann.knx.core.annotations.Nullable;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.plugin.ExtensionPlugin;
+import li.pitschmann.knx.core.plugin.LongConfigValue;
+import li.pitschmann.knx.core.plugin.ObserverPlugin;
+import li.pitschmann.knx.core.plugin.PathConfigValue;
+import li.pitschmann.knx.core.utils.Closeables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * History Plug-in that records every group value write and response
+ * arriving KNX client to a {@link GroupValueHistoryStore}
+ * <p>
+ * Outgoing group values are not recorded separately, because they are
+ * confirmed by the KNX Net/IP device and therefore arrive the client as well.
+ *
+ * @author PITSCHR
+ */
+public final class GroupValueHistoryPlugin implements ObserverPlugin, ExtensionPlugin {
+    /**
+     * Directory of history segment files
+     */
+    public static final PathConfigValue PATH = new PathConfigValue("path", () -> Paths.get("knx-history"), null);
+    /**
+     * Number of days (including today) to be kept, {@code 0} keeps all days
+     */
+    public static final LongConfigValue RETENTION_DAYS = new LongConfigValue("retentionDays", () -> 0L, x -> x >= 0);
+    private static final Logger log = LoggerFactory.getLogger(GroupValueHistoryPlugin.class);
+    // stores of initialized plug-ins by KNX client, used by other plug-ins (e.g. API) to read the history
+    private static final Map<KnxClient, GroupValueHistoryStore> STORES = new ConcurrentHashMap<>();
+
+    private KnxClient client;
+    private GroupValueHistoryStore store;
+
+    @Override
+    public void onInitialization(final KnxClient client) {
+        // configurations
+        final var path = client.getConfig(GroupValueHistoryPlugin.PATH);
+        final var retentionDays = client.getConfig(GroupValueHistoryPlugin.RETENTION_DAYS);
+        log.info("Initialized '{}' with: [path={}, retentionDays={}]", getClass().getName(), path, retentionDays);
+
+        this.client = client;
+        store = new GroupValueHistoryStore(path, retentionDays);
+        STORES.put(client, store);
+    }
+
+    @Override
+    public void onStart() {
+        // NO-OP
+    }
+
+    @Override
+    public void onShutdown() {
+        STORES.remove(client, store);
+        Closeables.closeQuietly(store);
+    }
+
+    @Override
+    public void onIncomingBody(final Body item) {
+        if (item instanceof TunnelingRequestBody) {
+            record(((TunnelingRequestBody) item).getCEMI());
+        } else if (item instanceof RoutingIndicationBody) {
+            record(((RoutingIndicationBody) item).getCEMI());
+        }
+    }
+
+    @Override
+    public void onOutgoingBody(final Body item) {
+        // NO-OP
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        // NO-OP
+    }
+
+    /**
+     * Returns the store of {@link GroupValueHistoryPlugin} that is initialized for given KNX client
+     *
+     * @param client the KNX client
+     * @return store, or {@code null} if the plug-in is not initialized for the KNX client
+     */
+    public static @Nullable GroupValueHistoryStore getStore(final KnxClient client) {
+        return STORES.get(client);
+    }
+
+    /**
+     * Returns the store where group values are recorded to
+     *
+     * @return store
+     */
+    public GroupValueHistoryStore getStore() {
+        return store;
+    }
+
+    /**
+     * Records the group value of {@link CEMI} if it is a group value write or response
+     *
+     * @param cemi the CEMI frame
+     */
+    private void record(final CEMI cemi) {
+        final var apci = cemi.getAPCI();
+        if ((apci == APCI.GROUP_VALUE_WRITE || apci == APCI.GROUP_VALUE_RESPONSE)
+                && cemi.getDestinationAddress() instanceof GroupAddress) {
+            try {
+                store.append((GroupAddress) cemi.getDestinationAddress(), System.currentTimeMillis(),
+                        apci == APCI.GROUP_VALUE_RESPONSE, cemi.getData());
+            } catch (final IOException ex) {
+                log.error("Error writing group value to history: {}", cemi, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,424 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.history;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.utils.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only store of group values, partitioned in daily segment files (UTC)
+ * <p>
+ * Every segment file is named {@code yyyyMMdd.knxh} and consists of a header and
+ * compact records. The time of a record is stored as delta to the previous record,
+ * therefore a record of a 1-byte group value takes usually 5-7 bytes only.
+ * <pre>
+ * Header: magic (4 bytes), version (1 byte), start of day in epoch milliseconds (8 bytes)
+ * Record: group address (varint), time delta in milliseconds (zig-zag varint),
+ *         data length &lt;&lt; 1 | response flag (varint), data (n bytes)
+ * </pre>
+ * A torn record at the end of segment (e.g. power loss) is ignored when reading
+ * and truncated when the segment is opened for appending.
+ * <p>
+ * A small in-memory index (set of group addresses per segment) allows to skip
+ * segments that do not contain any value of the requested group address. The
+ * index of a segment is built on first read and kept as long as the segment
+ * is complete (past day).
+ * <p>
+ * The store can be used for appending and reading concurrently; several instances
+ * may read the same directory while only one instance should append.
+ *
+ * @author PITSCHR
+ */
+public final class GroupValueHistoryStore implements Closeable {
+    /**
+     * File extension of segment files
+     */
+    static final String FILE_EXTENSION = ".knxh";
+    /**
+     * Size of segment header in bytes
+     */
+    static final int HEADER_SIZE = 4 + 1 + 8;
+    private static final Logger log = LoggerFactory.getLogger(GroupValueHistoryStore.class);
+    private static final int MAGIC = 0x4B4E5848; // "KNXH"
+    private static final byte VERSION = 1;
+    private static final int MAX_DATA_LENGTH = 255;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private final Path directory;
+    private final long retentionDays;
+    private final Map<Long, BitSet> indexCache = new ConcurrentHashMap<>();
+    private final ByteBuffer recordBuffer = ByteBuffer.allocate(3 * Varints.MAX_LENGTH + MAX_DATA_LENGTH);
+    // segment that is currently opened for appending
+    private FileChannel channel;
+    private long channelDay = Long.MIN_VALUE;
+    private BitSet channelIndex;
+    private long lastTime;
+
+    /**
+     * Creates a new store with unlimited retention
+     *
+     * @param directory directory of segment files
+     */
+    public GroupValueHistoryStore(final Path directory) {
+        this(directory, 0);
+    }
+
+    /**
+     * Creates a new store
+     *
+     * @param directory     directory of segment files
+     * @param retentionDays number of days (including today) to be kept; {@code 0} for unlimited
+     */
+    public GroupValueHistoryStore(final Path directory, final long retentionDays) {
+        Preconditions.checkArgument(retentionDays >= 0, "Retention days must not be negative: {}", retentionDays);
+        this.directory = directory;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Appends the group value to the store
+     *
+     * @param address  group address
+     * @param time     time in epoch milliseconds
+     * @param response {@code true} if group value is a response, {@code false} if it is a write
+     * @param data     raw group value data
+     * @throws IOException if the group value could not be written
+     */
+    public synchronized void append(final GroupAddress address, final long time, final boolean response, final byte[] data) throws IOException {
+        Preconditions.checkArgument(data.length <= MAX_DATA_LENGTH, "Data too long: {}", data.length);
+        final var day = Math.floorDiv(time, DAY_MS);
+        if (day != channelDay) {
+            openSegment(day);
+        }
+
+        final var raw = toRaw(address);
+        recordBuffer.clear();
+        Varints.write(recordBuffer, raw);
+        Varints.write(recordBuffer, Varints.zigZag(time - lastTime));
+        Varints.write(recordBuffer, ((long) data.length << 1) | (response ? 1 : 0));
+        recordBuffer.put(data).flip();
+        while (recordBuffer.hasRemaining()) {
+            channel.write(recordBuffer);
+        }
+        lastTime = time;
+        channelIndex.set(raw);
+    }
+
+    /**
+     * Returns all group values of {@code address} in the given time range, ordered by time
+     *
+     * @param address group address
+     * @param from    start of time range in epoch milliseconds (inclusive)
+     * @param to      end of time range in epoch milliseconds (inclusive)
+     * @return list of recorded group values
+     * @throws IOException if a segment could not be read
+     */
+    public List<GroupValueRecord> read(final GroupAddress address, final long from, final long to) throws IOException {
+        final var result = new ArrayList<GroupValueRecord>();
+        read(address, from, to, (time, response, data) -> result.add(new GroupValueRecord(time, response, data)));
+        // normally already ordered, unless the wall-clock has been adjusted
+        result.sort(Comparator.comparingLong(GroupValueRecord::getTime));
+        return result;
+    }
+
+    /**
+     * Visits all group values of {@code address} in the given time range without collecting
+     * them. The group values are visited in order of segments and in the order they have been
+     * appended, which is the order of time unless the wall-clock has been adjusted.
+     *
+     * @param address group address
+     * @param from    start of time range in epoch milliseconds (inclusive)
+     * @param to      end of time range in epoch milliseconds (inclusive)
+     * @param visitor visitor that is called for every group value in range
+     * @throws IOException if a segment could not be read
+     */
+    public void read(final GroupAddress address, final long from, final long to, final GroupValueVisitor visitor) throws IOException {
+        Preconditions.checkArgument(from <= to, "From must not be after to: {} > {}", from, to);
+        final var raw = toRaw(address);
+        for (final var day : listSegmentDays()) {
+            if (day >= Math.floorDiv(from, DAY_MS) && day <= Math.floorDiv(to, DAY_MS) && mayContain(day, raw)) {
+                readSegment(day, raw, from, to, visitor);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            channelDay = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Opens the segment of {@code day} for appending. An existing segment is scanned
+     * to recover the index and time of last record; a torn record is truncated.
+     *
+     * @param day the epoch day of segment
+     * @throws IOException if the segment could not be opened
+     */
+    private void openSegment(final long day) throws IOException {
+        close();
+        Files.createDirectories(directory);
+        // a past day is reopened when the wall-clock has been adjusted backwards: its index is not complete anymore
+        indexCache.remove(day);
+
+        final var path = segmentPath(day);
+        final var newChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final var index = new BitSet();
+            final var size = newChannel.size();
+            if (size < HEADER_SIZE) {
+                // new segment (or torn header)
+                final var header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).put(VERSION).putLong(day * DAY_MS).flip();
+                newChannel.truncate(0);
+                while (header.hasRemaining()) {
+                    newChannel.write(header, header.position());
+                }
+                lastTime = day * DAY_MS;
+            } else {
+                final var buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && newChannel.read(buffer, buffer.position()) >= 0) {
+                    // read until buffer is full
+                }
+                buffer.flip();
+                if (!isValidHeader(buffer, day)) {
+                    throw new IOException("Unsupported or corrupted segment file: " + path);
+                }
+                lastTime = scan(buffer, day * DAY_MS, (address, time, response, offset, length) -> index.set(address));
+                if (buffer.position() < size) {
+                    log.warn("Truncate torn record at end of segment '{}': {} bytes", path, size - buffer.position());
+                    newChannel.truncate(buffer.position());
+                }
+            }
+            newChannel.position(newChannel.size());
+
+            channel = newChannel;
+            channelDay = day;
+            channelIndex = index;
+        } catch (final IOException | RuntimeException ex) {
+            newChannel.close();
+            throw ex;
+        }
+
+        applyRetention(day);
+    }
+
+    /**
+     * Deletes segments that are older than the retention period
+     *
+     * @param day the current epoch day
+     */
+    private void applyRetention(final long day) {
+        if (retentionDays == 0) {
+            return;
+        }
+        try {
+            for (final var segmentDay : listSegmentDays()) {
+                if (segmentDay <= day - retentionDays) {
+                    Files.deleteIfExists(segmentPath(segmentDay));
+                    indexCache.remove(segmentDay);
+                    log.debug("Segment of day '{}' deleted due retention", LocalDate.ofEpochDay(segmentDay));
+                }
+            }
+        } catch (final IOException ex) {
+            log.warn("Could not apply retention in directory: {}", directory, ex);
+        }
+    }
+
+    /**
+     * Returns if the segment of {@code day} may contain group values of group address.
+     *
+     * @param day the epoch day of segment
+     * @param raw the raw group address
+     * @return {@code false} if the segment does not contain the group address for sure
+     */
+    private boolean mayContain(final long day, final int raw) {
+        synchronized (this) {
+            if (day == channelDay) {
+                return channelIndex.get(raw);
+            }
+        }
+        final var index = indexCache.get(day);
+        return index == null || index.get(raw);
+    }
+
+    /**
+     * Reads the group values of a single segment and builds the index of segment
+     *
+     * @param day     the epoch day of segment
+     * @param raw     the raw group address
+     * @param from    start of time range in epoch milliseconds (inclusive)
+     * @param to      end of time range in epoch milliseconds (inclusive)
+     * @param visitor visitor that is called for matching group values
+     * @throws IOException if the segment could not be read
+     */
+    private void readSegment(final long day, final int raw, final long from, final long to,
+                             final GroupValueVisitor visitor) throws IOException {
+        final var path = segmentPath(day);
+        final ByteBuffer buffer;
+        try (final var readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final var size = readChannel.size();
+            if (size < HEADER_SIZE) {
+                return;
+            }
+            buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (final NoSuchFileException ex) {
+            // deleted in meantime due retention
+            return;
+        }
+        if (!isValidHeader(buffer, day)) {
+            log.warn("Skip unsupported or corrupted segment file: {}", path);
+            return;
+        }
+
+        final var index = new BitSet();
+        scan(buffer, day * DAY_MS, (address, time, response, offset, length) -> {
+            index.set(address);
+            if (address == raw && time >= from && time <= to) {
+                final var data = new byte[length];
+                buffer.duplicate().position(offset).get(data);
+                visitor.visit(time, response, data);
+            }
+        });
+
+        // index of a past day won't change anymore
+        if (day < Math.floorDiv(System.currentTimeMillis(), DAY_MS)) {
+            synchronized (this) {
+                if (day != channelDay) {
+                    indexCache.put(day, index);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the sorted epoch days of all segments in directory
+     *
+     * @return list of epoch days
+     * @throws IOException if the directory could not be listed
+     */
+    private List<Long> listSegmentDays() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (final var files = Files.list(directory)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.endsWith(FILE_EXTENSION))
+                    .map(name -> parseDay(name.substring(0, name.length() - FILE_EXTENSION.length())))
+                    .filter(day -> day != Long.MIN_VALUE)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path segmentPath(final long day) {
+        return directory.resolve(LocalDate.ofEpochDay(day).format(DateTimeFormatter.BASIC_ISO_DATE) + FILE_EXTENSION);
+    }
+
+    private static long parseDay(final String name) {
+        try {
+            return LocalDate.parse(name, DateTimeFormatter.BASIC_ISO_DATE).toEpochDay();
+        } catch (final DateTimeParseException ex) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static int toRaw(final GroupAddress address) {
+        final var bytes = address.toByteArray();
+        return (bytes[0] & 0xFF) << 8 | (bytes[1] & 0xFF);
+    }
+
+    /**
+     * Validates the header and moves the position of buffer after header
+     *
+     * @param buffer the buffer of segment
+     * @param day    the expected epoch day of segment
+     * @return {@code true} if header is valid
+     */
+    private static boolean isValidHeader(final ByteBuffer buffer, final long day) {
+        return buffer.remaining() >= HEADER_SIZE
+                && buffer.getInt() == MAGIC
+                && buffer.get() == VERSION
+                && buffer.getLong() == day * DAY_MS;
+    }
+
+    /**
+     * Scans all complete records from current position of buffer. After scan the
+     * position of buffer is at the end of last complete record.
+     *
+     * @param buffer   the buffer of segment, positioned after header
+     * @param dayStart the start of day in epoch milliseconds
+     * @param visitor  visitor that is called for every record
+     * @return time of last record, or {@code dayStart} if there is no record
+     */
+    private static long scan(final ByteBuffer buffer, final long dayStart, final RecordVisitor visitor) {
+        var time = dayStart;
+        var end = buffer.position();
+        try {
+            while (buffer.hasRemaining()) {
+                final var address = Varints.read(buffer);
+                final var recordTime = time + Varints.unZigZag(Varints.read(buffer));
+                final var lengthAndFlag = Varints.read(buffer);
+                final var length = lengthAndFlag >>> 1;
+                if (address > 0xFFFF || length > MAX_DATA_LENGTH || length > buffer.remaining()) {
+                    break;
+                }
+                final var offset = buffer.position();
+                buffer.position(offset + (int) length);
+                visitor.visit((int) address, recordTime, (lengthAndFlag & 1) != 0, offset, (int) length);
+                time = recordTime;
+                end = buffer.position();
+            }
+        } catch (final BufferUnderflowException | IllegalStateException ex) {
+            // torn record at end of segment
+        }
+        buffer.position(end);
+        return time;
+    }
+
+    /**
+     * Visitor of records of a segment
+     */
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void visit(int address, long time, boolean response, int offset, int length);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.history;
+
+import li.pitschmann.knx.core.utils.ByteFormatter;
+import li.pitschmann.knx.core.utils.Strings;
+
+/**
+ * Immutable group value that has been recorded by {@link GroupValueHistoryStore}
+ *
+ * @author PITSCHR
+ */
+public final class GroupValueRecord {
+    private final long time;
+    private final boolean response;
+    private final byte[] data;
+
+    GroupValueRecord(final long time, final boolean response, final byte[] data) {
+        this.time = time;
+        this.response = response;
+        this.data = data;
+    }
+
+    /**
+     * Returns the time when the group value has been recorded
+     *
+     * @return epoch milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns if the group value was a response to a read request
+     *
+     * @return {@code true} for group value response, {@code false} for group value write
+     */
+    public boolean isResponse() {
+        return response;
+    }
+
+    /**
+     * Returns the raw group value data
+     *
+     * @return byte array, the array is a copy
+     */
+    public byte[] getData() {
+        return data.clone();
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("time", time)
+                .add("response", response)
+                .add("data", ByteFormatter.formatHexAsString(data))
+                .toString();
+    }
+}
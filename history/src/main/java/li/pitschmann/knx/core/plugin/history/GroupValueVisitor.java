@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.history;
+
+/**
+ * Visitor of group values that are read from {@link GroupValueHistoryStore}
+ *
+ * @author PITSCHR
+ */
+@FunctionalInterface
+public interface GroupValueVisitor {
+    /**
+     * Visits a recorded group value
+     *
+     * @param time     time in epoch milliseconds
+     * @param response {@code true} if group value is a response, {@code false} if it is a write
+     * @param data     raw group value data
+     */
+    void visit(long time, boolean response, byte[] data);
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.history;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Variable-length encoding of unsigned numbers (7 bits per byte, least significant
+ * group first) and zig-zag mapping for signed numbers
+ *
+ * @author PITSCHR
+ */
+final class Varints {
+    /**
+     * Maximum number of bytes of a 64-bit varint
+     */
+    static final int MAX_LENGTH = 10;
+
+    private Varints() {
+        // private-constructor
+    }
+
+    /**
+     * Writes the {@code value} as unsigned varint to the {@link ByteBuffer}
+     *
+     * @param buffer buffer to write to
+     * @param value  value to be written, treated as unsigned
+     */
+    static void write(final ByteBuffer buffer, final long value) {
+        var v = value;
+        while ((v & ~0x7FL) != 0) {
+            buffer.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buffer.put((byte) v);
+    }
+
+    /**
+     * Reads an unsigned varint from the {@link ByteBuffer}
+     *
+     * @param buffer buffer to read from
+     * @return value
+     * @throws java.nio.BufferUnderflowException if the buffer ends within the varint
+     * @throws IllegalStateException             if the varint is longer than {@link #MAX_LENGTH} bytes
+     */
+    static long read(final ByteBuffer buffer) {
+        var value = 0L;
+        for (var shift = 0; shift < 7 * MAX_LENGTH; shift += 7) {
+            final var b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    /**
+     * Maps a signed value to an unsigned value, small absolute values remain small
+     *
+     * @param value signed value
+     * @return unsigned value
+     */
+    static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reverse of {@link #zigZag(long)}
+     *
+     * @param value unsigned value
+     * @return signed value
+     */
+    static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.history;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.IndividualAddress;
+import li.pitschmann.knx.core.address.KnxAddress;
+import li.pitschmann.knx.core.body.RoutingIndicationBody;
+import li.pitschmann.knx.core.body.TunnelingAckBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.cemi.APCI;
+import li.pitschmann.knx.core.cemi.CEMI;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.config.Config;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test {@link GroupValueHistoryPlugin}
+ */
+class GroupValueHistoryPluginTest {
+
+    @Test
+    @DisplayName("Test group value writes and responses are recorded")
+    void recordGroupValues() throws IOException {
+        final var path = Paths.get("target/test-GroupValueHistoryPluginTest-recordGroupValues-" + UUID.randomUUID());
+        final var plugin = new GroupValueHistoryPlugin();
+        final var address = GroupAddress.of(1, 2, 3);
+
+        final var writeCemi = mockCEMI(APCI.GROUP_VALUE_WRITE, address, new byte[]{0x01});
+        final var tunnelingBody = mock(TunnelingRequestBody.class);
+        when(tunnelingBody.getCEMI()).thenReturn(writeCemi);
+
+        final var responseCemi = mockCEMI(APCI.GROUP_VALUE_RESPONSE, address, new byte[]{0x00});
+        final var routingBody = mock(RoutingIndicationBody.class);
+        when(routingBody.getCEMI()).thenReturn(responseCemi);
+
+        // not recorded: read request, individual address and non-CEMI body
+        final var readCemi = mockCEMI(APCI.GROUP_VALUE_READ, address, new byte[0]);
+        final var readBody = mock(TunnelingRequestBody.class);
+        when(readBody.getCEMI()).thenReturn(readCemi);
+        final var individualCemi = mockCEMI(APCI.GROUP_VALUE_WRITE, IndividualAddress.of(1, 1, 5), new byte[]{0x01});
+        final var individualBody = mock(TunnelingRequestBody.class);
+        when(individualBody.getCEMI()).thenReturn(individualCemi);
+
+        final var knxClient = mockKnxClient(path);
+        final var before = System.currentTimeMillis();
+        plugin.onInitialization(knxClient);
+        plugin.onStart();
+        plugin.onIncomingBody(tunnelingBody);
+        plugin.onIncomingBody(readBody);
+        plugin.onIncomingBody(individualBody);
+        plugin.onIncomingBody(mock(TunnelingAckBody.class));
+        plugin.onIncomingBody(routingBody);
+        plugin.onOutgoingBody(tunnelingBody);
+        final var after = System.currentTimeMillis();
+
+        final var records = plugin.getStore().read(address, before, after);
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).isResponse()).isFalse();
+        assertThat(records.get(0).getData()).containsExactly(0x01);
+        assertThat(records.get(1).isResponse()).isTrue();
+        assertThat(records.get(1).getData()).containsExactly(0x00);
+        assertThat(GroupValueHistoryPlugin.getStore(knxClient)).isSameAs(plugin.getStore());
+
+        plugin.onShutdown();
+        assertThat(GroupValueHistoryPlugin.getStore(knxClient)).isNull();
+    }
+
+    private CEMI mockCEMI(final APCI apci, final KnxAddress destination, final byte[] data) {
+        final var cemiMock = mock(CEMI.class);
+        when(cemiMock.getAPCI()).thenReturn(apci);
+        when(cemiMock.getDestinationAddress()).thenReturn(destination);
+        when(cemiMock.getData()).thenReturn(data);
+        return cemiMock;
+    }
+
+    private KnxClient mockKnxClient(final Path path) {
+        final var knxClientMock = mock(KnxClient.class);
+        final var configMock = mock(Config.class);
+        when(knxClientMock.getConfig()).thenReturn(configMock);
+        when(knxClientMock.getConfig(any())).thenCallRealMethod();
+
+        when(configMock.getValue(eq(GroupValueHistoryPlugin.PATH))).thenReturn(path);
+        when(configMock.getValue(eq(GroupValueHistoryPlugin.RETENTION_DAYS))).thenReturn(0L);
+        return knxClientMock;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.history;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test {@link GroupValueHistoryStore}
+ */
+class GroupValueHistoryStoreTest {
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    // 2021-03-01T00:00:00Z
+    private static final long DAY_START = 1614556800000L;
+
+    @Test
+    @DisplayName("Test append and read group values of several group addresses")
+    void testAppendAndRead() throws IOException {
+        final var directory = newDirectory("testAppendAndRead");
+        final var lamp = GroupAddress.of(1, 2, 3);
+        final var dimmer = GroupAddress.of(4, 5, 6);
+
+        try (final var store = new GroupValueHistoryStore(directory)) {
+            store.append(lamp, DAY_START + 1000, false, new byte[]{0x01});
+            store.append(dimmer, DAY_START + 1500, false, new byte[]{0x7F});
+            store.append(lamp, DAY_START + 2000, true, new byte[]{0x00});
+            store.append(lamp, DAY_START + 3000, false, new byte[]{0x01});
+
+            final var records = store.read(lamp, DAY_START, DAY_START + DAY_MS);
+            assertThat(records).hasSize(3);
+            assertThat(records.get(0).getTime()).isEqualTo(DAY_START + 1000);
+            assertThat(records.get(0).isResponse()).isFalse();
+            assertThat(records.get(0).getData()).containsExactly(0x01);
+            assertThat(records.get(1).getTime()).isEqualTo(DAY_START + 2000);
+            assertThat(records.get(1).isResponse()).isTrue();
+            assertThat(records.get(1).getData()).containsExactly(0x00);
+
+            // time range is inclusive
+            assertThat(store.read(lamp, DAY_START + 2000, DAY_START + 3000)).hasSize(2);
+            assertThat(store.read(lamp, DAY_START + 2001, DAY_START + 2999)).isEmpty();
+            assertThat(store.read(dimmer, DAY_START, DAY_START + DAY_MS))
+                    .singleElement().satisfies(r -> assertThat(r.getData()).containsExactly(0x7F));
+
+            // unknown group address
+            assertThat(store.read(GroupAddress.of(7, 7, 7), DAY_START, DAY_START + DAY_MS)).isEmpty();
+
+            // wrong range
+            assertThatThrownBy(() -> store.read(lamp, 2, 1)).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        // 1 header and 4 records with 1-byte data (address: 2 bytes, time delta: 2 bytes, length: 1 byte, data: 1 byte)
+        assertThat(Files.size(directory.resolve("20210301.knxh"))).isEqualTo(GroupValueHistoryStore.HEADER_SIZE + 4 * 6);
+    }
+
+    @Test
+    @DisplayName("Test group values across several daily segments")
+    void testSegments() throws IOException {
+        final var directory = newDirectory("testSegments");
+        final var address = GroupAddress.of(1, 1, 1);
+
+        try (final var store = new GroupValueHistoryStore(directory)) {
+            for (var day = 0; day < 3; day++) {
+                store.append(address, DAY_START + day * DAY_MS + 10, false, new byte[]{(byte) day});
+                store.append(address, DAY_START + day * DAY_MS + 20, false, new byte[]{(byte) day});
+            }
+        }
+        assertThat(directory.resolve("20210301.knxh")).exists();
+        assertThat(directory.resolve("20210302.knxh")).exists();
+        assertThat(directory.resolve("20210303.knxh")).exists();
+
+        // read by another instance (e.g. API)
+        try (final var store = new GroupValueHistoryStore(directory)) {
+            assertThat(store.read(address, DAY_START, DAY_START + 3 * DAY_MS)).hasSize(6);
+            assertThat(store.read(address, DAY_START + DAY_MS, DAY_START + DAY_MS + 15))
+                    .singleElement().satisfies(r -> assertThat(r.getData()).containsExactly(0x01));
+            // 2nd read uses index of past days
+            assertThat(store.read(GroupAddress.of(2, 2, 2), DAY_START, DAY_START + 3 * DAY_MS)).isEmpty();
+            assertThat(store.read(address, DAY_START, DAY_START + 3 * DAY_MS)).hasSize(6);
+        }
+    }
+
+    @Test
+    @DisplayName("Test group values are visited without collecting them")
+    void testReadWithVisitor() throws IOException {
+        final var directory = newDirectory("testReadWithVisitor");
+        final var address = GroupAddress.of(1, 1, 1);
+
+        try (final var store = new GroupValueHistoryStore(directory)) {
+            store.append(address, DAY_START + 10, false, new byte[]{0x01});
+            store.append(GroupAddress.of(2, 2, 2), DAY_START + 15, false, new byte[]{0x02});
+            store.append(address, DAY_START + DAY_MS + 20, true, new byte[]{0x03});
+
+            final var times = new ArrayList<Long>();
+            final var data = new ArrayList<Byte>();
+            store.read(address, DAY_START, DAY_START + 2 * DAY_MS, (time, response, value) -> {
+                times.add(time);
+                data.add(value[0]);
+            });
+            assertThat(times).containsExactly(DAY_START + 10, DAY_START + DAY_MS + 20);
+            assertThat(data).containsExactly((byte) 0x01, (byte) 0x03);
+        }
+    }
+
+    @Test
+    @DisplayName("Test a past day that is reopened after wall-clock adjustment is not skipped by index")
+    void testReopenPastDay() throws IOException {
+        final var directory = newDirectory("testReopenPastDay");
+        final var address = GroupAddress.of(1, 1, 1);
+        final var otherAddress = GroupAddress.of(2, 2, 2);
+
+        try (final var store = new GroupValueHistoryStore(directory)) {
+            store.append(address, DAY_START + 10, false, new byte[]{0x01});
+            store.append(address, DAY_START + DAY_MS + 10, false, new byte[]{0x02});
+            // index of past day is cached: it doesn't contain the other address
+            assertThat(store.read(otherAddress, DAY_START, DAY_START + DAY_MS - 1)).isEmpty();
+
+            // wall-clock has been adjusted backwards and forwards again
+            store.append(otherAddress, DAY_START + 20, false, new byte[]{0x03});
+            store.append(address, DAY_START + DAY_MS + 20, false, new byte[]{0x04});
+
+            assertThat(store.read(otherAddress, DAY_START, DAY_START + DAY_MS - 1))
+                    .singleElement().satisfies(r -> assertThat(r.getData()).containsExactly(0x03));
+        }
+    }
+
+    @Test
+    @DisplayName("Test the retention deletes old segments")
+    void testRetention() throws IOException {
+        final var directory = newDirectory("testRetention");
+        final var address = GroupAddress.of(1, 1, 1);
+
+        try (final var store = new GroupValueHistoryStore(directory, 2)) {
+            for (var day = 0; day < 4; day++) {
+                store.append(address, DAY_START + day * DAY_MS, false, new byte[]{(byte) day});
+            }
+            assertThat(store.read(address, DAY_START, DAY_START + 4 * DAY_MS))
+                    .extracting(GroupValueRecord::getTime)
+                    .containsExactly(DAY_START + 2 * DAY_MS, DAY_START + 3 * DAY_MS);
+        }
+        assertThat(directory.resolve("20210301.knxh")).doesNotExist();
+        assertThat(directory.resolve("20210302.knxh")).doesNotExist();
+
+        assertThatThrownBy(() -> new GroupValueHistoryStore(directory, -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Test a torn record at the end of segment is ignored and truncated")
+    void testTornRecord() throws IOException {
+        final var directory = newDirectory("testTornRecord");
+        final var address = GroupAddress.of(1, 1, 1);
+        final var segment = directory.resolve("20210301.knxh");
+
+        try (final var store = new GroupValueHistoryStore(directory)) {
+            store.append(address, DAY_START + 100, false, new byte[]{0x01, 0x02});
+        }
+        final var size = Files.size(segment);
+
+        // torn record: address and time only
+        Files.write(segment, new byte[]{(byte) 0x81, 0x08, 0x32}, StandardOpenOption.APPEND);
+        try (final var store = new GroupValueHistoryStore(directory)) {
+            assertThat(store.read(address, DAY_START, DAY_START + DAY_MS)).hasSize(1);
+
+            // appending truncates torn record and continues with correct time delta
+            store.append(address, DAY_START + 200, false, new byte[]{0x03});
+            assertThat(Files.size(segment)).isEqualTo(size + 6);
+            assertThat(store.read(address, DAY_START, DAY_START + DAY_MS))
+                    .extracting(GroupValueRecord::getTime)
+                    .containsExactly(DAY_START + 100, DAY_START + 200);
+        }
+    }
+
+    @Test
+    @DisplayName("Test the store when directory doesn't exist")
+    void testEmpty() throws IOException {
+        try (final var store = new GroupValueHistoryStore(newDirectory("testEmpty"))) {
+            assertThat(store.read(GroupAddress.of(1, 1, 1), 0, Long.MAX_VALUE)).isEmpty();
+        }
+    }
+
+    private static Path newDirectory(final String method) {
+        return Paths.get("target/test-GroupValueHistoryStoreTest-" + method + "-" + UUID.randomUUID());
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.history;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test {@link Varints}
+ */
+class VarintsTest {
+
+    @Test
+    @DisplayName("Test write and read of varints")
+    void testWriteAndRead() {
+        final var values = new long[]{0, 1, 127, 128, 300, 0xFFFF, Integer.MAX_VALUE, Long.MAX_VALUE, -1};
+        final var buffer = ByteBuffer.allocate(values.length * Varints.MAX_LENGTH);
+        for (final var value : values) {
+            Varints.write(buffer, value);
+        }
+        buffer.flip();
+        for (final var value : values) {
+            assertThat(Varints.read(buffer)).isEqualTo(value);
+        }
+        assertThat(buffer.hasRemaining()).isFalse();
+
+        // small values take 1 byte, -1 is treated as unsigned
+        Varints.write(buffer.clear(), 127);
+        assertThat(buffer.position()).isEqualTo(1);
+        Varints.write(buffer.clear(), -1);
+        assertThat(buffer.position()).isEqualTo(Varints.MAX_LENGTH);
+    }
+
+    @Test
+    @DisplayName("Test zig-zag mapping of signed values")
+    void testZigZag() {
+        assertThat(Varints.zigZag(0)).isZero();
+        assertThat(Varints.zigZag(-1)).isEqualTo(1);
+        assertThat(Varints.zigZag(1)).isEqualTo(2);
+        assertThat(Varints.zigZag(-2)).isEqualTo(3);
+        for (final var value : new long[]{0, 1, -1, 1000, -1000, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertThat(Varints.unZigZag(Varints.zigZag(value))).isEqualTo(value);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.mirror;
+
+/**
+ * Immutable snapshot of the status of a group address read by {@link StatusMirrorReader}
+ * <p>
+ * Addresses are raw 16-bit values: group address as {@code main << 11 | middle << 8 | sub}
+ * and source address as {@code area << 12 | line << 8 | device}.
+ */
+public final class StatusMirrorEntry {
+    /**
+     * APCI code of group value response
+     */
+    public static final int APCI_GROUP_VALUE_RESPONSE = 0x0040;
+    /**
+     * APCI code of group value write
+     */
+    public static final int APCI_GROUP_VALUE_WRITE = 0x0080;
+    private final int groupAddress;
+    private final long timestamp;
+    private final int sourceAddress;
+    private final int apci;
+    private final boolean dirty;
+    private final boolean truncated;
+    private final byte[] data;
+
+    StatusMirrorEntry(final int groupAddress, final long timestamp, final int sourceAddress, final int apci,
+                      final boolean dirty, final boolean truncated, final byte[] data) {
+        this.groupAddress = groupAddress;
+        this.timestamp = timestamp;
+        this.sourceAddress = sourceAddress;
+        this.apci = apci;
+        this.dirty = dirty;
+        this.truncated = truncated;
+        this.data = data;
+    }
+
+    public int getGroupAddress() {
+        return groupAddress;
+    }
+
+    /**
+     * Returns the time when the group value was received
+     *
+     * @return epoch milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getSourceAddress() {
+        return sourceAddress;
+    }
+
+    /**
+     * Returns the APCI code, see {@link #APCI_GROUP_VALUE_WRITE} and {@link #APCI_GROUP_VALUE_RESPONSE}
+     *
+     * @return APCI code
+     */
+    public int getApci() {
+        return apci;
+    }
+
+    /**
+     * Returns if the status is dirty, a read request has been sent and no response arrived yet
+     *
+     * @return {@code true} if dirty
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Returns if the group value was too long for the slot and only the beginning is available
+     *
+     * @return {@code true} if truncated
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public byte[] getData() {
+        return data.clone();
+    }
+
+    @Override
+    public String toString() {
+        final var sb = new StringBuilder("StatusMirrorEntry{groupAddress=")
+                .append(groupAddress >>> 11).append('/').append((groupAddress >>> 8) & 0x07).append('/').append(groupAddress & 0xFF)
+                .append(", timestamp=").append(timestamp)
+                .append(", sourceAddress=")
+                .append(sourceAddress >>> 12).append('.').append((sourceAddress >>> 8) & 0x0F).append('.').append(sourceAddress & 0xFF)
+                .append(", apci=0x").append(Integer.toHexString(apci))
+                .append(", dirty=").append(dirty)
+                .append(", truncated=").append(truncated)
+                .append(", data=0x");
+        for (final var b : data) {
+            sb.append(Character.forDigit((b >>> 4) & 0x0F, 16)).append(Character.forDigit(b & 0x0F, 16));
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.mirror;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Layout of the status mirror file, shared by {@link StatusMirrorWriter} and {@link StatusMirrorReader}
+ * <p>
+ * The file starts with a header of {@link #HEADER_SIZE} bytes followed by one slot of
+ * {@link #SLOT_SIZE} bytes for each raw 16-bit group address, all numbers in little-endian:
+ * <pre>
+ * Header                              Slot
+ * 0  int   magic 'KNXM'               0  int   sequence (odd while slot is written)
+ * 4  int   version                    4  short flags (present, dirty, truncated)
+ * 8  int   slot size                  6  short length of group value data
+ * 12 int   number of slots            8  long  timestamp (epoch milliseconds)
+ * 16 long  start time of writer       16 short source address (raw)
+ * 24 int   writer running (0/1)       18 short APCI code
+ *                                     24 byte[40] group value data
+ * </pre>
+ * Each slot is guarded by a sequence lock: the writer makes the sequence odd before it
+ * modifies the slot and even afterwards. A reader retries until it has read the slot
+ * between two equal and even sequences.
+ */
+final class StatusMirrorLayout {
+    static final int MAGIC = 0x4D584E4B; // 'KNXM' in little-endian
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int SLOT_SIZE = 64;
+    static final int NUMBER_OF_SLOTS = 1 << 16;
+    static final long FILE_SIZE = HEADER_SIZE + (long) SLOT_SIZE * NUMBER_OF_SLOTS;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    // header offsets
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_SLOT_SIZE = 8;
+    static final int HEADER_NUMBER_OF_SLOTS = 12;
+    static final int HEADER_START_TIME = 16;
+    static final int HEADER_RUNNING = 24;
+
+    // slot offsets
+    static final int SLOT_SEQUENCE = 0;
+    static final int SLOT_FLAGS = 4;
+    static final int SLOT_LENGTH = 6;
+    static final int SLOT_TIMESTAMP = 8;
+    static final int SLOT_SOURCE = 16;
+    static final int SLOT_APCI = 18;
+    static final int SLOT_DATA = 24;
+    static final int MAX_DATA_LENGTH = SLOT_SIZE - SLOT_DATA;
+
+    // slot flags
+    static final int FLAG_PRESENT = 0x01;
+    static final int FLAG_DIRTY = 0x02;
+    static final int FLAG_TRUNCATED = 0x04;
+
+    /**
+     * Access to the int fields (sequence, running) of mapped file with memory ordering semantics
+     */
+    static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, BYTE_ORDER);
+
+    private StatusMirrorLayout() {
+        throw new AssertionError("Do not touch me!");
+    }
+
+    /**
+     * Returns the offset of slot for raw group address
+     *
+     * @param groupAddress raw group address (0-65535)
+     * @return offset in file
+     */
+    static int slotOffset(final int groupAddress) {
+        if (groupAddress < 0 || groupAddress >= NUMBER_OF_SLOTS) {
+            throw new IllegalArgumentException("Invalid raw group address: " + groupAddress);
+        }
+        return HEADER_SIZE + groupAddress * SLOT_SIZE;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.mirror;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.KnxAddress;
+import li.pitschmann.knx.core.annotations.Nullable;
+import li.pitschmann.knx.core.body.Body;
+import li.pitschmann.knx.core.body.RoutingIndicationBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.cemi.APCI;
+import li.pitschmann.knx.core.cemi.CEMI;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.plugin.ExtensionPlugin;
+import li.pitschmann.knx.core.plugin.ObserverPlugin;
+import li.pitschmann.knx.core.plugin.PathConfigValue;
+import li.pitschmann.knx.core.utils.Closeables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Status Mirror Plug-in that mirrors the KNX status pool to a memory-mapped file
+ * <p>
+ * The file contains a fixed slot for every group address with the last group value,
+ * so local processes can read the current status with {@link StatusMirrorReader}
+ * directly from memory, without HTTP and JSON. On start the slots are seeded with
+ * the status pool of KNX client; afterwards every group value write and response
+ * arriving the KNX client updates the slot and a group value read marks it as dirty.
+ * <p>
+ * Group values sent by the KNX client itself are mirrored as well: in tunneling mode
+ * they are confirmed by the KNX Net/IP device and arrive the KNX client, in routing
+ * mode the own routing indications never come back and are mirrored when sent.
+ *
+ * @author PITSCHR
+ */
+public final class StatusMirrorPlugin implements ObserverPlugin, ExtensionPlugin {
+    /**
+     * Path of the status mirror file
+     */
+    public static final PathConfigValue PATH = new PathConfigValue("path", () -> Paths.get("knx-status.mirror"), null);
+    private static final Logger log = LoggerFactory.getLogger(StatusMirrorPlugin.class);
+
+    private KnxClient client;
+    private Path path;
+    private volatile StatusMirrorWriter writer;
+
+    @Override
+    public void onInitialization(final KnxClient client) {
+        this.client = client;
+
+        // configurations
+        path = client.getConfig(StatusMirrorPlugin.PATH);
+        log.info("Initialized '{}' with: [path={}]", getClass().getName(), path);
+    }
+
+    @Override
+    public void onStart() {
+        try {
+            writer = new StatusMirrorWriter(path);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Could not open status mirror file: " + path, ex);
+        }
+
+        // seed with status that is already known by KNX client; group values that have been
+        // mirrored in the meantime are newer than the copied status and are not overwritten
+        final var statusMap = client.getStatusPool().copyStatusMap();
+        var seeded = 0;
+        for (final var entry : statusMap.entrySet()) {
+            final var status = entry.getValue();
+            if (entry.getKey() instanceof GroupAddress
+                    && writer.writeIfAbsent(toRaw(entry.getKey()), status.getTimestamp().toEpochMilli(),
+                    toRaw(status.getSourceAddress()), toCode(status.getAPCI()), status.getData(), status.isDirty())) {
+                seeded++;
+            }
+        }
+        log.debug("Status mirror file '{}' seeded with {} status", path, seeded);
+    }
+
+    @Override
+    public void onShutdown() {
+        Closeables.closeQuietly(writer);
+    }
+
+    @Override
+    public void onIncomingBody(final Body item) {
+        if (item instanceof TunnelingRequestBody) {
+            mirror(((TunnelingRequestBody) item).getCEMI());
+        } else if (item instanceof RoutingIndicationBody) {
+            mirror(((RoutingIndicationBody) item).getCEMI());
+        }
+    }
+
+    @Override
+    public void onOutgoingBody(final Body item) {
+        // outgoing tunneling requests are confirmed and arrive the client as well
+        if (item instanceof RoutingIndicationBody) {
+            mirror(((RoutingIndicationBody) item).getCEMI());
+        }
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        // NO-OP
+    }
+
+    /**
+     * Mirrors the {@link CEMI} if it is addressed to a group address
+     *
+     * @param cemi the CEMI frame
+     */
+    private void mirror(final CEMI cemi) {
+        final var writer = this.writer;
+        if (writer == null || !(cemi.getDestinationAddress() instanceof GroupAddress)) {
+            return;
+        }
+        final var groupAddress = toRaw(cemi.getDestinationAddress());
+        final var apci = cemi.getAPCI();
+        if (apci == APCI.GROUP_VALUE_WRITE || apci == APCI.GROUP_VALUE_RESPONSE) {
+            writer.write(groupAddress, System.currentTimeMillis(), toRaw(cemi.getSourceAddress()), toCode(apci),
+                    cemi.getData(), false);
+        } else if (apci == APCI.GROUP_VALUE_READ) {
+            writer.markDirty(groupAddress);
+        }
+    }
+
+    /**
+     * Returns the raw 16-bit value of {@link KnxAddress}
+     *
+     * @param address the address, may be {@code null}
+     * @return raw value, {@code 0} if {@code null}
+     */
+    private static int toRaw(final @Nullable KnxAddress address) {
+        if (address == null) {
+            return 0;
+        }
+        final var bytes = address.toByteArray();
+        return (bytes[0] & 0xFF) << 8 | (bytes[1] & 0xFF);
+    }
+
+    /**
+     * Returns the APCI code that is stored in the status mirror file
+     *
+     * @param apci the APCI
+     * @return code
+     */
+    private static int toCode(final APCI apci) {
+        if (apci == APCI.GROUP_VALUE_WRITE) {
+            return StatusMirrorEntry.APCI_GROUP_VALUE_WRITE;
+        } else if (apci == APCI.GROUP_VALUE_RESPONSE) {
+            return StatusMirrorEntry.APCI_GROUP_VALUE_RESPONSE;
+        }
+        return 0;
+    }
+}
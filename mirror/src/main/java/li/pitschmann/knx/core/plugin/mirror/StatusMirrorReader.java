@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.mirror;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.BYTE_ORDER;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.FILE_SIZE;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.FLAG_DIRTY;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.FLAG_PRESENT;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.FLAG_TRUNCATED;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.HEADER_MAGIC;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.HEADER_NUMBER_OF_SLOTS;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.HEADER_RUNNING;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.HEADER_SLOT_SIZE;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.HEADER_START_TIME;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.HEADER_VERSION;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.INT;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.MAGIC;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.MAX_DATA_LENGTH;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.NUMBER_OF_SLOTS;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_APCI;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_DATA;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_FLAGS;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_LENGTH;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_SEQUENCE;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_SIZE;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_SOURCE;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_TIMESTAMP;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.VERSION;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.slotOffset;
+
+/**
+ * Reads the status of group addresses from the status mirror file written by {@link StatusMirrorPlugin}
+ * <p>
+ * This class depends on the JDK only and is intended for local processes that need the current
+ * group values without HTTP and JSON. The file is mapped read-only; reading a slot does not
+ * involve any system call and does not block the writer.
+ * <pre>{@code
+ * try (final var reader = StatusMirrorReader.open(Paths.get("knx-status.mirror"))) {
+ *     final var entry = reader.read(StatusMirrorReader.groupAddress(1, 2, 3));
+ *     if (entry != null) {
+ *         System.out.println(entry.getData()[0]);
+ *     }
+ * }
+ * }</pre>
+ * Instances are thread-safe.
+ */
+public final class StatusMirrorReader implements Closeable {
+    private static final int MAX_SPINS = 1_000_000;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private StatusMirrorReader(final FileChannel channel, final MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Opens the status mirror file
+     *
+     * @param path path of status mirror file
+     * @return a new reader
+     * @throws IOException if the file cannot be opened or is not a status mirror file
+     */
+    public static StatusMirrorReader open(final Path path) throws IOException {
+        final var channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() < FILE_SIZE) {
+                throw new IOException("File is too small for a status mirror file: " + path);
+            }
+            final var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_SIZE);
+            buffer.order(BYTE_ORDER);
+            if (buffer.getInt(HEADER_MAGIC) != MAGIC
+                    || buffer.getInt(HEADER_VERSION) != VERSION
+                    || buffer.getInt(HEADER_SLOT_SIZE) != SLOT_SIZE
+                    || buffer.getInt(HEADER_NUMBER_OF_SLOTS) != NUMBER_OF_SLOTS) {
+                throw new IOException("Not a status mirror file or unsupported version: " + path);
+            }
+            return new StatusMirrorReader(channel, buffer);
+        } catch (final IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the raw value of group address
+     *
+     * @param main   main group (0-31)
+     * @param middle middle group (0-7)
+     * @param sub    sub group (0-255)
+     * @return raw group address
+     */
+    public static int groupAddress(final int main, final int middle, final int sub) {
+        if (main < 0 || main > 31 || middle < 0 || middle > 7 || sub < 0 || sub > 255) {
+            throw new IllegalArgumentException("Invalid group address: " + main + "/" + middle + "/" + sub);
+        }
+        return main << 11 | middle << 8 | sub;
+    }
+
+    /**
+     * Returns if the writer is running; if not running, the status is not updated anymore
+     *
+     * @return {@code true} if running
+     */
+    public boolean isWriterRunning() {
+        return (int) INT.getAcquire(buffer, HEADER_RUNNING) == 1;
+    }
+
+    /**
+     * Returns the start time of writer; a different start time means the writer has been
+     * restarted and all status have been cleared in meantime
+     *
+     * @return start time in epoch milliseconds
+     */
+    public long getStartTime() {
+        return buffer.getLong(HEADER_START_TIME);
+    }
+
+    /**
+     * Returns the sequence of slot for group address, it changes with every update of status.
+     * This allows to detect changes cheaply, without reading the status.
+     *
+     * @param groupAddress raw group address (0-65535)
+     * @return sequence; odd while the slot is written
+     */
+    public int getSequence(final int groupAddress) {
+        return (int) INT.getAcquire(buffer, slotOffset(groupAddress) + SLOT_SEQUENCE);
+    }
+
+    /**
+     * Reads the status of group address
+     *
+     * @param groupAddress raw group address (0-65535), see {@link #groupAddress(int, int, int)}
+     * @return consistent snapshot of status, or {@code null} if there is no status for group address
+     * @throws IllegalStateException if the slot is written for too long, e.g. writer terminated while writing
+     */
+    public StatusMirrorEntry read(final int groupAddress) {
+        final var offset = slotOffset(groupAddress);
+        var previousSequence = 0;
+        var spins = 0;
+        while (true) {
+            final var sequence = (int) INT.getAcquire(buffer, offset + SLOT_SEQUENCE);
+            if ((sequence & 1) != 0) {
+                // the same odd sequence for too long: writer has been terminated while writing
+                spins = sequence == previousSequence ? spins + 1 : 0;
+                if (spins > MAX_SPINS) {
+                    throw new IllegalStateException("Status of group address is written for too long: " + groupAddress);
+                }
+                previousSequence = sequence;
+                Thread.onSpinWait();
+                continue;
+            }
+            final var flags = buffer.getShort(offset + SLOT_FLAGS);
+            final var length = buffer.getShort(offset + SLOT_LENGTH) & 0xFFFF;
+            final var timestamp = buffer.getLong(offset + SLOT_TIMESTAMP);
+            final var source = buffer.getShort(offset + SLOT_SOURCE) & 0xFFFF;
+            final var apci = buffer.getShort(offset + SLOT_APCI) & 0xFFFF;
+            // length may be inconsistent when slot is written concurrently, validated by sequence below
+            final var data = new byte[Math.min(length, MAX_DATA_LENGTH)];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = buffer.get(offset + SLOT_DATA + i);
+            }
+            // the reads of slot must complete before the sequence is read again
+            VarHandle.loadLoadFence();
+            if ((int) INT.getOpaque(buffer, offset + SLOT_SEQUENCE) == sequence) {
+                if ((flags & FLAG_PRESENT) == 0) {
+                    return null;
+                }
+                return new StatusMirrorEntry(groupAddress, timestamp, source, apci,
+                        (flags & FLAG_DIRTY) != 0, (flags & FLAG_TRUNCATED) != 0, data);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.mirror;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.BYTE_ORDER;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.FILE_SIZE;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.FLAG_DIRTY;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.FLAG_PRESENT;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.FLAG_TRUNCATED;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.HEADER_MAGIC;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.HEADER_NUMBER_OF_SLOTS;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.HEADER_RUNNING;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.HEADER_SLOT_SIZE;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.HEADER_START_TIME;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.HEADER_VERSION;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.INT;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.MAGIC;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.MAX_DATA_LENGTH;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.NUMBER_OF_SLOTS;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_APCI;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_DATA;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_FLAGS;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_LENGTH;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_SEQUENCE;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_SIZE;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_SOURCE;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.SLOT_TIMESTAMP;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.VERSION;
+import static li.pitschmann.knx.core.plugin.mirror.StatusMirrorLayout.slotOffset;
+
+/**
+ * Writes the status of group addresses to the memory-mapped status mirror file
+ * (see {@link StatusMirrorLayout})
+ * <p>
+ * The file is created if it doesn't exist, but never truncated as it may be mapped by readers;
+ * instead all slots are cleared when the writer is opened. There must be only one writer per file.
+ */
+final class StatusMirrorWriter implements Closeable {
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    StatusMirrorWriter(final Path path) throws IOException {
+        this.path = path;
+        final var parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+        this.buffer.order(BYTE_ORDER);
+
+        // header is written first, readers with an old mapping see that the writer is (re-)starting
+        INT.setRelease(buffer, HEADER_RUNNING, 0);
+        buffer.putInt(HEADER_MAGIC, MAGIC);
+        buffer.putInt(HEADER_VERSION, VERSION);
+        buffer.putInt(HEADER_SLOT_SIZE, SLOT_SIZE);
+        buffer.putInt(HEADER_NUMBER_OF_SLOTS, NUMBER_OF_SLOTS);
+        buffer.putLong(HEADER_START_TIME, System.currentTimeMillis());
+        for (int i = 0; i < NUMBER_OF_SLOTS; i++) {
+            final var offset = slotOffset(i);
+            final var sequence = beginWrite(offset);
+            buffer.putShort(offset + SLOT_FLAGS, (short) 0);
+            buffer.putShort(offset + SLOT_LENGTH, (short) 0);
+            endWrite(offset, sequence);
+        }
+        INT.setRelease(buffer, HEADER_RUNNING, 1);
+    }
+
+    /**
+     * Writes the status of group address
+     *
+     * @param groupAddress  raw group address (0-65535)
+     * @param timestamp     timestamp in epoch milliseconds
+     * @param sourceAddress raw source address
+     * @param apci          APCI code
+     * @param data          group value data, only the first {@link StatusMirrorLayout#MAX_DATA_LENGTH} bytes are stored
+     * @param dirty         {@code true} if the status is dirty
+     */
+    synchronized void write(final int groupAddress, final long timestamp, final int sourceAddress, final int apci,
+                            final byte[] data, final boolean dirty) {
+        final var offset = slotOffset(groupAddress);
+        final var length = Math.min(data.length, MAX_DATA_LENGTH);
+        var flags = FLAG_PRESENT;
+        if (dirty) {
+            flags |= FLAG_DIRTY;
+        }
+        if (length < data.length) {
+            flags |= FLAG_TRUNCATED;
+        }
+
+        final var sequence = beginWrite(offset);
+        buffer.putShort(offset + SLOT_FLAGS, (short) flags);
+        buffer.putShort(offset + SLOT_LENGTH, (short) data.length);
+        buffer.putLong(offset + SLOT_TIMESTAMP, timestamp);
+        buffer.putShort(offset + SLOT_SOURCE, (short) sourceAddress);
+        buffer.putShort(offset + SLOT_APCI, (short) apci);
+        for (int i = 0; i < length; i++) {
+            buffer.put(offset + SLOT_DATA + i, data[i]);
+        }
+        endWrite(offset, sequence);
+    }
+
+    /**
+     * Writes the status of group address only if there is no status yet
+     * <p>
+     * All slots are cleared when the writer is opened, a present status has been
+     * written afterwards and is therefore newer than the given status.
+     *
+     * @param groupAddress  raw group address (0-65535)
+     * @param timestamp     timestamp in epoch milliseconds
+     * @param sourceAddress raw source address
+     * @param apci          APCI code
+     * @param data          group value data, only the first {@link StatusMirrorLayout#MAX_DATA_LENGTH} bytes are stored
+     * @param dirty         {@code true} if the status is dirty
+     * @return {@code true} if the status has been written, {@code false} if there is already a status
+     */
+    synchronized boolean writeIfAbsent(final int groupAddress, final long timestamp, final int sourceAddress, final int apci,
+                                       final byte[] data, final boolean dirty) {
+        if ((buffer.getShort(slotOffset(groupAddress) + SLOT_FLAGS) & FLAG_PRESENT) != 0) {
+            return false;
+        }
+        write(groupAddress, timestamp, sourceAddress, apci, data, dirty);
+        return true;
+    }
+
+    /**
+     * Marks the status of group address as dirty; nothing happens if there is no status yet
+     *
+     * @param groupAddress raw group address (0-65535)
+     */
+    synchronized void markDirty(final int groupAddress) {
+        final var offset = slotOffset(groupAddress);
+        final var flags = buffer.getShort(offset + SLOT_FLAGS);
+        if ((flags & FLAG_PRESENT) != 0 && (flags & FLAG_DIRTY) == 0) {
+            final var sequence = beginWrite(offset);
+            buffer.putShort(offset + SLOT_FLAGS, (short) (flags | FLAG_DIRTY));
+            endWrite(offset, sequence);
+        }
+    }
+
+    /**
+     * Makes the sequence of slot odd; a sequence that is still odd after crash of previous writer is kept
+     *
+     * @return the odd sequence
+     */
+    private int beginWrite(final int offset) {
+        final var sequence = buffer.getInt(offset + SLOT_SEQUENCE) | 1;
+        INT.setOpaque(buffer, offset + SLOT_SEQUENCE, sequence);
+        // the odd sequence must be visible before any modification of slot
+        VarHandle.storeStoreFence();
+        return sequence;
+    }
+
+    /**
+     * Makes the sequence of slot even, publishing all modifications of slot
+     */
+    private void endWrite(final int offset, final int sequence) {
+        INT.setRelease(buffer, offset + SLOT_SEQUENCE, sequence + 1);
+    }
+
+    /**
+     * Returns the path of status mirror file
+     *
+     * @return path
+     */
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Marks the writer as stopped; the file is kept for readers
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            INT.setRelease(buffer, HEADER_RUNNING, 0);
+            channel.close();
+        }
+    }
+}
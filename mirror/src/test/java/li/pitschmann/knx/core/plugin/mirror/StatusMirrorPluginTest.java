@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.mirror;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.IndividualAddress;
+import li.pitschmann.knx.core.address.KnxAddress;
+import li.pitschmann.knx.core.body.RoutingIndicationBody;
+import li.pitschmann.knx.core.body.TunnelingAckBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.cemi.APCI;
+import li.pitschmann.knx.core.cemi.CEMI;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.communication.KnxStatusData;
+import li.pitschmann.knx.core.communication.KnxStatusPool;
+import li.pitschmann.knx.core.config.Config;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test {@link StatusMirrorPlugin}
+ */
+class StatusMirrorPluginTest {
+
+    @Test
+    @DisplayName("Test status pool and group values are mirrored")
+    void mirrorGroupValues() throws IOException {
+        final var path = Paths.get("target/test-StatusMirrorPluginTest-mirrorGroupValues-" + UUID.randomUUID() + "/knx-status.mirror");
+        final var plugin = new StatusMirrorPlugin();
+        final var address = GroupAddress.of(1, 2, 3);
+        final var seededAddress = GroupAddress.of(4, 5, 6);
+        final var source = IndividualAddress.of(1, 1, 5);
+
+        final var seededStatus = mock(KnxStatusData.class);
+        when(seededStatus.getTimestamp()).thenReturn(Instant.ofEpochMilli(1000L));
+        when(seededStatus.getSourceAddress()).thenReturn(source);
+        when(seededStatus.getAPCI()).thenReturn(APCI.GROUP_VALUE_RESPONSE);
+        when(seededStatus.getData()).thenReturn(new byte[]{0x11, 0x22});
+        when(seededStatus.isDirty()).thenReturn(true);
+
+        final var writeCemi = mockCEMI(APCI.GROUP_VALUE_WRITE, source, address, new byte[]{0x01});
+        final var tunnelingBody = mock(TunnelingRequestBody.class);
+        when(tunnelingBody.getCEMI()).thenReturn(writeCemi);
+
+        final var readCemi = mockCEMI(APCI.GROUP_VALUE_READ, source, address, new byte[0]);
+        final var readBody = mock(RoutingIndicationBody.class);
+        when(readBody.getCEMI()).thenReturn(readCemi);
+
+        // not mirrored: individual address and non-CEMI body
+        final var individualCemi = mockCEMI(APCI.GROUP_VALUE_WRITE, source, IndividualAddress.of(1, 1, 6), new byte[]{0x01});
+        final var individualBody = mock(TunnelingRequestBody.class);
+        when(individualBody.getCEMI()).thenReturn(individualCemi);
+
+        plugin.onInitialization(mockKnxClient(path, Map.of(seededAddress, seededStatus)));
+        plugin.onStart();
+        try (final var reader = StatusMirrorReader.open(path)) {
+            // seeded from status pool
+            final var seededEntry = reader.read(StatusMirrorReader.groupAddress(4, 5, 6));
+            assertThat(seededEntry.getTimestamp()).isEqualTo(1000L);
+            assertThat(seededEntry.getSourceAddress()).isEqualTo(0x1105);
+            assertThat(seededEntry.getApci()).isEqualTo(StatusMirrorEntry.APCI_GROUP_VALUE_RESPONSE);
+            assertThat(seededEntry.getData()).containsExactly(0x11, 0x22);
+            assertThat(seededEntry.isDirty()).isTrue();
+
+            final var rawAddress = StatusMirrorReader.groupAddress(1, 2, 3);
+            final var before = System.currentTimeMillis();
+            plugin.onIncomingBody(tunnelingBody);
+            plugin.onIncomingBody(individualBody);
+            plugin.onIncomingBody(mock(TunnelingAckBody.class));
+            plugin.onOutgoingBody(tunnelingBody);
+            final var after = System.currentTimeMillis();
+
+            final var entry = reader.read(rawAddress);
+            assertThat(entry.getTimestamp()).isBetween(before, after);
+            assertThat(entry.getApci()).isEqualTo(StatusMirrorEntry.APCI_GROUP_VALUE_WRITE);
+            assertThat(entry.getData()).containsExactly(0x01);
+            assertThat(entry.isDirty()).isFalse();
+            assertThat(reader.read(StatusMirrorReader.groupAddress(1, 1, 6))).isNull();
+
+            // read request marks the status as dirty
+            plugin.onIncomingBody(readBody);
+            assertThat(reader.read(rawAddress).isDirty()).isTrue();
+            assertThat(reader.read(rawAddress).getData()).containsExactly(0x01);
+
+            plugin.onError(new Throwable());
+            plugin.onShutdown();
+            assertThat(reader.isWriterRunning()).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Test group value mirrored during seeding is not overwritten by older status")
+    void seedDoesNotOverwriteNewerGroupValue() throws IOException {
+        final var path = Paths.get("target/test-StatusMirrorPluginTest-seedDoesNotOverwriteNewerGroupValue-" + UUID.randomUUID() + "/knx-status.mirror");
+        final var plugin = new StatusMirrorPlugin();
+        final var address = GroupAddress.of(1, 2, 3);
+        final var source = IndividualAddress.of(1, 1, 5);
+
+        final var olderStatus = mock(KnxStatusData.class);
+        when(olderStatus.getTimestamp()).thenReturn(Instant.ofEpochMilli(1000L));
+        when(olderStatus.getSourceAddress()).thenReturn(source);
+        when(olderStatus.getAPCI()).thenReturn(APCI.GROUP_VALUE_WRITE);
+        when(olderStatus.getData()).thenReturn(new byte[]{0x00});
+
+        final var writeCemi = mockCEMI(APCI.GROUP_VALUE_WRITE, source, address, new byte[]{0x01});
+        final var tunnelingBody = mock(TunnelingRequestBody.class);
+        when(tunnelingBody.getCEMI()).thenReturn(writeCemi);
+
+        // group value arrives while the status pool is copied for seeding
+        final var knxClientMock = mockKnxClient(path, Map.of());
+        when(knxClientMock.getStatusPool().copyStatusMap()).thenAnswer(i -> {
+            plugin.onIncomingBody(tunnelingBody);
+            return Map.of(address, olderStatus);
+        });
+
+        plugin.onInitialization(knxClientMock);
+        plugin.onStart();
+        try (final var reader = StatusMirrorReader.open(path)) {
+            final var entry = reader.read(StatusMirrorReader.groupAddress(1, 2, 3));
+            assertThat(entry.getTimestamp()).isNotEqualTo(1000L);
+            assertThat(entry.getData()).containsExactly(0x01);
+        } finally {
+            plugin.onShutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test outgoing routing indications are mirrored, outgoing tunneling requests are not")
+    void mirrorOutgoingGroupValues() throws IOException {
+        final var path = Paths.get("target/test-StatusMirrorPluginTest-mirrorOutgoingGroupValues-" + UUID.randomUUID() + "/knx-status.mirror");
+        final var plugin = new StatusMirrorPlugin();
+        final var source = IndividualAddress.of(1, 1, 5);
+
+        final var routingCemi = mockCEMI(APCI.GROUP_VALUE_WRITE, source, GroupAddress.of(1, 2, 3), new byte[]{0x01});
+        final var routingBody = mock(RoutingIndicationBody.class);
+        when(routingBody.getCEMI()).thenReturn(routingCemi);
+
+        final var tunnelingCemi = mockCEMI(APCI.GROUP_VALUE_WRITE, source, GroupAddress.of(4, 5, 6), new byte[]{0x02});
+        final var tunnelingBody = mock(TunnelingRequestBody.class);
+        when(tunnelingBody.getCEMI()).thenReturn(tunnelingCemi);
+
+        plugin.onInitialization(mockKnxClient(path, Map.of()));
+        plugin.onStart();
+        try (final var reader = StatusMirrorReader.open(path)) {
+            plugin.onOutgoingBody(routingBody);
+            plugin.onOutgoingBody(tunnelingBody);
+
+            final var entry = reader.read(StatusMirrorReader.groupAddress(1, 2, 3));
+            assertThat(entry.getSourceAddress()).isEqualTo(0x1105);
+            assertThat(entry.getApci()).isEqualTo(StatusMirrorEntry.APCI_GROUP_VALUE_WRITE);
+            assertThat(entry.getData()).containsExactly(0x01);
+            assertThat(reader.read(StatusMirrorReader.groupAddress(4, 5, 6))).isNull();
+        } finally {
+            plugin.onShutdown();
+        }
+    }
+
+    private CEMI mockCEMI(final APCI apci, final IndividualAddress source, final KnxAddress destination, final byte[] data) {
+        final var cemiMock = mock(CEMI.class);
+        when(cemiMock.getAPCI()).thenReturn(apci);
+        when(cemiMock.getSourceAddress()).thenReturn(source);
+        when(cemiMock.getDestinationAddress()).thenReturn(destination);
+        when(cemiMock.getData()).thenReturn(data);
+        return cemiMock;
+    }
+
+    private KnxClient mockKnxClient(final Path path, final Map<KnxAddress, KnxStatusData> statusMap) {
+        final var knxClientMock = mock(KnxClient.class);
+        final var configMock = mock(Config.class);
+        when(knxClientMock.getConfig()).thenReturn(configMock);
+        when(knxClientMock.getConfig(any())).thenCallRealMethod();
+        when(configMock.getValue(eq(StatusMirrorPlugin.PATH))).thenReturn(path);
+
+        final var statusPoolMock = mock(KnxStatusPool.class);
+        when(statusPoolMock.copyStatusMap()).thenReturn(statusMap);
+        when(knxClientMock.getStatusPool()).thenReturn(statusPoolMock);
+        return knxClientMock;
+    }
+}
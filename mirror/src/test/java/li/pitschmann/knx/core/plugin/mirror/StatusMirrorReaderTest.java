@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.mirror;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test {@link StatusMirrorReader} and {@link StatusMirrorWriter}
+ */
+class StatusMirrorReaderTest {
+
+    @Test
+    @DisplayName("Test status written by writer is read by reader")
+    void writeAndRead() throws IOException {
+        final var path = newPath("writeAndRead");
+        final var groupAddress = StatusMirrorReader.groupAddress(1, 2, 3);
+        final var otherGroupAddress = StatusMirrorReader.groupAddress(31, 7, 255);
+        try (final var writer = new StatusMirrorWriter(path);
+             final var reader = StatusMirrorReader.open(path)) {
+            assertThat(reader.isWriterRunning()).isTrue();
+            assertThat(reader.getStartTime()).isPositive();
+            assertThat(reader.read(groupAddress)).isNull();
+
+            writer.write(groupAddress, 1234L, 0x1105, StatusMirrorEntry.APCI_GROUP_VALUE_WRITE, new byte[]{0x0C, 0x1A}, false);
+            writer.write(otherGroupAddress, 5678L, 0xFFFF, StatusMirrorEntry.APCI_GROUP_VALUE_RESPONSE, new byte[]{0x01}, true);
+
+            final var entry = reader.read(groupAddress);
+            assertThat(entry.getGroupAddress()).isEqualTo(0x0A03);
+            assertThat(entry.getTimestamp()).isEqualTo(1234L);
+            assertThat(entry.getSourceAddress()).isEqualTo(0x1105);
+            assertThat(entry.getApci()).isEqualTo(StatusMirrorEntry.APCI_GROUP_VALUE_WRITE);
+            assertThat(entry.isDirty()).isFalse();
+            assertThat(entry.isTruncated()).isFalse();
+            assertThat(entry.getData()).containsExactly(0x0C, 0x1A);
+            assertThat(entry).hasToString("StatusMirrorEntry{groupAddress=1/2/3, timestamp=1234, sourceAddress=1.1.5, " +
+                    "apci=0x80, dirty=false, truncated=false, data=0x0c1a}");
+
+            final var otherEntry = reader.read(otherGroupAddress);
+            assertThat(otherEntry.getSourceAddress()).isEqualTo(0xFFFF);
+            assertThat(otherEntry.getApci()).isEqualTo(StatusMirrorEntry.APCI_GROUP_VALUE_RESPONSE);
+            assertThat(otherEntry.isDirty()).isTrue();
+
+            // every write changes the sequence
+            final var sequence = reader.getSequence(groupAddress);
+            assertThat(sequence % 2).isZero();
+            writer.markDirty(groupAddress);
+            assertThat(reader.getSequence(groupAddress)).isEqualTo(sequence + 2);
+            assertThat(reader.read(groupAddress).isDirty()).isTrue();
+            assertThat(reader.read(groupAddress).getData()).containsExactly(0x0C, 0x1A);
+
+            // no status: nothing to mark as dirty
+            writer.markDirty(StatusMirrorReader.groupAddress(0, 0, 1));
+            assertThat(reader.read(StatusMirrorReader.groupAddress(0, 0, 1))).isNull();
+
+            writer.close();
+            assertThat(reader.isWriterRunning()).isFalse();
+            assertThat(reader.read(groupAddress)).isNotNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Test group value longer than slot is truncated")
+    void writeTruncated() throws IOException {
+        final var path = newPath("writeTruncated");
+        final var data = new byte[StatusMirrorLayout.MAX_DATA_LENGTH + 10];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        try (final var writer = new StatusMirrorWriter(path);
+             final var reader = StatusMirrorReader.open(path)) {
+            writer.write(100, 1L, 0, StatusMirrorEntry.APCI_GROUP_VALUE_WRITE, data, false);
+            // next slot is not overwritten
+            writer.write(101, 2L, 0, StatusMirrorEntry.APCI_GROUP_VALUE_WRITE, new byte[]{0x7F}, false);
+
+            final var entry = reader.read(100);
+            assertThat(entry.isTruncated()).isTrue();
+            assertThat(entry.getData()).hasSize(StatusMirrorLayout.MAX_DATA_LENGTH).startsWith(0, 1, 2);
+            assertThat(reader.read(101).getData()).containsExactly(0x7F);
+        }
+    }
+
+    @Test
+    @DisplayName("Test status is cleared when writer is re-opened")
+    void reopenWriter() throws IOException {
+        final var path = newPath("reopenWriter");
+        try (final var writer = new StatusMirrorWriter(path)) {
+            writer.write(1, 1L, 0, StatusMirrorEntry.APCI_GROUP_VALUE_WRITE, new byte[]{0x01}, false);
+        }
+        try (final var reader = StatusMirrorReader.open(path)) {
+            assertThat(reader.isWriterRunning()).isFalse();
+            assertThat(reader.read(1)).isNotNull();
+
+            try (final var writer = new StatusMirrorWriter(path)) {
+                assertThat(reader.isWriterRunning()).isTrue();
+                assertThat(reader.read(1)).isNull();
+            }
+        }
+        assertThat(Files.size(path)).isEqualTo(StatusMirrorLayout.FILE_SIZE);
+    }
+
+    @Test
+    @DisplayName("Test reader never sees a torn status while writer is writing")
+    void concurrentReadAndWrite() throws Exception {
+        final var path = newPath("concurrentReadAndWrite");
+        try (final var writer = new StatusMirrorWriter(path);
+             final var reader = StatusMirrorReader.open(path)) {
+            final var running = new AtomicBoolean(true);
+            final var writerThread = new Thread(() -> {
+                // all bytes of group value and the timestamp are equal to the counter
+                for (int i = 0; running.get(); i++) {
+                    final var b = (byte) i;
+                    writer.write(42, b, 0, StatusMirrorEntry.APCI_GROUP_VALUE_WRITE, new byte[]{b, b, b, b, b, b, b, b}, false);
+                }
+            });
+            writerThread.start();
+            try {
+                for (int i = 0; i < 100_000; i++) {
+                    final var entry = reader.read(42);
+                    if (entry != null) {
+                        final var data = entry.getData();
+                        assertThat(data).hasSize(8).containsOnly((byte) entry.getTimestamp());
+                    }
+                }
+            } finally {
+                running.set(false);
+                writerThread.join();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test invalid files and group addresses")
+    void invalid() throws IOException {
+        final var path = newPath("invalid");
+        Files.createDirectories(path.getParent());
+        Files.write(path, new byte[10]);
+        assertThatThrownBy(() -> StatusMirrorReader.open(path)).isInstanceOf(IOException.class)
+                .hasMessageStartingWith("File is too small for a status mirror file");
+
+        Files.write(path, new byte[(int) StatusMirrorLayout.FILE_SIZE]);
+        assertThatThrownBy(() -> StatusMirrorReader.open(path)).isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Not a status mirror file or unsupported version");
+
+        assertThatThrownBy(() -> StatusMirrorReader.groupAddress(32, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> StatusMirrorReader.groupAddress(0, 8, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> StatusMirrorReader.groupAddress(0, 0, 256)).isInstanceOf(IllegalArgumentException.class);
+
+        final var validPath = newPath("invalid-valid");
+        try (final var writer = new StatusMirrorWriter(validPath);
+             final var reader = StatusMirrorReader.open(validPath)) {
+            assertThatThrownBy(() -> reader.read(-1)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> reader.read(65536)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private static Path newPath(final String name) {
+        return Paths.get("target/test-StatusMirrorReaderTest-" + name + "-" + UUID.randomUUID() + "/knx-status.mirror");
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.address.KnxAddress;
+import li.pitschmann.knx.core.utils.Strings;
+
+/**
+ * Immutable traffic of a single KNX address (group or individual address)
+ */
+public final class AddressTraffic {
+    private final KnxAddress address;
+    private final long telegrams;
+    private final long bytes;
+
+    AddressTraffic(final KnxAddress address, final long telegrams, final long bytes) {
+        this.address = address;
+        this.telegrams = telegrams;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Returns the KNX address
+     *
+     * @return group address for destination traffic, individual address for source traffic
+     */
+    public KnxAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Returns the number of telegrams
+     *
+     * @return telegrams
+     */
+    public long getTelegrams() {
+        return telegrams;
+    }
+
+    /**
+     * Returns the number of bytes (cEMI frame)
+     *
+     * @return bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("address", address)
+                .add("telegrams", telegrams)
+                .add("bytes", bytes)
+                .toString();
+    }
+}
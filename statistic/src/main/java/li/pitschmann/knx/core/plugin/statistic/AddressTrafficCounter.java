@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.address.AddressType;
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.IndividualAddress;
+import li.pitschmann.knx.core.address.KnxAddress;
+import li.pitschmann.knx.core.body.Body;
+import li.pitschmann.knx.core.body.RoutingIndicationBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.cemi.CEMI;
+import li.pitschmann.knx.core.utils.Preconditions;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Counts the telegrams and bytes per group address (destination) and per
+ * individual address (source)
+ * <p>
+ * The counters are kept in primitive arrays indexed by the 16-bit raw address,
+ * therefore counting is lock-free and does not allocate. Each array has 65536
+ * entries (512 KiB).
+ */
+public final class AddressTrafficCounter {
+    private static final int ADDRESS_SPACE = 1 << 16;
+    private final AtomicLongArray groupTelegrams = new AtomicLongArray(ADDRESS_SPACE);
+    private final AtomicLongArray groupBytes = new AtomicLongArray(ADDRESS_SPACE);
+    private final AtomicLongArray sourceTelegrams = new AtomicLongArray(ADDRESS_SPACE);
+    private final AtomicLongArray sourceBytes = new AtomicLongArray(ADDRESS_SPACE);
+    private final LongAdder totalGroupTelegrams = new LongAdder();
+    private final LongAdder totalSourceTelegrams = new LongAdder();
+
+    /**
+     * Records the telegram of {@link Body} if it contains a cEMI frame
+     * ({@link TunnelingRequestBody} and {@link RoutingIndicationBody}),
+     * other bodies are ignored.
+     *
+     * @param body the body to be recorded
+     */
+    public void record(final Body body) {
+        if (body instanceof TunnelingRequestBody) {
+            record(((TunnelingRequestBody) body).getCEMI());
+        } else if (body instanceof RoutingIndicationBody) {
+            record(((RoutingIndicationBody) body).getCEMI());
+        }
+    }
+
+    /**
+     * Records the telegram of cEMI frame
+     *
+     * @param cemi the cEMI frame to be recorded
+     */
+    public void record(final CEMI cemi) {
+        final var bytes = cemi.toByteArray().length;
+
+        final var source = toRawAddress(cemi.getSourceAddress());
+        sourceTelegrams.incrementAndGet(source);
+        sourceBytes.addAndGet(source, bytes);
+        totalSourceTelegrams.increment();
+
+        final var destination = cemi.getDestinationAddress();
+        if (destination.getAddressType() == AddressType.GROUP) {
+            final var groupAddress = toRawAddress(destination);
+            groupTelegrams.incrementAndGet(groupAddress);
+            groupBytes.addAndGet(groupAddress, bytes);
+            totalGroupTelegrams.increment();
+        }
+    }
+
+    /**
+     * Returns the traffic of given group address
+     *
+     * @param groupAddress the group address
+     * @return traffic of group address
+     */
+    public AddressTraffic getGroupTraffic(final GroupAddress groupAddress) {
+        final var index = toRawAddress(groupAddress);
+        return new AddressTraffic(groupAddress, groupTelegrams.get(index), groupBytes.get(index));
+    }
+
+    /**
+     * Returns the traffic of given individual address
+     *
+     * @param sourceAddress the individual address
+     * @return traffic of individual address
+     */
+    public AddressTraffic getSourceTraffic(final IndividualAddress sourceAddress) {
+        final var index = toRawAddress(sourceAddress);
+        return new AddressTraffic(sourceAddress, sourceTelegrams.get(index), sourceBytes.get(index));
+    }
+
+    /**
+     * Returns the total number of telegrams sent to group addresses
+     *
+     * @return total telegrams
+     */
+    public long getTotalGroupTelegrams() {
+        return totalGroupTelegrams.sum();
+    }
+
+    /**
+     * Returns the total number of telegrams of all source addresses
+     *
+     * @return total telegrams
+     */
+    public long getTotalSourceTelegrams() {
+        return totalSourceTelegrams.sum();
+    }
+
+    /**
+     * Returns the group addresses with most telegrams (heavy hitters), sorted descending
+     *
+     * @param k maximum number of group addresses
+     * @return list of group address traffic, may be less than {@code k}
+     */
+    public List<AddressTraffic> getTopGroupAddresses(final int k) {
+        return topK(groupTelegrams, groupBytes, k, GroupAddress::of);
+    }
+
+    /**
+     * Returns the individual addresses with most telegrams (heavy hitters), sorted descending
+     *
+     * @param k maximum number of individual addresses
+     * @return list of individual address traffic, may be less than {@code k}
+     */
+    public List<AddressTraffic> getTopSourceAddresses(final int k) {
+        return topK(sourceTelegrams, sourceBytes, k, raw -> IndividualAddress.of(new byte[]{(byte) (raw >>> 8), (byte) raw}));
+    }
+
+    /**
+     * Selects the top-K entries using a min-heap of size {@code k} on primitive arrays
+     */
+    private static List<AddressTraffic> topK(final AtomicLongArray telegrams,
+                                             final AtomicLongArray bytes,
+                                             final int k,
+                                             final IntFunction<KnxAddress> addressFunction) {
+        Preconditions.checkArgument(k > 0, "K must be positive: {}", k);
+        final var heapIndexes = new int[k];
+        final var heapValues = new long[k];
+        var size = 0;
+        for (int i = 0; i < ADDRESS_SPACE; i++) {
+            final var value = telegrams.get(i);
+            if (value == 0) {
+                continue;
+            }
+            if (size < k) {
+                // add and sift up
+                var pos = size++;
+                while (pos > 0 && heapValues[(pos - 1) / 2] > value) {
+                    heapIndexes[pos] = heapIndexes[(pos - 1) / 2];
+                    heapValues[pos] = heapValues[(pos - 1) / 2];
+                    pos = (pos - 1) / 2;
+                }
+                heapIndexes[pos] = i;
+                heapValues[pos] = value;
+            } else if (value > heapValues[0]) {
+                // replace the smallest and sift down
+                siftDown(heapIndexes, heapValues, size, i, value);
+            }
+        }
+
+        // remove the smallest one after another, fill the result from the end
+        final var result = new AddressTraffic[size];
+        for (int n = size - 1; n >= 0; n--) {
+            final var index = heapIndexes[0];
+            result[n] = new AddressTraffic(addressFunction.apply(index), heapValues[0], bytes.get(index));
+            siftDown(heapIndexes, heapValues, n, heapIndexes[n], heapValues[n]);
+        }
+        return List.of(result);
+    }
+
+    /**
+     * Places the entry ({@code index}, {@code value}) at the root of min-heap and sifts it down
+     */
+    private static void siftDown(final int[] heapIndexes, final long[] heapValues, final int size, final int index, final long value) {
+        var pos = 0;
+        while (true) {
+            var child = 2 * pos + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heapValues[child + 1] < heapValues[child]) {
+                child++;
+            }
+            if (heapValues[child] >= value) {
+                break;
+            }
+            heapIndexes[pos] = heapIndexes[child];
+            heapValues[pos] = heapValues[child];
+            pos = child;
+        }
+        heapIndexes[pos] = index;
+        heapValues[pos] = value;
+    }
+
+    private static int toRawAddress(final KnxAddress address) {
+        final var bytes = address.toByteArray();
+        return (bytes[0] & 0xFF) << 8 | (bytes[1] & 0xFF);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.utils.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Scheduler for periodic tasks that are aligned to wall-clock boundaries
+ * <p>
+ * A task with an interval of 5 minutes runs exactly at :00, :05, :10, ...
+ * The next run is always calculated from the wall-clock, therefore the
+ * execution time of a task does not accumulate as drift.
+ * <p>
+ * Ticks that could not be executed in time (e.g. after a long GC pause or
+ * suspend of the machine) are not caught up; they are counted as missed
+ * ticks and reported.
+ * <p>
+ * The {@link #shared()} instance runs all tasks in a single daemon thread
+ * and may be used by several plugins.
+ *
+ * @author PITSCHR
+ */
+public final class AlignedScheduler {
+    private static final Logger log = LoggerFactory.getLogger(AlignedScheduler.class);
+    private static final AlignedScheduler SHARED = new AlignedScheduler(
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final var thread = new Thread(runnable, "knx-plugin-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            }),
+            System::currentTimeMillis
+    );
+    private final ScheduledExecutorService executor;
+    private final LongSupplier clock;
+
+    /**
+     * Creates a new scheduler (for testing purposes)
+     *
+     * @param executor the executor that runs the tasks
+     * @param clock    supplier of current epoch milliseconds
+     */
+    AlignedScheduler(final ScheduledExecutorService executor, final LongSupplier clock) {
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the shared scheduler instance
+     *
+     * @return shared scheduler
+     */
+    public static AlignedScheduler shared() {
+        return SHARED;
+    }
+
+    /**
+     * Schedules the {@code runnable} at every wall-clock boundary of {@code intervalMs}.
+     * The first run is at the next boundary.
+     *
+     * @param name       the name of task, used for logging
+     * @param runnable   the task to be executed
+     * @param intervalMs the interval in milliseconds
+     * @return the scheduled task, to be cancelled when no more needed
+     */
+    public Task schedule(final String name, final Runnable runnable, final long intervalMs) {
+        Preconditions.checkArgument(intervalMs > 0, "Interval must be positive: {}", intervalMs);
+        final var task = new Task(name, runnable, intervalMs);
+        task.scheduleNext();
+        return task;
+    }
+
+    /**
+     * Executes the {@code runnable} once as soon as possible, e.g. to run a task
+     * triggered by an event outside of the thread that fired the event
+     *
+     * @param name     the name of task, used for logging
+     * @param runnable the task to be executed
+     */
+    public void execute(final String name, final Runnable runnable) {
+        executor.execute(() -> {
+            try {
+                runnable.run();
+            } catch (final RuntimeException ex) {
+                log.error("Error during execution of task '{}'", name, ex);
+            }
+        });
+    }
+
+    /**
+     * Returns the next wall-clock boundary of {@code intervalMs} after {@code now}
+     */
+    private static long nextBoundary(final long now, final long intervalMs) {
+        return (Math.floorDiv(now, intervalMs) + 1) * intervalMs;
+    }
+
+    /**
+     * Task that has been scheduled by {@link AlignedScheduler}
+     */
+    public final class Task implements AutoCloseable {
+        private final String name;
+        private final Runnable runnable;
+        private final long intervalMs;
+        private final AtomicLong missedTicks = new AtomicLong();
+        private long nextTick;
+        private ScheduledFuture<?> future;
+        private volatile boolean cancelled;
+
+        private Task(final String name, final Runnable runnable, final long intervalMs) {
+            this.name = name;
+            this.runnable = runnable;
+            this.intervalMs = intervalMs;
+            this.nextTick = nextBoundary(clock.getAsLong(), intervalMs);
+        }
+
+        private synchronized void scheduleNext() {
+            if (!cancelled) {
+                final var delay = Math.max(0, nextTick - clock.getAsLong());
+                future = executor.schedule(this::tick, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        /**
+         * Executes the task when the tick is due and schedules the next tick
+         */
+        void tick() {
+            if (cancelled) {
+                return;
+            }
+            final var now = clock.getAsLong();
+            if (now < nextTick) {
+                // woke up too early, e.g. wall-clock has been adjusted
+                if (nextTick - now > intervalMs) {
+                    nextTick = nextBoundary(now, intervalMs);
+                }
+                scheduleNext();
+                return;
+            }
+
+            final var missed = (now - nextTick) / intervalMs;
+            if (missed > 0) {
+                final var totalMissed = missedTicks.addAndGet(missed);
+                log.warn("Missed {} tick(s) of task '{}' (interval: {} ms, late by: {} ms, total missed: {})",
+                        missed, name, intervalMs, now - nextTick, totalMissed);
+            }
+
+            try {
+                runnable.run();
+            } catch (final RuntimeException ex) {
+                // do not cancel the periodic execution
+                log.error("Error during execution of task '{}'", name, ex);
+            }
+
+            nextTick = nextBoundary(now, intervalMs);
+            scheduleNext();
+        }
+
+        /**
+         * Returns the total number of ticks that have been missed
+         *
+         * @return number of missed ticks
+         */
+        public long getMissedTicks() {
+            return missedTicks.get();
+        }
+
+        /**
+         * Cancels the task. A running execution is not interrupted.
+         */
+        @Override
+        public synchronized void close() {
+            cancelled = true;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+}
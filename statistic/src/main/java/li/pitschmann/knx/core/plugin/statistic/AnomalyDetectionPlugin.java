@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import com.vlkan.rfos.RotatingFileOutputStream;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.plugin.DoubleConfigValue;
+import li.pitschmann.knx.core.plugin.EnumConfigValue;
+import li.pitschmann.knx.core.plugin.ExtensionPlugin;
+import li.pitschmann.knx.core.plugin.LongConfigValue;
+import li.pitschmann.knx.core.plugin.PathConfigValue;
+import li.pitschmann.knx.core.utils.Closeables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+/**
+ * Anomaly detection plug-in to write the events to a file when the
+ * statistic of KNX client deviates from its baseline
+ * <p>
+ * The statistic is sampled in every interval and passed to the {@link AnomalyDetector}
+ * of the {@link StatisticTrackers}, which is shared with other plug-ins of KNX client.
+ * Only the events are written, one line per event.
+ *
+ * @author PITSCHR
+ */
+public final class AnomalyDetectionPlugin implements ExtensionPlugin {
+    /**
+     * File path
+     */
+    public static final PathConfigValue PATH = new PathConfigValue("path", () -> Paths.get("knx-anomaly.log"), null);
+    /**
+     * File format (e.g. JSON, TEXT)
+     */
+    public static final EnumConfigValue<FileStatisticFormat> FORMAT = new EnumConfigValue<>("format", FileStatisticFormat.class, () -> FileStatisticFormat.JSON);
+    /**
+     * Sampling interval in milliseconds. Default 10 seconds (10000ms) Minimum 1 sec (1000ms).
+     */
+    public static final LongConfigValue INTERVAL_MS = new LongConfigValue("intervalMs", () -> 10 * 1000L, x -> x >= 1000);
+    /**
+     * Z-score threshold. Default 4.
+     */
+    public static final DoubleConfigValue THRESHOLD = new DoubleConfigValue("threshold", () -> AnomalyDetector.DEFAULT_THRESHOLD, x -> x > 0);
+
+    private static final Logger log = LoggerFactory.getLogger(AnomalyDetectionPlugin.class);
+
+    private final Consumer<AnomalyEvent> eventWriter = this::writeEvent;
+    private Path path;
+    private StatisticTrackers trackers;
+    private AnomalyDetector detector;
+    private StatisticFormatter formatter;
+    private RotatingFileOutputStream fos;
+
+    @Override
+    public void onInitialization(final KnxClient client) {
+        // configurations
+        path = client.getConfig(AnomalyDetectionPlugin.PATH);
+        final var format = client.getConfig(AnomalyDetectionPlugin.FORMAT);
+        final var intervalMs = client.getConfig(AnomalyDetectionPlugin.INTERVAL_MS);
+        final var threshold = client.getConfig(AnomalyDetectionPlugin.THRESHOLD);
+        log.info("Initialized '{}' with: [path={}, format={}, intervalMs={}, threshold={}]", getClass().getName(), path, format, intervalMs, threshold);
+
+        formatter = new StatisticFormatter(format.getAnomalyTemplate());
+        fos = StatisticFiles.openRotatingStream(path, format.getAnomalyHeader());
+
+        // the statistic is sampled by the shared trackers in every interval
+        trackers = StatisticTrackers.register(client, this);
+        trackers.addAnomalyListener(eventWriter);
+        detector = trackers.startAnomalyDetection(threshold, intervalMs);
+    }
+
+    @Override
+    public void onStart() {
+        // NO-OP
+    }
+
+    @Override
+    public void onShutdown() {
+        // stop listening to the anomaly events
+        if (trackers != null) {
+            trackers.removeAnomalyListener(eventWriter);
+            trackers.stopAnomalyDetection();
+            trackers.unregister(this);
+        }
+
+        // close the rollover stream
+        Closeables.closeQuietly(fos);
+    }
+
+    /**
+     * Returns the anomaly detector
+     *
+     * @return detector
+     */
+    public AnomalyDetector getDetector() {
+        return detector;
+    }
+
+    /**
+     * Samples the statistic of KNX client immediately; the events are written to file
+     */
+    void sample() {
+        trackers.sampleAnomalies();
+    }
+
+    /**
+     * Writes the anomaly event to file
+     *
+     * @param event the anomaly event
+     */
+    private synchronized void writeEvent(final AnomalyEvent event) {
+        formatter.setObject(1, event.getTime());
+        formatter.setObject(2, event.getSeries());
+        formatter.setDouble(3, event.getValue());
+        formatter.setDouble(4, event.getExpected());
+        formatter.setDouble(5, event.getZScore());
+        formatter.renderLine();
+        try {
+            formatter.writeTo(fos);
+        } catch (final IOException e) {
+            log.error("Error writing to anomaly file '{}': {}", path, formatter, e);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming anomaly detector over the statistic of KNX client
+ * <p>
+ * Tracked series are the packet rates (inbound and outbound), the error rate of
+ * interval and the rate of every service type per direction (e.g. a reconnect
+ * storm shows up in {@code outbound.ConnectRequestBody}, a device stuck in a
+ * repeat loop in {@code inbound.TunnelingRequestBody}).
+ * <p>
+ * Every series has a short-term EWMA baseline and a seasonal profile with one EWMA
+ * baseline per hour of week (168 slots), so the memory per series is constant. A
+ * value is anomalous when its z-score exceeds the threshold against the short-term
+ * baseline and, once the slot has enough samples, against the seasonal baseline as
+ * well; recurring patterns (e.g. blinds in the morning) are therefore not reported.
+ * An event is raised when a series becomes anomalous; further anomalous samples of
+ * same series are suppressed until the series is back to normal.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class AnomalyDetector {
+    /**
+     * Default z-score threshold
+     */
+    public static final double DEFAULT_THRESHOLD = 4d;
+    /**
+     * Default smoothing factor of baselines
+     */
+    public static final double DEFAULT_ALPHA = 0.05d;
+    /**
+     * Default number of samples before a baseline is used for detection
+     */
+    public static final int DEFAULT_WARM_UP = 30;
+    private static final Logger log = LoggerFactory.getLogger(AnomalyDetector.class);
+    private static final int HOURS_PER_WEEK = 7 * 24;
+    private static final int MAX_RECENT_EVENTS = 100;
+    // minimum standard deviation of series: 1 packet per second or 1 percent
+    private static final double MIN_STD_DEV = 1d;
+    private static final int[] COUNTERS;
+    private static final String[] SERIES_NAMES;
+
+    static {
+        final var bodyClasses = StatisticSnapshot.BODY_CLASSES;
+        final var n = 2 + 2 * bodyClasses.size();
+        COUNTERS = new int[n];
+        SERIES_NAMES = new String[n + 1];
+        COUNTERS[0] = StatisticSnapshot.INBOUND_PACKETS;
+        SERIES_NAMES[0] = "inbound.packets";
+        COUNTERS[1] = StatisticSnapshot.OUTBOUND_PACKETS;
+        SERIES_NAMES[1] = "outbound.packets";
+        for (int i = 0; i < bodyClasses.size(); i++) {
+            final var bodyClass = bodyClasses.get(i);
+            COUNTERS[2 + 2 * i] = StatisticSnapshot.receivedIndex(bodyClass);
+            SERIES_NAMES[2 + 2 * i] = "inbound." + bodyClass.getSimpleName();
+            COUNTERS[3 + 2 * i] = StatisticSnapshot.sentIndex(bodyClass);
+            SERIES_NAMES[3 + 2 * i] = "outbound." + bodyClass.getSimpleName();
+        }
+        // last series is the error rate (not a counter)
+        SERIES_NAMES[n] = "error.rate";
+    }
+
+    private final double threshold;
+    private final int warmUp;
+    private final ZoneId zoneId;
+    private final EwmaBaseline[] baselines = new EwmaBaseline[SERIES_NAMES.length];
+    private final EwmaBaseline[][] seasonalBaselines = new EwmaBaseline[SERIES_NAMES.length][HOURS_PER_WEEK];
+    private final boolean[] anomalous = new boolean[SERIES_NAMES.length];
+    private final double[] values = new double[SERIES_NAMES.length];
+    private final ArrayDeque<AnomalyEvent> recentEvents = new ArrayDeque<>(MAX_RECENT_EVENTS);
+    private StatisticSnapshot previousSnapshot;
+
+    public AnomalyDetector() {
+        this(DEFAULT_THRESHOLD, DEFAULT_ALPHA, DEFAULT_WARM_UP, ZoneId.systemDefault());
+    }
+
+    /**
+     * Creates a new anomaly detector
+     *
+     * @param threshold z-score threshold, positive
+     * @param alpha     smoothing factor of baselines between 0 (exclusive) and 1 (inclusive)
+     * @param warmUp    number of samples before a baseline is used for detection
+     * @param zoneId    time zone for the seasonal profile (hour of week)
+     */
+    public AnomalyDetector(final double threshold, final double alpha, final int warmUp, final ZoneId zoneId) {
+        if (threshold <= 0 || alpha <= 0 || alpha > 1 || warmUp < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid anomaly detector parameters: [threshold=%s, alpha=%s, warmUp=%s]", threshold, alpha, warmUp));
+        }
+        this.threshold = threshold;
+        this.warmUp = warmUp;
+        this.zoneId = zoneId;
+        for (int i = 0; i < SERIES_NAMES.length; i++) {
+            baselines[i] = new EwmaBaseline(alpha);
+            for (int j = 0; j < HOURS_PER_WEEK; j++) {
+                seasonalBaselines[i][j] = new EwmaBaseline(alpha);
+            }
+        }
+    }
+
+    /**
+     * Updates the baselines with the rates since previous snapshot and returns the
+     * events of series that became anomalous. The first snapshot is the baseline
+     * for rates and does not return any event.
+     *
+     * @param snapshot the current statistic snapshot
+     * @param now      the time of snapshot
+     * @return list of new events, empty if no anomaly has been detected
+     */
+    public synchronized List<AnomalyEvent> update(final StatisticSnapshot snapshot, final Instant now) {
+        final var previous = previousSnapshot;
+        previousSnapshot = snapshot;
+        if (previous == null) {
+            return List.of();
+        }
+        final var intervalSeconds = (snapshot.getNanoTime() - previous.getNanoTime()) / 1e9;
+        if (intervalSeconds <= 0) {
+            return List.of();
+        }
+
+        // rates per second of counters and error rate of interval in percent
+        for (int i = 0; i < COUNTERS.length; i++) {
+            values[i] = (snapshot.getCounter(COUNTERS[i]) - previous.getCounter(COUNTERS[i])) / intervalSeconds;
+        }
+        final var deltaPackets = (snapshot.getCounter(StatisticSnapshot.INBOUND_PACKETS) - previous.getCounter(StatisticSnapshot.INBOUND_PACKETS))
+                + (snapshot.getCounter(StatisticSnapshot.OUTBOUND_PACKETS) - previous.getCounter(StatisticSnapshot.OUTBOUND_PACKETS));
+        final var deltaErrors = snapshot.getCounter(StatisticSnapshot.ERRORS) - previous.getCounter(StatisticSnapshot.ERRORS);
+        // same formula as StatisticSnapshot and StatisticTrigger: errors of packets and errors
+        values[COUNTERS.length] = deltaPackets + deltaErrors > 0 ? deltaErrors * 100d / (deltaPackets + deltaErrors) : 0d;
+
+        final var hourOfWeek = hourOfWeek(now);
+        List<AnomalyEvent> events = null;
+        for (int i = 0; i < SERIES_NAMES.length; i++) {
+            final var event = detect(i, values[i], hourOfWeek, now);
+            if (event != null) {
+                if (events == null) {
+                    events = new ArrayList<>();
+                }
+                events.add(event);
+            }
+        }
+        return events == null ? List.of() : events;
+    }
+
+    /**
+     * Scores the value of series against its baselines and updates the baselines
+     *
+     * @return event if series became anomalous, otherwise {@code null}
+     */
+    @Nullable
+    private AnomalyEvent detect(final int series, final double value, final int hourOfWeek, final Instant now) {
+        final var baseline = baselines[series];
+        final var seasonalBaseline = seasonalBaselines[series][hourOfWeek];
+
+        AnomalyEvent event = null;
+        if (baseline.getCount() >= warmUp) {
+            final var zScore = baseline.zScore(value, MIN_STD_DEV);
+            final var isAnomalous = Math.abs(zScore) > threshold
+                    && (seasonalBaseline.getCount() < warmUp || Math.abs(seasonalBaseline.zScore(value, MIN_STD_DEV)) > threshold);
+            if (isAnomalous && !anomalous[series]) {
+                event = new AnomalyEvent(now, SERIES_NAMES[series], value, baseline.getMean(), zScore);
+                addRecentEvent(event);
+                log.warn("Anomaly detected: {}", event);
+            }
+            anomalous[series] = isAnomalous;
+        }
+
+        baseline.update(value);
+        seasonalBaseline.update(value);
+        return event;
+    }
+
+    private void addRecentEvent(final AnomalyEvent event) {
+        if (recentEvents.size() == MAX_RECENT_EVENTS) {
+            recentEvents.removeFirst();
+        }
+        recentEvents.addLast(event);
+    }
+
+    private int hourOfWeek(final Instant now) {
+        final var dateTime = now.atZone(zoneId);
+        return (dateTime.getDayOfWeek().getValue() - 1) * 24 + dateTime.getHour();
+    }
+
+    /**
+     * Returns the most recent events (up to 100), oldest first
+     *
+     * @return list of events
+     */
+    public synchronized List<AnomalyEvent> getRecentEvents() {
+        return List.copyOf(recentEvents);
+    }
+
+    /**
+     * Returns the names of tracked series
+     *
+     * @return names of series
+     */
+    public static List<String> getSeriesNames() {
+        return List.of(SERIES_NAMES);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.utils.Strings;
+
+import java.time.Instant;
+
+/**
+ * Immutable event when a statistic series deviates from its baseline
+ */
+public final class AnomalyEvent {
+    private final Instant time;
+    private final String series;
+    private final double value;
+    private final double expected;
+    private final double zScore;
+
+    AnomalyEvent(final Instant time, final String series, final double value, final double expected, final double zScore) {
+        this.time = time;
+        this.series = series;
+        this.value = value;
+        this.expected = expected;
+        this.zScore = zScore;
+    }
+
+    /**
+     * Returns the time when the anomaly has been detected
+     *
+     * @return time
+     */
+    public Instant getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the name of series (e.g. {@code inbound.packets}, {@code error.rate},
+     * {@code outbound.ConnectRequestBody})
+     *
+     * @return name of series
+     */
+    public String getSeries() {
+        return series;
+    }
+
+    /**
+     * Returns the observed value (rate per second, error rate in percent)
+     *
+     * @return observed value
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the expected value according to the baseline
+     *
+     * @return expected value
+     */
+    public double getExpected() {
+        return expected;
+    }
+
+    /**
+     * Returns the z-score; positive if the observed value is higher than expected
+     *
+     * @return z-score
+     */
+    public double getZScore() {
+        return zScore;
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("time", time)
+                .add("series", series)
+                .add("value", value)
+                .add("expected", expected)
+                .add("zScore", zScore)
+                .toString();
+    }
+}
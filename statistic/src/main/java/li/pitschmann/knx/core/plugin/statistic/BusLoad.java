@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.annotations.Nullable;
+import li.pitschmann.knx.core.utils.Strings;
+
+import java.time.Instant;
+
+/**
+ * Immutable estimated bus load of KNX TP1 line; all loads are in percent
+ * of the TP1 bus capacity (9600 bit/s)
+ */
+public final class BusLoad {
+    private final double current;
+    private final double oneMinute;
+    private final double fiveMinutes;
+    private final double fifteenMinutes;
+    private final double peak;
+    private final Instant peakTime;
+    private final double threshold;
+    private final long secondsAboveThreshold;
+    private final boolean alert;
+
+    BusLoad(final double current, final double oneMinute, final double fiveMinutes, final double fifteenMinutes,
+            final double peak, final @Nullable Instant peakTime,
+            final double threshold, final long secondsAboveThreshold, final boolean alert) {
+        this.current = current;
+        this.oneMinute = oneMinute;
+        this.fiveMinutes = fiveMinutes;
+        this.fifteenMinutes = fifteenMinutes;
+        this.peak = peak;
+        this.peakTime = peakTime;
+        this.threshold = threshold;
+        this.secondsAboveThreshold = secondsAboveThreshold;
+        this.alert = alert;
+    }
+
+    /**
+     * Returns the bus load of last completed second
+     *
+     * @return bus load in percent
+     */
+    public double getCurrent() {
+        return current;
+    }
+
+    /**
+     * Returns the average bus load of last minute (sliding window)
+     *
+     * @return bus load in percent
+     */
+    public double getOneMinute() {
+        return oneMinute;
+    }
+
+    /**
+     * Returns the average bus load of last 5 minutes (sliding window)
+     *
+     * @return bus load in percent
+     */
+    public double getFiveMinutes() {
+        return fiveMinutes;
+    }
+
+    /**
+     * Returns the average bus load of last 15 minutes (sliding window)
+     *
+     * @return bus load in percent
+     */
+    public double getFifteenMinutes() {
+        return fifteenMinutes;
+    }
+
+    /**
+     * Returns the highest bus load of a single second since start
+     *
+     * @return bus load in percent
+     */
+    public double getPeak() {
+        return peak;
+    }
+
+    /**
+     * Returns the start of second when the peak bus load has been observed
+     *
+     * @return time of peak, or {@code null} if no frame has been observed yet
+     */
+    @Nullable
+    public Instant getPeakTime() {
+        return peakTime;
+    }
+
+    /**
+     * Returns the alert threshold
+     *
+     * @return threshold in percent
+     */
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Returns the number of seconds since start with a bus load above the threshold
+     *
+     * @return number of seconds
+     */
+    public long getSecondsAboveThreshold() {
+        return secondsAboveThreshold;
+    }
+
+    /**
+     * Returns if the average bus load of last minute is above the threshold
+     *
+     * @return {@code true} if alerted, otherwise {@code false}
+     */
+    public boolean isAlert() {
+        return alert;
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("current", current)
+                .add("oneMinute", oneMinute)
+                .add("fiveMinutes", fiveMinutes)
+                .add("fifteenMinutes", fifteenMinutes)
+                .add("peak", peak)
+                .add("peakTime", peakTime)
+                .add("threshold", threshold)
+                .add("secondsAboveThreshold", secondsAboveThreshold)
+                .add("alert", alert)
+                .toString();
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.body.Body;
+import li.pitschmann.knx.core.body.RoutingIndicationBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.cemi.CEMI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.function.LongSupplier;
+
+/**
+ * Estimates the bus load of KNX TP1 line based on the frames observed by KNX client
+ * <p>
+ * The bus time of every frame is estimated using the TP1 timing model: the bus is
+ * idle for 50 bit times before a frame, every character takes 13 bit times (start bit,
+ * 8 data bits, parity bit, stop bit and 2 bit times pause), and the frame is acknowledged
+ * with a single character after a pause of 15 bit times. At 9600 baud a short frame
+ * (e.g. switching a light) therefore occupies the bus for about 20 milliseconds.
+ * <p>
+ * The bit times are summed up per second in a ring buffer covering the last 15 minutes,
+ * which is used for the sliding window averages. The peak of a single second and the
+ * number of seconds above the threshold are tracked when a second is completed.
+ * <p>
+ * Frames that are sent via tunneling are confirmed by the KNX Net/IP device with an
+ * incoming {@link TunnelingRequestBody} (L_Data.con) when they have been sent on the bus.
+ * Therefore only incoming tunneling requests are taken into account, otherwise outgoing
+ * frames would be counted twice. Routing indications are taken into account in both
+ * directions.
+ */
+public final class BusLoadEstimator {
+    /**
+     * Default threshold for alert in percent
+     */
+    public static final double DEFAULT_THRESHOLD = 50d;
+    private static final Logger log = LoggerFactory.getLogger(BusLoadEstimator.class);
+    private static final int BITS_PER_SECOND = 9600;
+    private static final int BIT_TIMES_PER_CHARACTER = 13;
+    // 50 bit times idle before frame, 15 bit times pause before acknowledge and acknowledge character
+    private static final int FRAME_OVERHEAD_BIT_TIMES = 50 + 15 + BIT_TIMES_PER_CHARACTER;
+    // cEMI frame has message code, additional info length and 2nd control field; TP1 frame has checksum
+    private static final int CEMI_OVERHEAD_BYTES = 2;
+    // smallest TP1 frame: control, source, destination, length, TPCI/APCI and checksum
+    private static final int MIN_FRAME_CHARACTERS = 8;
+    private static final int WINDOW_SECONDS = 15 * 60;
+    // completed seconds of window and the current second
+    private static final int SLOTS = WINDOW_SECONDS + 1;
+    private final long[] bitTimesPerSecond = new long[SLOTS];
+    private volatile double threshold;
+    private final LongSupplier clock;
+    private final long startSecond;
+    private long currentSecond;
+    private double peak;
+    private long peakSecond = -1;
+    private long secondsAboveThreshold;
+    private boolean alert;
+
+    public BusLoadEstimator() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a new estimator
+     *
+     * @param threshold threshold in percent for alert
+     */
+    public BusLoadEstimator(final double threshold) {
+        this(threshold, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a new estimator (for testing purposes)
+     *
+     * @param threshold threshold in percent for alert
+     * @param clock     supplier of epoch milliseconds
+     */
+    BusLoadEstimator(final double threshold, final LongSupplier clock) {
+        this.threshold = threshold;
+        this.clock = clock;
+        this.startSecond = currentSecond();
+        this.currentSecond = startSecond;
+    }
+
+    /**
+     * Sets the threshold for alert
+     *
+     * @param threshold threshold in percent for alert
+     */
+    public void setThreshold(final double threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns the estimated bus time of a TP1 frame
+     *
+     * @param cemi the frame
+     * @return bus time in bit times (1 bit time = 1/9600 second)
+     */
+    public static long bitTimes(final CEMI cemi) {
+        final var characters = Math.max(MIN_FRAME_CHARACTERS, cemi.toByteArray().length - CEMI_OVERHEAD_BYTES);
+        return FRAME_OVERHEAD_BIT_TIMES + (long) characters * BIT_TIMES_PER_CHARACTER;
+    }
+
+    /**
+     * Notifies about an incoming {@link Body}
+     *
+     * @param body the body received by KNX client
+     */
+    public void onIncomingBody(final Body body) {
+        if (body instanceof TunnelingRequestBody) {
+            record(((TunnelingRequestBody) body).getCEMI());
+        } else if (body instanceof RoutingIndicationBody) {
+            record(((RoutingIndicationBody) body).getCEMI());
+        }
+    }
+
+    /**
+     * Notifies about an outgoing {@link Body}
+     *
+     * @param body the body sent by KNX client
+     */
+    public void onOutgoingBody(final Body body) {
+        // outgoing tunneling requests are counted by their confirmation
+        if (body instanceof RoutingIndicationBody) {
+            record(((RoutingIndicationBody) body).getCEMI());
+        }
+    }
+
+    /**
+     * Records the frame on the bus
+     *
+     * @param cemi the frame
+     */
+    public synchronized void record(final CEMI cemi) {
+        advance();
+        bitTimesPerSecond[index(currentSecond)] += bitTimes(cemi);
+    }
+
+    /**
+     * Returns the current estimated bus load
+     *
+     * @return bus load
+     */
+    public synchronized BusLoad getBusLoad() {
+        advance();
+        return new BusLoad(
+                currentSecond > startSecond ? load(bitTimesPerSecond[index(currentSecond - 1)], 1) : 0d,
+                average(60),
+                average(5 * 60),
+                average(WINDOW_SECONDS),
+                peak,
+                peakSecond < 0 ? null : Instant.ofEpochSecond(peakSecond),
+                threshold,
+                secondsAboveThreshold,
+                alert
+        );
+    }
+
+    /**
+     * Moves to the current second. The seconds passed in between are completed
+     * and their slots are cleared for re-use.
+     */
+    private void advance() {
+        final var now = currentSecond();
+        if (now <= currentSecond) {
+            return;
+        }
+        complete(currentSecond);
+        final var from = Math.max(currentSecond + 1, now - SLOTS + 1);
+        for (long second = from; second <= now; second++) {
+            bitTimesPerSecond[index(second)] = 0;
+        }
+        currentSecond = now;
+        updateAlert();
+    }
+
+    /**
+     * Updates the peak and the number of seconds above threshold with a completed second
+     */
+    private void complete(final long second) {
+        final var load = load(bitTimesPerSecond[index(second)], 1);
+        if (load > peak) {
+            peak = load;
+            peakSecond = second;
+        }
+        if (load > threshold) {
+            secondsAboveThreshold++;
+        }
+    }
+
+    private void updateAlert() {
+        final var oneMinute = average(60);
+        if (!alert && oneMinute > threshold) {
+            alert = true;
+            log.warn("Bus load of last minute is above threshold: {}% > {}%", String.format("%.2f", oneMinute), threshold);
+        } else if (alert && oneMinute <= threshold) {
+            alert = false;
+            log.info("Bus load of last minute is below threshold again: {}% <= {}%", String.format("%.2f", oneMinute), threshold);
+        }
+    }
+
+    /**
+     * Returns the average bus load of completed seconds within the window
+     */
+    private double average(final int windowSeconds) {
+        final var seconds = (int) Math.min(windowSeconds, currentSecond - startSecond);
+        if (seconds <= 0) {
+            return 0d;
+        }
+        long bitTimes = 0;
+        for (int i = 1; i <= seconds; i++) {
+            bitTimes += bitTimesPerSecond[index(currentSecond - i)];
+        }
+        return load(bitTimes, seconds);
+    }
+
+    private static double load(final long bitTimes, final int seconds) {
+        return bitTimes * 100d / ((long) BITS_PER_SECOND * seconds);
+    }
+
+    private long currentSecond() {
+        return Math.floorDiv(clock.getAsLong(), 1000L);
+    }
+
+    private static int index(final long second) {
+        return (int) Math.floorMod(second, SLOTS);
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Codec of columns for the {@link FileStatisticFormat#COLUMNAR} format
+ * <p>
+ * The values of a column are bit-packed as described for time series in Facebook's
+ * Gorilla paper: integer values (e.g. time and counters) using delta-of-delta encoding,
+ * floating point values using XOR with the previous value. A counter that does not
+ * change or a time series with a constant interval takes only one bit per value.
+ *
+ * @author PITSCHR
+ */
+final class ColumnarCodec {
+    /**
+     * Magic number at the beginning of each block: "KNXC"
+     */
+    static final int MAGIC = 0x4B4E5843;
+    /**
+     * Version of block format
+     */
+    static final byte VERSION = 1;
+    /**
+     * Type of column with integer values
+     */
+    static final byte TYPE_LONG = 0;
+    /**
+     * Type of column with floating point values
+     */
+    static final byte TYPE_DOUBLE = 1;
+    /**
+     * Type of column with same integer value for all rows, data contains the value only
+     */
+    static final byte TYPE_LONG_CONSTANT = 2;
+
+    private ColumnarCodec() {
+        // private-constructor
+    }
+
+    /**
+     * Returns if all integer values are same
+     *
+     * @param values the values to be checked
+     * @param size   the number of values to be checked
+     * @return {@code true} if all values are same
+     */
+    static boolean isConstant(final long[] values, final int size) {
+        for (int i = 1; i < size; i++) {
+            if (values[i] != values[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes the integer values using delta-of-delta encoding
+     * <p>
+     * The first value is written with 64 bits, then the difference of delta to the previous
+     * delta with a variable-length prefix: {@code 0} for no difference, {@code 10} + 7 bits,
+     * {@code 110} + 9 bits, {@code 1110} + 12 bits and {@code 1111} + 64 bits.
+     *
+     * @param values the values to be encoded
+     * @param size   the number of values to be encoded
+     * @return encoded bytes
+     */
+    static byte[] encodeLongs(final long[] values, final int size) {
+        final var out = new BitWriter();
+        var previous = 0L;
+        var previousDelta = 0L;
+        for (int i = 0; i < size; i++) {
+            if (i == 0) {
+                out.write(values[0], 64);
+            } else {
+                final var delta = values[i] - previous;
+                final var deltaOfDelta = delta - previousDelta;
+                if (deltaOfDelta == 0) {
+                    out.write(0b0, 1);
+                } else if (fits(deltaOfDelta, 7)) {
+                    out.write(0b10, 2);
+                    out.write(deltaOfDelta, 7);
+                } else if (fits(deltaOfDelta, 9)) {
+                    out.write(0b110, 3);
+                    out.write(deltaOfDelta, 9);
+                } else if (fits(deltaOfDelta, 12)) {
+                    out.write(0b1110, 4);
+                    out.write(deltaOfDelta, 12);
+                } else {
+                    out.write(0b1111, 4);
+                    out.write(deltaOfDelta, 64);
+                }
+                previousDelta = delta;
+            }
+            previous = values[i];
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes the integer values encoded by {@link #encodeLongs(long[], int)}
+     *
+     * @param buffer the buffer, starting at the current position
+     * @param size   the number of values to be decoded
+     * @return decoded values
+     */
+    static long[] decodeLongs(final ByteBuffer buffer, final int size) {
+        final var in = new BitReader(buffer);
+        final var values = new long[size];
+        var previous = 0L;
+        var previousDelta = 0L;
+        for (int i = 0; i < size; i++) {
+            if (i == 0) {
+                previous = in.read(64);
+            } else {
+                final long deltaOfDelta;
+                if (in.read(1) == 0) {
+                    deltaOfDelta = 0;
+                } else if (in.read(1) == 0) {
+                    deltaOfDelta = signExtend(in.read(7), 7);
+                } else if (in.read(1) == 0) {
+                    deltaOfDelta = signExtend(in.read(9), 9);
+                } else if (in.read(1) == 0) {
+                    deltaOfDelta = signExtend(in.read(12), 12);
+                } else {
+                    deltaOfDelta = in.read(64);
+                }
+                previousDelta += deltaOfDelta;
+                previous += previousDelta;
+            }
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    /**
+     * Encodes the floating point values using XOR with the previous value
+     * <p>
+     * The first value is written with 64 bits, then {@code 0} if the value is same as previous,
+     * {@code 10} + meaningful bits if the XOR fits into the window of leading and trailing zeros
+     * of previous XOR, otherwise {@code 11} + 5 bits for the number of leading zeros + 6 bits
+     * for the number of meaningful bits + meaningful bits.
+     *
+     * @param values the values to be encoded
+     * @param size   the number of values to be encoded
+     * @return encoded bytes
+     */
+    static byte[] encodeDoubles(final double[] values, final int size) {
+        final var out = new BitWriter();
+        var previous = 0L;
+        var previousLeading = -1;
+        var previousTrailing = 0;
+        for (int i = 0; i < size; i++) {
+            final var bits = Double.doubleToRawLongBits(values[i]);
+            if (i == 0) {
+                out.write(bits, 64);
+            } else {
+                final var xor = bits ^ previous;
+                if (xor == 0) {
+                    out.write(0b0, 1);
+                } else {
+                    final var leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+                    final var trailing = Long.numberOfTrailingZeros(xor);
+                    if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                        out.write(0b10, 2);
+                        out.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+                    } else {
+                        final var meaningful = 64 - leading - trailing;
+                        out.write(0b11, 2);
+                        out.write(leading, 5);
+                        out.write(meaningful - 1, 6);
+                        out.write(xor >>> trailing, meaningful);
+                        previousLeading = leading;
+                        previousTrailing = trailing;
+                    }
+                }
+            }
+            previous = bits;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes the floating point values encoded by {@link #encodeDoubles(double[], int)}
+     *
+     * @param buffer the buffer, starting at the current position
+     * @param size   the number of values to be decoded
+     * @return decoded values
+     */
+    static double[] decodeDoubles(final ByteBuffer buffer, final int size) {
+        final var in = new BitReader(buffer);
+        final var values = new double[size];
+        var previous = 0L;
+        var leading = 0;
+        var trailing = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0) {
+                previous = in.read(64);
+            } else if (in.read(1) == 1) {
+                if (in.read(1) == 1) {
+                    leading = (int) in.read(5);
+                    final var meaningful = (int) in.read(6) + 1;
+                    trailing = 64 - leading - meaningful;
+                }
+                previous ^= in.read(64 - leading - trailing) << trailing;
+            }
+            values[i] = Double.longBitsToDouble(previous);
+        }
+        return values;
+    }
+
+    /**
+     * Returns if the signed {@code value} fits into given number of {@code bits}
+     */
+    private static boolean fits(final long value, final int bits) {
+        return value >= -(1L << (bits - 1)) && value < (1L << (bits - 1));
+    }
+
+    /**
+     * Returns the signed value of the lowest {@code bits} of {@code value}
+     */
+    private static long signExtend(final long value, final int bits) {
+        return (value << (64 - bits)) >> (64 - bits);
+    }
+
+    /**
+     * Writes bits (most significant bit first) to a growing byte array
+     */
+    private static final class BitWriter {
+        private byte[] bytes = new byte[64];
+        private int size;
+        private int current;
+        private int used;
+
+        /**
+         * Writes the lowest {@code bits} of {@code value}
+         */
+        private void write(final long value, final int bits) {
+            var remaining = bits;
+            while (remaining > 0) {
+                final var free = 8 - used;
+                final var n = Math.min(free, remaining);
+                final var chunk = (int) (value >>> (remaining - n)) & ((1 << n) - 1);
+                current |= chunk << (free - n);
+                used += n;
+                remaining -= n;
+                if (used == 8) {
+                    append(current);
+                    current = 0;
+                    used = 0;
+                }
+            }
+        }
+
+        private void append(final int b) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte) b;
+        }
+
+        private byte[] toByteArray() {
+            final var result = Arrays.copyOf(bytes, size + (used > 0 ? 1 : 0));
+            if (used > 0) {
+                result[size] = (byte) current;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Reads bits (most significant bit first) from a byte buffer
+     */
+    private static final class BitReader {
+        private final ByteBuffer buffer;
+        private int current;
+        private int available;
+
+        private BitReader(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Reads {@code bits} bits as unsigned value
+         */
+        private long read(final int bits) {
+            var result = 0L;
+            var remaining = bits;
+            while (remaining > 0) {
+                if (available == 0) {
+                    current = buffer.get() & 0xFF;
+                    available = 8;
+                }
+                final var n = Math.min(available, remaining);
+                result = (result << n) | ((current >>> (available - n)) & ((1 << n) - 1));
+                available -= n;
+                remaining -= n;
+            }
+            return result;
+        }
+    }
+}
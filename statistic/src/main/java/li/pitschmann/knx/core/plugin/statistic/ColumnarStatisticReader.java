@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Reader of statistic files in {@link FileStatisticFormat#COLUMNAR} format
+ * <p>
+ * Only the blocks within the requested time range and only the requested columns
+ * are decoded; the other blocks and columns are skipped. Blocks with an invalid
+ * checksum (e.g. torn write) are skipped as well.
+ * <p>
+ * Available columns are {@code time} (epoch milliseconds, always read), the cumulative
+ * counters {@code inbound.packets}, {@code inbound.bytes}, {@code outbound.packets},
+ * {@code outbound.bytes}, {@code error.packets}, per body type and direction (e.g.
+ * {@code inbound.TunnelingRequestBody}) and the {@code error.rate} in percent (rounded to two decimals).
+ * <p>
+ * Example to get the number of packets received in January:
+ * <pre>{@code
+ * final var table = ColumnarStatisticReader.read(Paths.get("knx-statistic.log"),
+ *         Instant.parse("2021-01-01T00:00:00Z"), Instant.parse("2021-02-01T00:00:00Z"), "inbound.packets");
+ * final var packets = table.getColumn("inbound.packets");
+ * final var received = packets[packets.length - 1] - packets[0];
+ * }</pre>
+ *
+ * @author PITSCHR
+ */
+public final class ColumnarStatisticReader {
+    /**
+     * Name of the time column (epoch milliseconds)
+     */
+    public static final String TIME = "time";
+    private static final Logger log = LoggerFactory.getLogger(ColumnarStatisticReader.class);
+
+    private ColumnarStatisticReader() {
+        // private-constructor
+    }
+
+    /**
+     * Reads the requested {@code columns} of rows within time range from a statistic file
+     *
+     * @param path    the path of statistic file
+     * @param from    the start of time range (inclusive)
+     * @param to      the end of time range (exclusive)
+     * @param columns the names of columns to be read
+     * @return table with rows in order of file
+     * @throws IOException if the file could not be read
+     */
+    public static StatisticTable read(final Path path, final Instant from, final Instant to, final String... columns) throws IOException {
+        return read(List.of(path), from, to, columns);
+    }
+
+    /**
+     * Reads the requested {@code columns} of rows within time range from statistic files
+     * (e.g. the daily rolled statistic files in chronological order)
+     *
+     * @param paths   the paths of statistic files
+     * @param from    the start of time range (inclusive)
+     * @param to      the end of time range (exclusive)
+     * @param columns the names of columns to be read
+     * @return table with rows in order of files
+     * @throws IOException if a file could not be read
+     */
+    public static StatisticTable read(final List<Path> paths, final Instant from, final Instant to, final String... columns) throws IOException {
+        Objects.requireNonNull(from);
+        Objects.requireNonNull(to);
+        final var builder = new TableBuilder(columns);
+        for (final var path : paths) {
+            try (final var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                final var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                readBlocks(path, buffer, from.toEpochMilli(), to.toEpochMilli(), builder);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reads all blocks of buffer. If the block is invalid, the next block is searched
+     * by its magic number.
+     */
+    private static void readBlocks(final Path path, final ByteBuffer buffer, final long fromMillis, final long toMillis,
+                                   final TableBuilder builder) {
+        final var limit = buffer.limit();
+        var position = 0;
+        var invalid = false;
+        while (position + 8 <= limit) {
+            if (buffer.getInt(position) == ColumnarCodec.MAGIC) {
+                final var length = buffer.getInt(position + 4);
+                final var end = position + 8L + length;
+                if (length > 8 && end <= limit && isValidChecksum(buffer, position + 8, (int) end)) {
+                    readBlock(slice(buffer, position + 8, length - 8), fromMillis, toMillis, builder);
+                    position = (int) end;
+                    continue;
+                }
+            }
+            if (!invalid) {
+                log.warn("Invalid block in statistic file '{}' at position {}, searching for next block", path, position);
+                invalid = true;
+            }
+            position++;
+        }
+    }
+
+    private static boolean isValidChecksum(final ByteBuffer buffer, final int start, final int end) {
+        final var crc = new CRC32();
+        crc.update(slice(buffer, start, end - start - 8));
+        return crc.getValue() == buffer.getLong(end - 8);
+    }
+
+    private static void readBlock(final ByteBuffer body, final long fromMillis, final long toMillis, final TableBuilder builder) {
+        if (body.get() != ColumnarCodec.VERSION) {
+            return;
+        }
+        final var rows = body.getInt();
+        final var firstTime = body.getLong();
+        final var lastTime = body.getLong();
+        if (lastTime < fromMillis || firstTime >= toMillis) {
+            return;
+        }
+
+        final var numberOfColumns = body.getShort();
+        long[] times = null;
+        final var values = new double[builder.columns.length][];
+        for (int c = 0; c < numberOfColumns; c++) {
+            final var nameBytes = new byte[body.getShort()];
+            body.get(nameBytes);
+            final var name = new String(nameBytes, StandardCharsets.UTF_8);
+            final var type = body.get();
+            final var length = body.getInt();
+            final var data = slice(body, body.position(), length);
+            body.position(body.position() + length);
+
+            if (TIME.equals(name)) {
+                times = ColumnarCodec.decodeLongs(data, rows);
+            } else {
+                final var index = builder.indexOf(name);
+                if (index >= 0) {
+                    values[index] = decodeColumn(type, data, rows);
+                }
+            }
+        }
+
+        if (times != null) {
+            for (int row = 0; row < rows; row++) {
+                if (times[row] >= fromMillis && times[row] < toMillis) {
+                    builder.addRow(times[row], values, row);
+                }
+            }
+        }
+    }
+
+    private static double[] decodeColumn(final byte type, final ByteBuffer data, final int rows) {
+        switch (type) {
+            case ColumnarCodec.TYPE_LONG:
+                return toDoubles(ColumnarCodec.decodeLongs(data, rows));
+            case ColumnarCodec.TYPE_DOUBLE:
+                return ColumnarCodec.decodeDoubles(data, rows);
+            case ColumnarCodec.TYPE_LONG_CONSTANT:
+                final var values = new double[rows];
+                Arrays.fill(values, data.getLong());
+                return values;
+            default:
+                // unknown type
+                return null;
+        }
+    }
+
+    private static double[] toDoubles(final long[] longs) {
+        final var doubles = new double[longs.length];
+        for (int i = 0; i < longs.length; i++) {
+            doubles[i] = longs[i];
+        }
+        return doubles;
+    }
+
+    private static ByteBuffer slice(final ByteBuffer buffer, final int position, final int length) {
+        return buffer.duplicate().position(position).limit(position + length).slice();
+    }
+
+    /**
+     * Builder of {@link StatisticTable} with growing arrays
+     */
+    private static final class TableBuilder {
+        private final String[] columns;
+        private long[] times = new long[1024];
+        private double[][] values;
+        private int size;
+
+        private TableBuilder(final String[] columns) {
+            this.columns = columns.clone();
+            this.values = new double[columns.length][times.length];
+        }
+
+        private int indexOf(final String column) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equals(column)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Adds a row, the value of columns which are not in the block are {@link Double#NaN}
+         */
+        private void addRow(final long time, final double[][] blockValues, final int row) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = Arrays.copyOf(values[i], size * 2);
+                }
+            }
+            times[size] = time;
+            for (int i = 0; i < values.length; i++) {
+                values[i][size] = blockValues[i] == null ? Double.NaN : blockValues[i][row];
+            }
+            size++;
+        }
+
+        private StatisticTable build() {
+            final var trimmed = new double[values.length][];
+            for (int i = 0; i < values.length; i++) {
+                trimmed[i] = Arrays.copyOf(values[i], size);
+            }
+            return new StatisticTable(Arrays.copyOf(times, size), columns, trimmed);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Writer of statistic in {@link FileStatisticFormat#COLUMNAR} format
+ * <p>
+ * The rows are collected in memory and written as one block when the block is full,
+ * at the end of the day (the statistic file is rolled daily) or when flushed on shutdown.
+ * The rows are guarded by the lock of output stream, therefore the pending rows can be
+ * flushed by the rotating file output stream right before the file is rotated.
+ * Every block is self-contained, so blocks can be appended to an existing file.
+ * <pre>
+ * Block:  magic (4 bytes), length of block after this field (4 bytes), body, CRC-32 of body (8 bytes)
+ * Body:   version (1 byte), number of rows (4 bytes), first and last time in epoch milliseconds
+ *         (8 bytes each), number of columns (2 bytes), columns
+ * Column: length of name (2 bytes), name (UTF-8), type (1 byte), length of data (4 bytes), data
+ *         (see {@link ColumnarCodec}, or the value only if the value is same for all rows)
+ * </pre>
+ * The columns are {@code time} (epoch milliseconds), the cumulative counters of
+ * {@link StatisticSnapshot} and {@code error.rate} (rounded to two decimals), see {@link #COLUMN_NAMES}.
+ *
+ * @author PITSCHR
+ */
+final class ColumnarStatisticWriter {
+    /**
+     * Maximum number of rows per block (e.g. 2 hours with 10 seconds interval)
+     */
+    static final int MAX_ROWS_PER_BLOCK = 720;
+    /**
+     * Names of columns in the order of block
+     */
+    static final List<String> COLUMN_NAMES;
+
+    static {
+        final var names = new String[StatisticSnapshot.NUMBER_OF_COUNTERS + 2];
+        names[0] = ColumnarStatisticReader.TIME;
+        names[1 + StatisticSnapshot.INBOUND_PACKETS] = "inbound.packets";
+        names[1 + StatisticSnapshot.INBOUND_BYTES] = "inbound.bytes";
+        names[1 + StatisticSnapshot.OUTBOUND_PACKETS] = "outbound.packets";
+        names[1 + StatisticSnapshot.OUTBOUND_BYTES] = "outbound.bytes";
+        names[1 + StatisticSnapshot.ERRORS] = "error.packets";
+        for (final var bodyClass : StatisticSnapshot.BODY_CLASSES) {
+            names[1 + StatisticSnapshot.receivedIndex(bodyClass)] = "inbound." + bodyClass.getSimpleName();
+            names[1 + StatisticSnapshot.sentIndex(bodyClass)] = "outbound." + bodyClass.getSimpleName();
+        }
+        names[names.length - 1] = "error.rate";
+        COLUMN_NAMES = List.of(names);
+    }
+
+    private final OutputStream out;
+    private final ZoneId zoneId;
+    private final long[] times = new long[MAX_ROWS_PER_BLOCK];
+    private final long[][] counters = new long[StatisticSnapshot.NUMBER_OF_COUNTERS][MAX_ROWS_PER_BLOCK];
+    private final double[] errorRates = new double[MAX_ROWS_PER_BLOCK];
+    private int rows;
+
+    ColumnarStatisticWriter(final OutputStream out) {
+        this(out, ZoneId.systemDefault());
+    }
+
+    ColumnarStatisticWriter(final OutputStream out, final ZoneId zoneId) {
+        this.out = out;
+        this.zoneId = zoneId;
+    }
+
+    /**
+     * Appends a row with the counters of {@code snapshot}
+     *
+     * @param time     the time of statistic
+     * @param snapshot the snapshot of statistic
+     * @throws IOException if the block could not be written
+     */
+    void append(final Instant time, final StatisticSnapshot snapshot) throws IOException {
+        synchronized (out) {
+            final var timeMillis = time.toEpochMilli();
+            // a new day starts with a new block
+            if (rows > 0 && !toDate(times[0]).equals(toDate(timeMillis))) {
+                flush();
+            }
+
+            times[rows] = timeMillis;
+            for (int i = 0; i < counters.length; i++) {
+                counters[i][rows] = snapshot.getCounter(i);
+            }
+            // rounded to two decimals like in the other formats, otherwise error rate is hardly compressible
+            errorRates[rows] = Math.round(snapshot.getErrorRate() * 100d) / 100d;
+            rows++;
+
+            if (rows == MAX_ROWS_PER_BLOCK) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Writes the collected rows as a block, if any
+     *
+     * @throws IOException if the block could not be written
+     */
+    void flush() throws IOException {
+        synchronized (out) {
+            if (rows == 0) {
+                return;
+            }
+            out.write(encodeBlock());
+            out.flush();
+            rows = 0;
+        }
+    }
+
+    /**
+     * Returns the number of rows which are not written yet
+     *
+     * @return number of pending rows
+     */
+    int getPendingRows() {
+        synchronized (out) {
+            return rows;
+        }
+    }
+
+    private LocalDate toDate(final long epochMillis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), zoneId);
+    }
+
+    private byte[] encodeBlock() throws IOException {
+        final var bodyBytes = new ByteArrayOutputStream(1024);
+        final var body = new DataOutputStream(bodyBytes);
+        body.writeByte(ColumnarCodec.VERSION);
+        body.writeInt(rows);
+        body.writeLong(times[0]);
+        body.writeLong(times[rows - 1]);
+        body.writeShort(COLUMN_NAMES.size());
+        writeColumn(body, 0, ColumnarCodec.TYPE_LONG, ColumnarCodec.encodeLongs(times, rows));
+        for (int i = 0; i < counters.length; i++) {
+            // counters of packet types which are not used by KNX client don't change at all
+            if (ColumnarCodec.isConstant(counters[i], rows)) {
+                writeColumn(body, i + 1, ColumnarCodec.TYPE_LONG_CONSTANT, toBytes(counters[i][0]));
+            } else {
+                writeColumn(body, i + 1, ColumnarCodec.TYPE_LONG, ColumnarCodec.encodeLongs(counters[i], rows));
+            }
+        }
+        writeColumn(body, COLUMN_NAMES.size() - 1, ColumnarCodec.TYPE_DOUBLE, ColumnarCodec.encodeDoubles(errorRates, rows));
+
+        final var crc = new CRC32();
+        crc.update(bodyBytes.toByteArray());
+
+        final var blockBytes = new ByteArrayOutputStream(bodyBytes.size() + 16);
+        final var block = new DataOutputStream(blockBytes);
+        block.writeInt(ColumnarCodec.MAGIC);
+        block.writeInt(bodyBytes.size() + 8);
+        bodyBytes.writeTo(block);
+        block.writeLong(crc.getValue());
+        return blockBytes.toByteArray();
+    }
+
+    private static byte[] toBytes(final long value) {
+        return ByteBuffer.allocate(8).putLong(value).array();
+    }
+
+    private static void writeColumn(final DataOutputStream body, final int column, final byte type, final byte[] data) throws IOException {
+        final var name = COLUMN_NAMES.get(column).getBytes(StandardCharsets.UTF_8);
+        body.writeShort(name.length);
+        body.write(name);
+        body.writeByte(type);
+        body.writeInt(data.length);
+        body.write(data);
+    }
+}
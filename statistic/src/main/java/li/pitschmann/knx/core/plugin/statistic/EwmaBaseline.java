@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+/**
+ * Exponentially weighted moving average (EWMA) and variance of a series
+ * <p>
+ * The baseline uses constant memory and is updated incrementally with
+ * every sample. The z-score tells how many standard deviations a value
+ * is away from the baseline.
+ */
+final class EwmaBaseline {
+    private final double alpha;
+    private double mean;
+    private double variance;
+    private long count;
+
+    /**
+     * Creates a new baseline
+     *
+     * @param alpha smoothing factor between 0 (exclusive) and 1 (inclusive), higher values discount older samples faster
+     */
+    EwmaBaseline(final double alpha) {
+        this.alpha = alpha;
+    }
+
+    /**
+     * Updates the baseline with the given value
+     *
+     * @param value the sample
+     */
+    void update(final double value) {
+        if (count == 0) {
+            mean = value;
+        } else {
+            final var diff = value - mean;
+            final var increment = alpha * diff;
+            mean += increment;
+            variance = (1d - alpha) * (variance + diff * increment);
+        }
+        count++;
+    }
+
+    /**
+     * Returns the z-score of given value against the baseline
+     *
+     * @param value     the value to be scored
+     * @param minStdDev the minimum standard deviation, avoids huge z-scores for series without variance
+     * @return z-score
+     */
+    double zScore(final double value, final double minStdDev) {
+        return (value - mean) / Math.max(Math.sqrt(variance), minStdDev);
+    }
+
+    double getMean() {
+        return mean;
+    }
+
+    double getStdDev() {
+        return Math.sqrt(variance);
+    }
+
+    long getCount() {
+        return count;
+    }
+}
@@ -3,7 +3,51 @@ package li.pitschmann.knx.core.plugin.statistic;
 /**
  * Format for {@link FileStatisticPlugin}
  * <p>
- * JSON, TSV and TEXT are supported.
+ * JSON, TSV and TEXT are supported. The COLUMNAR format is a compressed binary format
+ * which is written by {@link ColumnarStatisticWriter} and read by {@link ColumnarStatisticReader}
+ * instead of using templates.
+ * <p>
+ * Arguments of the templates:
+ * <ul>
+ *     <li>{@code %1} date and time in ISO 8601 format</li>
+ *     <li>{@code %2} .. {@code %27} cumulative counters and error rate ({@code %7})</li>
+ *     <li>{@code %28} elapsed seconds since previous statistic</li>
+ *     <li>{@code %29} .. {@code %53} delta of counters since previous statistic</li>
+ *     <li>{@code %54} .. {@code %78} rate of counters per second since previous statistic</li>
+ *     <li>{@code %79} .. {@code %84} load average (1, 5, 15 minutes) of inbound and outbound packets per second</li>
+ *     <li>{@code %85} .. {@code %88} estimated TP1 bus load in percent of last second and average of last 1, 5, 15 minutes</li>
+ *     <li>{@code %89} peak bus load of a single second in percent and {@code %90} date and time of peak</li>
+ *     <li>{@code %91} number of seconds with bus load above threshold and {@code %92} threshold in percent</li>
+ * </ul>
+ * <p>
+ * Arguments of the traffic templates (one line per address, used by {@link TrafficStatisticPlugin}):
+ * <ul>
+ *     <li>{@code %1} date and time in ISO 8601 format</li>
+ *     <li>{@code %2} type of address: {@code group} (destination) or {@code source}</li>
+ *     <li>{@code %3} rank, starting with 1 for the address with most telegrams</li>
+ *     <li>{@code %4} address</li>
+ *     <li>{@code %5} number of telegrams</li>
+ *     <li>{@code %6} number of bytes</li>
+ *     <li>{@code %7} share of telegrams in percent</li>
+ * </ul>
+ * <p>
+ * Arguments of the latency templates (one line per request type, used by {@link LatencyStatisticPlugin}):
+ * <ul>
+ *     <li>{@code %1} date and time in ISO 8601 format</li>
+ *     <li>{@code %2} type of request: {@code tunneling} or {@code connectionState}</li>
+ *     <li>{@code %3} number of round-trips</li>
+ *     <li>{@code %4} number of unanswered requests</li>
+ *     <li>{@code %5} .. {@code %10} minimum, 50th, 90th, 99th, 99.9th percentile and maximum in milliseconds</li>
+ * </ul>
+ * <p>
+ * Arguments of the anomaly templates (one line per event, used by {@link AnomalyDetectionPlugin}):
+ * <ul>
+ *     <li>{@code %1} date and time in ISO 8601 format</li>
+ *     <li>{@code %2} name of series (e.g. {@code inbound.packets}, {@code error.rate})</li>
+ *     <li>{@code %3} observed value</li>
+ *     <li>{@code %4} expected value</li>
+ *     <li>{@code %5} z-score</li>
+ * </ul>
  */
 public enum FileStatisticFormat {
     // @formatter:off
@@ -39,7 +83,107 @@ public enum FileStatisticFormat {
                 "}," +
                 "\"error\":{" +
                     "\"total\":{\"packets\":%6$s,\"rate\":%7$.2f}" +
+                "}," +
+                "\"intervalSeconds\":%28$.3f," +
+                "\"delta\":{" +
+                    "\"inbound\":{" +
+                        "\"total\":{\"packets\":%29$s,\"bytes\":%30$s}," +
+                        "\"search\":{\"request\":%34$s,\"response\":%35$s}," +
+                        "\"description\":{\"request\":0,\"response\":%38$s}," +
+                        "\"connect\":{\"request\":0,\"response\":%40$s}," +
+                        "\"connectionState\":{\"request\":0,\"response\":%42$s}," +
+                        "\"tunneling\":{\"request\":%44$s,\"acknowledge\":%45$s}," +
+                        "\"indication\":{\"request\":0,\"response\":%52$s}," +
+                        "\"disconnect\":{\"request\":%48$s,\"response\":%49$s}" +
+                    "}," +
+                    "\"outbound\":{" +
+                        "\"total\":{\"packets\":%31$s,\"bytes\":%32$s}," +
+                        "\"search\":{\"request\":%36$s,\"response\":%37$s}," +
+                        "\"description\":{\"request\":%39$s,\"response\":0}," +
+                        "\"connect\":{\"request\":%41$s,\"response\":0}," +
+                        "\"connectionState\":{\"request\":%43$s,\"response\":0}," +
+                        "\"tunneling\":{\"request\":%46$s,\"acknowledge\":%47$s}," +
+                        "\"indication\":{\"request\":%53$s,\"response\":0}," +
+                        "\"disconnect\":{\"request\":%50$s,\"response\":%51$s}" +
+                    "}," +
+                    "\"error\":{" +
+                        "\"total\":{\"packets\":%33$s}" +
+                    "}" +
+                "}," +
+                "\"rate\":{" +
+                    "\"inbound\":{" +
+                        "\"total\":{\"packets\":%54$.2f,\"bytes\":%55$.2f}," +
+                        "\"search\":{\"request\":%59$.2f,\"response\":%60$.2f}," +
+                        "\"description\":{\"request\":0,\"response\":%63$.2f}," +
+                        "\"connect\":{\"request\":0,\"response\":%65$.2f}," +
+                        "\"connectionState\":{\"request\":0,\"response\":%67$.2f}," +
+                        "\"tunneling\":{\"request\":%69$.2f,\"acknowledge\":%70$.2f}," +
+                        "\"indication\":{\"request\":0,\"response\":%77$.2f}," +
+                        "\"disconnect\":{\"request\":%73$.2f,\"response\":%74$.2f}" +
+                    "}," +
+                    "\"outbound\":{" +
+                        "\"total\":{\"packets\":%56$.2f,\"bytes\":%57$.2f}," +
+                        "\"search\":{\"request\":%61$.2f,\"response\":%62$.2f}," +
+                        "\"description\":{\"request\":%64$.2f,\"response\":0}," +
+                        "\"connect\":{\"request\":%66$.2f,\"response\":0}," +
+                        "\"connectionState\":{\"request\":%68$.2f,\"response\":0}," +
+                        "\"tunneling\":{\"request\":%71$.2f,\"acknowledge\":%72$.2f}," +
+                        "\"indication\":{\"request\":%78$.2f,\"response\":0}," +
+                        "\"disconnect\":{\"request\":%75$.2f,\"response\":%76$.2f}" +
+                    "}," +
+                    "\"error\":{" +
+                        "\"total\":{\"packets\":%58$.2f}" +
+                    "}" +
+                "}," +
+                "\"load\":{" +
+                    "\"inbound\":{\"1m\":%79$.2f,\"5m\":%80$.2f,\"15m\":%81$.2f}," +
+                    "\"outbound\":{\"1m\":%82$.2f,\"5m\":%83$.2f,\"15m\":%84$.2f}" +
+                "}," +
+                "\"busLoad\":{" +
+                    "\"current\":%85$.2f,\"1m\":%86$.2f,\"5m\":%87$.2f,\"15m\":%88$.2f," +
+                    "\"peak\":%89$.2f,\"peakTime\":\"%90$s\"," +
+                    "\"threshold\":%92$.2f,\"secondsAboveThreshold\":%91$s" +
                 "}" +
+            "}",
+            // Traffic Header
+            "",
+            // Traffic Template
+            "" +
+            "{" +
+                "\"datetime\":\"%1$s\"," +
+                "\"type\":\"%2$s\"," +
+                "\"rank\":%3$s," +
+                "\"address\":\"%4$s\"," +
+                "\"telegrams\":%5$s," +
+                "\"bytes\":%6$s," +
+                "\"share\":%7$.2f" +
+            "}",
+            // Latency Header
+            "",
+            // Latency Template
+            "" +
+            "{" +
+                "\"datetime\":\"%1$s\"," +
+                "\"type\":\"%2$s\"," +
+                "\"count\":%3$s," +
+                "\"unanswered\":%4$s," +
+                "\"min\":%5$.3f," +
+                "\"p50\":%6$.3f," +
+                "\"p90\":%7$.3f," +
+                "\"p99\":%8$.3f," +
+                "\"p999\":%9$.3f," +
+                "\"max\":%10$.3f" +
+            "}",
+            // Anomaly Header
+            "",
+            // Anomaly Template
+            "" +
+            "{" +
+                "\"datetime\":\"%1$s\"," +
+                "\"series\":\"%2$s\"," +
+                "\"value\":%3$.2f," +
+                "\"expected\":%4$.2f," +
+                "\"zScore\":%5$.2f" +
             "}"
     ),
     /**
@@ -67,7 +211,47 @@ public enum FileStatisticFormat {
             "Outbound Connection State Requests\tOutbound Connection State Responses\t" +
             "Outbound Disconnect Requests\tOutbound Disconnect Responses\t" +
             "Outbound Tunneling Requests\tOutbound Tunneling Acknowledges\t" +
-            "Outbound Indication Requests\tOutbound Indication Responses",
+            "Outbound Indication Requests\tOutbound Indication Responses\t" +
+
+            "Interval (s)\t" +
+            "Inbound Packets (Delta)\tInbound Bytes (Delta)\t" +
+            "Outbound Packets (Delta)\tOutbound Bytes (Delta)\t" +
+            "Error Packets (Delta)\t" +
+            "Inbound Search Requests (Delta)\tInbound Search Responses (Delta)\t" +
+            "Inbound Description Requests (Delta)\tInbound Description Responses (Delta)\t" +
+            "Inbound Connect Requests (Delta)\tInbound Connect Responses (Delta)\t" +
+            "Inbound Connection State Requests (Delta)\tInbound Connection State Responses (Delta)\t" +
+            "Inbound Disconnect Requests (Delta)\tInbound Disconnect Responses (Delta)\t" +
+            "Inbound Tunneling Requests (Delta)\tInbound Tunneling Acknowledges (Delta)\t" +
+            "Inbound Indication Requests (Delta)\tInbound Indication Responses (Delta)\t" +
+            "Outbound Search Requests (Delta)\tOutbound Search Responses (Delta)\t" +
+            "Outbound Description Requests (Delta)\tOutbound Description Responses (Delta)\t" +
+            "Outbound Connect Requests (Delta)\tOutbound Connect Responses (Delta)\t" +
+            "Outbound Connection State Requests (Delta)\tOutbound Connection State Responses (Delta)\t" +
+            "Outbound Disconnect Requests (Delta)\tOutbound Disconnect Responses (Delta)\t" +
+            "Outbound Tunneling Requests (Delta)\tOutbound Tunneling Acknowledges (Delta)\t" +
+            "Outbound Indication Requests (Delta)\tOutbound Indication Responses (Delta)\t" +
+            "Inbound Packets (per Second)\tInbound Bytes (per Second)\t" +
+            "Outbound Packets (per Second)\tOutbound Bytes (per Second)\t" +
+            "Error Packets (per Second)\t" +
+            "Inbound Search Requests (per Second)\tInbound Search Responses (per Second)\t" +
+            "Inbound Description Requests (per Second)\tInbound Description Responses (per Second)\t" +
+            "Inbound Connect Requests (per Second)\tInbound Connect Responses (per Second)\t" +
+            "Inbound Connection State Requests (per Second)\tInbound Connection State Responses (per Second)\t" +
+            "Inbound Disconnect Requests (per Second)\tInbound Disconnect Responses (per Second)\t" +
+            "Inbound Tunneling Requests (per Second)\tInbound Tunneling Acknowledges (per Second)\t" +
+            "Inbound Indication Requests (per Second)\tInbound Indication Responses (per Second)\t" +
+            "Outbound Search Requests (per Second)\tOutbound Search Responses (per Second)\t" +
+            "Outbound Description Requests (per Second)\tOutbound Description Responses (per Second)\t" +
+            "Outbound Connect Requests (per Second)\tOutbound Connect Responses (per Second)\t" +
+            "Outbound Connection State Requests (per Second)\tOutbound Connection State Responses (per Second)\t" +
+            "Outbound Disconnect Requests (per Second)\tOutbound Disconnect Responses (per Second)\t" +
+            "Outbound Tunneling Requests (per Second)\tOutbound Tunneling Acknowledges (per Second)\t" +
+            "Outbound Indication Requests (per Second)\tOutbound Indication Responses (per Second)\t" +
+            "Inbound Load 1m\tInbound Load 5m\tInbound Load 15m\t" +
+            "Outbound Load 1m\tOutbound Load 5m\tOutbound Load 15m\t" +
+            "Bus Load (%)\tBus Load 1m (%)\tBus Load 5m (%)\tBus Load 15m (%)\t" +
+            "Bus Load Peak (%)\tBus Load Peak Time\tSeconds above Threshold\tBus Load Threshold (%)",
 
             // Body Template
             "" +
@@ -88,7 +272,61 @@ public enum FileStatisticFormat {
             "%17$s\t0\t" +         // outbound connectionState
             "%24$s\t%25$s\t" +     // outbound disconnect
             "%20$s\t%21$s\t" +     // outbound tunneling
-            "%27$s\t0"             // outbound indication
+            "%27$s\t0\t" +         // outbound indication
+            "%28$.3f\t" +                   // interval in seconds
+            "%29$s\t%30$s\t" +              // inbound total (delta)
+            "%31$s\t%32$s\t" +              // outbound total (delta)
+            "%33$s\t" +                     // error total (delta)
+            "%34$s\t%35$s\t" +              // inbound search (delta)
+            "0\t%38$s\t" +                  // inbound description (delta)
+            "0\t%40$s\t" +                  // inbound connect (delta)
+            "0\t%42$s\t" +                  // inbound connectionState (delta)
+            "%48$s\t%49$s\t" +              // inbound disconnect (delta)
+            "%44$s\t%45$s\t" +              // inbound tunneling (delta)
+            "0\t%52$s\t" +                  // inbound indication (delta)
+            "%36$s\t%37$s\t" +              // outbound search (delta)
+            "%39$s\t0\t" +                  // outbound description (delta)
+            "%41$s\t0\t" +                  // outbound connect (delta)
+            "%43$s\t0\t" +                  // outbound connectionState (delta)
+            "%50$s\t%51$s\t" +              // outbound disconnect (delta)
+            "%46$s\t%47$s\t" +              // outbound tunneling (delta)
+            "%53$s\t0\t" +                  // outbound indication (delta)
+            "%54$.2f\t%55$.2f\t" +          // inbound total (per second)
+            "%56$.2f\t%57$.2f\t" +          // outbound total (per second)
+            "%58$.2f\t" +                   // error total (per second)
+            "%59$.2f\t%60$.2f\t" +          // inbound search (per second)
+            "0\t%63$.2f\t" +                // inbound description (per second)
+            "0\t%65$.2f\t" +                // inbound connect (per second)
+            "0\t%67$.2f\t" +                // inbound connectionState (per second)
+            "%73$.2f\t%74$.2f\t" +          // inbound disconnect (per second)
+            "%69$.2f\t%70$.2f\t" +          // inbound tunneling (per second)
+            "0\t%77$.2f\t" +                // inbound indication (per second)
+            "%61$.2f\t%62$.2f\t" +          // outbound search (per second)
+            "%64$.2f\t0\t" +                // outbound description (per second)
+            "%66$.2f\t0\t" +                // outbound connect (per second)
+            "%68$.2f\t0\t" +                // outbound connectionState (per second)
+            "%75$.2f\t%76$.2f\t" +          // outbound disconnect (per second)
+            "%71$.2f\t%72$.2f\t" +          // outbound tunneling (per second)
+            "%78$.2f\t0\t" +                // outbound indication (per second)
+            "%79$.2f\t%80$.2f\t%81$.2f\t" + // inbound load (1m, 5m, 15m)
+            "%82$.2f\t%83$.2f\t%84$.2f\t" + // outbound load (1m, 5m, 15m)
+            "%85$.2f\t%86$.2f\t%87$.2f\t%88$.2f\t" + // bus load (current, 1m, 5m, 15m)
+            "%89$.2f\t%90$s\t%91$s\t%92$.2f",         // bus load (peak, peak time, seconds above threshold, threshold)
+
+            // Traffic Header
+            "Date & Time\tType\tRank\tAddress\tTelegrams\tBytes\tShare (%)",
+            // Traffic Template
+            "%1$s\t%2$s\t%3$s\t%4$s\t%5$s\t%6$s\t%7$.2f",
+
+            // Latency Header
+            "Date & Time\tType\tCount\tUnanswered\tMin (ms)\tP50 (ms)\tP90 (ms)\tP99 (ms)\tP99.9 (ms)\tMax (ms)",
+            // Latency Template
+            "%1$s\t%2$s\t%3$s\t%4$s\t%5$.3f\t%6$.3f\t%7$.3f\t%8$.3f\t%9$.3f\t%10$.3f",
+
+            // Anomaly Header
+            "Date & Time\tSeries\tValue\tExpected\tZ-Score",
+            // Anomaly Template
+            "%1$s\t%2$s\t%3$.2f\t%4$.2f\t%5$.2f"
     ),
     /**
      * Statistic format should be in TEXT format
@@ -98,34 +336,87 @@ public enum FileStatisticFormat {
             "",
             // Body Template
             "" +
-            "Date & Time: %1$s%n" +                                               // line #1
-            "%2$s packets received (%3$s bytes)%n" +                              // line #2
-            "\t[Search          ] Request: %8$s, Response: %9$s%n" +              // line #3
-            "\t[Description     ] Request: 0, Response: %12$s%n" +                // line #4
-            "\t[Connect         ] Request: 0, Response: %14$s%n" +                // line #5
-            "\t[Connection State] Request: 0, Response: %16$s%n" +                // line #6
-            "\t[Tunneling       ] Request: %18$s, Acknowledge: %19$s%n" +         // line #7
-            "\t[Indication      ] Request: 0, Response: %26$s%n" +                // line #8
-            "\t[Disconnect      ] Request: %22$s, Response: %23$s%n" +            // line #9
-            "%4$s packets sent (%5$s bytes)%n" +                                  // line #10
-            "\t[Search          ] Request: %10$s, Response: %11$s%n" +            // line #11
-            "\t[Description     ] Request: %13$s, Response: 0%n" +                // line #12
-            "\t[Connect         ] Request: %15$s, Response: 0%n" +                // line #13
-            "\t[Connection State] Request: %17$s, Response: 0%n" +                // line #14
-            "\t[Tunneling       ] Request: %20$s, Acknowledge: %21$s%n" +         // line #15
-            "\t[Indication      ] Request: %27$s, Response: 0%n" +                // line #16
-            "\t[Disconnect      ] Request: %24$s, Response: %25$s%n" +            // line #17
-            "%6$s errors (%7$.2f%%)%n" +                                          // line #18
-            "-----------------------------------------------------------------"   // line #19
+            "Date & Time: %1$s (Interval: %28$.3f s)%n" +                                                                    // line #1
+            "%2$s packets received (%3$s bytes), +%29$s packets (%54$.2f/s), +%30$s bytes (%55$.2f/s)%n" +                   // line #2
+            "\t[Search          ] Request: %8$s (+%34$s, %59$.2f/s), Response: %9$s (+%35$s, %60$.2f/s)%n" +                 // line #3
+            "\t[Description     ] Request: 0 (+0, 0.00/s), Response: %12$s (+%38$s, %63$.2f/s)%n" +                          // line #4
+            "\t[Connect         ] Request: 0 (+0, 0.00/s), Response: %14$s (+%40$s, %65$.2f/s)%n" +                          // line #5
+            "\t[Connection State] Request: 0 (+0, 0.00/s), Response: %16$s (+%42$s, %67$.2f/s)%n" +                          // line #6
+            "\t[Tunneling       ] Request: %18$s (+%44$s, %69$.2f/s), Acknowledge: %19$s (+%45$s, %70$.2f/s)%n" +            // line #7
+            "\t[Indication      ] Request: 0 (+0, 0.00/s), Response: %26$s (+%52$s, %77$.2f/s)%n" +                          // line #8
+            "\t[Disconnect      ] Request: %22$s (+%48$s, %73$.2f/s), Response: %23$s (+%49$s, %74$.2f/s)%n" +               // line #9
+            "%4$s packets sent (%5$s bytes), +%31$s packets (%56$.2f/s), +%32$s bytes (%57$.2f/s)%n" +                       // line #10
+            "\t[Search          ] Request: %10$s (+%36$s, %61$.2f/s), Response: %11$s (+%37$s, %62$.2f/s)%n" +               // line #11
+            "\t[Description     ] Request: %13$s (+%39$s, %64$.2f/s), Response: 0 (+0, 0.00/s)%n" +                          // line #12
+            "\t[Connect         ] Request: %15$s (+%41$s, %66$.2f/s), Response: 0 (+0, 0.00/s)%n" +                          // line #13
+            "\t[Connection State] Request: %17$s (+%43$s, %68$.2f/s), Response: 0 (+0, 0.00/s)%n" +                          // line #14
+            "\t[Tunneling       ] Request: %20$s (+%46$s, %71$.2f/s), Acknowledge: %21$s (+%47$s, %72$.2f/s)%n" +            // line #15
+            "\t[Indication      ] Request: %27$s (+%53$s, %78$.2f/s), Response: 0 (+0, 0.00/s)%n" +                          // line #16
+            "\t[Disconnect      ] Request: %24$s (+%50$s, %75$.2f/s), Response: %25$s (+%51$s, %76$.2f/s)%n" +               // line #17
+            "%6$s errors (%7$.2f%%), +%33$s errors (%58$.2f/s)%n" +                                                          // line #18
+            "Load (1m, 5m, 15m): %79$.2f, %80$.2f, %81$.2f packets/s received; %82$.2f, %83$.2f, %84$.2f packets/s sent%n" + // line #19
+            "Bus Load: %85$.2f%% (1m, 5m, 15m: %86$.2f%%, %87$.2f%%, %88$.2f%%), peak %89$.2f%% at %90$s, " +
+            "%91$s seconds above %92$.2f%%%n" +                                                                              // line #20
+            "-----------------------------------------------------------------",                                               // line #21
+
+            // Traffic Header
+            "",
+            // Traffic Template
+            "%1$s #%3$s %2$s address %4$s: %5$s telegrams, %6$s bytes (%7$.2f%%)",
+
+            // Latency Header
+            "",
+            // Latency Template
+            "%1$s %2$s: %3$s round-trips, %4$s unanswered, " +
+            "min=%5$.3f ms, p50=%6$.3f ms, p90=%7$.3f ms, p99=%8$.3f ms, p99.9=%9$.3f ms, max=%10$.3f ms",
+
+            // Anomaly Header
+            "",
+            // Anomaly Template
+            "%1$s anomaly in %2$s: %3$.2f (expected: %4$.2f, z-score: %5$.2f)"
+    ),
+    /**
+     * Statistic format should be in COLUMNAR (compressed binary) format. The cumulative
+     * counters are written in blocks of columns, see {@link ColumnarStatisticReader}.
+     * <p>
+     * The traffic, latency and anomaly statistics are line-oriented and written in JSON format.
+     */
+    COLUMNAR(
+            // Header and Body Template (not used)
+            "",
+            "",
+
+            // Traffic, Latency and Anomaly in JSON format
+            JSON.getTrafficHeader(),
+            JSON.getTrafficTemplate(),
+            JSON.getLatencyHeader(),
+            JSON.getLatencyTemplate(),
+            JSON.getAnomalyHeader(),
+            JSON.getAnomalyTemplate()
     );
     // @formatter:on
 
     private final String header;
     private final String template;
+    private final String trafficHeader;
+    private final String trafficTemplate;
+    private final String latencyHeader;
+    private final String latencyTemplate;
+    private final String anomalyHeader;
+    private final String anomalyTemplate;
 
-    FileStatisticFormat(final String header, final String template) {
+    FileStatisticFormat(final String header, final String template,
+                        final String trafficHeader, final String trafficTemplate,
+                        final String latencyHeader, final String latencyTemplate,
+                        final String anomalyHeader, final String anomalyTemplate) {
         this.header = header;
         this.template = template;
+        this.trafficHeader = trafficHeader;
+        this.trafficTemplate = trafficTemplate;
+        this.latencyHeader = latencyHeader;
+        this.latencyTemplate = latencyTemplate;
+        this.anomalyHeader = anomalyHeader;
+        this.anomalyTemplate = anomalyTemplate;
     }
 
     public String getHeader() {
@@ -135,4 +426,28 @@ public enum FileStatisticFormat {
     public String getTemplate() {
         return template;
     }
+
+    public String getTrafficHeader() {
+        return trafficHeader;
+    }
+
+    public String getTrafficTemplate() {
+        return trafficTemplate;
+    }
+
+    public String getLatencyHeader() {
+        return latencyHeader;
+    }
+
+    public String getLatencyTemplate() {
+        return latencyTemplate;
+    }
+
+    public String getAnomalyHeader() {
+        return anomalyHeader;
+    }
+
+    public String getAnomalyTemplate() {
+        return anomalyTemplate;
+    }
 }
@@ -18,8 +18,6 @@
 package li.pitschmann.knx.core.plugin.statistic;
 
 import com.vlkan.rfos.RotatingFileOutputStream;
-import com.vlkan.rfos.RotationConfig;
-import com.vlkan.rfos.policy.DailyRotationPolicy;
 import li.pitschmann.knx.core.body.ConnectRequestBody;
 import li.pitschmann.knx.core.body.ConnectResponseBody;
 import li.pitschmann.knx.core.body.ConnectionStateRequestBody;
@@ -28,30 +26,28 @@ import li.pitschmann.knx.core.body.DescriptionRequestBody;
 import li.pitschmann.knx.core.body.DescriptionResponseBody;
 import li.pitschmann.knx.core.body.DisconnectRequestBody;
 import li.pitschmann.knx.core.body.DisconnectResponseBody;
+import li.pitschmann.knx.core.body.Body;
 import li.pitschmann.knx.core.body.RoutingIndicationBody;
 import li.pitschmann.knx.core.body.SearchRequestBody;
 import li.pitschmann.knx.core.body.SearchResponseBody;
 import li.pitschmann.knx.core.body.TunnelingAckBody;
 import li.pitschmann.knx.core.body.TunnelingRequestBody;
 import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.plugin.DoubleConfigValue;
 import li.pitschmann.knx.core.plugin.EnumConfigValue;
 import li.pitschmann.knx.core.plugin.ExtensionPlugin;
 import li.pitschmann.knx.core.plugin.LongConfigValue;
+import li.pitschmann.knx.core.plugin.ObserverPlugin;
 import li.pitschmann.knx.core.plugin.PathConfigValue;
 import li.pitschmann.knx.core.utils.Closeables;
-import li.pitschmann.knx.core.utils.Sleeper;
-import li.pitschmann.knx.core.utils.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.Objects;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * Statistic plug-in to write the statistic to a file
@@ -61,11 +57,29 @@ import java.util.concurrent.Executors;
  *
  * @author PITSCHR
  */
-public final class FileStatisticPlugin implements ExtensionPlugin {
+public final class FileStatisticPlugin implements ObserverPlugin, ExtensionPlugin {
     /**
      * File path
      */
     public static final PathConfigValue PATH = new PathConfigValue("path", () -> Paths.get("knx-statistic.log"), null);
+    /**
+     * Threshold of packet rate (inbound and outbound packets per second) to write an extra
+     * statistic when crossed. Default 0 (disabled).
+     */
+    public static final DoubleConfigValue PACKET_RATE_THRESHOLD = new DoubleConfigValue("packetRateThreshold", () -> 0d, x -> x >= 0);
+    /**
+     * Threshold of error rate in percent to write an extra statistic when crossed. Default 0 (disabled).
+     */
+    public static final DoubleConfigValue ERROR_RATE_THRESHOLD = new DoubleConfigValue("errorRateThreshold", () -> 0d, x -> x >= 0 && x <= 100);
+    /**
+     * Minimum time in milliseconds between two extra statistics written because of threshold
+     * crossings. Default 10 sec (10000ms) Minimum 1 sec (1000ms).
+     */
+    public static final LongConfigValue TRIGGER_DEBOUNCE_MS = new LongConfigValue("triggerDebounceMs", () -> 10_000L, x -> x >= 1000);
+    /**
+     * Checkpoint file path of cumulative counters across restarts
+     */
+    public static final PathConfigValue CHECKPOINT_PATH = new PathConfigValue("checkpointPath", () -> Paths.get("knx-statistic.checkpoint"), null);
     /**
      * File format (e.g. JSON, TEXT)
      */
@@ -74,15 +88,72 @@ public final class FileStatisticPlugin implements ExtensionPlugin {
      * Interval in milliseconds. Default 5 minutes (300000ms) Minimum 10 sec (10000ms).
      */
     public static final LongConfigValue INTERVAL_MS = new LongConfigValue("intervalMs", () -> 5 * 60 * 1000L, x -> x >= 10000);
+    /**
+     * Threshold of estimated bus load in percent for alert. Default 50%.
+     */
+    public static final DoubleConfigValue BUS_LOAD_THRESHOLD = new DoubleConfigValue("busLoadThreshold", () -> BusLoadEstimator.DEFAULT_THRESHOLD, x -> x > 0 && x <= 100);
 
     private static final Logger log = LoggerFactory.getLogger(FileStatisticPlugin.class);
-    private static final String FILE_ROLLOVER_PATTERN = "-%d{yyyyMMdd}";
+    /**
+     * Interval in milliseconds to check the thresholds of {@link StatisticTrigger}
+     */
+    private static final long TRIGGER_CHECK_INTERVAL_MS = 1000L;
+    /**
+     * Indexes of {@link StatisticSnapshot} counters in the order of template arguments
+     * {@code %2} .. {@code %6} and {@code %8} .. {@code %27} of {@link FileStatisticFormat}
+     */
+    private static final int[] TEMPLATE_COUNTERS = {
+            // Total
+            StatisticSnapshot.INBOUND_PACKETS,                                    // %2
+            StatisticSnapshot.INBOUND_BYTES,                                      // %3
+            StatisticSnapshot.OUTBOUND_PACKETS,                                   // %4
+            StatisticSnapshot.OUTBOUND_BYTES,                                     // %5
+            StatisticSnapshot.ERRORS,                                             // %6
+            // Search
+            StatisticSnapshot.receivedIndex(SearchRequestBody.class),             // %8
+            StatisticSnapshot.receivedIndex(SearchResponseBody.class),            // %9
+            StatisticSnapshot.sentIndex(SearchRequestBody.class),                 // %10
+            StatisticSnapshot.sentIndex(SearchResponseBody.class),                // %11
+            // Description
+            StatisticSnapshot.receivedIndex(DescriptionResponseBody.class),       // %12
+            StatisticSnapshot.sentIndex(DescriptionRequestBody.class),            // %13
+            // Connect
+            StatisticSnapshot.receivedIndex(ConnectResponseBody.class),           // %14
+            StatisticSnapshot.sentIndex(ConnectRequestBody.class),                // %15
+            // Connection State
+            StatisticSnapshot.receivedIndex(ConnectionStateResponseBody.class),   // %16
+            StatisticSnapshot.sentIndex(ConnectionStateRequestBody.class),        // %17
+            // Tunneling
+            StatisticSnapshot.receivedIndex(TunnelingRequestBody.class),          // %18
+            StatisticSnapshot.receivedIndex(TunnelingAckBody.class),              // %19
+            StatisticSnapshot.sentIndex(TunnelingRequestBody.class),              // %20
+            StatisticSnapshot.sentIndex(TunnelingAckBody.class),                  // %21
+            // Disconnect
+            StatisticSnapshot.receivedIndex(DisconnectRequestBody.class),         // %22
+            StatisticSnapshot.receivedIndex(DisconnectResponseBody.class),        // %23
+            StatisticSnapshot.sentIndex(DisconnectRequestBody.class),             // %24
+            StatisticSnapshot.sentIndex(DisconnectResponseBody.class),            // %25
+            // Indication
+            StatisticSnapshot.receivedIndex(RoutingIndicationBody.class),         // %26
+            StatisticSnapshot.sentIndex(RoutingIndicationBody.class)              // %27
+    };
 
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final LoadAverage inboundLoad = new LoadAverage();
+    private final LoadAverage outboundLoad = new LoadAverage();
+    private BusLoadEstimator busLoadEstimator;
+    private StatisticTrackers trackers;
     private KnxClient client;
     private Path path;
     private FileStatisticFormat format;
+    private StatisticFormatter formatter;
+    private volatile ColumnarStatisticWriter columnarWriter;
     private RotatingFileOutputStream fos;
+    private StatisticSnapshot previousSnapshot;
+    private StatisticCheckpoint checkpoint;
+    private long[] checkpointOffsets = new long[StatisticSnapshot.NUMBER_OF_COUNTERS];
+    private AlignedScheduler.Task scheduledTask;
+    private AlignedScheduler.Task triggerTask;
+    private StatisticTrigger trigger;
 
     @Override
     public void onInitialization(final KnxClient client) {
@@ -90,37 +161,49 @@ public final class FileStatisticPlugin implements ExtensionPlugin {
         path = client.getConfig(FileStatisticPlugin.PATH);
         format = client.getConfig(FileStatisticPlugin.FORMAT);
         final var intervalMs = client.getConfig(FileStatisticPlugin.INTERVAL_MS);
-        log.info("Initialized '{}' with: [path={}, format={}, intervalMs={}]", getClass().getName(), path, format, intervalMs);
-
-        final var baseFile = path.toString();
-
-        // get file pattern for rollover
-        final var lastExtensionDotPosition = baseFile.lastIndexOf('.');
-        final var rolloverFile = new StringBuilder()
-                .append(baseFile, 0, lastExtensionDotPosition)
-                .append(FILE_ROLLOVER_PATTERN)
-                .append(baseFile.substring(lastExtensionDotPosition))
-                .toString();
-
-        final var config = RotationConfig
-                .builder()
-                .file(baseFile)
-                .filePattern(rolloverFile)
-                .policy(DailyRotationPolicy.getInstance())
-                .append(true);
-
-        // append header rotation callback if present
-        final var header = format.getHeader();
-        if (!Strings.isNullOrEmpty(header)) {
-            config.callback(new HeaderRotationCallback(header));
+        final var busLoadThreshold = client.getConfig(FileStatisticPlugin.BUS_LOAD_THRESHOLD);
+        final var checkpointPath = client.getConfig(FileStatisticPlugin.CHECKPOINT_PATH);
+        final var packetRateThreshold = client.getConfig(FileStatisticPlugin.PACKET_RATE_THRESHOLD);
+        final var errorRateThreshold = client.getConfig(FileStatisticPlugin.ERROR_RATE_THRESHOLD);
+        final var triggerDebounceMs = client.getConfig(FileStatisticPlugin.TRIGGER_DEBOUNCE_MS);
+        log.info("Initialized '{}' with: [path={}, format={}, intervalMs={}, busLoadThreshold={}, checkpointPath={}, " +
+                        "packetRateThreshold={}, errorRateThreshold={}, triggerDebounceMs={}]",
+                getClass().getName(), path, format, intervalMs, busLoadThreshold, checkpointPath,
+                packetRateThreshold, errorRateThreshold, triggerDebounceMs);
+
+        trackers = StatisticTrackers.register(client, this);
+        busLoadEstimator = trackers.getBusLoadEstimator();
+        busLoadEstimator.setThreshold(busLoadThreshold);
+        trigger = new StatisticTrigger(packetRateThreshold, errorRateThreshold, triggerDebounceMs);
+
+        // totals of previous runs are the offsets of counters
+        try {
+            checkpoint = StatisticCheckpoint.open(checkpointPath);
+            checkpointOffsets = checkpoint.read();
+        } catch (final IOException e) {
+            log.error("Could not open checkpoint file '{}', counters are not persisted", checkpointPath, e);
         }
 
-        // start rollover stream
-        fos = new RotatingFileOutputStream(config.build());
+        // pending rows belong to the file to be rotated and every rotated file starts with a baseline statistic
+        fos = StatisticFiles.openRotatingStream(path, format.getHeader(), this::flushColumnarFile,
+                () -> AlignedScheduler.shared().execute(getClass().getSimpleName() + "-rotation", this::writeToStatisticFile));
+        if (format == FileStatisticFormat.COLUMNAR) {
+            columnarWriter = new ColumnarStatisticWriter(fos);
+        } else {
+            formatter = new StatisticFormatter(format.getTemplate());
+        }
 
         this.client = Objects.requireNonNull(client);
-        executor.execute(new FileStatisticIntervalWriter(intervalMs));
-        executor.shutdown();
+
+        // print first statistic and then at every interval boundary of wall-clock
+        writeToStatisticFile();
+        scheduledTask = AlignedScheduler.shared().schedule(getClass().getSimpleName(), this::writeToStatisticFile, intervalMs);
+
+        // extra statistic when a threshold is crossed
+        if (trigger.isEnabled()) {
+            trigger.check(StatisticSnapshot.of(client.getStatistic(), System.nanoTime()));
+            triggerTask = AlignedScheduler.shared().schedule(getClass().getSimpleName() + "-trigger", this::checkTrigger, TRIGGER_CHECK_INTERVAL_MS);
+        }
     }
 
     @Override
@@ -128,88 +211,158 @@ public final class FileStatisticPlugin implements ExtensionPlugin {
         // NO-OP
     }
 
+    @Override
+    public void onIncomingBody(final Body item) {
+        trackers.onIncomingBody(this, item);
+    }
+
+    @Override
+    public void onOutgoingBody(final Body item) {
+        trackers.onOutgoingBody(this, item);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        // NO-OP
+    }
+
     @Override
     public void onShutdown() {
-        // close the executor
-        Closeables.shutdownQuietly(executor);
+        // cancel the scheduled tasks
+        if (scheduledTask != null) {
+            scheduledTask.close();
+        }
+        if (triggerTask != null) {
+            triggerTask.close();
+        }
 
         // print last statistic
         writeToStatisticFile();
+        flushColumnarFile();
 
-        // close the rollover stream
+        // close the rollover stream and checkpoint
         Closeables.closeQuietly(fos);
+        Closeables.closeQuietly(checkpoint);
+        trackers.unregister(this);
+    }
+
+    /**
+     * Checks if a threshold has been crossed and writes an extra statistic to file
+     */
+    private void checkTrigger() {
+        if (trigger.check(StatisticSnapshot.of(this.client.getStatistic(), System.nanoTime()))) {
+            writeToStatisticFile();
+        }
     }
 
     /**
      * Writes the statistic to file
+     * <p>
+     * In addition to the cumulative counters, the deltas and rates since the previous
+     * statistic and the load averages are calculated. The arguments are in same order
+     * as documented in {@link FileStatisticFormat}.
      */
-    private void writeToStatisticFile() {
-        final var statistics = this.client.getStatistic();
-        final var statisticsFormatted = String.format( //
-                format.getTemplate(),
-                Instant.now(),                                                         // %1
-                // Total
-                statistics.getNumberOfBodyReceived(),                                  // %2
-                statistics.getNumberOfBytesReceived(),                                 // %3
-                statistics.getNumberOfBodySent(),                                      // %4
-                statistics.getNumberOfBytesSent(),                                     // %5
-                statistics.getNumberOfErrors(),                                        // %6
-                statistics.getErrorRate(),                                             // %7
-                // Search
-                statistics.getNumberOfBodyReceived(SearchRequestBody.class),           // %8
-                statistics.getNumberOfBodyReceived(SearchResponseBody.class),          // %9
-                statistics.getNumberOfBodySent(SearchRequestBody.class),               // %10
-                statistics.getNumberOfBodySent(SearchResponseBody.class),              // %11
-                // Description
-                statistics.getNumberOfBodyReceived(DescriptionResponseBody.class),     // %12
-                statistics.getNumberOfBodySent(DescriptionRequestBody.class),          // %13
-                // Connect
-                statistics.getNumberOfBodyReceived(ConnectResponseBody.class),         // %14
-                statistics.getNumberOfBodySent(ConnectRequestBody.class),              // %15
-                // Connection State
-                statistics.getNumberOfBodyReceived(ConnectionStateResponseBody.class), // %16
-                statistics.getNumberOfBodySent(ConnectionStateRequestBody.class),      // %17
-                // Tunneling
-                statistics.getNumberOfBodyReceived(TunnelingRequestBody.class),        // %18
-                statistics.getNumberOfBodyReceived(TunnelingAckBody.class),            // %19
-                statistics.getNumberOfBodySent(TunnelingRequestBody.class),            // %20
-                statistics.getNumberOfBodySent(TunnelingAckBody.class),                // %21
-                // Disconnect
-                statistics.getNumberOfBodyReceived(DisconnectRequestBody.class),       // %22
-                statistics.getNumberOfBodyReceived(DisconnectResponseBody.class),      // %23
-                statistics.getNumberOfBodySent(DisconnectRequestBody.class),           // %24
-                statistics.getNumberOfBodySent(DisconnectResponseBody.class),          // %25
-                // Indication
-                statistics.getNumberOfBodyReceived(RoutingIndicationBody.class),       // %26
-                statistics.getNumberOfBodySent(RoutingIndicationBody.class)            // %27
-        );
-        // @formatter:on
+    private synchronized void writeToStatisticFile() {
+        final var snapshot = StatisticSnapshot.of(this.client.getStatistic(), System.nanoTime()).plus(checkpointOffsets);
+        if (checkpoint != null) {
+            checkpoint.write(snapshot.toArray());
+        }
+        if (columnarWriter != null) {
+            writeToColumnarFile(snapshot);
+            return;
+        }
+        // first statistic is the baseline for deltas and rates
+        final var previous = previousSnapshot == null ? snapshot : previousSnapshot;
+        final var intervalSeconds = (snapshot.getNanoTime() - previous.getNanoTime()) / 1e9;
+
+        final var n = TEMPLATE_COUNTERS.length;
+        formatter.setObject(1, Instant.now());                                          // %1
+        for (int i = 0; i < n; i++) {
+            final var counter = TEMPLATE_COUNTERS[i];
+            // cumulative counters: %2 .. %6 and %8 .. %27 (%7 is reserved for error rate)
+            formatter.setLong(i < 5 ? i + 2 : i + 3, snapshot.getCounter(counter));
+            // delta and rate: %29 .. %53 and %54 .. %78
+            final var delta = snapshot.getCounter(counter) - previous.getCounter(counter);
+            formatter.setLong(n + 4 + i, delta);
+            formatter.setDouble(2 * n + 4 + i, intervalSeconds > 0 ? delta / intervalSeconds : 0d);
+        }
+        formatter.setDouble(7, snapshot.getErrorRate());                                // %7
+        formatter.setDouble(n + 3, intervalSeconds);                                    // %28
+
+        // load average of packets per second: %79 .. %84
+        inboundLoad.update(rate(snapshot, previous, StatisticSnapshot.INBOUND_PACKETS, intervalSeconds), intervalSeconds);
+        outboundLoad.update(rate(snapshot, previous, StatisticSnapshot.OUTBOUND_PACKETS, intervalSeconds), intervalSeconds);
+        formatter.setDouble(3 * n + 4, inboundLoad.getOneMinute());
+        formatter.setDouble(3 * n + 5, inboundLoad.getFiveMinutes());
+        formatter.setDouble(3 * n + 6, inboundLoad.getFifteenMinutes());
+        formatter.setDouble(3 * n + 7, outboundLoad.getOneMinute());
+        formatter.setDouble(3 * n + 8, outboundLoad.getFiveMinutes());
+        formatter.setDouble(3 * n + 9, outboundLoad.getFifteenMinutes());
+
+        // estimated bus load: %85 .. %92
+        final var busLoad = busLoadEstimator.getBusLoad();
+        formatter.setDouble(3 * n + 10, busLoad.getCurrent());
+        formatter.setDouble(3 * n + 11, busLoad.getOneMinute());
+        formatter.setDouble(3 * n + 12, busLoad.getFiveMinutes());
+        formatter.setDouble(3 * n + 13, busLoad.getFifteenMinutes());
+        formatter.setDouble(3 * n + 14, busLoad.getPeak());
+        formatter.setObject(3 * n + 15, busLoad.getPeakTime() == null ? "-" : busLoad.getPeakTime());
+        formatter.setLong(3 * n + 16, busLoad.getSecondsAboveThreshold());
+        formatter.setDouble(3 * n + 17, busLoad.getThreshold());
+
+        previousSnapshot = snapshot;
+        formatter.renderLine();
 
         try {
-            fos.write(statisticsFormatted.getBytes(StandardCharsets.UTF_8));
-            fos.write(System.lineSeparator().getBytes());
+            formatter.writeTo(fos);
         } catch (final IOException e) {
-            log.error("Error writing to audit file '{}': {}", path, statisticsFormatted, e);
+            log.error("Error writing to audit file '{}': {}", path, formatter, e);
         }
     }
 
     /**
-     * Runnable to print statistic in every interval
+     * Writes the cumulative counters of statistic to the file in {@link FileStatisticFormat#COLUMNAR}
+     * format. Deltas, rates and load averages are not written as they can be calculated from the
+     * cumulative counters when reading.
      *
-     * @author PITSCHR
+     * @param snapshot the snapshot of statistic
      */
-    private class FileStatisticIntervalWriter implements Runnable {
-        private final long intervalMs;
-
-        private FileStatisticIntervalWriter(final long intervalMilliseconds) {
-            this.intervalMs = intervalMilliseconds;
+    private void writeToColumnarFile(final StatisticSnapshot snapshot) {
+        try {
+            columnarWriter.append(Instant.now(), snapshot);
+        } catch (final IOException e) {
+            log.error("Error writing to statistic file '{}'", path, e);
         }
+    }
 
-        @Override
-        public void run() {
-            do {
-                FileStatisticPlugin.this.writeToStatisticFile();
-            } while (Sleeper.milliseconds(this.intervalMs));
+    /**
+     * Writes the pending rows to the file in {@link FileStatisticFormat#COLUMNAR} format, if any.
+     * Called on shutdown and by the rotating file output stream before the file is rotated.
+     */
+    private void flushColumnarFile() {
+        final var writer = columnarWriter;
+        if (writer != null) {
+            try {
+                writer.flush();
+            } catch (final IOException e) {
+                log.error("Error writing to statistic file '{}'", path, e);
+            }
         }
     }
+
+    /**
+     * Returns the estimator of bus load
+     *
+     * @return estimator
+     */
+    public BusLoadEstimator getBusLoadEstimator() {
+        return busLoadEstimator;
+    }
+
+    /**
+     * Returns the rate per second of counter at {@code index} between two snapshots
+     */
+    private static double rate(final StatisticSnapshot snapshot, final StatisticSnapshot previous, final int index, final double intervalSeconds) {
+        return intervalSeconds > 0 ? (snapshot.getCounter(index) - previous.getCounter(index)) / intervalSeconds : 0d;
+    }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import com.vlkan.rfos.RotatingFileOutputStream;
+import li.pitschmann.knx.core.body.Body;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.plugin.EnumConfigValue;
+import li.pitschmann.knx.core.plugin.ExtensionPlugin;
+import li.pitschmann.knx.core.plugin.LongConfigValue;
+import li.pitschmann.knx.core.plugin.ObserverPlugin;
+import li.pitschmann.knx.core.plugin.PathConfigValue;
+import li.pitschmann.knx.core.utils.Closeables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+
+/**
+ * Latency statistic plug-in to write the round-trip times of tunneling
+ * and connection state requests to a file
+ * <p>
+ * In every interval the percentiles of round-trip times since the previous
+ * interval are written, one line per request type. The tracker is shared with
+ * other plug-ins of KNX client, see {@link StatisticTrackers}.
+ *
+ * @author PITSCHR
+ */
+public final class LatencyStatisticPlugin implements ObserverPlugin, ExtensionPlugin {
+    /**
+     * File path
+     */
+    public static final PathConfigValue PATH = new PathConfigValue("path", () -> Paths.get("knx-latency.log"), null);
+    /**
+     * File format (e.g. JSON, TEXT)
+     */
+    public static final EnumConfigValue<FileStatisticFormat> FORMAT = new EnumConfigValue<>("format", FileStatisticFormat.class, () -> FileStatisticFormat.JSON);
+    /**
+     * Interval in milliseconds. Default 5 minutes (300000ms) Minimum 10 sec (10000ms).
+     */
+    public static final LongConfigValue INTERVAL_MS = new LongConfigValue("intervalMs", () -> 5 * 60 * 1000L, x -> x >= 10000);
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyStatisticPlugin.class);
+
+    private RoundTripTracker tracker;
+    private StatisticTrackers trackers;
+    private Path path;
+    private StatisticFormatter formatter;
+    private RotatingFileOutputStream fos;
+    private AlignedScheduler.Task scheduledTask;
+
+    @Override
+    public void onInitialization(final KnxClient client) {
+        // configurations
+        path = client.getConfig(LatencyStatisticPlugin.PATH);
+        final var format = client.getConfig(LatencyStatisticPlugin.FORMAT);
+        final var intervalMs = client.getConfig(LatencyStatisticPlugin.INTERVAL_MS);
+        log.info("Initialized '{}' with: [path={}, format={}, intervalMs={}]", getClass().getName(), path, format, intervalMs);
+
+        trackers = StatisticTrackers.register(client, this);
+        tracker = trackers.getRoundTripTracker();
+        formatter = new StatisticFormatter(format.getLatencyTemplate());
+        fos = StatisticFiles.openRotatingStream(path, format.getLatencyHeader());
+        scheduledTask = AlignedScheduler.shared().schedule(getClass().getSimpleName(), this::writeToLatencyFile, intervalMs);
+    }
+
+    @Override
+    public void onStart() {
+        // NO-OP
+    }
+
+    @Override
+    public void onIncomingBody(final Body item) {
+        trackers.onIncomingBody(this, item);
+    }
+
+    @Override
+    public void onOutgoingBody(final Body item) {
+        trackers.onOutgoingBody(this, item);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        // NO-OP
+    }
+
+    @Override
+    public void onShutdown() {
+        // cancel the scheduled task
+        if (scheduledTask != null) {
+            scheduledTask.close();
+        }
+
+        // print last latency statistic
+        writeToLatencyFile();
+
+        // close the rollover stream
+        Closeables.closeQuietly(fos);
+        trackers.unregister(this);
+    }
+
+    /**
+     * Returns the tracker of round-trip times
+     *
+     * @return tracker
+     */
+    public RoundTripTracker getTracker() {
+        return tracker;
+    }
+
+    /**
+     * Writes the percentiles of round-trip times since previous interval to file
+     */
+    private synchronized void writeToLatencyFile() {
+        final var now = Instant.now();
+        writeLine(now, "tunneling", tracker.getTunneling().getIntervalSummary());
+        writeLine(now, "connectionState", tracker.getConnectionState().getIntervalSummary());
+    }
+
+    private void writeLine(final Instant now, final String type, final RoundTripSummary summary) {
+        formatter.setObject(1, now);
+        formatter.setObject(2, type);
+        formatter.setLong(3, summary.getCount());
+        formatter.setLong(4, summary.getUnanswered());
+        formatter.setDouble(5, summary.getMin());
+        formatter.setDouble(6, summary.getP50());
+        formatter.setDouble(7, summary.getP90());
+        formatter.setDouble(8, summary.getP99());
+        formatter.setDouble(9, summary.getP999());
+        formatter.setDouble(10, summary.getMax());
+        formatter.renderLine();
+        try {
+            formatter.writeTo(fos);
+        } catch (final IOException e) {
+            log.error("Error writing to latency file '{}': {}", path, formatter, e);
+        }
+    }
+}
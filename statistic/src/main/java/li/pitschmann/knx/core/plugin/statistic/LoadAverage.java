@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+/**
+ * Exponentially weighted moving average (EWMA) of packets per second
+ * for 1, 5 and 15 minutes, similar to the load average of Unix systems.
+ * <p>
+ * The smoothing factor is calculated from the elapsed time between two
+ * updates, therefore irregular intervals are supported as well.
+ */
+final class LoadAverage {
+    private static final double[] WINDOWS_IN_SECONDS = {60d, 5 * 60d, 15 * 60d};
+    private final double[] averages = new double[WINDOWS_IN_SECONDS.length];
+    private boolean initialized;
+
+    /**
+     * Updates the moving averages with the given rate
+     *
+     * @param rate            the current rate (e.g. packets per second)
+     * @param intervalSeconds the elapsed seconds since last update
+     */
+    void update(final double rate, final double intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        for (int i = 0; i < averages.length; i++) {
+            if (initialized) {
+                final var alpha = 1d - Math.exp(-intervalSeconds / WINDOWS_IN_SECONDS[i]);
+                averages[i] += alpha * (rate - averages[i]);
+            } else {
+                // first rate is the best estimate we have
+                averages[i] = rate;
+            }
+        }
+        initialized = true;
+    }
+
+    /**
+     * Returns the moving average of last minute
+     *
+     * @return 1-minute average
+     */
+    double getOneMinute() {
+        return averages[0];
+    }
+
+    /**
+     * Returns the moving average of last 5 minutes
+     *
+     * @return 5-minute average
+     */
+    double getFiveMinutes() {
+        return averages[1];
+    }
+
+    /**
+     * Returns the moving average of last 15 minutes
+     *
+     * @return 15-minute average
+     */
+    double getFifteenMinutes() {
+        return averages[2];
+    }
+}
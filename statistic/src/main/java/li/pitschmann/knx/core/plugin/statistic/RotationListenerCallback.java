@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import com.vlkan.rfos.RotationCallback;
+import com.vlkan.rfos.policy.RotationPolicy;
+import li.pitschmann.knx.core.annotations.Nullable;
+import li.pitschmann.knx.core.utils.Preconditions;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.time.Instant;
+
+/**
+ * Rotation Callback that notifies listeners before and after the file has been rotated
+ * <p>
+ * The callbacks are invoked by the rotating file output stream while holding its lock.
+ * The listener before rotation may write pending data to the stream (the lock is re-entrant)
+ * which then still ends up in the file to be rotated. The listener after rotation should not
+ * write to the stream directly but asynchronously. All other callbacks are delegated
+ * (e.g. to {@link HeaderRotationCallback}).
+ *
+ * @author PITSCHR
+ */
+final class RotationListenerCallback implements RotationCallback {
+    private final RotationCallback delegate;
+    private final Runnable beforeRotation;
+    private final Runnable afterRotation;
+
+    /**
+     * (package-protected) Creates {@link RotationCallback} with listeners for rotation
+     *
+     * @param delegate       the callback to be delegated to; may be null
+     * @param beforeRotation the listener to be notified when rotation is triggered, before the file is closed; may be null
+     * @param afterRotation  the listener to be notified after successful rotation; may be null
+     */
+    RotationListenerCallback(final @Nullable RotationCallback delegate,
+                             final @Nullable Runnable beforeRotation,
+                             final @Nullable Runnable afterRotation) {
+        Preconditions.checkArgument(beforeRotation != null || afterRotation != null, "At least one listener is required");
+        this.delegate = delegate;
+        this.beforeRotation = beforeRotation;
+        this.afterRotation = afterRotation;
+    }
+
+    @Override
+    public void onTrigger(RotationPolicy rotationPolicy, Instant instant) {
+        if (delegate != null) {
+            delegate.onTrigger(rotationPolicy, instant);
+        }
+        if (beforeRotation != null) {
+            beforeRotation.run();
+        }
+    }
+
+    @Override
+    public void onOpen(RotationPolicy rotationPolicy, Instant instant, OutputStream outputStream) {
+        if (delegate != null) {
+            delegate.onOpen(rotationPolicy, instant, outputStream);
+        }
+    }
+
+    @Override
+    public void onClose(RotationPolicy rotationPolicy, Instant instant, OutputStream outputStream) {
+        if (delegate != null) {
+            delegate.onClose(rotationPolicy, instant, outputStream);
+        }
+    }
+
+    @Override
+    public void onSuccess(RotationPolicy rotationPolicy, Instant instant, File file) {
+        if (delegate != null) {
+            delegate.onSuccess(rotationPolicy, instant, file);
+        }
+        if (afterRotation != null) {
+            afterRotation.run();
+        }
+    }
+
+    @Override
+    public void onFailure(RotationPolicy rotationPolicy, Instant instant, File file, Exception e) {
+        if (delegate != null) {
+            delegate.onFailure(rotationPolicy, instant, file, e);
+        }
+    }
+}
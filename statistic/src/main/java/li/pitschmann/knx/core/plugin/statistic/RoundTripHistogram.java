@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of round-trip times based on HDR Histogram
+ * <p>
+ * Round-trip times are recorded in microseconds with a precision of two significant
+ * digits up to one minute. Recording is wait-free and may be called concurrently.
+ * The histogram provides a cumulative summary since start and an interval summary
+ * since the previous call of {@link #getIntervalSummary()}.
+ */
+public final class RoundTripHistogram {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private final ConcurrentHistogram cumulative = new ConcurrentHistogram(1, HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final Recorder recorder = new Recorder(1, HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final LongAdder unanswered = new LongAdder();
+    private final AtomicLong intervalUnanswered = new AtomicLong();
+    private Histogram intervalHistogram;
+
+    /**
+     * Records the round-trip time
+     *
+     * @param nanos round-trip time in nanoseconds
+     */
+    public void record(final long nanos) {
+        final var micros = Math.max(1, Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS));
+        cumulative.recordValue(micros);
+        recorder.recordValue(micros);
+    }
+
+    /**
+     * Records a request that has not been answered
+     */
+    public void recordUnanswered() {
+        unanswered.increment();
+        intervalUnanswered.incrementAndGet();
+    }
+
+    /**
+     * Returns the summary of all round-trip times since start
+     *
+     * @return cumulative summary
+     */
+    public RoundTripSummary getSummary() {
+        return summarize(cumulative, unanswered.sum());
+    }
+
+    /**
+     * Returns the summary of round-trip times since the previous call of this method
+     * and resets the interval
+     *
+     * @return interval summary
+     */
+    public synchronized RoundTripSummary getIntervalSummary() {
+        intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+        return summarize(intervalHistogram, intervalUnanswered.getAndSet(0));
+    }
+
+    private static RoundTripSummary summarize(final AbstractHistogram histogram, final long unanswered) {
+        final var count = histogram.getTotalCount();
+        if (count == 0) {
+            return new RoundTripSummary(0, unanswered, 0d, 0d, 0d, 0d, 0d, 0d);
+        }
+        return new RoundTripSummary(
+                count,
+                unanswered,
+                toMillis(histogram.getMinValue()),
+                toMillis(histogram.getValueAtPercentile(50)),
+                toMillis(histogram.getValueAtPercentile(90)),
+                toMillis(histogram.getValueAtPercentile(99)),
+                toMillis(histogram.getValueAtPercentile(99.9)),
+                toMillis(histogram.getMaxValue())
+        );
+    }
+
+    private static double toMillis(final long micros) {
+        return micros / 1000d;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.utils.Strings;
+
+/**
+ * Immutable summary of round-trip times; all times are in milliseconds
+ */
+public final class RoundTripSummary {
+    private final long count;
+    private final long unanswered;
+    private final double min;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+    private final double p999;
+    private final double max;
+
+    RoundTripSummary(final long count, final long unanswered, final double min, final double p50,
+                     final double p90, final double p99, final double p999, final double max) {
+        this.count = count;
+        this.unanswered = unanswered;
+        this.min = min;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+
+    /**
+     * Returns the number of recorded round-trips
+     *
+     * @return count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of requests that have not been answered (e.g. because
+     * of timeout and the request has been sent again)
+     *
+     * @return number of unanswered requests
+     */
+    public long getUnanswered() {
+        return unanswered;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public double getP999() {
+        return p999;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("count", count)
+                .add("unanswered", unanswered)
+                .add("min", min)
+                .add("p50", p50)
+                .add("p90", p90)
+                .add("p99", p99)
+                .add("p999", p999)
+                .add("max", max)
+                .toString();
+    }
+}
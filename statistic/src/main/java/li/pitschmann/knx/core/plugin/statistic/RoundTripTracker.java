@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.body.Body;
+import li.pitschmann.knx.core.body.ConnectionStateRequestBody;
+import li.pitschmann.knx.core.body.ConnectionStateResponseBody;
+import li.pitschmann.knx.core.body.TunnelingAckBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the round-trip times of KNX/IP requests sent by KNX client
+ * <p>
+ * Outgoing {@link TunnelingRequestBody} are paired with incoming {@link TunnelingAckBody}
+ * by channel id and sequence counter; outgoing {@link ConnectionStateRequestBody} are paired
+ * with incoming {@link ConnectionStateResponseBody} by channel id. The send times of pending
+ * requests are kept in primitive arrays indexed by channel id (and sequence counter).
+ * <p>
+ * When a request is sent again before it has been answered and the previous request is
+ * older than the timeout of KNXnet/IP specification (e.g. repetition after a timeout),
+ * the previous request is counted as unanswered.
+ * <p>
+ * Limitation: the times are taken when the KNX client dispatches the bodies to the plug-ins,
+ * not when they are sent or received on the network. The round-trip times include the delay
+ * of dispatching and an answer may even be dispatched before its request; such a request
+ * remains pending and is not counted as unanswered until it is older than the timeout.
+ */
+public final class RoundTripTracker {
+    /**
+     * Timeout for tunneling acknowledge according to KNXnet/IP specification
+     */
+    static final long TUNNELING_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /**
+     * Timeout for connection state response according to KNXnet/IP specification
+     */
+    static final long CONNECTION_STATE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long NONE = Long.MIN_VALUE;
+    private final AtomicLongArray pendingTunneling = new AtomicLongArray(256 * 256);
+    private final AtomicLongArray pendingConnectionState = new AtomicLongArray(256);
+    private final RoundTripHistogram tunneling = new RoundTripHistogram();
+    private final RoundTripHistogram connectionState = new RoundTripHistogram();
+    private final LongSupplier nanoClock;
+
+    public RoundTripTracker() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * Creates a new tracker (for testing purposes)
+     *
+     * @param nanoClock supplier of monotonic time in nanoseconds
+     */
+    RoundTripTracker(final LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        for (int i = 0; i < pendingTunneling.length(); i++) {
+            pendingTunneling.set(i, NONE);
+        }
+        for (int i = 0; i < pendingConnectionState.length(); i++) {
+            pendingConnectionState.set(i, NONE);
+        }
+    }
+
+    /**
+     * Notifies about an outgoing {@link Body}. Requests are remembered as pending.
+     *
+     * @param body the body sent by KNX client
+     */
+    public void onOutgoingBody(final Body body) {
+        if (body instanceof TunnelingRequestBody) {
+            final var request = (TunnelingRequestBody) body;
+            sent(pendingTunneling, tunnelingIndex(request.getChannelId(), request.getSequence()), tunneling, TUNNELING_TIMEOUT_NANOS);
+        } else if (body instanceof ConnectionStateRequestBody) {
+            sent(pendingConnectionState, ((ConnectionStateRequestBody) body).getChannelId() & 0xFF, connectionState, CONNECTION_STATE_TIMEOUT_NANOS);
+        }
+    }
+
+    /**
+     * Notifies about an incoming {@link Body}. Answers to pending requests are recorded.
+     *
+     * @param body the body received by KNX client
+     */
+    public void onIncomingBody(final Body body) {
+        if (body instanceof TunnelingAckBody) {
+            final var ack = (TunnelingAckBody) body;
+            answered(pendingTunneling, tunnelingIndex(ack.getChannelId(), ack.getSequence()), tunneling);
+        } else if (body instanceof ConnectionStateResponseBody) {
+            answered(pendingConnectionState, ((ConnectionStateResponseBody) body).getChannelId() & 0xFF, connectionState);
+        }
+    }
+
+    /**
+     * Returns the round-trip times of tunneling requests
+     *
+     * @return histogram for tunneling
+     */
+    public RoundTripHistogram getTunneling() {
+        return tunneling;
+    }
+
+    /**
+     * Returns the round-trip times of connection state requests
+     *
+     * @return histogram for connection state
+     */
+    public RoundTripHistogram getConnectionState() {
+        return connectionState;
+    }
+
+    private void sent(final AtomicLongArray pending, final int index, final RoundTripHistogram histogram, final long timeoutNanos) {
+        final var now = nanoClock.getAsLong();
+        final var previousNanos = pending.getAndSet(index, now);
+        if (previousNanos != NONE && now - previousNanos >= timeoutNanos) {
+            histogram.recordUnanswered();
+        }
+    }
+
+    private void answered(final AtomicLongArray pending, final int index, final RoundTripHistogram histogram) {
+        final var sentNanos = pending.getAndSet(index, NONE);
+        if (sentNanos != NONE) {
+            histogram.record(nanoClock.getAsLong() - sentNanos);
+        }
+    }
+
+    private static int tunnelingIndex(final int channelId, final int sequence) {
+        return (channelId & 0xFF) << 8 | (sequence & 0xFF);
+    }
+}
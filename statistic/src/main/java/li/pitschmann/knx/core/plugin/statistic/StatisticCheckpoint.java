@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Memory-mapped checkpoint file of cumulative statistic counters
+ * <p>
+ * The file has a header and two slots which are written alternately (double buffering),
+ * so that the previous checkpoint is still intact when a write is torn (e.g. power loss).
+ * Every slot contains a sequence number, the counters and a CRC-32 checksum; when
+ * reading, the valid slot with the highest sequence number wins.
+ * <pre>
+ * Header: magic (4 bytes), version (4 bytes), number of counters (4 bytes), reserved (4 bytes)
+ * Slot:   sequence (8 bytes), counters (8 bytes each), checksum (8 bytes)
+ * </pre>
+ *
+ * @author PITSCHR
+ */
+final class StatisticCheckpoint implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(StatisticCheckpoint.class);
+    private static final int MAGIC = 0x4B4E5853; // "KNXS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int SLOT_SIZE = 8 + StatisticSnapshot.NUMBER_OF_COUNTERS * 8 + 8;
+    private static final int FILE_SIZE = HEADER_SIZE + 2 * SLOT_SIZE;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private long sequence;
+
+    private StatisticCheckpoint(final Path path, final FileChannel channel, final MappedByteBuffer buffer) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Opens the checkpoint file, the file is created if it doesn't exist
+     *
+     * @param path the path of checkpoint file
+     * @return checkpoint
+     * @throws IOException if the file could not be opened or mapped
+     */
+    static StatisticCheckpoint open(final Path path) throws IOException {
+        final var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final var checkpoint = new StatisticCheckpoint(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE));
+            checkpoint.initialize();
+            return checkpoint;
+        } catch (final IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Initializes the header of a new (or incompatible) file and the sequence number
+     * of an existing file
+     */
+    private void initialize() {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != StatisticSnapshot.NUMBER_OF_COUNTERS) {
+            if (buffer.getInt(0) != 0) {
+                log.warn("Incompatible checkpoint file '{}' is re-initialized", path);
+            }
+            for (int i = 0; i < FILE_SIZE; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, StatisticSnapshot.NUMBER_OF_COUNTERS);
+            buffer.force();
+        }
+        sequence = Math.max(validSequence(0), validSequence(1));
+    }
+
+    /**
+     * Returns the counters of latest valid slot
+     *
+     * @return counters, all zero if there is no valid checkpoint
+     */
+    synchronized long[] read() {
+        final var counters = new long[StatisticSnapshot.NUMBER_OF_COUNTERS];
+        final var sequence0 = validSequence(0);
+        final var sequence1 = validSequence(1);
+        if (sequence0 > 0 || sequence1 > 0) {
+            final var offset = slotOffset(sequence0 >= sequence1 ? 0 : 1) + 8;
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = buffer.getLong(offset + i * 8);
+            }
+        }
+        return counters;
+    }
+
+    /**
+     * Writes the counters to the older slot and forces the changes to the storage
+     *
+     * @param counters the counters, same layout as {@link StatisticSnapshot#toArray()}
+     */
+    synchronized void write(final long[] counters) {
+        final var nextSequence = sequence + 1;
+        final var offset = slotOffset((int) (nextSequence & 1));
+        buffer.putLong(offset, nextSequence);
+        for (int i = 0; i < counters.length; i++) {
+            buffer.putLong(offset + 8 + i * 8, counters[i]);
+        }
+        buffer.putLong(offset + SLOT_SIZE - 8, checksum(offset));
+        buffer.force();
+        sequence = nextSequence;
+    }
+
+    /**
+     * Returns the sequence number of slot if the checksum is valid
+     *
+     * @return sequence number, or zero if slot is empty or invalid
+     */
+    private long validSequence(final int slot) {
+        final var offset = slotOffset(slot);
+        final var slotSequence = buffer.getLong(offset);
+        if (slotSequence > 0 && buffer.getLong(offset + SLOT_SIZE - 8) == checksum(offset)) {
+            return slotSequence;
+        }
+        return 0;
+    }
+
+    private long checksum(final int offset) {
+        final var crc = new CRC32();
+        final ByteBuffer slice = buffer.duplicate();
+        slice.position(offset).limit(offset + SLOT_SIZE - 8);
+        crc.update(slice);
+        return crc.getValue();
+    }
+
+    private static int slotOffset(final int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import com.vlkan.rfos.RotatingFileOutputStream;
+import com.vlkan.rfos.RotationConfig;
+import com.vlkan.rfos.policy.DailyRotationPolicy;
+import li.pitschmann.knx.core.annotations.Nullable;
+import li.pitschmann.knx.core.utils.Strings;
+
+import java.nio.file.Path;
+
+/**
+ * Utility class for statistic files
+ *
+ * @author PITSCHR
+ */
+final class StatisticFiles {
+    private static final String FILE_ROLLOVER_PATTERN = "-%d{yyyyMMdd}";
+
+    private StatisticFiles() {
+        // private-constructor
+    }
+
+    /**
+     * Opens a daily rolled file output stream for given {@code path}. The rolled
+     * files are appended with the date format {@code yyyyMMdd}.
+     *
+     * @param path   the path of file
+     * @param header the header to be written on top of each file; may be empty
+     * @return a new rotating file output stream
+     */
+    static RotatingFileOutputStream openRotatingStream(final Path path, final String header) {
+        return openRotatingStream(path, header, null, null);
+    }
+
+    /**
+     * Opens a daily rolled file output stream for given {@code path}. The rolled
+     * files are appended with the date format {@code yyyyMMdd}.
+     *
+     * @param path           the path of file
+     * @param header         the header to be written on top of each file; may be empty
+     * @param beforeRotation the listener to be notified before the file is rotated, e.g. to write
+     *                       pending data to the file to be rotated; may be null
+     * @param afterRotation  the listener to be notified after the file has been rotated; may be null
+     * @return a new rotating file output stream
+     */
+    static RotatingFileOutputStream openRotatingStream(final Path path,
+                                                       final String header,
+                                                       final @Nullable Runnable beforeRotation,
+                                                       final @Nullable Runnable afterRotation) {
+        final var baseFile = path.toString();
+
+        // get file pattern for rollover
+        final var lastExtensionDotPosition = baseFile.lastIndexOf('.');
+        final var rolloverFile = new StringBuilder()
+                .append(baseFile, 0, lastExtensionDotPosition)
+                .append(FILE_ROLLOVER_PATTERN)
+                .append(baseFile.substring(lastExtensionDotPosition))
+                .toString();
+
+        final var config = RotationConfig
+                .builder()
+                .file(baseFile)
+                .filePattern(rolloverFile)
+                .policy(DailyRotationPolicy.getInstance())
+                .append(true);
+
+        // append header rotation callback if present
+        final var headerCallback = Strings.isNullOrEmpty(header) ? null : new HeaderRotationCallback(header);
+        if (beforeRotation != null || afterRotation != null) {
+            config.callback(new RotationListenerCallback(headerCallback, beforeRotation, afterRotation));
+        } else if (headerCallback != null) {
+            config.callback(headerCallback);
+        }
+
+        // start rollover stream
+        return new RotatingFileOutputStream(config.build());
+    }
+}
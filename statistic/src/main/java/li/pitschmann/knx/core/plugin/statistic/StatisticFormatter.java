@@ -0,0 +1,324 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Pre-compiled formatter for the templates of {@link FileStatisticFormat}
+ * <p>
+ * The template is parsed only once into literal and argument segments. The
+ * output is rendered into a reusable byte buffer without boxing of counters.
+ * Supported are the conversions used by the templates: {@code %n$s},
+ * {@code %n$.pf}, {@code %n} (line separator) and {@code %%}. The output is
+ * identical to {@link String#format(String, Object...)} with an English locale;
+ * the decimal separator is always a dot.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class StatisticFormatter {
+    private static final Pattern SPECIFIER_PATTERN = Pattern.compile("%(?:(\\d+)\\$)?(?:\\.(\\d+))?([sfn%])");
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NAN = "NaN".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INFINITY = "Infinity".getBytes(StandardCharsets.US_ASCII);
+    private static final int KIND_UNSET = 0;
+    private static final int KIND_LONG = 1;
+    private static final int KIND_DOUBLE = 2;
+    private static final int KIND_OBJECT = 3;
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L};
+    // scaled values below are exact enough to decide the rounding, unless they are close to half
+    private static final double MAX_SCALED_VALUE = 1e9;
+    private static final double HALF_TOLERANCE = 1e-6;
+
+    // compiled template: literal segments have an argument index of -1
+    private final byte[][] literals;
+    private final int[] argumentIndexes;
+    private final int[] precisions;
+
+    // arguments, indexed by argument number of template (1-based)
+    private final int[] kinds;
+    private final long[] longs;
+    private final double[] doubles;
+    private final Object[] objects;
+
+    private byte[] buffer = new byte[1024];
+    private int length;
+
+    /**
+     * Compiles the given {@code template}
+     *
+     * @param template the template in {@link java.util.Formatter} syntax with explicit argument indexes
+     * @throws IllegalArgumentException if the template contains an unsupported specifier
+     */
+    StatisticFormatter(final String template) {
+        final var literalList = new ArrayList<byte[]>();
+        final var argumentList = new ArrayList<int[]>(); // [argumentIndex, precision]
+        final var sb = new StringBuilder();
+        var maxArgument = 0;
+        var pos = 0;
+        while (pos < template.length()) {
+            final var percent = template.indexOf('%', pos);
+            if (percent < 0) {
+                sb.append(template, pos, template.length());
+                break;
+            }
+            sb.append(template, pos, percent);
+            final var matcher = SPECIFIER_PATTERN.matcher(template).region(percent, template.length());
+            if (!matcher.lookingAt()) {
+                throw new IllegalArgumentException("Unsupported specifier at position " + percent + ": " + template);
+            }
+            final var conversion = matcher.group(3).charAt(0);
+            if (conversion == 'n') {
+                sb.append(System.lineSeparator());
+            } else if (conversion == '%') {
+                sb.append('%');
+            } else {
+                if (matcher.group(1) == null) {
+                    throw new IllegalArgumentException("Argument index is required at position " + percent + ": " + template);
+                }
+                final var argumentIndex = Integer.parseInt(matcher.group(1));
+                final var precision = conversion == 'f' ? (matcher.group(2) == null ? 6 : Integer.parseInt(matcher.group(2))) : -1;
+                // flush literal before argument segment
+                if (sb.length() > 0) {
+                    literalList.add(sb.toString().getBytes(StandardCharsets.UTF_8));
+                    argumentList.add(new int[]{-1, -1});
+                    sb.setLength(0);
+                }
+                literalList.add(null);
+                argumentList.add(new int[]{argumentIndex, precision});
+                maxArgument = Math.max(maxArgument, argumentIndex);
+            }
+            pos = matcher.end();
+        }
+        if (sb.length() > 0) {
+            literalList.add(sb.toString().getBytes(StandardCharsets.UTF_8));
+            argumentList.add(new int[]{-1, -1});
+        }
+
+        this.literals = literalList.toArray(new byte[0][]);
+        this.argumentIndexes = argumentList.stream().mapToInt(a -> a[0]).toArray();
+        this.precisions = argumentList.stream().mapToInt(a -> a[1]).toArray();
+        this.kinds = new int[maxArgument + 1];
+        this.longs = new long[maxArgument + 1];
+        this.doubles = new double[maxArgument + 1];
+        this.objects = new Object[maxArgument + 1];
+    }
+
+    /**
+     * Sets the {@code long} value for argument
+     *
+     * @param argument the argument number as used in template (1-based)
+     * @param value    the value
+     */
+    void setLong(final int argument, final long value) {
+        kinds[argument] = KIND_LONG;
+        longs[argument] = value;
+    }
+
+    /**
+     * Sets the {@code double} value for argument
+     *
+     * @param argument the argument number as used in template (1-based)
+     * @param value    the value
+     */
+    void setDouble(final int argument, final double value) {
+        kinds[argument] = KIND_DOUBLE;
+        doubles[argument] = value;
+    }
+
+    /**
+     * Sets the object value for argument, it will be rendered using {@link Object#toString()}
+     *
+     * @param argument the argument number as used in template (1-based)
+     * @param value    the value
+     */
+    void setObject(final int argument, final Object value) {
+        kinds[argument] = KIND_OBJECT;
+        objects[argument] = value;
+    }
+
+    /**
+     * Renders the template with current arguments into the internal buffer
+     *
+     * @return the number of bytes rendered
+     */
+    int render() {
+        length = 0;
+        for (int i = 0; i < literals.length; i++) {
+            final var argument = argumentIndexes[i];
+            if (argument < 0) {
+                writeBytes(literals[i]);
+            } else if (precisions[i] >= 0) {
+                writeDouble(kinds[argument] == KIND_LONG ? longs[argument] : doubles[argument], precisions[i]);
+            } else if (kinds[argument] == KIND_LONG) {
+                writeLong(longs[argument]);
+            } else if (kinds[argument] == KIND_DOUBLE) {
+                writeString(Double.toString(doubles[argument]));
+            } else if (kinds[argument] == KIND_OBJECT) {
+                writeString(String.valueOf(objects[argument]));
+            } else {
+                writeString("null");
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Renders the template and appends the line separator
+     *
+     * @return the number of bytes rendered
+     */
+    int renderLine() {
+        render();
+        writeBytes(LINE_SEPARATOR);
+        return length;
+    }
+
+    /**
+     * Writes the rendered bytes to the {@link OutputStream}
+     *
+     * @param out the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    void writeTo(final OutputStream out) throws IOException {
+        out.write(buffer, 0, length);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void ensureCapacity(final int additional) {
+        if (length + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + additional));
+        }
+    }
+
+    private void writeBytes(final byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void writeString(final String str) {
+        writeBytes(str.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeLong(final long value) {
+        if (value == Long.MIN_VALUE) {
+            writeString(Long.toString(value));
+            return;
+        }
+        ensureCapacity(20);
+        var v = value;
+        if (v < 0) {
+            buffer[length++] = '-';
+            v = -v;
+        }
+        // write digits reversed and swap afterwards
+        final var start = length;
+        do {
+            buffer[length++] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            final var tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+    }
+
+    /**
+     * Writes the double value with given precision, same as {@code %.pf} of
+     * {@link java.util.Formatter}: decimal digits of {@link Double#toString(double)}
+     * rounded half-up
+     * <p>
+     * The value is rounded as scaled {@code long}. Only if the scaled value is too large
+     * or too close to half to decide the rounding, the decimal digits are rounded exactly.
+     */
+    private void writeDouble(final double value, final int precision) {
+        if (Double.isNaN(value)) {
+            writeBytes(NAN);
+        } else if (Double.isInfinite(value)) {
+            if (value < 0) {
+                ensureCapacity(1);
+                buffer[length++] = '-';
+            }
+            writeBytes(INFINITY);
+        } else if (value == (long) value && Math.abs(value) < 1e15) {
+            // fast path for integral values (e.g. zero rates)
+            if (Double.doubleToRawLongBits(value) == Long.MIN_VALUE) {
+                ensureCapacity(1);
+                buffer[length++] = '-';
+            }
+            writeLong((long) value);
+            if (precision > 0) {
+                ensureCapacity(precision + 1);
+                buffer[length++] = '.';
+                for (int i = 0; i < precision; i++) {
+                    buffer[length++] = '0';
+                }
+            }
+        } else {
+            final var scaled = precision < POWERS_OF_TEN.length ? Math.abs(value) * POWERS_OF_TEN[precision] : Double.POSITIVE_INFINITY;
+            if (scaled >= MAX_SCALED_VALUE || Math.abs(scaled - Math.floor(scaled) - 0.5) < HALF_TOLERANCE) {
+                writeDoubleExact(value, precision);
+                return;
+            }
+            // negative value rounded to zero keeps its sign
+            if (value < 0) {
+                ensureCapacity(1);
+                buffer[length++] = '-';
+            }
+            final var rounded = (long) (scaled + 0.5);
+            final var scale = POWERS_OF_TEN[precision];
+            writeLong(rounded / scale);
+            if (precision > 0) {
+                ensureCapacity(precision + 1);
+                buffer[length++] = '.';
+                var fraction = rounded % scale;
+                for (int i = length + precision - 1; i >= length; i--) {
+                    buffer[i] = (byte) ('0' + fraction % 10);
+                    fraction /= 10;
+                }
+                length += precision;
+            }
+        }
+    }
+
+    /**
+     * Writes the double value with given precision using {@link BigDecimal}
+     */
+    private void writeDoubleExact(final double value, final int precision) {
+        final var str = new BigDecimal(Double.toString(value)).setScale(precision, RoundingMode.HALF_UP).toPlainString();
+        if (value < 0 && str.charAt(0) != '-') {
+            // negative value rounded to zero keeps its sign
+            ensureCapacity(1);
+            buffer[length++] = '-';
+        }
+        writeString(str);
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.body.Body;
+import li.pitschmann.knx.core.body.ConnectRequestBody;
+import li.pitschmann.knx.core.body.ConnectResponseBody;
+import li.pitschmann.knx.core.body.ConnectionStateRequestBody;
+import li.pitschmann.knx.core.body.ConnectionStateResponseBody;
+import li.pitschmann.knx.core.body.DescriptionRequestBody;
+import li.pitschmann.knx.core.body.DescriptionResponseBody;
+import li.pitschmann.knx.core.body.DisconnectRequestBody;
+import li.pitschmann.knx.core.body.DisconnectResponseBody;
+import li.pitschmann.knx.core.body.RoutingIndicationBody;
+import li.pitschmann.knx.core.body.SearchRequestBody;
+import li.pitschmann.knx.core.body.SearchResponseBody;
+import li.pitschmann.knx.core.body.TunnelingAckBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.communication.KnxStatistic;
+import li.pitschmann.knx.core.utils.Strings;
+
+import java.util.List;
+
+/**
+ * Immutable snapshot of all counters from {@link KnxStatistic} at one point in time
+ * <p>
+ * The counters are captured into a flat {@code long} array. As the live statistic
+ * keeps counting while it is read, the totals are read before and after the
+ * counters per body class; the capture is repeated until the totals did not change
+ * in between. This way the totals and the breakdown per body class are consistent,
+ * as long as the traffic is not too heavy (see {@link #isConsistent()}).
+ * <p>
+ * Layout of counters:
+ * <ul>
+ *     <li>{@link #INBOUND_PACKETS}, {@link #INBOUND_BYTES}, {@link #OUTBOUND_PACKETS},
+ *     {@link #OUTBOUND_BYTES} and {@link #ERRORS} for the totals</li>
+ *     <li>{@link #receivedIndex(Class)} for received packets per body class</li>
+ *     <li>{@link #sentIndex(Class)} for sent packets per body class</li>
+ * </ul>
+ * The snapshot itself is a {@link KnxStatistic} and can be used instead of the live statistic.
+ */
+public final class StatisticSnapshot implements KnxStatistic {
+    /**
+     * Body classes that are captured by the snapshot
+     */
+    public static final List<Class<? extends Body>> BODY_CLASSES = List.of(
+            SearchRequestBody.class,
+            SearchResponseBody.class,
+            DescriptionRequestBody.class,
+            DescriptionResponseBody.class,
+            ConnectRequestBody.class,
+            ConnectResponseBody.class,
+            ConnectionStateRequestBody.class,
+            ConnectionStateResponseBody.class,
+            TunnelingRequestBody.class,
+            TunnelingAckBody.class,
+            RoutingIndicationBody.class,
+            DisconnectRequestBody.class,
+            DisconnectResponseBody.class
+    );
+    /**
+     * Index of counter for inbound packets
+     */
+    public static final int INBOUND_PACKETS = 0;
+    /**
+     * Index of counter for inbound bytes
+     */
+    public static final int INBOUND_BYTES = 1;
+    /**
+     * Index of counter for outbound packets
+     */
+    public static final int OUTBOUND_PACKETS = 2;
+    /**
+     * Index of counter for outbound bytes
+     */
+    public static final int OUTBOUND_BYTES = 3;
+    /**
+     * Index of counter for errors
+     */
+    public static final int ERRORS = 4;
+    /**
+     * Number of counters in a snapshot
+     */
+    public static final int NUMBER_OF_COUNTERS = 5 + 2 * BODY_CLASSES.size();
+    /**
+     * Maximum number of attempts to capture a consistent snapshot
+     */
+    private static final int MAX_ATTEMPTS = 8;
+
+    private final long nanoTime;
+    private final long[] counters;
+    private final double errorRate;
+    private final boolean consistent;
+
+    private StatisticSnapshot(final long nanoTime, final long[] counters, final double errorRate, final boolean consistent) {
+        this.nanoTime = nanoTime;
+        this.counters = counters;
+        this.errorRate = errorRate;
+        this.consistent = consistent;
+    }
+
+    /**
+     * Creates a new snapshot of {@link KnxStatistic} with current monotonic time.
+     * If the given statistic is already a snapshot, it is returned as it is.
+     *
+     * @param statistic the statistic to be captured
+     * @return a snapshot
+     */
+    public static StatisticSnapshot of(final KnxStatistic statistic) {
+        if (statistic instanceof StatisticSnapshot) {
+            return (StatisticSnapshot) statistic;
+        }
+        return of(statistic, System.nanoTime());
+    }
+
+    /**
+     * Creates a new snapshot of {@link KnxStatistic}
+     *
+     * @param statistic the statistic to be captured
+     * @param nanoTime  the monotonic time in nanoseconds when the snapshot was taken
+     * @return a new snapshot
+     */
+    public static StatisticSnapshot of(final KnxStatistic statistic, final long nanoTime) {
+        final var counters = new long[NUMBER_OF_COUNTERS];
+        final var bodyClassesSize = BODY_CLASSES.size();
+        var consistent = false;
+        var errorRate = 0d;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && !consistent; attempt++) {
+            counters[INBOUND_PACKETS] = statistic.getNumberOfBodyReceived();
+            counters[INBOUND_BYTES] = statistic.getNumberOfBytesReceived();
+            counters[OUTBOUND_PACKETS] = statistic.getNumberOfBodySent();
+            counters[OUTBOUND_BYTES] = statistic.getNumberOfBytesSent();
+            counters[ERRORS] = statistic.getNumberOfErrors();
+            for (int i = 0; i < bodyClassesSize; i++) {
+                final var bodyClass = BODY_CLASSES.get(i);
+                counters[5 + i] = statistic.getNumberOfBodyReceived(bodyClass);
+                counters[5 + bodyClassesSize + i] = statistic.getNumberOfBodySent(bodyClass);
+            }
+            errorRate = statistic.getErrorRate();
+
+            // consistent when no packet has been counted in meantime
+            consistent = counters[INBOUND_PACKETS] == statistic.getNumberOfBodyReceived()
+                    && counters[OUTBOUND_PACKETS] == statistic.getNumberOfBodySent()
+                    && counters[ERRORS] == statistic.getNumberOfErrors();
+        }
+        return new StatisticSnapshot(nanoTime, counters, errorRate, consistent);
+    }
+
+    /**
+     * Returns the index of counter for received packets of given body class
+     *
+     * @param bodyClass the body class, must be one of {@link #BODY_CLASSES}
+     * @return index of counter
+     * @throws IllegalArgumentException if the body class is not captured by snapshot
+     */
+    public static int receivedIndex(final Class<? extends Body> bodyClass) {
+        return 5 + bodyClassIndex(bodyClass);
+    }
+
+    /**
+     * Returns the index of counter for sent packets of given body class
+     *
+     * @param bodyClass the body class, must be one of {@link #BODY_CLASSES}
+     * @return index of counter
+     * @throws IllegalArgumentException if the body class is not captured by snapshot
+     */
+    public static int sentIndex(final Class<? extends Body> bodyClass) {
+        return 5 + BODY_CLASSES.size() + bodyClassIndex(bodyClass);
+    }
+
+    private static int bodyClassIndex(final Class<? extends Body> bodyClass) {
+        final var index = BODY_CLASSES.indexOf(bodyClass);
+        if (index < 0) {
+            throw new IllegalArgumentException("Body class is not captured by snapshot: " + bodyClass);
+        }
+        return index;
+    }
+
+    /**
+     * Returns a new snapshot with given offsets added to the counters (e.g. the
+     * totals of previous runs). The error rate is re-calculated from the errors
+     * and the total number of packets and errors.
+     *
+     * @param offsets the offsets, same layout as {@link #toArray()}
+     * @return a new snapshot, or this snapshot if all offsets are zero
+     */
+    public StatisticSnapshot plus(final long[] offsets) {
+        if (offsets.length != NUMBER_OF_COUNTERS) {
+            throw new IllegalArgumentException("Number of offsets must be " + NUMBER_OF_COUNTERS + ", but was: " + offsets.length);
+        }
+        var changed = false;
+        final var sum = new long[NUMBER_OF_COUNTERS];
+        for (int i = 0; i < NUMBER_OF_COUNTERS; i++) {
+            sum[i] = counters[i] + offsets[i];
+            changed |= offsets[i] != 0;
+        }
+        if (!changed) {
+            return this;
+        }
+        final var total = sum[INBOUND_PACKETS] + sum[OUTBOUND_PACKETS] + sum[ERRORS];
+        final var sumErrorRate = total == 0 ? 0d : sum[ERRORS] * 100d / total;
+        return new StatisticSnapshot(nanoTime, sum, sumErrorRate, consistent);
+    }
+
+    /**
+     * Returns the monotonic time in nanoseconds when the snapshot was taken
+     *
+     * @return nano time
+     */
+    public long getNanoTime() {
+        return nanoTime;
+    }
+
+    /**
+     * Returns the counter at given index
+     *
+     * @param index index of counter, see class documentation
+     * @return value of counter
+     */
+    public long getCounter(final int index) {
+        return counters[index];
+    }
+
+    /**
+     * Returns a copy of all counters
+     *
+     * @return array of counters, see class documentation for layout
+     */
+    public long[] toArray() {
+        return counters.clone();
+    }
+
+    /**
+     * Returns if the totals did not change while the counters were captured. If {@code false}
+     * the live statistic was changing during all attempts and the snapshot may be slightly
+     * inconsistent.
+     *
+     * @return {@code true} if consistent, otherwise {@code false}
+     */
+    public boolean isConsistent() {
+        return consistent;
+    }
+
+    @Override
+    public long getNumberOfBodyReceived() {
+        return counters[INBOUND_PACKETS];
+    }
+
+    @Override
+    public long getNumberOfBodyReceived(final Class<? extends Body> bodyClass) {
+        return counters[receivedIndex(bodyClass)];
+    }
+
+    @Override
+    public long getNumberOfBytesReceived() {
+        return counters[INBOUND_BYTES];
+    }
+
+    @Override
+    public long getNumberOfBodySent() {
+        return counters[OUTBOUND_PACKETS];
+    }
+
+    @Override
+    public long getNumberOfBodySent(final Class<? extends Body> bodyClass) {
+        return counters[sentIndex(bodyClass)];
+    }
+
+    @Override
+    public long getNumberOfBytesSent() {
+        return counters[OUTBOUND_BYTES];
+    }
+
+    @Override
+    public long getNumberOfErrors() {
+        return counters[ERRORS];
+    }
+
+    @Override
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("nanoTime", nanoTime)
+                .add("inboundPackets", counters[INBOUND_PACKETS])
+                .add("outboundPackets", counters[OUTBOUND_PACKETS])
+                .add("errors", counters[ERRORS])
+                .add("consistent", consistent)
+                .toString();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import java.util.List;
+
+/**
+ * Table of statistic rows read by {@link ColumnarStatisticReader}
+ *
+ * @author PITSCHR
+ */
+public final class StatisticTable {
+    private final long[] times;
+    private final List<String> columns;
+    private final double[][] values;
+
+    StatisticTable(final long[] times, final String[] columns, final double[][] values) {
+        this.times = times;
+        this.columns = List.of(columns);
+        this.values = values;
+    }
+
+    /**
+     * Returns the number of rows
+     *
+     * @return number of rows
+     */
+    public int size() {
+        return times.length;
+    }
+
+    /**
+     * Returns the names of columns which have been read
+     *
+     * @return names of columns
+     */
+    public List<String> getColumnNames() {
+        return columns;
+    }
+
+    /**
+     * Returns the times of rows
+     *
+     * @return array of epoch milliseconds
+     */
+    public long[] getTimes() {
+        return times.clone();
+    }
+
+    /**
+     * Returns the values of given column. A value is {@link Double#NaN} if
+     * the column was not present in the statistic file for the row.
+     *
+     * @param column the name of column
+     * @return array of values, same length as {@link #getTimes()}
+     * @throws IllegalArgumentException if the column has not been read
+     */
+    public double[] getColumn(final String column) {
+        final var index = columns.indexOf(column);
+        if (index < 0) {
+            throw new IllegalArgumentException("Column has not been read: " + column);
+        }
+        return values[index].clone();
+    }
+}
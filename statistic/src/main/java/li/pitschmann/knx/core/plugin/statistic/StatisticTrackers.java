@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.annotations.Nullable;
+import li.pitschmann.knx.core.body.Body;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.utils.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Trackers of statistic that are shared by the statistic plug-ins of the same KNX client
+ * <p>
+ * The traffic per address, the round-trip times, the bus load and the anomalies are
+ * tracked only once per KNX client, even when several statistic plug-ins are installed.
+ * Every statistic plug-in registers itself as owner; the trackers are released when the
+ * last owner has been unregistered. Other plug-ins (e.g. the API plug-in) may look up the
+ * trackers with {@link #get(KnxClient)}, but do not own them.
+ * <p>
+ * Every observer plug-in passes the bodies to the trackers, but only the bodies passed by
+ * a single owner (the first one that passes a body) are recorded, otherwise every body
+ * would be counted once per plug-in.
+ * <p>
+ * The anomaly detection is started by the {@link AnomalyDetectionPlugin} only: the statistic
+ * of KNX client is then sampled for the {@link AnomalyDetector} in every interval and the
+ * events are passed to the listeners.
+ *
+ * @author PITSCHR
+ */
+public final class StatisticTrackers {
+    private static final Logger log = LoggerFactory.getLogger(StatisticTrackers.class);
+    private static final Map<KnxClient, StatisticTrackers> INSTANCES = new IdentityHashMap<>();
+    private final Set<Object> owners = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final AtomicReference<Object> recordingOwner = new AtomicReference<>();
+    private final List<Consumer<AnomalyEvent>> anomalyListeners = new CopyOnWriteArrayList<>();
+    private final AddressTrafficCounter trafficCounter = new AddressTrafficCounter();
+    private final RoundTripTracker roundTripTracker = new RoundTripTracker();
+    private final BusLoadEstimator busLoadEstimator = new BusLoadEstimator();
+    private final KnxClient client;
+    private volatile AnomalyDetector anomalyDetector;
+    private AlignedScheduler.Task anomalyTask;
+
+    private StatisticTrackers(final KnxClient client) {
+        this.client = Objects.requireNonNull(client);
+    }
+
+    /**
+     * Returns the trackers of {@code client} and registers the {@code owner}.
+     * The trackers are created when the first owner is registered.
+     *
+     * @param client the KNX client
+     * @param owner  the owner of trackers, usually the plug-in
+     * @return the shared trackers of KNX client
+     */
+    public static StatisticTrackers register(final KnxClient client, final Object owner) {
+        Objects.requireNonNull(owner);
+        synchronized (INSTANCES) {
+            var trackers = INSTANCES.get(client);
+            if (trackers == null) {
+                trackers = new StatisticTrackers(client);
+                INSTANCES.put(client, trackers);
+            }
+            trackers.owners.add(owner);
+            log.debug("Owner '{}' registered for trackers: {}", owner.getClass().getName(), trackers);
+            return trackers;
+        }
+    }
+
+    /**
+     * Returns the trackers of {@code client} without registering an owner
+     *
+     * @param client the KNX client
+     * @return the shared trackers of KNX client, or {@code null} if no statistic plug-in is registered
+     */
+    public static @Nullable StatisticTrackers get(final KnxClient client) {
+        synchronized (INSTANCES) {
+            return INSTANCES.get(client);
+        }
+    }
+
+    /**
+     * Unregisters the {@code owner}. The trackers are released when there is no owner anymore.
+     *
+     * @param owner the owner of trackers, usually the plug-in
+     */
+    public void unregister(final Object owner) {
+        synchronized (INSTANCES) {
+            owners.remove(owner);
+            recordingOwner.compareAndSet(owner, null);
+            if (owners.isEmpty()) {
+                stopAnomalyDetection();
+                INSTANCES.remove(client, this);
+                log.debug("Trackers released: {}", this);
+            }
+        }
+    }
+
+    /**
+     * Starts sampling the statistic for anomaly detection in every interval;
+     * nothing happens if the anomaly detection is already started
+     *
+     * @param threshold  z-score threshold of anomaly detector
+     * @param intervalMs sampling interval in milliseconds
+     * @return the anomaly detector
+     */
+    public synchronized AnomalyDetector startAnomalyDetection(final double threshold, final long intervalMs) {
+        if (anomalyDetector == null) {
+            anomalyDetector = new AnomalyDetector(threshold, AnomalyDetector.DEFAULT_ALPHA, AnomalyDetector.DEFAULT_WARM_UP, ZoneId.systemDefault());
+            // first sample is the baseline for rates
+            sampleAnomalies();
+            anomalyTask = AlignedScheduler.shared().schedule(getClass().getSimpleName() + "-anomaly", this::sampleAnomalies, intervalMs);
+        }
+        return anomalyDetector;
+    }
+
+    /**
+     * Stops sampling the statistic for anomaly detection
+     */
+    public synchronized void stopAnomalyDetection() {
+        if (anomalyTask != null) {
+            anomalyTask.close();
+            anomalyTask = null;
+        }
+        anomalyDetector = null;
+    }
+
+    /**
+     * Records the incoming body when passed by the recording owner
+     *
+     * @param owner the owner that passes the body
+     * @param item  the incoming body
+     */
+    public void onIncomingBody(final Object owner, final Body item) {
+        if (isRecordingOwner(owner)) {
+            trafficCounter.record(item);
+            roundTripTracker.onIncomingBody(item);
+            busLoadEstimator.onIncomingBody(item);
+        }
+    }
+
+    /**
+     * Records the outgoing body when passed by the recording owner
+     *
+     * @param owner the owner that passes the body
+     * @param item  the outgoing body
+     */
+    public void onOutgoingBody(final Object owner, final Body item) {
+        if (isRecordingOwner(owner)) {
+            trafficCounter.record(item);
+            roundTripTracker.onOutgoingBody(item);
+            busLoadEstimator.onOutgoingBody(item);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the bodies passed by {@code owner} are recorded.
+     * The first owner that passes a body becomes the recording owner.
+     */
+    private boolean isRecordingOwner(final Object owner) {
+        final var current = recordingOwner.get();
+        return current == owner || (current == null && recordingOwner.compareAndSet(null, owner));
+    }
+
+    /**
+     * Samples the statistic of KNX client for the anomaly detector and passes
+     * the events to the listeners
+     *
+     * @return list of events, empty if no anomaly was detected or the anomaly detection is not started
+     */
+    public synchronized List<AnomalyEvent> sampleAnomalies() {
+        if (anomalyDetector == null) {
+            return List.of();
+        }
+        final var events = anomalyDetector.update(StatisticSnapshot.of(client.getStatistic(), System.nanoTime()), Instant.now());
+        for (final var event : events) {
+            for (final var listener : anomalyListeners) {
+                listener.accept(event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Adds the listener that is notified about every anomaly event
+     *
+     * @param listener the listener of anomaly events
+     */
+    public void addAnomalyListener(final Consumer<AnomalyEvent> listener) {
+        anomalyListeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Removes the listener of anomaly events
+     *
+     * @param listener the listener of anomaly events
+     */
+    public void removeAnomalyListener(final Consumer<AnomalyEvent> listener) {
+        anomalyListeners.remove(listener);
+    }
+
+    /**
+     * Returns the counter of traffic per address
+     *
+     * @return counter
+     */
+    public AddressTrafficCounter getTrafficCounter() {
+        return trafficCounter;
+    }
+
+    /**
+     * Returns the tracker of round-trip times
+     *
+     * @return tracker
+     */
+    public RoundTripTracker getRoundTripTracker() {
+        return roundTripTracker;
+    }
+
+    /**
+     * Returns the estimator of bus load
+     *
+     * @return estimator
+     */
+    public BusLoadEstimator getBusLoadEstimator() {
+        return busLoadEstimator;
+    }
+
+    /**
+     * Returns the anomaly detector
+     *
+     * @return detector, or {@code null} if the anomaly detection is not started
+     */
+    public @Nullable AnomalyDetector getAnomalyDetector() {
+        return anomalyDetector;
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toStringHelper(this)
+                .add("owners", owners.size())
+                .add("anomalyListeners", anomalyListeners.size())
+                .add("anomalyDetection", anomalyDetector != null)
+                .toString();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.utils.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trigger for an extra statistic record when the packet rate or error rate crosses its threshold
+ * <p>
+ * The rates are calculated between two consecutive snapshots (e.g. every second). Crossing
+ * a threshold upwards (begin of incident) or downwards (end of incident) fires the trigger.
+ * To avoid a flood of records when a rate fluctuates around the threshold, the trigger fires
+ * at most once within the debounce time. A crossing within the debounce time is not lost: it
+ * is kept pending and fires with the first check after the debounce time has elapsed.
+ *
+ * @author PITSCHR
+ */
+final class StatisticTrigger {
+    private static final Logger log = LoggerFactory.getLogger(StatisticTrigger.class);
+    private final double packetRateThreshold;
+    private final double errorRateThreshold;
+    private final long debounceNanos;
+    private StatisticSnapshot previousSnapshot;
+    private boolean packetRateAbove;
+    private boolean errorRateAbove;
+    private boolean fired;
+    private boolean pending;
+    private long lastFiredNanoTime;
+
+    /**
+     * Creates a new trigger
+     *
+     * @param packetRateThreshold threshold of packets (inbound and outbound) per second; {@code 0} to disable
+     * @param errorRateThreshold  threshold of error rate in percent; {@code 0} to disable
+     * @param debounceMs          minimum time in milliseconds between two fired triggers
+     */
+    StatisticTrigger(final double packetRateThreshold, final double errorRateThreshold, final long debounceMs) {
+        Preconditions.checkArgument(packetRateThreshold >= 0, "Packet rate threshold must not be negative: {}", packetRateThreshold);
+        Preconditions.checkArgument(errorRateThreshold >= 0, "Error rate threshold must not be negative: {}", errorRateThreshold);
+        Preconditions.checkArgument(debounceMs >= 0, "Debounce must not be negative: {}", debounceMs);
+        this.packetRateThreshold = packetRateThreshold;
+        this.errorRateThreshold = errorRateThreshold;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMs);
+    }
+
+    /**
+     * Returns if at least one threshold is configured
+     *
+     * @return {@code true} if enabled
+     */
+    boolean isEnabled() {
+        return packetRateThreshold > 0 || errorRateThreshold > 0;
+    }
+
+    /**
+     * Checks the rates since previous snapshot against the thresholds
+     *
+     * @param snapshot the current snapshot of statistic
+     * @return {@code true} if a threshold has been crossed (now or pending within debounce time)
+     * and an extra statistic record should be written
+     */
+    synchronized boolean check(final StatisticSnapshot snapshot) {
+        final var previous = previousSnapshot;
+        previousSnapshot = snapshot;
+        if (previous == null || snapshot.getNanoTime() <= previous.getNanoTime()) {
+            return false;
+        }
+
+        final var intervalSeconds = (snapshot.getNanoTime() - previous.getNanoTime()) / 1e9;
+        final var packets = delta(snapshot, previous, StatisticSnapshot.INBOUND_PACKETS)
+                + delta(snapshot, previous, StatisticSnapshot.OUTBOUND_PACKETS);
+        final var errors = delta(snapshot, previous, StatisticSnapshot.ERRORS);
+        final var packetRate = packets / intervalSeconds;
+        final var errorRate = packets + errors == 0 ? 0d : errors * 100d / (packets + errors);
+
+        var crossed = false;
+        if (packetRateThreshold > 0 && packetRate > packetRateThreshold != packetRateAbove) {
+            packetRateAbove = !packetRateAbove;
+            crossed = true;
+            log.info("Packet rate {} threshold: {} packets/s (threshold: {} packets/s)",
+                    packetRateAbove ? "above" : "back below", packetRate, packetRateThreshold);
+        }
+        if (errorRateThreshold > 0 && errorRate > errorRateThreshold != errorRateAbove) {
+            errorRateAbove = !errorRateAbove;
+            crossed = true;
+            log.info("Error rate {} threshold: {}% (threshold: {}%)",
+                    errorRateAbove ? "above" : "back below", errorRate, errorRateThreshold);
+        }
+
+        pending |= crossed;
+        if (pending && (!fired || snapshot.getNanoTime() - lastFiredNanoTime >= debounceNanos)) {
+            fired = true;
+            pending = false;
+            lastFiredNanoTime = snapshot.getNanoTime();
+            return true;
+        }
+        return false;
+    }
+
+    private static long delta(final StatisticSnapshot snapshot, final StatisticSnapshot previous, final int index) {
+        return snapshot.getCounter(index) - previous.getCounter(index);
+    }
+}
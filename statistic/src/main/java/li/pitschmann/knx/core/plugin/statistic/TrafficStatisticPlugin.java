@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import com.vlkan.rfos.RotatingFileOutputStream;
+import li.pitschmann.knx.core.body.Body;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.plugin.EnumConfigValue;
+import li.pitschmann.knx.core.plugin.ExtensionPlugin;
+import li.pitschmann.knx.core.plugin.IntegerConfigValue;
+import li.pitschmann.knx.core.plugin.LongConfigValue;
+import li.pitschmann.knx.core.plugin.ObserverPlugin;
+import li.pitschmann.knx.core.plugin.PathConfigValue;
+import li.pitschmann.knx.core.utils.Closeables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Traffic statistic plug-in to write the telegrams and bytes per group
+ * address and per source address to a file
+ * <p>
+ * In every interval the top-K group addresses and source addresses with
+ * most telegrams (heavy hitters) are written, one line per address. The counter
+ * is shared with other plug-ins of KNX client, see {@link StatisticTrackers}.
+ *
+ * @author PITSCHR
+ */
+public final class TrafficStatisticPlugin implements ObserverPlugin, ExtensionPlugin {
+    /**
+     * File path
+     */
+    public static final PathConfigValue PATH = new PathConfigValue("path", () -> Paths.get("knx-traffic.log"), null);
+    /**
+     * File format (e.g. JSON, TEXT)
+     */
+    public static final EnumConfigValue<FileStatisticFormat> FORMAT = new EnumConfigValue<>("format", FileStatisticFormat.class, () -> FileStatisticFormat.JSON);
+    /**
+     * Interval in milliseconds. Default 5 minutes (300000ms) Minimum 10 sec (10000ms).
+     */
+    public static final LongConfigValue INTERVAL_MS = new LongConfigValue("intervalMs", () -> 5 * 60 * 1000L, x -> x >= 10000);
+    /**
+     * Number of group addresses and source addresses per report. Default 10.
+     */
+    public static final IntegerConfigValue TOP_K = new IntegerConfigValue("topK", () -> 10, x -> x > 0 && x <= 1000);
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficStatisticPlugin.class);
+
+    private AddressTrafficCounter counter;
+    private StatisticTrackers trackers;
+    private Path path;
+    private int topK;
+    private StatisticFormatter formatter;
+    private RotatingFileOutputStream fos;
+    private AlignedScheduler.Task scheduledTask;
+
+    @Override
+    public void onInitialization(final KnxClient client) {
+        // configurations
+        path = client.getConfig(TrafficStatisticPlugin.PATH);
+        final var format = client.getConfig(TrafficStatisticPlugin.FORMAT);
+        final var intervalMs = client.getConfig(TrafficStatisticPlugin.INTERVAL_MS);
+        topK = client.getConfig(TrafficStatisticPlugin.TOP_K);
+        log.info("Initialized '{}' with: [path={}, format={}, intervalMs={}, topK={}]", getClass().getName(), path, format, intervalMs, topK);
+
+        trackers = StatisticTrackers.register(client, this);
+        counter = trackers.getTrafficCounter();
+        formatter = new StatisticFormatter(format.getTrafficTemplate());
+        fos = StatisticFiles.openRotatingStream(path, format.getTrafficHeader());
+        scheduledTask = AlignedScheduler.shared().schedule(getClass().getSimpleName(), this::writeToTrafficFile, intervalMs);
+    }
+
+    @Override
+    public void onStart() {
+        // NO-OP
+    }
+
+    @Override
+    public void onIncomingBody(final Body item) {
+        trackers.onIncomingBody(this, item);
+    }
+
+    @Override
+    public void onOutgoingBody(final Body item) {
+        trackers.onOutgoingBody(this, item);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        // NO-OP
+    }
+
+    @Override
+    public void onShutdown() {
+        // cancel the scheduled task
+        if (scheduledTask != null) {
+            scheduledTask.close();
+        }
+
+        // print last traffic statistic
+        writeToTrafficFile();
+
+        // close the rollover stream
+        Closeables.closeQuietly(fos);
+        trackers.unregister(this);
+    }
+
+    /**
+     * Returns the counter of traffic per address
+     *
+     * @return counter
+     */
+    public AddressTrafficCounter getCounter() {
+        return counter;
+    }
+
+    /**
+     * Writes the top-K group addresses and source addresses to file
+     */
+    private synchronized void writeToTrafficFile() {
+        final var now = Instant.now();
+        writeLines(now, "group", counter.getTopGroupAddresses(topK), counter.getTotalGroupTelegrams());
+        writeLines(now, "source", counter.getTopSourceAddresses(topK), counter.getTotalSourceTelegrams());
+    }
+
+    private void writeLines(final Instant now, final String type, final List<AddressTraffic> traffics, final long totalTelegrams) {
+        formatter.setObject(1, now);
+        formatter.setObject(2, type);
+        for (int i = 0; i < traffics.size(); i++) {
+            final var traffic = traffics.get(i);
+            formatter.setLong(3, i + 1L);
+            formatter.setObject(4, traffic.getAddress());
+            formatter.setLong(5, traffic.getTelegrams());
+            formatter.setLong(6, traffic.getBytes());
+            formatter.setDouble(7, totalTelegrams > 0 ? traffic.getTelegrams() * 100d / totalTelegrams : 0d);
+            formatter.renderLine();
+            try {
+                formatter.writeTo(fos);
+            } catch (final IOException e) {
+                log.error("Error writing to traffic file '{}': {}", path, formatter, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.IndividualAddress;
+import li.pitschmann.knx.core.address.KnxAddress;
+import li.pitschmann.knx.core.body.RoutingIndicationBody;
+import li.pitschmann.knx.core.body.TunnelingAckBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.cemi.CEMI;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test {@link AddressTrafficCounter}
+ */
+class AddressTrafficCounterTest {
+
+    @Test
+    @DisplayName("Test the recording of bodies")
+    void testRecord() {
+        final var counter = new AddressTrafficCounter();
+        final var source = IndividualAddress.of(1, 2, 3);
+        final var groupAddress = GroupAddress.of(1, 2, 3);
+
+        // tunneling request and routing indication to group address
+        final var tunnelingRequestBody = mock(TunnelingRequestBody.class);
+        final var cemiToGroup = createCEMIMock(source, groupAddress, 11);
+        when(tunnelingRequestBody.getCEMI()).thenReturn(cemiToGroup);
+        counter.record(tunnelingRequestBody);
+
+        final var routingIndicationBody = mock(RoutingIndicationBody.class);
+        when(routingIndicationBody.getCEMI()).thenReturn(cemiToGroup);
+        counter.record(routingIndicationBody);
+
+        // point-to-point (counted for source only)
+        counter.record(createCEMIMock(source, IndividualAddress.of(1, 1, 1), 10));
+
+        // ignored
+        counter.record(mock(TunnelingAckBody.class));
+
+        final var groupTraffic = counter.getGroupTraffic(groupAddress);
+        assertThat(groupTraffic.getAddress()).isEqualTo(groupAddress);
+        assertThat(groupTraffic.getTelegrams()).isEqualTo(2);
+        assertThat(groupTraffic.getBytes()).isEqualTo(22);
+        assertThat(counter.getTotalGroupTelegrams()).isEqualTo(2);
+
+        final var sourceTraffic = counter.getSourceTraffic(source);
+        assertThat(sourceTraffic.getTelegrams()).isEqualTo(3);
+        assertThat(sourceTraffic.getBytes()).isEqualTo(32);
+        assertThat(counter.getTotalSourceTelegrams()).isEqualTo(3);
+
+        assertThat(counter.getGroupTraffic(GroupAddress.of(1, 2, 4)).getTelegrams()).isZero();
+    }
+
+    @Test
+    @DisplayName("Test the top-K heavy hitters")
+    void testTopK() {
+        final var counter = new AddressTrafficCounter();
+        final var source = IndividualAddress.of(15, 15, 255);
+
+        // group address with raw value 'n' gets n*3 telegrams (distinct numbers)
+        for (final var n : new int[]{7, 1, 65535, 300, 42, 2, 0}) {
+            final var cemi = createCEMIMock(source, GroupAddress.of(n), 10);
+            for (int i = 0; i < (n % 1000) * 3 + 1; i++) {
+                counter.record(cemi);
+            }
+        }
+
+        final var top3 = counter.getTopGroupAddresses(3);
+        assertThat(top3.stream().map(AddressTraffic::getAddress).collect(Collectors.toList()))
+                .containsExactly(GroupAddress.of(65535), GroupAddress.of(300), GroupAddress.of(42));
+        assertThat(top3.get(0).getTelegrams()).isEqualTo(535 * 3 + 1);
+        assertThat(top3.get(0).getBytes()).isEqualTo((535 * 3 + 1) * 10);
+
+        // k greater than number of addresses
+        assertThat(counter.getTopGroupAddresses(100)).hasSize(7).extracting(AddressTraffic::getTelegrams)
+                .isSortedAccordingTo((a, b) -> Long.compare(b, a));
+
+        // source address
+        final var topSource = counter.getTopSourceAddresses(1);
+        assertThat(topSource).hasSize(1);
+        assertThat(topSource.get(0).getAddress()).isEqualTo(source);
+        assertThat(topSource.get(0).getTelegrams()).isEqualTo(counter.getTotalSourceTelegrams());
+
+        assertThatThrownBy(() -> counter.getTopGroupAddresses(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private CEMI createCEMIMock(final IndividualAddress source, final KnxAddress destination, final int length) {
+        final var cemi = mock(CEMI.class);
+        when(cemi.getSourceAddress()).thenReturn(source);
+        when(cemi.getDestinationAddress()).thenReturn(destination);
+        when(cemi.toByteArray()).thenReturn(new byte[length]);
+        return cemi;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test {@link AlignedScheduler}
+ */
+class AlignedSchedulerTest {
+    private static final long INTERVAL = 300_000L; // 5 minutes
+
+    @Test
+    @DisplayName("Test the alignment of task to wall-clock boundaries")
+    void testAlignment() {
+        final var executorMock = mockExecutor();
+        final var clock = new AtomicLong(1_000_123_456L);
+        final var counter = new AtomicInteger();
+        final var task = new AlignedScheduler(executorMock, clock::get).schedule("test", counter::incrementAndGet, INTERVAL);
+
+        // first tick at next boundary: 1'000'200'000
+        verify(executorMock).schedule(any(Runnable.class), eq(76_544L), eq(TimeUnit.MILLISECONDS));
+
+        // tick is a bit late, next delay is shortened (no drift)
+        clock.set(1_000_200_250L);
+        task.tick();
+        assertThat(counter.get()).isEqualTo(1);
+        verify(executorMock).schedule(any(Runnable.class), eq(INTERVAL - 250), eq(TimeUnit.MILLISECONDS));
+
+        // tick too early, task is not executed but re-scheduled
+        clock.set(1_000_499_990L);
+        task.tick();
+        assertThat(counter.get()).isEqualTo(1);
+        verify(executorMock).schedule(any(Runnable.class), eq(10L), eq(TimeUnit.MILLISECONDS));
+
+        assertThat(task.getMissedTicks()).isZero();
+    }
+
+    @Test
+    @DisplayName("Test the missed ticks after a long pause")
+    void testMissedTicks() {
+        final var executorMock = mockExecutor();
+        final var clock = new AtomicLong(0);
+        final var counter = new AtomicInteger();
+        final var task = new AlignedScheduler(executorMock, clock::get).schedule("test", counter::incrementAndGet, INTERVAL);
+
+        // suspended for ~3 intervals: the next tick at 300'000 is due and ticks 600'000 and 900'000 are missed
+        clock.set(3 * INTERVAL + 1000);
+        task.tick();
+        assertThat(counter.get()).isEqualTo(1);
+        assertThat(task.getMissedTicks()).isEqualTo(2);
+        verify(executorMock).schedule(any(Runnable.class), eq(INTERVAL - 1000), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("Test the failing task and cancellation")
+    void testFailureAndCancel() {
+        final var executorMock = mockExecutor();
+        final var clock = new AtomicLong(0);
+        final var task = new AlignedScheduler(executorMock, clock::get).schedule("test", () -> {
+            throw new RuntimeException("Failure");
+        }, INTERVAL);
+        verify(executorMock).schedule(any(Runnable.class), eq(INTERVAL), eq(TimeUnit.MILLISECONDS));
+
+        // failure should not stop the periodic execution
+        clock.set(INTERVAL);
+        task.tick();
+        verify(executorMock, times(2)).schedule(any(Runnable.class), eq(INTERVAL), eq(TimeUnit.MILLISECONDS));
+
+        // after close no further scheduling
+        task.close();
+        clock.set(2 * INTERVAL);
+        task.tick();
+        verify(executorMock, never()).schedule(any(Runnable.class), eq(0L), eq(TimeUnit.MILLISECONDS));
+        verify(executorMock, times(2)).schedule(any(Runnable.class), eq(INTERVAL), eq(TimeUnit.MILLISECONDS));
+
+        assertThatThrownBy(() -> AlignedScheduler.shared().schedule("test", () -> { }, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Test the task executed once")
+    void testExecute() {
+        final var executorMock = mockExecutor();
+        final var counter = new AtomicInteger();
+        new AlignedScheduler(executorMock, () -> 0).execute("test", counter::incrementAndGet);
+
+        final var captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executorMock).execute(captor.capture());
+        captor.getValue().run();
+        assertThat(counter.get()).isEqualTo(1);
+
+        // failure is logged only
+        new AlignedScheduler(executorMock, () -> 0).execute("test", () -> {
+            throw new RuntimeException("Failure");
+        });
+        verify(executorMock, times(2)).execute(captor.capture());
+        captor.getValue().run();
+    }
+
+    private ScheduledExecutorService mockExecutor() {
+        final var executorMock = mock(ScheduledExecutorService.class);
+        doReturn(mock(ScheduledFuture.class)).when(executorMock).schedule(any(Runnable.class), any(Long.class), any(TimeUnit.class));
+        return executorMock;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.communication.KnxStatistic;
+import li.pitschmann.knx.core.config.Config;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test {@link AnomalyDetectionPlugin}
+ */
+class AnomalyDetectionPluginTest {
+
+    @Test
+    @DisplayName("JSON: Test Anomaly Detection")
+    void anomalyJson() throws IOException {
+        final var path = Paths.get("target/test-AnomalyDetectionPluginTest-anomalyJson-" + UUID.randomUUID() + ".log");
+        final var knxClientMock = mockKnxClient(path, FileStatisticFormat.JSON);
+        final var plugin = new AnomalyDetectionPlugin();
+        plugin.onInitialization(knxClientMock);
+        plugin.onStart();
+
+        // no traffic during warm up
+        for (int i = 0; i < AnomalyDetector.DEFAULT_WARM_UP; i++) {
+            plugin.sample();
+        }
+
+        // sudden traffic
+        final var statisticMock = mock(KnxStatistic.class);
+        when(statisticMock.getNumberOfBodyReceived()).thenReturn(1000L);
+        when(knxClientMock.getStatistic()).thenReturn(statisticMock);
+        plugin.sample();
+        plugin.onShutdown();
+
+        final var lines = Files.readAllLines(path);
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0)).matches("\\{\"datetime\":\"[^\"]+\",\\Q\"series\":\"inbound.packets\",\"value\":\\E\\d+\\.\\d{2},\\Q\"expected\":0.00,\"zScore\":\\E\\d+\\.\\d{2}}");
+        assertThat(plugin.getDetector().getRecentEvents()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("TSV: Test Anomaly Detection without anomalies")
+    void anomalyTsv() throws IOException {
+        final var path = Paths.get("target/test-AnomalyDetectionPluginTest-anomalyTsv-" + UUID.randomUUID() + ".log");
+        final var plugin = new AnomalyDetectionPlugin();
+        plugin.onInitialization(mockKnxClient(path, FileStatisticFormat.TSV));
+        plugin.sample();
+        plugin.onShutdown();
+
+        final var lines = Files.readAllLines(path);
+        assertThat(lines).containsExactly("Date & Time\tSeries\tValue\tExpected\tZ-Score");
+    }
+
+    private KnxClient mockKnxClient(final Path path, final FileStatisticFormat format) {
+        final var knxClientMock = mock(KnxClient.class);
+        final var configMock = mock(Config.class);
+
+        when(knxClientMock.getConfig()).thenReturn(configMock);
+        when(knxClientMock.getConfig(any())).thenCallRealMethod();
+
+        when(configMock.getValue(eq(AnomalyDetectionPlugin.PATH))).thenReturn(path);
+        when(configMock.getValue(eq(AnomalyDetectionPlugin.FORMAT))).thenReturn(format);
+        when(configMock.getValue(eq(AnomalyDetectionPlugin.INTERVAL_MS))).thenReturn(Long.MAX_VALUE);
+        when(configMock.getValue(eq(AnomalyDetectionPlugin.THRESHOLD))).thenReturn(AnomalyDetector.DEFAULT_THRESHOLD);
+
+        when(knxClientMock.getStatistic()).thenReturn(mock(KnxStatistic.class));
+        return knxClientMock;
+    }
+}
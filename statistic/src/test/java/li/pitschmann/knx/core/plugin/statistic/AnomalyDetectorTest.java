@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.body.ConnectRequestBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.communication.KnxStatistic;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test {@link AnomalyDetector}
+ */
+class AnomalyDetectorTest {
+    /**
+     * Monday, 2021-01-04 00:00:00 UTC
+     */
+    private static final Instant MONDAY = Instant.parse("2021-01-04T00:00:00Z");
+    private static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private long nanoTime;
+    private long tunnelingRequests;
+    private long connectRequests;
+    private long errors;
+
+    @Test
+    @DisplayName("Tunneling storm raises one event per series until back to normal")
+    void tunnelingStorm() {
+        final var detector = new AnomalyDetector(4d, 0.05d, 30, ZoneOffset.UTC);
+        var now = MONDAY.plusSeconds(8 * 3600);
+
+        // baseline: 10 tunneling requests per second (+/- 1)
+        assertThat(detector.update(sample(0, 0, 0), now)).isEmpty();
+        for (int i = 0; i < 50; i++) {
+            now = now.plusSeconds(10);
+            assertThat(detector.update(sample(100 + (i % 3 - 1) * 10, 0, 0), now)).isEmpty();
+        }
+
+        // storm: 200 tunneling requests per second
+        now = now.plusSeconds(10);
+        final var events = detector.update(sample(2000, 0, 0), now);
+        assertThat(events).extracting(AnomalyEvent::getSeries)
+                .containsExactly("inbound.packets", "inbound.TunnelingRequestBody");
+        final var event = events.get(0);
+        assertThat(event.getTime()).isEqualTo(now);
+        assertThat(event.getValue()).isEqualTo(200d);
+        assertThat(event.getExpected()).isBetween(9d, 11d);
+        assertThat(event.getZScore()).isGreaterThan(4d);
+
+        // storm continues: no further events
+        now = now.plusSeconds(10);
+        assertThat(detector.update(sample(2000, 0, 0), now)).isEmpty();
+
+        // back to normal and storm again
+        now = now.plusSeconds(10);
+        assertThat(detector.update(sample(100, 0, 0), now)).isEmpty();
+        now = now.plusSeconds(10);
+        assertThat(detector.update(sample(3000, 0, 0), now)).extracting(AnomalyEvent::getSeries)
+                .containsExactly("inbound.packets", "inbound.TunnelingRequestBody");
+
+        assertThat(detector.getRecentEvents()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Reconnect storm and error rate")
+    void reconnectStormAndErrorRate() {
+        final var detector = new AnomalyDetector(4d, 0.05d, 30, ZoneOffset.UTC);
+        var now = MONDAY;
+
+        detector.update(sample(0, 0, 0), now);
+        for (int i = 0; i < 40; i++) {
+            now = now.plusSeconds(10);
+            assertThat(detector.update(sample(100, 0, 0), now)).isEmpty();
+        }
+
+        // 50 connect requests per second and as many errors as packets
+        now = now.plusSeconds(10);
+        final var events = detector.update(sample(100, 500, 600), now);
+        assertThat(events).extracting(AnomalyEvent::getSeries, AnomalyEvent::getValue).containsExactly(
+                tuple("outbound.packets", 50d),
+                tuple("outbound.ConnectRequestBody", 50d),
+                tuple("error.rate", 50d)
+        );
+    }
+
+    @Test
+    @DisplayName("Recurring pattern of seasonal profile is not reported")
+    void seasonalProfile() {
+        final var detector = new AnomalyDetector(4d, 0.05d, 5, ZoneOffset.UTC);
+        final var mondayMorning = MONDAY.plusSeconds(7 * 3600);
+        final var mondayNoon = MONDAY.plusSeconds(12 * 3600);
+
+        // week 1: 10 packets per second at noon and 100 packets per second in the morning
+        detector.update(sample(0, 0, 0), mondayNoon);
+        for (int i = 0; i < 50; i++) {
+            detector.update(sample(100, 0, 0), mondayNoon.plusSeconds(10 * i));
+        }
+        assertThat(detector.update(sample(1000, 0, 0), mondayMorning)).isNotEmpty();
+        for (int i = 1; i < 50; i++) {
+            detector.update(sample(1000, 0, 0), mondayMorning.plusSeconds(10 * i));
+        }
+        for (int i = 0; i < 100; i++) {
+            detector.update(sample(100, 0, 0), mondayNoon.plusSeconds(10 * i));
+        }
+
+        // week 2: same pattern in the morning is expected
+        final var nextMondayMorning = mondayMorning.plus(7, ChronoUnit.DAYS);
+        assertThat(detector.update(sample(1000, 0, 0), nextMondayMorning)).isEmpty();
+
+        // but not at noon
+        final var nextMondayNoon = mondayNoon.plus(7, ChronoUnit.DAYS);
+        detector.update(sample(100, 0, 0), nextMondayNoon);
+        assertThat(detector.update(sample(1000, 0, 0), nextMondayNoon.plusSeconds(10))).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Tracked series")
+    void seriesNames() {
+        assertThat(AnomalyDetector.getSeriesNames())
+                .hasSize(3 + 2 * StatisticSnapshot.BODY_CLASSES.size())
+                .startsWith("inbound.packets", "outbound.packets", "inbound.SearchRequestBody", "outbound.SearchRequestBody")
+                .endsWith("error.rate");
+    }
+
+    @Test
+    @DisplayName("Invalid parameters")
+    void invalid() {
+        assertThatThrownBy(() -> new AnomalyDetector(0d, 0.05d, 30, ZoneOffset.UTC)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AnomalyDetector(4d, 0d, 30, ZoneOffset.UTC)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AnomalyDetector(4d, 1.1d, 30, ZoneOffset.UTC)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AnomalyDetector(4d, 0.05d, 0, ZoneOffset.UTC)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Creates a snapshot 10 seconds after the previous one with the given increments
+     */
+    private StatisticSnapshot sample(final long deltaTunnelingRequests, final long deltaConnectRequests, final long deltaErrors) {
+        nanoTime += INTERVAL_NANOS;
+        tunnelingRequests += deltaTunnelingRequests;
+        connectRequests += deltaConnectRequests;
+        errors += deltaErrors;
+
+        final var statisticMock = mock(KnxStatistic.class);
+        when(statisticMock.getNumberOfBodyReceived()).thenReturn(tunnelingRequests);
+        when(statisticMock.getNumberOfBodyReceived(TunnelingRequestBody.class)).thenReturn(tunnelingRequests);
+        when(statisticMock.getNumberOfBodySent()).thenReturn(connectRequests);
+        when(statisticMock.getNumberOfBodySent(ConnectRequestBody.class)).thenReturn(connectRequests);
+        when(statisticMock.getNumberOfErrors()).thenReturn(errors);
+        return StatisticSnapshot.of(statisticMock, nanoTime);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.body.RoutingIndicationBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.cemi.CEMI;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test {@link BusLoadEstimator}
+ */
+class BusLoadEstimatorTest {
+    private static final long START = 1_600_000_000_000L;
+    private static final Offset<Double> PRECISION = within(0.001d);
+
+    @Test
+    @DisplayName("Bit times of TP1 frames")
+    void bitTimes() {
+        // 11 bytes cEMI = 9 characters on TP1: 50 + 9 * 13 + 15 + 13
+        assertThat(BusLoadEstimator.bitTimes(createCEMIMock(11))).isEqualTo(195);
+        // 23 bytes cEMI = 21 characters on TP1
+        assertThat(BusLoadEstimator.bitTimes(createCEMIMock(23))).isEqualTo(351);
+        // frame has at least 8 characters
+        assertThat(BusLoadEstimator.bitTimes(createCEMIMock(5))).isEqualTo(182);
+    }
+
+    @Test
+    @DisplayName("Bus load of current second, sliding windows and peak")
+    void busLoad() {
+        final var clock = new AtomicLong(START);
+        final var estimator = new BusLoadEstimator(50d, clock::get);
+        final var cemi = createCEMIMock(11);
+
+        // 48 frames * 195 bit times = 9360 bit times = 97.5% of 9600 bit/s
+        for (int i = 0; i < 48; i++) {
+            estimator.record(cemi);
+        }
+
+        // the second is not completed yet
+        final var busLoadIncomplete = estimator.getBusLoad();
+        assertThat(busLoadIncomplete.getCurrent()).isZero();
+        assertThat(busLoadIncomplete.getPeak()).isZero();
+        assertThat(busLoadIncomplete.getPeakTime()).isNull();
+
+        clock.addAndGet(1000);
+        final var busLoad = estimator.getBusLoad();
+        assertThat(busLoad.getCurrent()).isCloseTo(97.5d, PRECISION);
+        assertThat(busLoad.getOneMinute()).isCloseTo(97.5d, PRECISION);
+        assertThat(busLoad.getFiveMinutes()).isCloseTo(97.5d, PRECISION);
+        assertThat(busLoad.getFifteenMinutes()).isCloseTo(97.5d, PRECISION);
+        assertThat(busLoad.getPeak()).isCloseTo(97.5d, PRECISION);
+        assertThat(busLoad.getPeakTime()).isEqualTo(Instant.ofEpochMilli(START));
+        assertThat(busLoad.getThreshold()).isEqualTo(50d);
+        assertThat(busLoad.getSecondsAboveThreshold()).isEqualTo(1);
+        assertThat(busLoad.isAlert()).isTrue();
+
+        // 60 seconds later the frames are out of 1-minute window
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(60));
+        final var busLoadAfterMinute = estimator.getBusLoad();
+        assertThat(busLoadAfterMinute.getCurrent()).isZero();
+        assertThat(busLoadAfterMinute.getOneMinute()).isZero();
+        assertThat(busLoadAfterMinute.getFiveMinutes()).isCloseTo(97.5d / 61, PRECISION);
+        assertThat(busLoadAfterMinute.getFifteenMinutes()).isCloseTo(97.5d / 61, PRECISION);
+        assertThat(busLoadAfterMinute.getPeak()).isCloseTo(97.5d, PRECISION);
+        assertThat(busLoadAfterMinute.getSecondsAboveThreshold()).isEqualTo(1);
+        assertThat(busLoadAfterMinute.isAlert()).isFalse();
+
+        // 20 minutes later all windows are empty, but peak is still known
+        clock.addAndGet(TimeUnit.MINUTES.toMillis(20));
+        final var busLoadAfterWindow = estimator.getBusLoad();
+        assertThat(busLoadAfterWindow.getFiveMinutes()).isZero();
+        assertThat(busLoadAfterWindow.getFifteenMinutes()).isZero();
+        assertThat(busLoadAfterWindow.getPeak()).isCloseTo(97.5d, PRECISION);
+        assertThat(busLoadAfterWindow.getPeakTime()).isEqualTo(Instant.ofEpochMilli(START));
+    }
+
+    @Test
+    @DisplayName("Sliding window over multiple seconds")
+    void slidingWindow() {
+        final var clock = new AtomicLong(START);
+        final var estimator = new BusLoadEstimator(50d, clock::get);
+        final var cemi = createCEMIMock(11);
+
+        // 1 frame per second for 120 seconds: 195 / 9600 = 2.03125%
+        for (int i = 0; i < 120; i++) {
+            estimator.record(cemi);
+            clock.addAndGet(1000);
+        }
+
+        final var busLoad = estimator.getBusLoad();
+        assertThat(busLoad.getCurrent()).isCloseTo(2.03125d, PRECISION);
+        assertThat(busLoad.getOneMinute()).isCloseTo(2.03125d, PRECISION);
+        assertThat(busLoad.getFiveMinutes()).isCloseTo(2.03125d, PRECISION);
+        assertThat(busLoad.getPeak()).isCloseTo(2.03125d, PRECISION);
+        // first second with the peak
+        assertThat(busLoad.getPeakTime()).isEqualTo(Instant.ofEpochMilli(START));
+        assertThat(busLoad.getSecondsAboveThreshold()).isZero();
+        assertThat(busLoad.isAlert()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Tunneling requests are counted when incoming, routing indications in both directions")
+    void bodies() {
+        final var clock = new AtomicLong(START);
+        final var estimator = new BusLoadEstimator(50d, clock::get);
+        final var cemi = createCEMIMock(11);
+
+        final var tunnelingRequest = mock(TunnelingRequestBody.class);
+        when(tunnelingRequest.getCEMI()).thenReturn(cemi);
+        final var routingIndication = mock(RoutingIndicationBody.class);
+        when(routingIndication.getCEMI()).thenReturn(cemi);
+
+        estimator.onIncomingBody(tunnelingRequest);  // counted
+        estimator.onOutgoingBody(tunnelingRequest);  // not counted (confirmation is incoming)
+        estimator.onIncomingBody(routingIndication); // counted
+        estimator.onOutgoingBody(routingIndication); // counted
+
+        clock.addAndGet(1000);
+        assertThat(estimator.getBusLoad().getCurrent()).isCloseTo(3 * 195 * 100d / 9600, PRECISION);
+    }
+
+    private static CEMI createCEMIMock(final int length) {
+        final var cemi = mock(CEMI.class);
+        when(cemi.toByteArray()).thenReturn(new byte[length]);
+        return cemi;
+    }
+}
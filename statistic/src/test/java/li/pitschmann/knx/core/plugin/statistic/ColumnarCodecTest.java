@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test {@link ColumnarCodec}
+ */
+class ColumnarCodecTest {
+
+    @Test
+    @DisplayName("Integer values with constant delta take one bit per value")
+    void longsConstantDelta() {
+        final var values = new long[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1_609_459_200_000L + i * 10_000L;
+        }
+
+        final var encoded = ColumnarCodec.encodeLongs(values, values.length);
+        // 64 bits for first value, 68 bits for first delta and 1 bit for each other value
+        assertThat(encoded).hasSize((64 + 68 + 998 + 7) / 8);
+        assertThat(ColumnarCodec.decodeLongs(ByteBuffer.wrap(encoded), values.length)).isEqualTo(values);
+    }
+
+    @Test
+    @DisplayName("Integer values of all ranges are decoded losslessly")
+    void longsAllRanges() {
+        final var random = new Random(4711);
+        final var values = new long[5000];
+        for (int i = 1; i < values.length; i++) {
+            switch (i % 5) {
+                case 0:
+                    values[i] = values[i - 1];
+                    break;
+                case 1:
+                    values[i] = values[i - 1] + random.nextInt(100);
+                    break;
+                case 2:
+                    values[i] = values[i - 1] + random.nextInt(1000);
+                    break;
+                case 3:
+                    values[i] = values[i - 1] - random.nextInt(5000);
+                    break;
+                default:
+                    values[i] = random.nextLong();
+            }
+        }
+        values[0] = Long.MIN_VALUE;
+        values[values.length - 1] = Long.MAX_VALUE;
+
+        final var encoded = ColumnarCodec.encodeLongs(values, values.length);
+        assertThat(ColumnarCodec.decodeLongs(ByteBuffer.wrap(encoded), values.length)).isEqualTo(values);
+    }
+
+    @Test
+    @DisplayName("Floating point values are decoded losslessly")
+    void doubles() {
+        final var random = new Random(4711);
+        final var values = new double[5000];
+        for (int i = 0; i < values.length; i++) {
+            switch (i % 4) {
+                case 0:
+                    values[i] = i == 0 ? 0d : values[i - 1];
+                    break;
+                case 1:
+                    values[i] = Math.round(random.nextDouble() * 10000) / 100d;
+                    break;
+                case 2:
+                    values[i] = random.nextGaussian();
+                    break;
+                default:
+                    values[i] = i % 8 == 3 ? Double.NaN : -Double.MAX_VALUE;
+            }
+        }
+
+        final var encoded = ColumnarCodec.encodeDoubles(values, values.length);
+        assertThat(ColumnarCodec.decodeDoubles(ByteBuffer.wrap(encoded), values.length)).isEqualTo(values);
+    }
+
+    @Test
+    @DisplayName("Constant floating point values take one bit per value")
+    void doublesConstant() {
+        final var values = new double[801];
+        Arrays.fill(values, 1.5d);
+
+        final var encoded = ColumnarCodec.encodeDoubles(values, values.length);
+        assertThat(encoded).hasSize((64 + 800) / 8);
+        assertThat(ColumnarCodec.decodeDoubles(ByteBuffer.wrap(encoded), values.length)).isEqualTo(values);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import com.vlkan.rfos.policy.DailyRotationPolicy;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.communication.KnxStatistic;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test {@link ColumnarStatisticWriter} and {@link ColumnarStatisticReader}
+ */
+class ColumnarStatisticReaderTest {
+    private static final Instant START = Instant.parse("2021-01-04T00:00:00Z");
+    private static final String TUNNELING = "inbound." + TunnelingRequestBody.class.getSimpleName();
+    private static final StatisticSnapshot EMPTY_SNAPSHOT = StatisticSnapshot.of(mock(KnxStatistic.class), 0);
+
+    @Test
+    @DisplayName("Write and read a week of 10 seconds samples")
+    void writeAndRead() throws IOException {
+        final var path = newPath("writeAndRead");
+        final var rows = 7 * 24 * 360;
+        writeSamples(path, rows);
+
+        // less than 4 bytes per row (with 35 columns)
+        assertThat(Files.size(path)).isLessThan(rows * 4L);
+
+        final var table = ColumnarStatisticReader.read(path, START, START.plusSeconds(7 * 24 * 3600), "inbound.packets", TUNNELING, "error.rate");
+        assertThat(table.size()).isEqualTo(rows);
+        assertThat(table.getColumnNames()).containsExactly("inbound.packets", TUNNELING, "error.rate");
+        assertThat(table.getTimes()[0]).isEqualTo(START.toEpochMilli());
+        assertThat(table.getTimes()[rows - 1]).isEqualTo(START.plusSeconds((rows - 1) * 10L).toEpochMilli());
+        assertThat(table.getColumn("inbound.packets")[rows - 1]).isEqualTo(inboundPackets(rows - 1));
+        assertThat(table.getColumn(TUNNELING)[1000]).isEqualTo(inboundPackets(1000) / 2);
+        assertThat(table.getColumn("error.rate")[1000]).isEqualTo(errorRate(1000));
+
+        // column not read
+        assertThatThrownBy(() -> table.getColumn("outbound.packets")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Read only rows within time range")
+    void readTimeRange() throws IOException {
+        final var path = newPath("readTimeRange");
+        writeSamples(path, 2000);
+
+        // row 1000 (inclusive) to 1100 (exclusive)
+        final var table = ColumnarStatisticReader.read(path, START.plusSeconds(10_000), START.plusSeconds(11_000), "inbound.packets");
+        assertThat(table.size()).isEqualTo(100);
+        assertThat(table.getTimes()[0]).isEqualTo(START.plusSeconds(10_000).toEpochMilli());
+        assertThat(table.getColumn("inbound.packets")[0]).isEqualTo(inboundPackets(1000));
+        assertThat(table.getColumn("inbound.packets")[99]).isEqualTo(inboundPackets(1099));
+
+        // out of range
+        assertThat(ColumnarStatisticReader.read(path, START.minusSeconds(60), START, "inbound.packets").size()).isZero();
+
+        // unknown column
+        final var unknown = ColumnarStatisticReader.read(path, START, START.plusSeconds(20), "foobar");
+        assertThat(unknown.size()).isEqualTo(2);
+        assertThat(unknown.getColumn("foobar")).containsOnly(Double.NaN);
+    }
+
+    @Test
+    @DisplayName("Torn block is skipped and following blocks are read")
+    void tornBlock() throws IOException {
+        final var path = newPath("tornBlock");
+        writeSamples(path, ColumnarStatisticWriter.MAX_ROWS_PER_BLOCK);
+        final var firstBlockSize = Files.size(path);
+
+        // torn write: only first half of the block
+        final var bytes = Files.readAllBytes(path);
+        try (final var file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(0);
+            file.write(bytes);
+            file.write(bytes, 0, (int) firstBlockSize / 2);
+            file.write(bytes);
+        }
+
+        final var table = ColumnarStatisticReader.read(path, START, START.plusSeconds(100_000), "inbound.packets");
+        assertThat(table.size()).isEqualTo(2 * ColumnarStatisticWriter.MAX_ROWS_PER_BLOCK);
+    }
+
+    @Test
+    @DisplayName("A new day starts a new block")
+    void newDay() throws IOException {
+        final var out = new ByteArrayOutputStream();
+        final var writer = new ColumnarStatisticWriter(out, ZoneOffset.UTC);
+        writer.append(START.minusSeconds(10), snapshot(0));
+        assertThat(writer.getPendingRows()).isEqualTo(1);
+        assertThat(out.size()).isZero();
+
+        writer.append(START, snapshot(1));
+        assertThat(writer.getPendingRows()).isEqualTo(1);
+        assertThat(out.size()).isPositive();
+
+        writer.flush();
+        assertThat(writer.getPendingRows()).isZero();
+    }
+
+    private static Path newPath(final String method) {
+        return Paths.get("target/test-ColumnarStatisticReaderTest-" + method + "-" + UUID.randomUUID() + ".bin");
+    }
+
+    @Test
+    @DisplayName("Pending rows are written to the file to be rotated")
+    void flushBeforeRotation() throws IOException {
+        final var path = newPath("flushBeforeRotation");
+        final var writerRef = new AtomicReference<ColumnarStatisticWriter>();
+        try (final var fos = StatisticFiles.openRotatingStream(path, "", () -> {
+            try {
+                writerRef.get().flush();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, null)) {
+            final var writer = new ColumnarStatisticWriter(fos, ZoneOffset.UTC);
+            writerRef.set(writer);
+            writer.append(START, snapshot(0));
+            writer.append(START.plusSeconds(10), snapshot(1));
+            assertThat(writer.getPendingRows()).isEqualTo(2);
+
+            fos.rotate(DailyRotationPolicy.getInstance(), START.plusSeconds(20));
+            assertThat(writer.getPendingRows()).isZero();
+        }
+
+        // rotated file has the date of rotation as suffix
+        final var prefix = path.getFileName().toString().replace(".bin", "-");
+        final Path rotatedPath;
+        try (final var files = Files.list(path.getParent())) {
+            rotatedPath = files.filter(p -> p.getFileName().toString().startsWith(prefix)).findFirst().orElseThrow();
+        }
+        assertThat(ColumnarStatisticReader.read(rotatedPath, START, START.plusSeconds(20), "inbound.packets").size()).isEqualTo(2);
+        assertThat(Files.size(path)).isZero();
+    }
+
+    private static void writeSamples(final Path path, final int rows) throws IOException {
+        try (final var out = Files.newOutputStream(path)) {
+            final var writer = new ColumnarStatisticWriter(out, ZoneOffset.UTC);
+            for (int i = 0; i < rows; i++) {
+                writer.append(START.plusSeconds(i * 10L), snapshot(i));
+            }
+            writer.flush();
+        }
+    }
+
+    private static StatisticSnapshot snapshot(final int row) {
+        final var counters = new long[StatisticSnapshot.NUMBER_OF_COUNTERS];
+        counters[StatisticSnapshot.INBOUND_PACKETS] = inboundPackets(row);
+        counters[StatisticSnapshot.receivedIndex(TunnelingRequestBody.class)] = inboundPackets(row) / 2;
+        counters[StatisticSnapshot.ERRORS] = errors(row);
+        return EMPTY_SNAPSHOT.plus(counters);
+    }
+
+    private static long inboundPackets(final int row) {
+        // about 10 packets per second with some variance
+        return row * 100L + (row % 7) * 3;
+    }
+
+    private static long errors(final int row) {
+        // one error every 1000 rows
+        return row / 1000;
+    }
+
+    private static double errorRate(final int row) {
+        return Math.round(errors(row) * 10000d / (inboundPackets(row) + errors(row))) / 100d;
+    }
+}
@@ -41,6 +41,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -104,6 +105,66 @@ class FileStatisticPluginTest {
                     "}," +
                     "\"error\":{" +
                         "\"total\":{\"packets\":0,\"rate\":0.00}" +
+                    "}," +
+                    "\"intervalSeconds\":0.000," +
+                    "\"delta\":{" +
+                        "\"inbound\":{" +
+                            "\"total\":{\"packets\":0,\"bytes\":0}," +
+                            "\"search\":{\"request\":0,\"response\":0}," +
+                            "\"description\":{\"request\":0,\"response\":0}," +
+                            "\"connect\":{\"request\":0,\"response\":0}," +
+                            "\"connectionState\":{\"request\":0,\"response\":0}," +
+                            "\"tunneling\":{\"request\":0,\"acknowledge\":0}," +
+                            "\"indication\":{\"request\":0,\"response\":0}," +
+                            "\"disconnect\":{\"request\":0,\"response\":0}" +
+                        "}," +
+                        "\"outbound\":{" +
+                            "\"total\":{\"packets\":0,\"bytes\":0}," +
+                            "\"search\":{\"request\":0,\"response\":0}," +
+                            "\"description\":{\"request\":0,\"response\":0}," +
+                            "\"connect\":{\"request\":0,\"response\":0}," +
+                            "\"connectionState\":{\"request\":0,\"response\":0}," +
+                            "\"tunneling\":{\"request\":0,\"acknowledge\":0}," +
+                            "\"indication\":{\"request\":0,\"response\":0}," +
+                            "\"disconnect\":{\"request\":0,\"response\":0}" +
+                        "}," +
+                        "\"error\":{" +
+                            "\"total\":{\"packets\":0}" +
+                        "}" +
+                    "}," +
+                    "\"rate\":{" +
+                        "\"inbound\":{" +
+                            "\"total\":{\"packets\":0.00,\"bytes\":0.00}," +
+                            "\"search\":{\"request\":0.00,\"response\":0.00}," +
+                            "\"description\":{\"request\":0,\"response\":0.00}," +
+                            "\"connect\":{\"request\":0,\"response\":0.00}," +
+                            "\"connectionState\":{\"request\":0,\"response\":0.00}," +
+                            "\"tunneling\":{\"request\":0.00,\"acknowledge\":0.00}," +
+                            "\"indication\":{\"request\":0,\"response\":0.00}," +
+                            "\"disconnect\":{\"request\":0.00,\"response\":0.00}" +
+                        "}," +
+                        "\"outbound\":{" +
+                            "\"total\":{\"packets\":0.00,\"bytes\":0.00}," +
+                            "\"search\":{\"request\":0.00,\"response\":0.00}," +
+                            "\"description\":{\"request\":0.00,\"response\":0}," +
+                            "\"connect\":{\"request\":0.00,\"response\":0}," +
+                            "\"connectionState\":{\"request\":0.00,\"response\":0}," +
+                            "\"tunneling\":{\"request\":0.00,\"acknowledge\":0.00}," +
+                            "\"indication\":{\"request\":0.00,\"response\":0}," +
+                            "\"disconnect\":{\"request\":0.00,\"response\":0.00}" +
+                        "}," +
+                        "\"error\":{" +
+                            "\"total\":{\"packets\":0.00}" +
+                        "}" +
+                    "}," +
+                    "\"load\":{" +
+                        "\"inbound\":{\"1m\":0.00,\"5m\":0.00,\"15m\":0.00}," +
+                        "\"outbound\":{\"1m\":0.00,\"5m\":0.00,\"15m\":0.00}" +
+                    "}," +
+                    "\"busLoad\":{" +
+                        "\"current\":0.00,\"1m\":0.00,\"5m\":0.00,\"15m\":0.00," +
+                        "\"peak\":0.00,\"peakTime\":\"-\"," +
+                        "\"threshold\":50.00,\"secondsAboveThreshold\":0" +
                     "}" +
                     "\\E" +
                 "}"
@@ -136,8 +197,47 @@ class FileStatisticPluginTest {
                     "}," +
                     "\"error\":{" +
                         "\"total\":{\"packets\":14,\"rate\":1.50}" +
-                    "}" +
+                    "}," +
                     "\\E" +
+                    "\"intervalSeconds\":1\\.\\d{3}," +
+                    "\\Q" +
+                    "\"delta\":{" +
+                        "\"inbound\":{" +
+                            "\"total\":{\"packets\":10,\"bytes\":11}," +
+                            "\"search\":{\"request\":100,\"response\":110}," +
+                            "\"description\":{\"request\":0,\"response\":210}," +
+                            "\"connect\":{\"request\":0,\"response\":310}," +
+                            "\"connectionState\":{\"request\":0,\"response\":410}," +
+                            "\"tunneling\":{\"request\":500,\"acknowledge\":510}," +
+                            "\"indication\":{\"request\":0,\"response\":600}," +
+                            "\"disconnect\":{\"request\":700,\"response\":710}" +
+                        "}," +
+                        "\"outbound\":{" +
+                            "\"total\":{\"packets\":12,\"bytes\":13}," +
+                            "\"search\":{\"request\":120,\"response\":130}," +
+                            "\"description\":{\"request\":220,\"response\":0}," +
+                            "\"connect\":{\"request\":320,\"response\":0}," +
+                            "\"connectionState\":{\"request\":420,\"response\":0}," +
+                            "\"tunneling\":{\"request\":520,\"acknowledge\":530}," +
+                            "\"indication\":{\"request\":610,\"response\":0}," +
+                            "\"disconnect\":{\"request\":720,\"response\":730}" +
+                        "}," +
+                        "\"error\":{" +
+                            "\"total\":{\"packets\":14}" +
+                        "}" +
+                    "}," +
+                    "\"rate\":{" +
+                        "\"inbound\":{" +
+                            "\"total\":{\"packets\":" +
+                    "\\E" +
+                    "\\d+\\.\\d{2}" +
+                    ".*" +
+                    "\\Q" +
+                    "\"load\":{" +
+                        "\"inbound\":{\"1m\":" +
+                    "\\E" +
+                    "\\d+\\.\\d{2}" +
+                    ".*" +
                 "}"
                 // @formatter:on
         );
@@ -188,7 +288,48 @@ class FileStatisticPluginTest {
                 "Outbound Connection State Requests\tOutbound Connection State Responses\t" +
                 "Outbound Disconnect Requests\tOutbound Disconnect Responses\t" +
                 "Outbound Tunneling Requests\tOutbound Tunneling Acknowledges\t" +
-                "Outbound Indication Requests\tOutbound Indication Responses"
+                "Outbound Indication Requests\tOutbound Indication Responses\t" +
+                // interval, delta, rate and load
+                "Interval (s)\t" +
+                "Inbound Packets (Delta)\tInbound Bytes (Delta)\t" +
+                "Outbound Packets (Delta)\tOutbound Bytes (Delta)\t" +
+                "Error Packets (Delta)\t" +
+                "Inbound Search Requests (Delta)\tInbound Search Responses (Delta)\t" +
+                "Inbound Description Requests (Delta)\tInbound Description Responses (Delta)\t" +
+                "Inbound Connect Requests (Delta)\tInbound Connect Responses (Delta)\t" +
+                "Inbound Connection State Requests (Delta)\tInbound Connection State Responses (Delta)\t" +
+                "Inbound Disconnect Requests (Delta)\tInbound Disconnect Responses (Delta)\t" +
+                "Inbound Tunneling Requests (Delta)\tInbound Tunneling Acknowledges (Delta)\t" +
+                "Inbound Indication Requests (Delta)\tInbound Indication Responses (Delta)\t" +
+                "Outbound Search Requests (Delta)\tOutbound Search Responses (Delta)\t" +
+                "Outbound Description Requests (Delta)\tOutbound Description Responses (Delta)\t" +
+                "Outbound Connect Requests (Delta)\tOutbound Connect Responses (Delta)\t" +
+                "Outbound Connection State Requests (Delta)\tOutbound Connection State Responses (Delta)\t" +
+                "Outbound Disconnect Requests (Delta)\tOutbound Disconnect Responses (Delta)\t" +
+                "Outbound Tunneling Requests (Delta)\tOutbound Tunneling Acknowledges (Delta)\t" +
+                "Outbound Indication Requests (Delta)\tOutbound Indication Responses (Delta)\t" +
+                "Inbound Packets (per Second)\tInbound Bytes (per Second)\t" +
+                "Outbound Packets (per Second)\tOutbound Bytes (per Second)\t" +
+                "Error Packets (per Second)\t" +
+                "Inbound Search Requests (per Second)\tInbound Search Responses (per Second)\t" +
+                "Inbound Description Requests (per Second)\tInbound Description Responses (per Second)\t" +
+                "Inbound Connect Requests (per Second)\tInbound Connect Responses (per Second)\t" +
+                "Inbound Connection State Requests (per Second)\tInbound Connection State Responses (per Second)\t" +
+                "Inbound Disconnect Requests (per Second)\tInbound Disconnect Responses (per Second)\t" +
+                "Inbound Tunneling Requests (per Second)\tInbound Tunneling Acknowledges (per Second)\t" +
+                "Inbound Indication Requests (per Second)\tInbound Indication Responses (per Second)\t" +
+                "Outbound Search Requests (per Second)\tOutbound Search Responses (per Second)\t" +
+                "Outbound Description Requests (per Second)\tOutbound Description Responses (per Second)\t" +
+                "Outbound Connect Requests (per Second)\tOutbound Connect Responses (per Second)\t" +
+                "Outbound Connection State Requests (per Second)\tOutbound Connection State Responses (per Second)\t" +
+                "Outbound Disconnect Requests (per Second)\tOutbound Disconnect Responses (per Second)\t" +
+                "Outbound Tunneling Requests (per Second)\tOutbound Tunneling Acknowledges (per Second)\t" +
+                "Outbound Indication Requests (per Second)\tOutbound Indication Responses (per Second)\t" +
+                "Inbound Load 1m\tInbound Load 5m\tInbound Load 15m\t" +
+                "Outbound Load 1m\tOutbound Load 5m\tOutbound Load 15m\t" +
+                // bus load
+                "Bus Load (%)\tBus Load 1m (%)\tBus Load 5m (%)\tBus Load 15m (%)\t" +
+                "Bus Load Peak (%)\tBus Load Peak Time\tSeconds above Threshold\tBus Load Threshold (%)"
                 // @formatter:on
 
         );
@@ -216,6 +357,30 @@ class FileStatisticPluginTest {
                 "520\t530\t610\t0"                                          // outbound tunneling, indication
                 // @formatter:on
         );
+        // interval, delta, rate and load
+        assertThat(lines.get(1).split("\t")).hasSize(116);
+        assertThat(lines.get(1)).endsWith(
+                "\t0.000\t" +                                                             // interval
+                "0\t0\t0\t0\t0\t" + "0\t".repeat(28) +                                 // delta
+                "0.00\t0.00\t0.00\t0.00\t0.00\t" +                                      // rate of totals
+                "0.00\t0.00\t0\t0.00\t0\t0.00\t0\t0.00\t0.00\t0.00\t0.00\t0.00\t0\t0.00\t" + // inbound rate
+                "0.00\t0.00\t0.00\t0\t0.00\t0\t0.00\t0\t0.00\t0.00\t0.00\t0.00\t0.00\t0\t" + // outbound rate
+                "0.00\t0.00\t0.00\t0.00\t0.00\t0.00\t" +                              // load
+                "0.00\t0.00\t0.00\t0.00\t0.00\t-\t0\t50.00"                               // bus load
+        );
+        assertThat(lines.get(2).split("\t")).hasSize(116);
+        assertThat(lines.get(2)).containsPattern(
+                // @formatter:off
+                "\t1\\.\\d{3}\t" +                                                      // interval
+                "10\t11\t" +                                                              // inbound total (delta)
+                "12\t13\t" +                                                              // outbound total (delta)
+                "14\t" +                                                                  // error total (delta)
+                "100\t110\t0\t210\t0\t310\t0\t410\t700\t710\t" +                          // inbound search, description, connect, connectionState, disconnect (delta)
+                "500\t510\t0\t600\t" +                                                    // inbound tunneling, indication (delta)
+                "120\t130\t220\t0\t320\t0\t420\t0\t720\t730\t" +                          // outbound search, description, connect, connectionState, disconnect (delta)
+                "520\t530\t610\t0\t"                                                      // outbound tunneling, indication (delta)
+                // @formatter:on
+        );
     }
 
     @Test
@@ -239,48 +404,108 @@ class FileStatisticPluginTest {
 
         // we should have two statistics (one at start up and one at shutdown)
         final var lines = Files.readAllLines(path);
-        assertThat(lines).hasSize(2 * 19); // 1 statistic output = 19 lines for TEXT
+        assertThat(lines).hasSize(2 * 21); // 1 statistic output = 21 lines for TEXT
         var i = 0;
-        assertThat(lines.get(i++)).containsPattern("Date & Time: \\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}.\\d+Z");
-        assertThat(lines.get(i++)).isEqualTo("0 packets received (0 bytes)");
-        assertThat(lines.get(i++)).isEqualTo("\t[Search          ] Request: 0, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Description     ] Request: 0, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Connect         ] Request: 0, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Connection State] Request: 0, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Tunneling       ] Request: 0, Acknowledge: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Indication      ] Request: 0, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Disconnect      ] Request: 0, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("0 packets sent (0 bytes)");
-        assertThat(lines.get(i++)).isEqualTo("\t[Search          ] Request: 0, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Description     ] Request: 0, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Connect         ] Request: 0, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Connection State] Request: 0, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Tunneling       ] Request: 0, Acknowledge: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Indication      ] Request: 0, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Disconnect      ] Request: 0, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("0 errors (0.00%)");
+        assertThat(lines.get(i++)).containsPattern("Date & Time: \\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}.\\d+Z \\(Interval: 0.000 s\\)");
+        assertThat(lines.get(i++)).isEqualTo("0 packets received (0 bytes), +0 packets (0.00/s), +0 bytes (0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("\t[Search          ] Request: 0 (+0, 0.00/s), Response: 0 (+0, 0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("\t[Description     ] Request: 0 (+0, 0.00/s), Response: 0 (+0, 0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("\t[Connect         ] Request: 0 (+0, 0.00/s), Response: 0 (+0, 0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("\t[Connection State] Request: 0 (+0, 0.00/s), Response: 0 (+0, 0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("\t[Tunneling       ] Request: 0 (+0, 0.00/s), Acknowledge: 0 (+0, 0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("\t[Indication      ] Request: 0 (+0, 0.00/s), Response: 0 (+0, 0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("\t[Disconnect      ] Request: 0 (+0, 0.00/s), Response: 0 (+0, 0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("0 packets sent (0 bytes), +0 packets (0.00/s), +0 bytes (0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("\t[Search          ] Request: 0 (+0, 0.00/s), Response: 0 (+0, 0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("\t[Description     ] Request: 0 (+0, 0.00/s), Response: 0 (+0, 0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("\t[Connect         ] Request: 0 (+0, 0.00/s), Response: 0 (+0, 0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("\t[Connection State] Request: 0 (+0, 0.00/s), Response: 0 (+0, 0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("\t[Tunneling       ] Request: 0 (+0, 0.00/s), Acknowledge: 0 (+0, 0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("\t[Indication      ] Request: 0 (+0, 0.00/s), Response: 0 (+0, 0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("\t[Disconnect      ] Request: 0 (+0, 0.00/s), Response: 0 (+0, 0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("0 errors (0.00%), +0 errors (0.00/s)");
+        assertThat(lines.get(i++)).isEqualTo("Load (1m, 5m, 15m): 0.00, 0.00, 0.00 packets/s received; 0.00, 0.00, 0.00 packets/s sent");
+        assertThat(lines.get(i++)).isEqualTo("Bus Load: 0.00% (1m, 5m, 15m: 0.00%, 0.00%, 0.00%), peak 0.00% at -, 0 seconds above 50.00%");
         assertThat(lines.get(i++)).isEqualTo("-----------------------------------------------------------------");
-        assertThat(lines.get(i++)).containsPattern("Date & Time: \\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}.\\d+Z");
-        assertThat(lines.get(i++)).isEqualTo("10 packets received (11 bytes)");
-        assertThat(lines.get(i++)).isEqualTo("\t[Search          ] Request: 100, Response: 110");
-        assertThat(lines.get(i++)).isEqualTo("\t[Description     ] Request: 0, Response: 210");
-        assertThat(lines.get(i++)).isEqualTo("\t[Connect         ] Request: 0, Response: 310");
-        assertThat(lines.get(i++)).isEqualTo("\t[Connection State] Request: 0, Response: 410");
-        assertThat(lines.get(i++)).isEqualTo("\t[Tunneling       ] Request: 500, Acknowledge: 510");
-        assertThat(lines.get(i++)).isEqualTo("\t[Indication      ] Request: 0, Response: 600");
-        assertThat(lines.get(i++)).isEqualTo("\t[Disconnect      ] Request: 700, Response: 710");
-        assertThat(lines.get(i++)).isEqualTo("12 packets sent (13 bytes)");
-        assertThat(lines.get(i++)).isEqualTo("\t[Search          ] Request: 120, Response: 130");
-        assertThat(lines.get(i++)).isEqualTo("\t[Description     ] Request: 220, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Connect         ] Request: 320, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Connection State] Request: 420, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Tunneling       ] Request: 520, Acknowledge: 530");
-        assertThat(lines.get(i++)).isEqualTo("\t[Indication      ] Request: 610, Response: 0");
-        assertThat(lines.get(i++)).isEqualTo("\t[Disconnect      ] Request: 720, Response: 730");
-        assertThat(lines.get(i++)).isEqualTo("14 errors (1.50%)");
+        // rates depend on the elapsed time between both statistics (about 1 second)
+        final var rate = "\\d+\\.\\d{2}/s";
+        assertThat(lines.get(i++)).containsPattern("Date & Time: \\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}.\\d+Z \\(Interval: 1\\.\\d{3} s\\)");
+        assertThat(lines.get(i++)).matches("10 packets received \\(11 bytes\\), \\+10 packets \\(" + rate + "\\), \\+11 bytes \\(" + rate + "\\)");
+        assertThat(lines.get(i++)).matches("\t\\[Search          ] Request: 100 \\(\\+100, " + rate + "\\), Response: 110 \\(\\+110, " + rate + "\\)");
+        assertThat(lines.get(i++)).matches("\t\\[Description     ] Request: 0 \\(\\+0, 0.00/s\\), Response: 210 \\(\\+210, " + rate + "\\)");
+        assertThat(lines.get(i++)).matches("\t\\[Connect         ] Request: 0 \\(\\+0, 0.00/s\\), Response: 310 \\(\\+310, " + rate + "\\)");
+        assertThat(lines.get(i++)).matches("\t\\[Connection State] Request: 0 \\(\\+0, 0.00/s\\), Response: 410 \\(\\+410, " + rate + "\\)");
+        assertThat(lines.get(i++)).matches("\t\\[Tunneling       ] Request: 500 \\(\\+500, " + rate + "\\), Acknowledge: 510 \\(\\+510, " + rate + "\\)");
+        assertThat(lines.get(i++)).matches("\t\\[Indication      ] Request: 0 \\(\\+0, 0.00/s\\), Response: 600 \\(\\+600, " + rate + "\\)");
+        assertThat(lines.get(i++)).matches("\t\\[Disconnect      ] Request: 700 \\(\\+700, " + rate + "\\), Response: 710 \\(\\+710, " + rate + "\\)");
+        assertThat(lines.get(i++)).matches("12 packets sent \\(13 bytes\\), \\+12 packets \\(" + rate + "\\), \\+13 bytes \\(" + rate + "\\)");
+        assertThat(lines.get(i++)).matches("\t\\[Search          ] Request: 120 \\(\\+120, " + rate + "\\), Response: 130 \\(\\+130, " + rate + "\\)");
+        assertThat(lines.get(i++)).matches("\t\\[Description     ] Request: 220 \\(\\+220, " + rate + "\\), Response: 0 \\(\\+0, 0.00/s\\)");
+        assertThat(lines.get(i++)).matches("\t\\[Connect         ] Request: 320 \\(\\+320, " + rate + "\\), Response: 0 \\(\\+0, 0.00/s\\)");
+        assertThat(lines.get(i++)).matches("\t\\[Connection State] Request: 420 \\(\\+420, " + rate + "\\), Response: 0 \\(\\+0, 0.00/s\\)");
+        assertThat(lines.get(i++)).matches("\t\\[Tunneling       ] Request: 520 \\(\\+520, " + rate + "\\), Acknowledge: 530 \\(\\+530, " + rate + "\\)");
+        assertThat(lines.get(i++)).matches("\t\\[Indication      ] Request: 610 \\(\\+610, " + rate + "\\), Response: 0 \\(\\+0, 0.00/s\\)");
+        assertThat(lines.get(i++)).matches("\t\\[Disconnect      ] Request: 720 \\(\\+720, " + rate + "\\), Response: 730 \\(\\+730, " + rate + "\\)");
+        assertThat(lines.get(i++)).matches("14 errors \\(1.50%\\), \\+14 errors \\(" + rate + "\\)");
+        assertThat(lines.get(i++)).matches("Load \\(1m, 5m, 15m\\): \\d+\\.\\d{2}, \\d+\\.\\d{2}, \\d+\\.\\d{2} packets/s received; \\d+\\.\\d{2}, \\d+\\.\\d{2}, \\d+\\.\\d{2} packets/s sent");
+        assertThat(lines.get(i++)).isEqualTo("Bus Load: 0.00% (1m, 5m, 15m: 0.00%, 0.00%, 0.00%), peak 0.00% at -, 0 seconds above 50.00%");
         assertThat(lines.get(i++)).isEqualTo("-----------------------------------------------------------------");
     }
 
+    @Test
+    @DisplayName("COLUMNAR: Test File Statistic")
+    void statisticColumnar() throws IOException {
+        final var path = Paths.get("target/test-FileStatisticPluginTest-statisticColumnar-" + UUID.randomUUID() + ".bin");
+        final var plugin = new FileStatisticPlugin();
+        final var knxClientMock = mockKnxClient(path, FileStatisticFormat.COLUMNAR);
+
+        // start
+        final var start = Instant.now();
+        plugin.onInitialization(knxClientMock);
+        plugin.onStart();
+
+        // shutdown
+        final var statisticAtShutdown = createKnxStatisticMock();
+        when(knxClientMock.getStatistic()).thenReturn(statisticAtShutdown);
+        plugin.onShutdown();
+
+        // we should have two statistics (one at start up and one at shutdown)
+        final var table = ColumnarStatisticReader.read(path, start, Instant.now().plusSeconds(1),
+                "inbound.packets", "outbound.TunnelingAckBody", "error.rate");
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.getColumn("inbound.packets")).containsExactly(0d, 10d);
+        assertThat(table.getColumn("outbound.TunnelingAckBody")).containsExactly(0d, 530d);
+        assertThat(table.getColumn("error.rate")).containsExactly(0d, 1.5d);
+    }
+
+    @Test
+    @DisplayName("JSON: Extra statistic when packet rate threshold is crossed")
+    void statisticPacketRateTrigger() throws IOException {
+        final var path = Paths.get("target/test-FileStatisticPluginTest-statisticPacketRateTrigger-" + UUID.randomUUID() + ".log");
+        final var plugin = new FileStatisticPlugin();
+        final var knxClientMock = mockKnxClient(path, FileStatisticFormat.JSON);
+        when(knxClientMock.getConfig().getValue(eq(FileStatisticPlugin.PACKET_RATE_THRESHOLD))).thenReturn(5d);
+
+        // start
+        plugin.onInitialization(knxClientMock);
+        plugin.onStart();
+
+        // 22 packets (10 inbound, 12 outbound) within next check (every second)
+        final var statistic = createKnxStatisticMock();
+        when(knxClientMock.getStatistic()).thenReturn(statistic);
+        Sleeper.milliseconds(2500);
+
+        // shutdown
+        plugin.onShutdown();
+
+        // we should have three statistics (one at start up, one by trigger and one at shutdown)
+        final var lines = Files.readAllLines(path);
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).contains("\"inbound\":{\"total\":{\"packets\":0,");
+        assertThat(lines.get(1)).contains("\"inbound\":{\"total\":{\"packets\":10,");
+        assertThat(lines.get(2)).contains("\"inbound\":{\"total\":{\"packets\":10,");
+    }
+
     @Test
     @DisplayName("JSON: Multiple starts (file appending)")
     void statisticMultipleStartsJson() throws IOException {
@@ -328,8 +553,36 @@ class FileStatisticPluginTest {
         final var lines = Files.readAllLines(path);
         // 3 iterations
         // 2 (one at start and one at shutdown)
-        // 19 (one text statistic output has 19 lines)
-        assertThat(lines).hasSize(3 * 2 * 19);
+        // 21 (one text statistic output has 21 lines)
+        assertThat(lines).hasSize(3 * 2 * 21);
+    }
+
+    @Test
+    @DisplayName("JSON: Counters are continued after restart using checkpoint")
+    void statisticRestartJson() throws IOException {
+        final var path = Paths.get("target/test-FileStatisticPluginTest-statisticRestartJson-" + UUID.randomUUID() + ".log");
+
+        for (int i=0; i<2; i++) {
+            final var plugin = new FileStatisticPlugin();
+            final var knxClientMock = mockKnxClient(path, FileStatisticFormat.JSON);
+            plugin.onInitialization(knxClientMock);
+            Sleeper.milliseconds(100); // sleep bit, otherwise shutdown may close the file too quickly
+            final var statisticAtShutdown = createKnxStatisticMock();
+            when(knxClientMock.getStatistic()).thenReturn(statisticAtShutdown);
+            plugin.onShutdown();
+        }
+
+        final var lines = Files.readAllLines(path);
+        assertThat(lines).hasSize(2 * 2); // 2 iterations * 2 (one at init and one at shutdown)
+        // first run
+        assertThat(lines.get(0)).contains("\"inbound\":{\"total\":{\"packets\":0,\"bytes\":0}");
+        assertThat(lines.get(1)).contains("\"inbound\":{\"total\":{\"packets\":10,\"bytes\":11}");
+        assertThat(lines.get(1)).contains("\"error\":{\"total\":{\"packets\":14,\"rate\":1.50}");
+        // second run continues with totals of first run
+        assertThat(lines.get(2)).contains("\"inbound\":{\"total\":{\"packets\":10,\"bytes\":11}");
+        assertThat(lines.get(3)).contains("\"inbound\":{\"total\":{\"packets\":20,\"bytes\":22}");
+        assertThat(lines.get(3)).contains("\"outbound\":{\"total\":{\"packets\":24,\"bytes\":26}");
+        assertThat(lines.get(3)).contains("\"error\":{\"total\":{\"packets\":28,\"rate\":38.89}");
     }
 
     private KnxClient mockKnxClient(final Path path, final FileStatisticFormat format) {
@@ -343,6 +596,11 @@ class FileStatisticPluginTest {
         when(configMock.getValue(eq(FileStatisticPlugin.PATH))).thenReturn(path);
         when(configMock.getValue(eq(FileStatisticPlugin.FORMAT))).thenReturn(format);
         when(configMock.getValue(eq(FileStatisticPlugin.INTERVAL_MS))).thenReturn(Long.MAX_VALUE);
+        when(configMock.getValue(eq(FileStatisticPlugin.BUS_LOAD_THRESHOLD))).thenReturn(50d);
+        when(configMock.getValue(eq(FileStatisticPlugin.CHECKPOINT_PATH))).thenReturn(Paths.get(path + ".checkpoint"));
+        when(configMock.getValue(eq(FileStatisticPlugin.PACKET_RATE_THRESHOLD))).thenReturn(0d);
+        when(configMock.getValue(eq(FileStatisticPlugin.ERROR_RATE_THRESHOLD))).thenReturn(0d);
+        when(configMock.getValue(eq(FileStatisticPlugin.TRIGGER_DEBOUNCE_MS))).thenReturn(10_000L);
 
         when(knxClientMock.getStatistic()).thenReturn(emptyStatistic);
         return knxClientMock;
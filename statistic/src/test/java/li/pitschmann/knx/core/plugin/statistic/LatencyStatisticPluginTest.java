@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.IndividualAddress;
+import li.pitschmann.knx.core.body.TunnelingAckBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.cemi.CEMI;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.config.Config;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test {@link LatencyStatisticPlugin}
+ */
+class LatencyStatisticPluginTest {
+
+    @Test
+    @DisplayName("JSON: Test Latency Statistic")
+    void latencyJson() throws IOException {
+        final var path = Paths.get("target/test-LatencyStatisticPluginTest-latencyJson-" + UUID.randomUUID() + ".log");
+        final var plugin = new LatencyStatisticPlugin();
+        plugin.onInitialization(mockKnxClient(path, FileStatisticFormat.JSON));
+        plugin.onStart();
+
+        // the traffic of request is recorded by the shared trackers as well
+        final var cemi = mock(CEMI.class);
+        when(cemi.getSourceAddress()).thenReturn(IndividualAddress.of(1, 1, 1));
+        when(cemi.getDestinationAddress()).thenReturn(GroupAddress.of(1, 2, 3));
+        when(cemi.toByteArray()).thenReturn(new byte[10]);
+        final var request = mock(TunnelingRequestBody.class);
+        when(request.getCEMI()).thenReturn(cemi);
+        when(request.getChannelId()).thenReturn(1);
+        when(request.getSequence()).thenReturn(2);
+        final var ack = mock(TunnelingAckBody.class);
+        when(ack.getChannelId()).thenReturn(1);
+        when(ack.getSequence()).thenReturn(2);
+
+        plugin.onOutgoingBody(request);
+        plugin.onIncomingBody(ack);
+        assertThat(plugin.getTracker().getTunneling().getSummary().getCount()).isEqualTo(1);
+
+        plugin.onShutdown();
+
+        final var lines = Files.readAllLines(path);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).matches("\\{\"datetime\":\"[^\"]+\",\\Q\"type\":\"tunneling\",\"count\":1,\"unanswered\":0,\"min\":\\E" +
+                "\\d+\\.\\d{3},\"p50\":\\d+\\.\\d{3},\"p90\":\\d+\\.\\d{3},\"p99\":\\d+\\.\\d{3},\"p999\":\\d+\\.\\d{3},\"max\":\\d+\\.\\d{3}}");
+        assertThat(lines.get(1)).matches("\\{\"datetime\":\"[^\"]+\",\\Q\"type\":\"connectionState\",\"count\":0,\"unanswered\":0," +
+                "\"min\":0.000,\"p50\":0.000,\"p90\":0.000,\"p99\":0.000,\"p999\":0.000,\"max\":0.000}\\E");
+    }
+
+    @Test
+    @DisplayName("TSV: Test Latency Statistic")
+    void latencyTsv() throws IOException {
+        final var path = Paths.get("target/test-LatencyStatisticPluginTest-latencyTsv-" + UUID.randomUUID() + ".log");
+        final var plugin = new LatencyStatisticPlugin();
+        plugin.onInitialization(mockKnxClient(path, FileStatisticFormat.TSV));
+        plugin.onShutdown();
+
+        final var lines = Files.readAllLines(path);
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).isEqualTo("Date & Time\tType\tCount\tUnanswered\tMin (ms)\tP50 (ms)\tP90 (ms)\tP99 (ms)\tP99.9 (ms)\tMax (ms)");
+        assertThat(lines.get(1)).endsWith("\ttunneling\t0\t0\t0.000\t0.000\t0.000\t0.000\t0.000\t0.000");
+        assertThat(lines.get(2)).endsWith("\tconnectionState\t0\t0\t0.000\t0.000\t0.000\t0.000\t0.000\t0.000");
+    }
+
+    private KnxClient mockKnxClient(final Path path, final FileStatisticFormat format) {
+        final var knxClientMock = mock(KnxClient.class);
+        final var configMock = mock(Config.class);
+
+        when(knxClientMock.getConfig()).thenReturn(configMock);
+        when(knxClientMock.getConfig(any())).thenCallRealMethod();
+
+        when(configMock.getValue(eq(LatencyStatisticPlugin.PATH))).thenReturn(path);
+        when(configMock.getValue(eq(LatencyStatisticPlugin.FORMAT))).thenReturn(format);
+        when(configMock.getValue(eq(LatencyStatisticPlugin.INTERVAL_MS))).thenReturn(Long.MAX_VALUE);
+        return knxClientMock;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Test {@link LoadAverage}
+ */
+class LoadAverageTest {
+
+    @Test
+    @DisplayName("Test the initial load average")
+    void testInitial() {
+        final var load = new LoadAverage();
+        assertThat(load.getOneMinute()).isZero();
+        assertThat(load.getFiveMinutes()).isZero();
+        assertThat(load.getFifteenMinutes()).isZero();
+
+        // no elapsed time should be ignored
+        load.update(100, 0);
+        assertThat(load.getOneMinute()).isZero();
+
+        // first rate is taken as it is
+        load.update(10, 60);
+        assertThat(load.getOneMinute()).isEqualTo(10);
+        assertThat(load.getFiveMinutes()).isEqualTo(10);
+        assertThat(load.getFifteenMinutes()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Test the load average with a burst")
+    void testBurst() {
+        final var load = new LoadAverage();
+        load.update(0, 60);
+
+        // burst of 100 packets per second over one minute
+        load.update(100, 60);
+        assertThat(load.getOneMinute()).isCloseTo(100 * (1 - Math.exp(-1)), within(0.001));
+        assertThat(load.getFiveMinutes()).isCloseTo(100 * (1 - Math.exp(-1 / 5d)), within(0.001));
+        assertThat(load.getFifteenMinutes()).isCloseTo(100 * (1 - Math.exp(-1 / 15d)), within(0.001));
+
+        // quiet again for 5 minutes: 1-minute average decays faster than 15-minute average
+        load.update(0, 5 * 60);
+        assertThat(load.getOneMinute()).isCloseTo(100 * (1 - Math.exp(-1)) * Math.exp(-5), within(0.001));
+        assertThat(load.getFifteenMinutes()).isCloseTo(100 * (1 - Math.exp(-1 / 15d)) * Math.exp(-1 / 3d), within(0.001));
+        assertThat(load.getOneMinute()).isLessThan(load.getFifteenMinutes());
+    }
+}
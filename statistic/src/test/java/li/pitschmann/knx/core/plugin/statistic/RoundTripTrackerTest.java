@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.body.ConnectionStateRequestBody;
+import li.pitschmann.knx.core.body.ConnectionStateResponseBody;
+import li.pitschmann.knx.core.body.TunnelingAckBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import org.assertj.core.data.Percentage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test {@link RoundTripTracker}
+ */
+class RoundTripTrackerTest {
+    /**
+     * Histograms are recorded with two significant digits
+     */
+    private static final Percentage PRECISION = withinPercentage(1);
+
+    @Test
+    @DisplayName("Tunneling Request is paired with Tunneling Ack by channel id and sequence")
+    void tunnelingRoundTrip() {
+        final var clock = new AtomicLong();
+        final var tracker = new RoundTripTracker(clock::get);
+
+        // two requests on same channel with different sequences
+        tracker.onOutgoingBody(tunnelingRequest(7, 1));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(5));
+        tracker.onOutgoingBody(tunnelingRequest(7, 2));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+
+        // ack for sequence 2 (10ms) and then for sequence 1 (15ms)
+        tracker.onIncomingBody(tunnelingAck(7, 2));
+        tracker.onIncomingBody(tunnelingAck(7, 1));
+
+        // ack without request (e.g. duplicate) is ignored
+        tracker.onIncomingBody(tunnelingAck(7, 1));
+        tracker.onIncomingBody(tunnelingAck(8, 2));
+
+        final var summary = tracker.getTunneling().getSummary();
+        assertThat(summary.getCount()).isEqualTo(2);
+        assertThat(summary.getUnanswered()).isZero();
+        assertThat(summary.getMin()).isCloseTo(10d, PRECISION);
+        assertThat(summary.getMax()).isCloseTo(15d, PRECISION);
+        assertThat(summary.getP50()).isCloseTo(10d, PRECISION);
+        assertThat(summary.getP99()).isCloseTo(15d, PRECISION);
+
+        // connection state is untouched
+        assertThat(tracker.getConnectionState().getSummary().getCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Repeated Tunneling Request is counted as unanswered")
+    void tunnelingRepeated() {
+        final var clock = new AtomicLong(1_000_000L);
+        final var tracker = new RoundTripTracker(clock::get);
+
+        tracker.onOutgoingBody(tunnelingRequest(1, 255));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        // repetition with same sequence after timeout
+        tracker.onOutgoingBody(tunnelingRequest(1, 255));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+        tracker.onIncomingBody(tunnelingAck(1, 255));
+
+        final var summary = tracker.getTunneling().getSummary();
+        assertThat(summary.getCount()).isEqualTo(1);
+        assertThat(summary.getUnanswered()).isEqualTo(1);
+        assertThat(summary.getMax()).isCloseTo(2d, PRECISION);
+    }
+
+    @Test
+    @DisplayName("Pending request younger than the timeout is not counted as unanswered")
+    void tunnelingPendingWithinTimeout() {
+        final var clock = new AtomicLong();
+        final var tracker = new RoundTripTracker(clock::get);
+
+        // acknowledge dispatched before its request: request remains pending
+        tracker.onIncomingBody(tunnelingAck(1, 7));
+        tracker.onOutgoingBody(tunnelingRequest(1, 7));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        tracker.onOutgoingBody(tunnelingRequest(1, 7));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(3));
+        tracker.onIncomingBody(tunnelingAck(1, 7));
+
+        // connection state request within timeout of 10 seconds
+        tracker.onOutgoingBody(connectionStateRequest(3));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        tracker.onOutgoingBody(connectionStateRequest(3));
+
+        final var summary = tracker.getTunneling().getSummary();
+        assertThat(summary.getCount()).isEqualTo(1);
+        assertThat(summary.getUnanswered()).isZero();
+        assertThat(summary.getMax()).isCloseTo(3d, PRECISION);
+        assertThat(tracker.getConnectionState().getSummary().getUnanswered()).isZero();
+    }
+
+    @Test
+    @DisplayName("Connection State Request is paired with Connection State Response by channel id")
+    void connectionStateRoundTrip() {
+        final var clock = new AtomicLong();
+        final var tracker = new RoundTripTracker(clock::get);
+
+        tracker.onOutgoingBody(connectionStateRequest(3));
+        clock.addAndGet(TimeUnit.MICROSECONDS.toNanos(2500));
+        tracker.onIncomingBody(connectionStateResponse(3));
+
+        final var summary = tracker.getConnectionState().getSummary();
+        assertThat(summary.getCount()).isEqualTo(1);
+        assertThat(summary.getMin()).isCloseTo(2.5d, PRECISION);
+        assertThat(summary.getMax()).isCloseTo(2.5d, PRECISION);
+        assertThat(tracker.getTunneling().getSummary().getCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Interval summary is reset after every call, cumulative summary is not")
+    void intervalSummary() {
+        final var clock = new AtomicLong();
+        final var tracker = new RoundTripTracker(clock::get);
+
+        tracker.onOutgoingBody(tunnelingRequest(1, 1));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        tracker.onOutgoingBody(tunnelingRequest(1, 1));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(4));
+        tracker.onIncomingBody(tunnelingAck(1, 1));
+
+        final var firstInterval = tracker.getTunneling().getIntervalSummary();
+        assertThat(firstInterval.getCount()).isEqualTo(1);
+        assertThat(firstInterval.getUnanswered()).isEqualTo(1);
+        assertThat(firstInterval.getMax()).isCloseTo(4d, PRECISION);
+
+        final var secondInterval = tracker.getTunneling().getIntervalSummary();
+        assertThat(secondInterval.getCount()).isZero();
+        assertThat(secondInterval.getUnanswered()).isZero();
+        assertThat(secondInterval.getMax()).isZero();
+
+        final var cumulative = tracker.getTunneling().getSummary();
+        assertThat(cumulative.getCount()).isEqualTo(1);
+        assertThat(cumulative.getUnanswered()).isEqualTo(1);
+    }
+
+    private static TunnelingRequestBody tunnelingRequest(final int channelId, final int sequence) {
+        final var body = mock(TunnelingRequestBody.class);
+        when(body.getChannelId()).thenReturn(channelId);
+        when(body.getSequence()).thenReturn(sequence);
+        return body;
+    }
+
+    private static TunnelingAckBody tunnelingAck(final int channelId, final int sequence) {
+        final var body = mock(TunnelingAckBody.class);
+        when(body.getChannelId()).thenReturn(channelId);
+        when(body.getSequence()).thenReturn(sequence);
+        return body;
+    }
+
+    private static ConnectionStateRequestBody connectionStateRequest(final int channelId) {
+        final var body = mock(ConnectionStateRequestBody.class);
+        when(body.getChannelId()).thenReturn(channelId);
+        return body;
+    }
+
+    private static ConnectionStateResponseBody connectionStateResponse(final int channelId) {
+        final var body = mock(ConnectionStateResponseBody.class);
+        when(body.getChannelId()).thenReturn(channelId);
+        return body;
+    }
+}
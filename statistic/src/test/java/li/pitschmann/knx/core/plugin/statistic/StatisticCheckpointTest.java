@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test {@link StatisticCheckpoint}
+ */
+class StatisticCheckpointTest {
+    private static final int HEADER_SIZE = 16;
+    private static final int SLOT_SIZE = 8 + StatisticSnapshot.NUMBER_OF_COUNTERS * 8 + 8;
+
+    @Test
+    @DisplayName("New checkpoint file has zero counters")
+    void newFile() throws IOException {
+        final var path = Paths.get("target/test-StatisticCheckpointTest-newFile-" + UUID.randomUUID() + ".checkpoint");
+        try (final var checkpoint = StatisticCheckpoint.open(path)) {
+            assertThat(checkpoint.read()).hasSize(StatisticSnapshot.NUMBER_OF_COUNTERS).containsOnly(0L);
+        }
+        assertThat(Files.size(path)).isEqualTo(HEADER_SIZE + 2 * SLOT_SIZE);
+    }
+
+    @Test
+    @DisplayName("Latest counters are read after re-open")
+    void reopen() throws IOException {
+        final var path = Paths.get("target/test-StatisticCheckpointTest-reopen-" + UUID.randomUUID() + ".checkpoint");
+        try (final var checkpoint = StatisticCheckpoint.open(path)) {
+            checkpoint.write(counters(1));
+            checkpoint.write(counters(2));
+            checkpoint.write(counters(3));
+            assertThat(checkpoint.read()).isEqualTo(counters(3));
+        }
+        try (final var checkpoint = StatisticCheckpoint.open(path)) {
+            assertThat(checkpoint.read()).isEqualTo(counters(3));
+            checkpoint.write(counters(4));
+        }
+        try (final var checkpoint = StatisticCheckpoint.open(path)) {
+            assertThat(checkpoint.read()).isEqualTo(counters(4));
+        }
+    }
+
+    @Test
+    @DisplayName("Torn write falls back to the previous slot")
+    void tornWrite() throws IOException {
+        final var path = Paths.get("target/test-StatisticCheckpointTest-tornWrite-" + UUID.randomUUID() + ".checkpoint");
+        try (final var checkpoint = StatisticCheckpoint.open(path)) {
+            checkpoint.write(counters(1)); // slot 1 (sequence 1)
+            checkpoint.write(counters(2)); // slot 0 (sequence 2)
+        }
+
+        // corrupt a counter in slot 0 (latest) as if the write was torn
+        try (final var file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(HEADER_SIZE + 8 + 8);
+            file.writeLong(4711L);
+        }
+
+        try (final var checkpoint = StatisticCheckpoint.open(path)) {
+            assertThat(checkpoint.read()).isEqualTo(counters(1));
+            // next write must not overwrite the valid slot
+            checkpoint.write(counters(3));
+            assertThat(checkpoint.read()).isEqualTo(counters(3));
+        }
+    }
+
+    @Test
+    @DisplayName("Incompatible checkpoint file is re-initialized")
+    void incompatibleFile() throws IOException {
+        final var path = Paths.get("target/test-StatisticCheckpointTest-incompatibleFile-" + UUID.randomUUID() + ".checkpoint");
+        Files.write(path, "not a checkpoint file".getBytes());
+
+        try (final var checkpoint = StatisticCheckpoint.open(path)) {
+            assertThat(checkpoint.read()).containsOnly(0L);
+            checkpoint.write(counters(5));
+        }
+        try (final var checkpoint = StatisticCheckpoint.open(path)) {
+            assertThat(checkpoint.read()).isEqualTo(counters(5));
+        }
+    }
+
+    private static long[] counters(final long factor) {
+        final var counters = new long[StatisticSnapshot.NUMBER_OF_COUNTERS];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = factor * (i + 1);
+        }
+        return counters;
+    }
+}
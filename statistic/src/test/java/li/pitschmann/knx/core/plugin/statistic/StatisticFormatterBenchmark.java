@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Micro benchmark of {@link StatisticFormatter} compared to {@link String#format(String, Object...)}
+ * <p>
+ * Not part of the test suite, run it manually via its {@code main} method.
+ */
+public final class StatisticFormatterBenchmark {
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int ITERATIONS = 500_000;
+    private static final int ARGUMENTS = 92;
+    private static final OutputStream NULL_OUTPUT = OutputStream.nullOutputStream();
+
+    private StatisticFormatterBenchmark() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        for (final var format : FileStatisticFormat.values()) {
+            if (format == FileStatisticFormat.COLUMNAR) {
+                continue; // binary format without template
+            }
+            final var formatter = new StatisticFormatter(format.getTemplate());
+            runStringFormat(format, WARMUP_ITERATIONS);
+            runFormatter(formatter, WARMUP_ITERATIONS);
+
+            final var stringFormatNanos = runStringFormat(format, ITERATIONS);
+            final var formatterNanos = runFormatter(formatter, ITERATIONS);
+            System.out.printf("%-4s String.format: %,8.0f ns/op, StatisticFormatter: %,8.0f ns/op (%.1fx)%n",
+                    format, stringFormatNanos / (double) ITERATIONS, formatterNanos / (double) ITERATIONS,
+                    stringFormatNanos / (double) formatterNanos);
+        }
+    }
+
+    private static long runStringFormat(final FileStatisticFormat format, final int iterations) throws IOException {
+        final var instant = Instant.now();
+        final var args = new Object[ARGUMENTS];
+        final var start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            args[0] = instant;
+            for (int j = 1; j < args.length; j++) {
+                args[j] = j == 89 ? instant : isDouble(j) ? (Object) (i / 7d) : (Object) (long) (i + j);
+            }
+            NULL_OUTPUT.write(String.format(format.getTemplate(), args).getBytes(StandardCharsets.UTF_8));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runFormatter(final StatisticFormatter formatter, final int iterations) throws IOException {
+        final var instant = Instant.now();
+        final var start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            formatter.setObject(1, instant);
+            formatter.setObject(90, instant);
+            for (int j = 1; j < ARGUMENTS; j++) {
+                if (j == 89) {
+                    continue;
+                }
+                if (isDouble(j)) {
+                    formatter.setDouble(j + 1, i / 7d);
+                } else {
+                    formatter.setLong(j + 1, i + j);
+                }
+            }
+            formatter.renderLine();
+            formatter.writeTo(NULL_OUTPUT);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Returns if the argument at zero-based index is a floating number:
+     * {@code %7}, {@code %28}, {@code %54} .. {@code %89} and {@code %92}
+     */
+    private static boolean isDouble(final int index) {
+        return index == 6 || index == 27 || (index >= 53 && index <= 88) || index == 91;
+    }
+}
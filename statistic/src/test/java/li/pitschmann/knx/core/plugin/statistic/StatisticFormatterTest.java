@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test {@link StatisticFormatter}
+ */
+class StatisticFormatterTest {
+    private static final double[] POWERS_OF_TEN = {1d, 10d, 100d, 1000d};
+
+    @ParameterizedTest
+    @EnumSource(value = FileStatisticFormat.class, names = "COLUMNAR", mode = EnumSource.Mode.EXCLUDE)
+    @DisplayName("Test the output is identical to String.format")
+    void testIdenticalToStringFormat(final FileStatisticFormat format) throws IOException {
+        final var formatter = new StatisticFormatter(format.getTemplate());
+        final var random = new Random(4711);
+        final var args = new Object[92];
+
+        for (int run = 0; run < 200; run++) {
+            args[0] = Instant.ofEpochMilli(random.nextLong() & 0xFFFFFFFFFFFL);
+            formatter.setObject(1, args[0]);
+            // %90 is date and time of bus load peak
+            args[89] = Instant.ofEpochSecond(random.nextInt() & 0x7FFFFFFF);
+            formatter.setObject(90, args[89]);
+            for (int i = 1; i < args.length; i++) {
+                if (i == 89) {
+                    continue;
+                }
+                // %7, %28, %54 .. %89 and %92 are floating numbers
+                if (i == 6 || i == 27 || (i >= 53 && i <= 88) || i == 91) {
+                    final var value = randomDouble(random);
+                    args[i] = value;
+                    formatter.setDouble(i + 1, value);
+                } else {
+                    final var value = random.nextInt(3) == 0 ? 0L : random.nextLong() >> random.nextInt(64);
+                    args[i] = value;
+                    formatter.setLong(i + 1, value);
+                }
+            }
+
+            final var expected = String.format(Locale.ENGLISH, format.getTemplate(), args);
+            formatter.render();
+            assertThat(formatter.toString()).isEqualTo(expected);
+
+            final var out = new ByteArrayOutputStream();
+            formatter.renderLine();
+            formatter.writeTo(out);
+            assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(expected + System.lineSeparator());
+        }
+    }
+
+    @Test
+    @DisplayName("Test the floating numbers with edge cases")
+    void testDoubles() {
+        final var formatter = new StatisticFormatter("%1$.2f|%1$.3f|%1$s");
+        for (final var value : new double[]{0d, -0d, 1.005d, 2.675d, 0.125d, -0.001d, 1e-7d, 123456789.987654321d,
+                1e20d, -1.5d, 0.995d, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}) {
+            formatter.setDouble(1, value);
+            formatter.render();
+            assertThat(formatter.toString()).isEqualTo(String.format(Locale.ENGLISH, "%1$.2f|%1$.3f|%1$s", value));
+        }
+    }
+
+    @Test
+    @DisplayName("Test the literals, line separator, percent and unsupported specifiers")
+    void testLiterals() {
+        final var formatter = new StatisticFormatter("\u00c4 %1$s%%%n%2$s");
+        formatter.setLong(1, Long.MIN_VALUE);
+        formatter.setObject(2, null);
+        formatter.render();
+        assertThat(formatter.toString()).isEqualTo("\u00c4 " + Long.MIN_VALUE + "%" + System.lineSeparator() + "null");
+
+        assertThatThrownBy(() -> new StatisticFormatter("%d")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new StatisticFormatter("%s")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Test the scaled rounding of floating numbers is identical to BigDecimal rounding")
+    void testDoubleIdenticalToBigDecimal() {
+        final var precisions = new int[]{0, 1, 2, 3, 6, 9};
+        final var formatter = new StatisticFormatter("%1$.0f|%1$.1f|%1$.2f|%1$.3f|%1$.6f|%1$.9f");
+        final var random = new Random(4711);
+
+        for (int run = 0; run < 20_000; run++) {
+            final double value;
+            switch (run % 4) {
+                case 0:
+                    // close to half of last digit
+                    value = (random.nextInt(2_000_000) - 1_000_000 + 0.5) / POWERS_OF_TEN[random.nextInt(4)] + (random.nextInt(3) - 1) * 1e-12;
+                    break;
+                case 1:
+                    value = (random.nextInt(200_000) - 100_000) / 1000d;
+                    break;
+                case 2:
+                    value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 6);
+                    break;
+                default:
+                    value = Double.longBitsToDouble(random.nextLong());
+                    break;
+            }
+            formatter.setDouble(1, value);
+            formatter.render();
+
+            final var expected = new StringBuilder();
+            for (final var precision : precisions) {
+                if (expected.length() > 0) {
+                    expected.append('|');
+                }
+                expected.append(toBigDecimalString(value, precision));
+            }
+            assertThat(formatter.toString()).as("value: %s", value).isEqualTo(expected.toString());
+        }
+    }
+
+    /**
+     * Formats the value using {@link BigDecimal} as reference
+     */
+    private static String toBigDecimalString(final double value, final int precision) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return Double.toString(value);
+        }
+        final var str = new BigDecimal(Double.toString(value)).setScale(precision, RoundingMode.HALF_UP).toPlainString();
+        // negative value rounded to zero keeps its sign
+        return value < 0 && str.charAt(0) != '-' ? "-" + str : str;
+    }
+
+    private static double randomDouble(final Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return 0d;
+            case 1:
+                return random.nextInt(10000) / 1000d;
+            case 2:
+                return random.nextDouble() * 100;
+            default:
+                return random.nextDouble() * Math.pow(10, random.nextInt(12));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.body.Body;
+import li.pitschmann.knx.core.body.DescriptionRequestBody;
+import li.pitschmann.knx.core.body.RoutingIndicationBody;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.communication.KnxStatistic;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test {@link StatisticSnapshot}
+ */
+class StatisticSnapshotTest {
+
+    @Test
+    @DisplayName("Test the snapshot of statistic")
+    void testSnapshot() {
+        final var statisticMock = mock(KnxStatistic.class);
+        when(statisticMock.getNumberOfBodyReceived()).thenReturn(10L);
+        when(statisticMock.getNumberOfBytesReceived()).thenReturn(11L);
+        when(statisticMock.getNumberOfBodySent()).thenReturn(12L);
+        when(statisticMock.getNumberOfBytesSent()).thenReturn(13L);
+        when(statisticMock.getNumberOfErrors()).thenReturn(14L);
+        when(statisticMock.getErrorRate()).thenReturn(1.5d);
+        when(statisticMock.getNumberOfBodyReceived(TunnelingRequestBody.class)).thenReturn(7L);
+        when(statisticMock.getNumberOfBodySent(RoutingIndicationBody.class)).thenReturn(9L);
+
+        final var snapshot = StatisticSnapshot.of(statisticMock, 4711L);
+        assertThat(snapshot.isConsistent()).isTrue();
+        assertThat(snapshot.getNanoTime()).isEqualTo(4711L);
+        assertThat(snapshot.getNumberOfBodyReceived()).isEqualTo(10L);
+        assertThat(snapshot.getNumberOfBytesReceived()).isEqualTo(11L);
+        assertThat(snapshot.getNumberOfBodySent()).isEqualTo(12L);
+        assertThat(snapshot.getNumberOfBytesSent()).isEqualTo(13L);
+        assertThat(snapshot.getNumberOfErrors()).isEqualTo(14L);
+        assertThat(snapshot.getErrorRate()).isEqualTo(1.5d);
+        assertThat(snapshot.getNumberOfBodyReceived(TunnelingRequestBody.class)).isEqualTo(7L);
+        assertThat(snapshot.getNumberOfBodySent(TunnelingRequestBody.class)).isZero();
+        assertThat(snapshot.getNumberOfBodySent(RoutingIndicationBody.class)).isEqualTo(9L);
+        assertThat(snapshot.getNumberOfBodyReceived(DescriptionRequestBody.class)).isZero();
+
+        // flat array
+        final var counters = snapshot.toArray();
+        assertThat(counters).hasSize(StatisticSnapshot.NUMBER_OF_COUNTERS);
+        assertThat(counters[StatisticSnapshot.receivedIndex(TunnelingRequestBody.class)]).isEqualTo(7L);
+        assertThat(counters[StatisticSnapshot.sentIndex(RoutingIndicationBody.class)]).isEqualTo(9L);
+
+        // snapshot of a snapshot is the same instance
+        assertThat(StatisticSnapshot.of(snapshot)).isSameAs(snapshot);
+
+        // body class that is not captured
+        assertThatThrownBy(() -> snapshot.getNumberOfBodyReceived(Body.class)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Test the snapshot is captured again when statistic changed during capture")
+    void testSnapshotRetry() {
+        final var statisticMock = mock(KnxStatistic.class);
+        // 1st attempt: 1 before, 2 after -> retry; 2nd attempt: 2 before and after
+        when(statisticMock.getNumberOfBodyReceived()).thenReturn(1L, 2L, 2L, 2L);
+        when(statisticMock.getNumberOfBodyReceived(any())).thenReturn(0L, 1L);
+
+        final var snapshot = StatisticSnapshot.of(statisticMock);
+        assertThat(snapshot.isConsistent()).isTrue();
+        assertThat(snapshot.getNumberOfBodyReceived()).isEqualTo(2L);
+        verify(statisticMock, times(4)).getNumberOfBodyReceived();
+    }
+
+    @Test
+    @DisplayName("Test the snapshot when statistic changes continuously")
+    void testSnapshotInconsistent() {
+        final var statisticMock = mock(KnxStatistic.class);
+        final var counter = new long[1];
+        when(statisticMock.getNumberOfErrors()).thenAnswer(i -> ++counter[0]);
+
+        final var snapshot = StatisticSnapshot.of(statisticMock);
+        assertThat(snapshot.isConsistent()).isFalse();
+        verify(statisticMock, times(16)).getNumberOfErrors();
+    }
+
+    @Test
+    @DisplayName("Test the snapshot with offsets of previous runs")
+    void testPlus() {
+        final var statisticMock = mock(KnxStatistic.class);
+        when(statisticMock.getNumberOfBodyReceived()).thenReturn(10L);
+        when(statisticMock.getNumberOfBodySent()).thenReturn(20L);
+        when(statisticMock.getNumberOfErrors()).thenReturn(5L);
+        when(statisticMock.getErrorRate()).thenReturn(1.5d);
+        when(statisticMock.getNumberOfBodyReceived(TunnelingRequestBody.class)).thenReturn(7L);
+        final var snapshot = StatisticSnapshot.of(statisticMock, 4711L);
+
+        // no offsets
+        assertThat(snapshot.plus(new long[StatisticSnapshot.NUMBER_OF_COUNTERS])).isSameAs(snapshot);
+
+        final var offsets = new long[StatisticSnapshot.NUMBER_OF_COUNTERS];
+        offsets[StatisticSnapshot.INBOUND_PACKETS] = 30L;
+        offsets[StatisticSnapshot.OUTBOUND_PACKETS] = 30L;
+        offsets[StatisticSnapshot.ERRORS] = 5L;
+        offsets[StatisticSnapshot.receivedIndex(TunnelingRequestBody.class)] = 3L;
+        final var sum = snapshot.plus(offsets);
+        assertThat(sum.getNanoTime()).isEqualTo(4711L);
+        assertThat(sum.getNumberOfBodyReceived()).isEqualTo(40L);
+        assertThat(sum.getNumberOfBodySent()).isEqualTo(50L);
+        assertThat(sum.getNumberOfErrors()).isEqualTo(10L);
+        assertThat(sum.getErrorRate()).isEqualTo(10d);
+        assertThat(sum.getNumberOfBodyReceived(TunnelingRequestBody.class)).isEqualTo(10L);
+
+        // wrong number of offsets
+        assertThatThrownBy(() -> snapshot.plus(new long[1])).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.IndividualAddress;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.cemi.CEMI;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.communication.KnxStatistic;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test {@link StatisticTrackers}
+ */
+class StatisticTrackersTest {
+
+    @Test
+    @DisplayName("Trackers are shared per KNX client until the last owner is unregistered")
+    void testRegister() {
+        final var knxClientMock = mockKnxClient();
+        final var owner1 = new Object();
+        final var owner2 = new Object();
+
+        assertThat(StatisticTrackers.get(knxClientMock)).isNull();
+        final var trackers = StatisticTrackers.register(knxClientMock, owner1);
+        assertThat(StatisticTrackers.get(knxClientMock)).isSameAs(trackers);
+        assertThat(StatisticTrackers.register(knxClientMock, owner2)).isSameAs(trackers);
+        assertThat(StatisticTrackers.register(mockKnxClient(), owner1)).isNotSameAs(trackers);
+
+        // still in use by owner2
+        trackers.unregister(owner1);
+        assertThat(StatisticTrackers.register(knxClientMock, owner1)).isSameAs(trackers);
+
+        // released
+        trackers.unregister(owner1);
+        trackers.unregister(owner2);
+        assertThat(StatisticTrackers.get(knxClientMock)).isNull();
+        assertThat(StatisticTrackers.register(knxClientMock, owner1)).isNotSameAs(trackers);
+    }
+
+    @Test
+    @DisplayName("Bodies are recorded only once when passed by several owners")
+    void testRecordingOwner() {
+        final var knxClientMock = mockKnxClient();
+        final var owner1 = new Object();
+        final var owner2 = new Object();
+        final var trackers = StatisticTrackers.register(knxClientMock, owner1);
+        StatisticTrackers.register(knxClientMock, owner2);
+
+        final var bodyMock = createTunnelingRequestBodyMock();
+        trackers.onIncomingBody(owner2, bodyMock);
+        trackers.onIncomingBody(owner1, bodyMock);
+        trackers.onOutgoingBody(owner2, bodyMock);
+        trackers.onOutgoingBody(owner1, bodyMock);
+        assertThat(trackers.getTrafficCounter().getTotalGroupTelegrams()).isEqualTo(2);
+
+        // owner1 takes over when owner2 is unregistered
+        trackers.unregister(owner2);
+        trackers.onIncomingBody(owner1, bodyMock);
+        assertThat(trackers.getTrafficCounter().getTotalGroupTelegrams()).isEqualTo(3);
+        trackers.unregister(owner1);
+    }
+
+    @Test
+    @DisplayName("Anomaly events are passed to the listeners")
+    void testAnomalyListener() {
+        final var knxClientMock = mockKnxClient();
+        final var owner = new Object();
+        final var trackers = StatisticTrackers.register(knxClientMock, owner);
+        final var events = new ArrayList<AnomalyEvent>();
+        final Consumer<AnomalyEvent> listener = events::add;
+        trackers.addAnomalyListener(listener);
+
+        // not sampled until the anomaly detection is started
+        assertThat(trackers.getAnomalyDetector()).isNull();
+        assertThat(trackers.sampleAnomalies()).isEmpty();
+        verify(knxClientMock, never()).getStatistic();
+        trackers.startAnomalyDetection(AnomalyDetector.DEFAULT_THRESHOLD, Long.MAX_VALUE);
+        assertThat(trackers.getAnomalyDetector()).isNotNull();
+
+        // no traffic during warm up (first sample at registration is the baseline)
+        for (int i = 0; i < AnomalyDetector.DEFAULT_WARM_UP; i++) {
+            assertThat(trackers.sampleAnomalies()).isEmpty();
+        }
+
+        // sudden traffic
+        final var statisticMock = mock(KnxStatistic.class);
+        when(statisticMock.getNumberOfBodyReceived()).thenReturn(1000L);
+        when(knxClientMock.getStatistic()).thenReturn(statisticMock);
+        assertThat(trackers.sampleAnomalies()).hasSize(1);
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getSeries()).isEqualTo("inbound.packets");
+
+        // listener removed
+        trackers.removeAnomalyListener(listener);
+        when(statisticMock.getNumberOfBodyReceived()).thenReturn(100000L);
+        trackers.sampleAnomalies();
+        assertThat(events).hasSize(1);
+
+        // stopped
+        trackers.stopAnomalyDetection();
+        assertThat(trackers.getAnomalyDetector()).isNull();
+        trackers.unregister(owner);
+    }
+
+    private TunnelingRequestBody createTunnelingRequestBodyMock() {
+        final var cemi = mock(CEMI.class);
+        when(cemi.getSourceAddress()).thenReturn(IndividualAddress.of(1, 1, 1));
+        when(cemi.getDestinationAddress()).thenReturn(GroupAddress.of(1, 2, 3));
+        when(cemi.toByteArray()).thenReturn(new byte[10]);
+
+        final var body = mock(TunnelingRequestBody.class);
+        when(body.getCEMI()).thenReturn(cemi);
+        return body;
+    }
+
+    private KnxClient mockKnxClient() {
+        final var knxClientMock = mock(KnxClient.class);
+        when(knxClientMock.getStatistic()).thenReturn(mock(KnxStatistic.class));
+        return knxClientMock;
+    }
+}
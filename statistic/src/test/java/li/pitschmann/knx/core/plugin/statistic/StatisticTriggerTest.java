@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.communication.KnxStatistic;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test {@link StatisticTrigger}
+ */
+class StatisticTriggerTest {
+    private static final KnxStatistic EMPTY_STATISTIC = mock(KnxStatistic.class);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Trigger fires when packet rate crosses threshold, with debouncing")
+    void packetRate() {
+        final var trigger = new StatisticTrigger(10d, 0d, 5000);
+        assertThat(trigger.isEnabled()).isTrue();
+
+        // first snapshot is the baseline
+        assertThat(trigger.check(snapshot(0, 0, 0))).isFalse();
+        // 5 packets/s: below
+        assertThat(trigger.check(snapshot(1, 5, 0))).isFalse();
+        // 20 packets/s: above
+        assertThat(trigger.check(snapshot(2, 25, 0))).isTrue();
+        // still above
+        assertThat(trigger.check(snapshot(3, 45, 0))).isFalse();
+        // back below, but within debounce time: pending
+        assertThat(trigger.check(snapshot(4, 45, 0))).isFalse();
+        assertThat(trigger.check(snapshot(5, 45, 0))).isFalse();
+        // pending crossing fires after debounce time
+        assertThat(trigger.check(snapshot(7, 45, 0))).isTrue();
+        assertThat(trigger.check(snapshot(8, 45, 0))).isFalse();
+        // above again, within debounce time: pending
+        assertThat(trigger.check(snapshot(9, 100, 0))).isFalse();
+        assertThat(trigger.check(snapshot(12, 250, 0))).isTrue();
+        assertThat(trigger.check(snapshot(13, 400, 0))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Trigger fires when error rate crosses threshold")
+    void errorRate() {
+        final var trigger = new StatisticTrigger(0d, 10d, 1000);
+        assertThat(trigger.check(snapshot(0, 0, 0))).isFalse();
+        // 1 error of 100: 1%
+        assertThat(trigger.check(snapshot(1, 99, 1))).isFalse();
+        // 20 errors of 100: 20%
+        assertThat(trigger.check(snapshot(2, 179, 21))).isTrue();
+        // no traffic: 0% (back below)
+        assertThat(trigger.check(snapshot(3, 179, 21))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Trigger without thresholds")
+    void disabled() {
+        final var trigger = new StatisticTrigger(0d, 0d, 1000);
+        assertThat(trigger.isEnabled()).isFalse();
+        assertThat(trigger.check(snapshot(0, 0, 0))).isFalse();
+        assertThat(trigger.check(snapshot(1, 1000, 1000))).isFalse();
+
+        assertThatThrownBy(() -> new StatisticTrigger(-1d, 0d, 1000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new StatisticTrigger(0d, -1d, 1000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new StatisticTrigger(0d, 0d, -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static StatisticSnapshot snapshot(final long seconds, final long inboundPackets, final long errors) {
+        final var counters = new long[StatisticSnapshot.NUMBER_OF_COUNTERS];
+        counters[StatisticSnapshot.INBOUND_PACKETS] = inboundPackets;
+        counters[StatisticSnapshot.ERRORS] = errors;
+        return StatisticSnapshot.of(EMPTY_STATISTIC, seconds * SECOND).plus(counters);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2021 Pitschmann Christoph
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package li.pitschmann.knx.core.plugin.statistic;
+
+import li.pitschmann.knx.core.address.GroupAddress;
+import li.pitschmann.knx.core.address.IndividualAddress;
+import li.pitschmann.knx.core.body.TunnelingRequestBody;
+import li.pitschmann.knx.core.cemi.CEMI;
+import li.pitschmann.knx.core.communication.KnxClient;
+import li.pitschmann.knx.core.config.Config;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test {@link TrafficStatisticPlugin}
+ */
+class TrafficStatisticPluginTest {
+
+    @Test
+    @DisplayName("JSON: Test Traffic Statistic")
+    void trafficJson() throws IOException {
+        final var path = Paths.get("target/test-TrafficStatisticPluginTest-trafficJson-" + UUID.randomUUID() + ".log");
+        final var plugin = new TrafficStatisticPlugin();
+        plugin.onInitialization(mockKnxClient(path, FileStatisticFormat.JSON));
+        plugin.onStart();
+
+        // 3 telegrams to 1/2/3 and 1 telegram to 4/5/6
+        final var bodyMock = createTunnelingRequestBodyMock(GroupAddress.of(1, 2, 3));
+        plugin.onIncomingBody(bodyMock);
+        plugin.onIncomingBody(bodyMock);
+        plugin.onOutgoingBody(bodyMock);
+        plugin.onIncomingBody(createTunnelingRequestBodyMock(GroupAddress.of(4, 5, 6)));
+        assertThat(plugin.getCounter().getTotalGroupTelegrams()).isEqualTo(4);
+
+        plugin.onShutdown();
+
+        final var lines = Files.readAllLines(path);
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).matches("\\{\"datetime\":\"[^\"]+\",\\Q\"type\":\"group\",\"rank\":1,\"address\":\"1/2/3\",\"telegrams\":3,\"bytes\":30,\"share\":75.00}\\E");
+        assertThat(lines.get(1)).matches("\\{\"datetime\":\"[^\"]+\",\\Q\"type\":\"group\",\"rank\":2,\"address\":\"4/5/6\",\"telegrams\":1,\"bytes\":10,\"share\":25.00}\\E");
+        assertThat(lines.get(2)).matches("\\{\"datetime\":\"[^\"]+\",\\Q\"type\":\"source\",\"rank\":1,\"address\":\"1.1.1\",\"telegrams\":4,\"bytes\":40,\"share\":100.00}\\E");
+    }
+
+    @Test
+    @DisplayName("TSV: Test Traffic Statistic")
+    void trafficTsv() throws IOException {
+        final var path = Paths.get("target/test-TrafficStatisticPluginTest-trafficTsv-" + UUID.randomUUID() + ".log");
+        final var plugin = new TrafficStatisticPlugin();
+        plugin.onInitialization(mockKnxClient(path, FileStatisticFormat.TSV));
+        plugin.onIncomingBody(createTunnelingRequestBodyMock(GroupAddress.of(1, 2, 3)));
+        plugin.onShutdown();
+
+        final var lines = Files.readAllLines(path);
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).isEqualTo("Date & Time\tType\tRank\tAddress\tTelegrams\tBytes\tShare (%)");
+        assertThat(lines.get(1)).endsWith("\tgroup\t1\t1/2/3\t1\t10\t100.00");
+        assertThat(lines.get(2)).endsWith("\tsource\t1\t1.1.1\t1\t10\t100.00");
+    }
+
+    private TunnelingRequestBody createTunnelingRequestBodyMock(final GroupAddress groupAddress) {
+        final var cemi = mock(CEMI.class);
+        when(cemi.getSourceAddress()).thenReturn(IndividualAddress.of(1, 1, 1));
+        when(cemi.getDestinationAddress()).thenReturn(groupAddress);
+        when(cemi.toByteArray()).thenReturn(new byte[10]);
+
+        final var body = mock(TunnelingRequestBody.class);
+        when(body.getCEMI()).thenReturn(cemi);
+        return body;
+    }
+
+    private KnxClient mockKnxClient(final Path path, final FileStatisticFormat format) {
+        final var knxClientMock = mock(KnxClient.class);
+        final var configMock = mock(Config.class);
+
+        when(knxClientMock.getConfig()).thenReturn(configMock);
+        when(knxClientMock.getConfig(any())).thenCallRealMethod();
+
+        when(configMock.getValue(eq(TrafficStatisticPlugin.PATH))).thenReturn(path);
+        when(configMock.getValue(eq(TrafficStatisticPlugin.FORMAT))).thenReturn(format);
+        when(configMock.getValue(eq(TrafficStatisticPlugin.INTERVAL_MS))).thenReturn(Long.MAX_VALUE);
+        when(configMock.getValue(eq(TrafficStatisticPlugin.TOP_K))).thenReturn(10);
+        return knxClientMock;
+    }
+}